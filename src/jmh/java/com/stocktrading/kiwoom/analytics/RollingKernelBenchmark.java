@@ -0,0 +1,219 @@
+package com.stocktrading.kiwoom.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 이동평균/비중 계산 벤치마크
+ *
+ * 기존 BigDecimal 리스트 방식과 스칼라/SIMD 커널을 비교한다.
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RollingKernelBenchmark {
+
+    private static final int[] MA_PERIODS = {5, 10, 20, 30, 40, 50, 60, 90, 120, 140};
+
+    // 투자자 컬럼 수
+    private static final int COLUMNS = 14;
+
+    @Param({"250", "1000", "5000"})
+    private int days;
+
+    private long[][] columns;
+    private long[] prices;
+    private List<List<BigDecimal>> boxedColumns;
+
+    private final ScalarRollingKernel scalar = new ScalarRollingKernel();
+    private final RollingKernel vector = RollingKernels.isVectorized() ? RollingKernels.get() : scalar;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        columns = new long[COLUMNS][days];
+        prices = new long[days];
+        boxedColumns = new ArrayList<>(COLUMNS);
+        for (int c = 0; c < COLUMNS; c++) {
+            List<BigDecimal> boxed = new ArrayList<>(days);
+            for (int i = 0; i < days; i++) {
+                columns[c][i] = random.nextLong(-5_000_000L, 5_000_000L);
+                boxed.add(BigDecimal.valueOf(columns[c][i]));
+            }
+            boxedColumns.add(boxed);
+        }
+        for (int i = 0; i < days; i++) {
+            prices[i] = random.nextLong(1_000L, 1_000_000L);
+        }
+    }
+
+    /**
+     * 기존 방식: 날짜마다 BigDecimal 구간 합계 재계산
+     */
+    @Benchmark
+    public void movingAverageBigDecimal(Blackhole bh) {
+        for (List<BigDecimal> column : boxedColumns) {
+            for (int period : MA_PERIODS) {
+                for (int i = period - 1; i < column.size(); i++) {
+                    BigDecimal sum = column.subList(i + 1 - period, i + 1).stream()
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                    bh.consume(sum.divide(BigDecimal.valueOf(period), 2, RoundingMode.HALF_UP));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void movingAverageScalar(Blackhole bh) {
+        movingAverages(scalar, bh);
+    }
+
+    @Benchmark
+    public void movingAverageVector(Blackhole bh) {
+        movingAverages(vector, bh);
+    }
+
+    /**
+     * 기존 방식: Σ|curPrc × 순매수량| BigDecimal 누적
+     */
+    @Benchmark
+    public void ratioBigDecimal(Blackhole bh) {
+        for (long[] column : columns) {
+            BigDecimal sum = BigDecimal.ZERO;
+            for (int i = 0; i < days; i++) {
+                sum = sum.add(BigDecimal.valueOf(prices[i]).multiply(BigDecimal.valueOf(column[i])).abs());
+            }
+            bh.consume(sum);
+        }
+    }
+
+    @Benchmark
+    public void ratioScalar(Blackhole bh) {
+        for (long[] column : columns) {
+            bh.consume(scalar.sumAbsProducts(prices, column, 0, days));
+        }
+    }
+
+    @Benchmark
+    public void ratioVector(Blackhole bh) {
+        for (long[] column : columns) {
+            bh.consume(vector.sumAbsProducts(prices, column, 0, days));
+        }
+    }
+
+    @Benchmark
+    public void windowSumScalar(Blackhole bh) {
+        windowSums(scalar, bh);
+    }
+
+    @Benchmark
+    public void windowSumVector(Blackhole bh) {
+        windowSums(vector, bh);
+    }
+
+    /**
+     * 기존 방식: 날짜마다 구간을 두 번 순회하는 표본 표준편차
+     */
+    @Benchmark
+    public void rollingStdNaive(Blackhole bh) {
+        for (long[] column : columns) {
+            for (int period : MA_PERIODS) {
+                for (int i = period - 1; i < days; i++) {
+                    double mean = 0;
+                    for (int k = i + 1 - period; k <= i; k++) {
+                        mean += column[k];
+                    }
+                    mean /= period;
+                    double squares = 0;
+                    for (int k = i + 1 - period; k <= i; k++) {
+                        double d = column[k] - mean;
+                        squares += d * d;
+                    }
+                    bh.consume(Math.sqrt(squares / (period - 1)));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void rollingStdScalar(Blackhole bh) {
+        rollingStds(scalar, bh);
+    }
+
+    @Benchmark
+    public void rollingStdVector(Blackhole bh) {
+        rollingStds(vector, bh);
+    }
+
+    @Benchmark
+    public void rollingRatioScalar(Blackhole bh) {
+        rollingRatios(scalar, bh);
+    }
+
+    @Benchmark
+    public void rollingRatioVector(Blackhole bh) {
+        rollingRatios(vector, bh);
+    }
+
+    private void windowSums(RollingKernel kernel, Blackhole bh) {
+        long[] prefix = new long[days + 1];
+        long[] out = new long[days];
+        for (long[] column : columns) {
+            kernel.prefixSums(column, prefix);
+            for (int period : MA_PERIODS) {
+                kernel.windowSums(prefix, period, out);
+                bh.consume(out);
+            }
+        }
+    }
+
+    private void rollingStds(RollingKernel kernel, Blackhole bh) {
+        double[] out = new double[days];
+        for (long[] column : columns) {
+            for (int period : MA_PERIODS) {
+                kernel.rollingStd(column, period, out);
+                bh.consume(out);
+            }
+        }
+    }
+
+    /**
+     * 투자자 컬럼 / 첫 컬럼 이동비율
+     */
+    private void rollingRatios(RollingKernel kernel, Blackhole bh) {
+        long[] denominatorPrefix = new long[days + 1];
+        long[] numeratorPrefix = new long[days + 1];
+        double[] out = new double[days];
+        kernel.prefixSums(columns[0], denominatorPrefix);
+        for (int c = 1; c < COLUMNS; c++) {
+            kernel.prefixSums(columns[c], numeratorPrefix);
+            for (int period : MA_PERIODS) {
+                kernel.rollingRatio(numeratorPrefix, denominatorPrefix, period, out);
+                bh.consume(out);
+            }
+        }
+    }
+
+    private void movingAverages(RollingKernel kernel, Blackhole bh) {
+        long[] prefix = new long[days + 1];
+        double[] out = new double[days];
+        for (long[] column : columns) {
+            kernel.prefixSums(column, prefix);
+            for (int period : MA_PERIODS) {
+                kernel.windowAverages(prefix, period, out);
+                bh.consume(out);
+            }
+        }
+    }
+}
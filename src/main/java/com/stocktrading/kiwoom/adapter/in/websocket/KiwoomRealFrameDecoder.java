@@ -0,0 +1,390 @@
+package com.stocktrading.kiwoom.adapter.in.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * 키움 실시간(REAL) 프레임 디코더
+ *
+ * WebSocket 수신 버퍼를 바이트 단위로 읽어 재사용 {@link RealTimeTick} 에 채우고 콜백한다.
+ * 중간 String/Map 을 만들지 않으며, 처음 보는 종목코드 등록 외에는 프레임당 할당이 없다.
+ *
+ * 프레임 예 (키 순서는 고정이 아니므로 순서와 무관하게 처리):
+ * <pre>
+ * {"trnm":"REAL","data":[{"type":"0B","name":"주식체결","item":"005930",
+ *   "values":{"20":"093001","10":"+71000","11":"+500","12":"+0.71","15":"+120","13":"1234567","27":"+71100","28":"+71000"}}]}
+ * </pre>
+ * data 배열의 원소마다 콜백 1회. trnm 이 REAL 이 아닌 프레임(PING, LOGIN, REG 응답 등)은 {@link #NOT_REAL} 반환.
+ */
+@Component
+@RequiredArgsConstructor
+public class KiwoomRealFrameDecoder {
+
+    public static final int NOT_REAL = -1;
+
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final byte[] TRNM = ascii("trnm");
+    private static final byte[] DATA = ascii("data");
+    private static final byte[] REAL = ascii("REAL");
+    private static final byte[] ITEM = ascii("item");
+    private static final byte[] TYPE = ascii("type");
+    private static final byte[] VALUES = ascii("values");
+
+    private static final int FID_PRICE = 10;
+    private static final int FID_CHANGE = 11;
+    private static final int FID_ACC_VOLUME = 13;
+    private static final int FID_VOLUME = 15;
+    private static final int FID_TIME = 20;
+    private static final int FID_BEST_ASK = 27;
+    private static final int FID_BEST_BID = 28;
+
+    /**
+     * 틱 콜백 (tick 은 콜백 안에서만 유효)
+     */
+    @FunctionalInterface
+    public interface TickHandler {
+        void onTick(RealTimeTick tick);
+    }
+
+    private final StockCodeInterner stockCodeInterner;
+
+    // KST 당일 시작 (하루 한 번 교체)
+    private volatile TradingDay tradingDay = TradingDay.of(System.currentTimeMillis());
+
+    /**
+     * 프레임 디코딩 (버퍼 읽기 위치는 변경하지 않음)
+     *
+     * @return 콜백한 틱 수, REAL 프레임이 아니면 {@link #NOT_REAL}
+     * @throws IllegalArgumentException JSON 구조가 잘못된 경우
+     */
+    public int decode(DataBuffer buffer, RealTimeTick tick, TickHandler handler) {
+        int end = buffer.writePosition();
+        int i = expect(buffer, skipWhitespace(buffer, buffer.readPosition(), end), end, '{');
+
+        boolean real = false;
+        int dataStart = -1;
+        while (true) {
+            i = skipWhitespace(buffer, i, end);
+            if (peek(buffer, i, end) == '}') {
+                break;
+            }
+            int keyStart = i + 1;
+            int keyEnd = skipString(buffer, i, end) - 1;
+            i = skipWhitespace(buffer, expect(buffer, skipWhitespace(buffer, keyEnd + 1, end), end, ':'), end);
+
+            if (keyEquals(buffer, keyStart, keyEnd, TRNM)) {
+                real = peek(buffer, i, end) == '"' && keyEquals(buffer, i + 1, skipString(buffer, i, end) - 1, REAL);
+            } else if (keyEquals(buffer, keyStart, keyEnd, DATA)) {
+                dataStart = i;
+            }
+            i = skipSeparator(buffer, skipValue(buffer, i, end), end, '}');
+        }
+
+        if (!real) {
+            return NOT_REAL;
+        }
+        return dataStart < 0 ? 0 : decodeData(buffer, dataStart, end, tick, handler);
+    }
+
+    /**
+     * data 배열: 원소(객체)마다 틱 1건
+     */
+    private int decodeData(DataBuffer buffer, int start, int end, RealTimeTick tick, TickHandler handler) {
+        if (peek(buffer, start, end) != '[') {
+            return 0;
+        }
+        long dayStartNanos = currentDay().startNanos;
+        int count = 0;
+        int i = start + 1;
+        while (true) {
+            i = skipWhitespace(buffer, i, end);
+            if (peek(buffer, i, end) == ']') {
+                return count;
+            }
+            if (peek(buffer, i, end) == '{') {
+                i = decodeItem(buffer, i, end, tick, dayStartNanos);
+                if (tick.getStockId() >= 0) {
+                    handler.onTick(tick);
+                    count++;
+                }
+            } else {
+                i = skipValue(buffer, i, end);
+            }
+            i = skipSeparator(buffer, i, end, ']');
+        }
+    }
+
+    /**
+     * data 원소 객체 (item, type, values 외 키는 건너뜀)
+     *
+     * @return 객체 다음 위치
+     */
+    private int decodeItem(DataBuffer buffer, int start, int end, RealTimeTick tick, long dayStartNanos) {
+        tick.reset(System.currentTimeMillis() * 1_000_000L);
+        int i = start + 1;
+        while (true) {
+            i = skipWhitespace(buffer, i, end);
+            if (peek(buffer, i, end) == '}') {
+                return i + 1;
+            }
+            int keyStart = i + 1;
+            int keyEnd = skipString(buffer, i, end) - 1;
+            i = skipWhitespace(buffer, expect(buffer, skipWhitespace(buffer, keyEnd + 1, end), end, ':'), end);
+
+            if (keyEquals(buffer, keyStart, keyEnd, ITEM) && peek(buffer, i, end) == '"') {
+                int valueEnd = skipString(buffer, i, end) - 1;
+                tick.stockId(stockCodeInterner.intern(buffer, i + 1, valueEnd - i - 1));
+                i = valueEnd + 1;
+            } else if (keyEquals(buffer, keyStart, keyEnd, TYPE) && peek(buffer, i, end) == '"') {
+                int valueEnd = skipString(buffer, i, end) - 1;
+                if (valueEnd - i - 1 >= 2) {
+                    tick.type((buffer.getByte(i + 1) & 0xff) << 8 | (buffer.getByte(i + 2) & 0xff));
+                }
+                i = valueEnd + 1;
+            } else if (keyEquals(buffer, keyStart, keyEnd, VALUES) && peek(buffer, i, end) == '{') {
+                i = decodeValues(buffer, i, end, tick, dayStartNanos);
+            } else {
+                i = skipValue(buffer, i, end);
+            }
+            i = skipSeparator(buffer, i, end, '}');
+        }
+    }
+
+    /**
+     * values 객체: "FID":"값" 쌍 중 필요한 FID 만 숫자로 읽음
+     */
+    private static int decodeValues(DataBuffer buffer, int start, int end, RealTimeTick tick, long dayStartNanos) {
+        int i = start + 1;
+        while (true) {
+            i = skipWhitespace(buffer, i, end);
+            if (peek(buffer, i, end) == '}') {
+                return i + 1;
+            }
+            int keyStart = i + 1;
+            int keyEnd = skipString(buffer, i, end) - 1;
+            int fid = parseFid(buffer, keyStart, keyEnd);
+            i = skipWhitespace(buffer, expect(buffer, skipWhitespace(buffer, keyEnd + 1, end), end, ':'), end);
+
+            if (peek(buffer, i, end) != '"') {
+                i = skipValue(buffer, i, end);
+            } else {
+                int valueEnd = skipString(buffer, i, end) - 1;
+                switch (fid) {
+                    case FID_PRICE -> tick.price(parseLong(buffer, i + 1, valueEnd));
+                    case FID_CHANGE -> tick.change(parseLong(buffer, i + 1, valueEnd));
+                    case FID_ACC_VOLUME -> tick.accVolume(parseLong(buffer, i + 1, valueEnd));
+                    case FID_VOLUME -> tick.volume(parseLong(buffer, i + 1, valueEnd));
+                    case FID_BEST_ASK -> tick.bestAsk(parseLong(buffer, i + 1, valueEnd));
+                    case FID_BEST_BID -> tick.bestBid(parseLong(buffer, i + 1, valueEnd));
+                    case FID_TIME -> {
+                        long hhmmss = parseLong(buffer, i + 1, valueEnd);
+                        if (valueEnd - i - 1 == 6) {
+                            long seconds = hhmmss / 10000 * 3600 + hhmmss / 100 % 100 * 60 + hhmmss % 100;
+                            tick.timestampNanos(dayStartNanos + seconds * NANOS_PER_SECOND);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+                i = valueEnd + 1;
+            }
+            i = skipSeparator(buffer, i, end, '}');
+        }
+    }
+
+    private TradingDay currentDay() {
+        long now = System.currentTimeMillis();
+        TradingDay day = tradingDay;
+        if (now >= day.endMillis) {
+            day = TradingDay.of(now);
+            tradingDay = day;
+        }
+        return day;
+    }
+
+    // ============================================
+    // 바이트 스캐너
+    // ============================================
+
+    /**
+     * 부호(+/-) 있는 정수 (소수점 이하 버림, 빈 값은 0)
+     */
+    private static long parseLong(DataBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end) {
+            byte sign = buffer.getByte(i);
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                i++;
+            }
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            byte b = buffer.getByte(i);
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * 숫자 키 (숫자가 아니면 -1)
+     */
+    private static int parseFid(DataBuffer buffer, int start, int end) {
+        if (start >= end || end - start > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.getByte(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static boolean keyEquals(DataBuffer buffer, int start, int end, byte[] key) {
+        if (end - start != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.getByte(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 값 하나 건너뛰기 (문자열, 객체, 배열, 숫자, true/false/null)
+     */
+    private static int skipValue(DataBuffer buffer, int start, int end) {
+        byte b = peek(buffer, start, end);
+        if (b == '"') {
+            return skipString(buffer, start, end);
+        }
+        if (b == '{' || b == '[') {
+            int depth = 0;
+            int i = start;
+            while (i < end) {
+                byte c = buffer.getByte(i);
+                if (c == '"') {
+                    i = skipString(buffer, i, end);
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return i + 1;
+                    }
+                }
+                i++;
+            }
+            throw malformed(end);
+        }
+        int i = start;
+        while (i < end) {
+            byte c = buffer.getByte(i);
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 문자열 건너뛰기 (start 는 여는 따옴표, 반환은 닫는 따옴표 다음 위치)
+     */
+    private static int skipString(DataBuffer buffer, int start, int end) {
+        if (peek(buffer, start, end) != '"') {
+            throw malformed(start);
+        }
+        for (int i = start + 1; i < end; i++) {
+            byte b = buffer.getByte(i);
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                return i + 1;
+            }
+        }
+        throw malformed(end);
+    }
+
+    /**
+     * 멤버/원소 사이 ',' 건너뛰기 (닫는 괄호면 그대로 둠)
+     */
+    private static int skipSeparator(DataBuffer buffer, int start, int end, char close) {
+        int i = skipWhitespace(buffer, start, end);
+        byte b = peek(buffer, i, end);
+        if (b == ',') {
+            return i + 1;
+        }
+        if (b == close) {
+            return i;
+        }
+        throw malformed(i);
+    }
+
+    private static int skipWhitespace(DataBuffer buffer, int start, int end) {
+        int i = start;
+        while (i < end) {
+            byte b = buffer.getByte(i);
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int expect(DataBuffer buffer, int index, int end, char expected) {
+        if (peek(buffer, index, end) != expected) {
+            throw malformed(index);
+        }
+        return index + 1;
+    }
+
+    private static byte peek(DataBuffer buffer, int index, int end) {
+        if (index >= end) {
+            throw malformed(index);
+        }
+        return buffer.getByte(index);
+    }
+
+    private static IllegalArgumentException malformed(int index) {
+        return new IllegalArgumentException("잘못된 실시간 프레임 (위치 " + index + ")");
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * KST 당일 시작 시각 (epoch nanos) 과 다음 날 시작 (epoch millis)
+     */
+    private record TradingDay(long startNanos, long endMillis) {
+
+        static TradingDay of(long nowMillis) {
+            LocalDate today = Instant.ofEpochMilli(nowMillis).atZone(KST).toLocalDate();
+            long start = today.atStartOfDay(KST).toInstant().toEpochMilli();
+            long next = today.plusDays(1).atStartOfDay(KST).toInstant().toEpochMilli();
+            return new TradingDay(start * 1_000_000L, next);
+        }
+    }
+}
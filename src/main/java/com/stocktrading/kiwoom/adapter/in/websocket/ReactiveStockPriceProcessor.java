@@ -1,77 +1,112 @@
 package com.stocktrading.kiwoom.adapter.in.websocket;
 
-import com.stocktrading.kiwoom.domain.port.out.CachePort;
+import com.stocktrading.kiwoom.domain.model.RealTimePriceBatch;
+import com.stocktrading.kiwoom.domain.port.out.RealTimePricePort;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import reactor.core.publisher.Mono;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
-import java.util.Map;
 
 /**
- * 실시간 주가 데이터 Reactive 처리 파이프라인
+ * 실시간 주가 데이터 처리 파이프라인
+ *
+ * 디코더 콜백에서는 체결을 primitive 묶음에 쌓기만 하고 (할당/IO 없음),
+ * 전용 스레드가 realtime.flush-ms 마다 묶음을 교체하여 Redis 파이프라인 한 번으로 기록한다.
+ * (Redis 왕복 수는 체결 수가 아니라 flush 주기에 비례)
+ *
+ * 1. Redis 현재가 캐시 (TTL: 5초, 종목별 마지막 체결만)
+ * 2. Redis Pub/Sub으로 이벤트 발행 (체결마다)
+ * 3. 배치 집계 큐에 추가 (체결마다, 해시 저장 1회)
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ReactiveStockPriceProcessor {
 
-    private final CachePort cachePort;
+    private final RealTimePricePort realTimePricePort;
+    private final StockCodeInterner stockCodeInterner;
 
-    /**
-     * 실시간 주가 데이터 처리 파이프라인
-     *
-     * 1. Redis에 즉시 캐싱 (TTL: 5초)
-     * 2. Redis Pub/Sub으로 이벤트 발행
-     * 3. 배치 집계 큐에 추가
-     */
-    public Mono<Void> process(Map<String, Object> priceData) {
-        String stockCode = (String) priceData.get("stock_code");
-        log.debug("실시간 주가 처리 시작 - 종목: {}", stockCode);
+    @Value("${realtime.flush-ms:100}")
+    private long flushMs;
 
-        return Mono.just(priceData)
-                .flatMap(this::cacheRealTimePrice)
-                .flatMap(this::publishPriceEvent)
-                .flatMap(this::addToBatchQueue)
-                .doOnSuccess(v -> log.debug("실시간 주가 처리 완료 - 종목: {}", stockCode))
-                .doOnError(error -> log.error("실시간 주가 처리 실패 - 종목: {}, 오류: {}",
-                        stockCode, error.getMessage()));
-    }
+    @Value("${realtime.price-ttl-seconds:5}")
+    private long priceTtlSeconds;
 
-    /**
-     * 1단계: Redis 캐싱 (실시간 조회용)
-     */
-    private Mono<Map<String, Object>> cacheRealTimePrice(Map<String, Object> priceData) {
-        String stockCode = (String) priceData.get("stock_code");
-        String cacheKey = "realtime:price:" + stockCode;
+    // flush 주기당 최대 체결 수 (초과분은 현재가 캐시만 갱신)
+    @Value("${realtime.max-batch-ticks:50000}")
+    private int maxBatchTicks;
+
+    private final Object lock = new Object();
 
-        return cachePort.set(cacheKey, priceData, Duration.ofSeconds(5))
-                .thenReturn(priceData);
+    // 기록 중 묶음과 전송 후 비운 묶음 (lock 으로 교체)
+    private RealTimePriceBatch active;
+    private RealTimePriceBatch spare;
+
+    private Scheduler writerScheduler;
+    private Disposable flusher;
+
+    @PostConstruct
+    public void start() {
+        active = new RealTimePriceBatch(maxBatchTicks);
+        spare = new RealTimePriceBatch(maxBatchTicks);
+        writerScheduler = Schedulers.newSingle("realtime-redis-writer");
+        flusher = Flux.interval(Duration.ofMillis(flushMs), writerScheduler)
+                .onBackpressureDrop()
+                .subscribe(t -> flush());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        flush();
+        if (writerScheduler != null) {
+            writerScheduler.dispose();
+        }
     }
 
     /**
-     * 2단계: Redis Pub/Sub 이벤트 발행
+     * 디코더 콜백 (tick 은 재사용 객체이므로 값만 복사)
      */
-    private Mono<Map<String, Object>> publishPriceEvent(Map<String, Object> priceData) {
-        String stockCode = (String) priceData.get("stock_code");
-        String channel = "stock:price:" + stockCode;
-
-        String message = String.format("{\"stock_code\":\"%s\",\"price\":%s,\"timestamp\":%s}",
-                stockCode, priceData.get("price"), priceData.get("timestamp"));
-
-        return cachePort.publish(channel, message)
-                .thenReturn(priceData);
+    public void process(RealTimeTick tick) {
+        String stockCode = stockCodeInterner.code(tick.getStockId());
+        synchronized (lock) {
+            active.add(tick.getStockId(), stockCode, tick.getPrice(), tick.getVolume(), tick.timestampMillis());
+        }
     }
 
     /**
-     * 3단계: 배치 집계 큐에 추가
+     * 묶음 교체 후 Redis 기록 (실패한 묶음은 버림, 현재가는 다음 체결로 다시 채워짐)
      */
-    private Mono<Void> addToBatchQueue(Map<String, Object> priceData) {
-        String stockCode = (String) priceData.get("stock_code");
-        String queueKey = "batch:queue:price";
-        String field = stockCode + ":" + System.currentTimeMillis();
+    synchronized void flush() {
+        RealTimePriceBatch batch;
+        synchronized (lock) {
+            if (active.isEmpty()) {
+                return;
+            }
+            batch = active;
+            active = spare;
+            spare = batch;
+        }
 
-        return cachePort.hSet(queueKey, field, priceData);
+        try {
+            if (batch.dropped() > 0) {
+                log.warn("실시간 체결 묶음 한도 초과 - {}건 이력 제외 (현재가 캐시는 갱신)", batch.dropped());
+            }
+            realTimePricePort.write(batch, Duration.ofSeconds(priceTtlSeconds));
+        } catch (Exception e) {
+            log.error("실시간 주가 처리 실패 - 체결 {}건, 오류: {}", batch.size(), e.getMessage());
+        } finally {
+            batch.clear();
+        }
     }
 }
@@ -1,84 +1,423 @@
 package com.stocktrading.kiwoom.adapter.in.websocket;
 
-import com.stocktrading.kiwoom.domain.port.out.CachePort;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stocktrading.kiwoom.service.OAuthTokenService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
 import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.net.URI;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 실시간 주가 WebSocket 핸들러
  * 키움 WebSocket으로부터 실시간 데이터를 수신하고 처리
+ *
+ * 구독 대상({@link RealTimeSubscriptionRegistry#desired()})을 주기적으로 현재 등록 상태와 비교하여
+ * 추가분은 REG, 제거분은 REMOVE 로 보낸다. (메시지당 realtime.max-items-per-message 개씩 분할)
+ * 세션 1개당 realtime.max-items-per-session 개를 넘으면 새 세션(샤드)을 열어 나눠 등록한다.
+ * 세션이 끊기면 지수 백오프(+지터)로 다시 연결하고, LOGIN 성공 후 샤드의 전 종목을 다시 등록한다.
+ * realtime.idle-timeout-seconds 동안 아무 프레임(PING 포함)도 없으면 끊긴 연결로 보고 다시 연결한다.
+ * 동기화는 배치 작업과 스케줄러 스레드를 나눠 쓰지 않도록 전용 스레드에서 실행한다.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class RealTimeStockPriceHandler {
 
-    private final CachePort cachePort;
     private final ReactiveStockPriceProcessor processor;
+    private final KiwoomRealFrameDecoder decoder;
+    private final RealTimeSubscriptionRegistry subscriptionRegistry;
+    private final OAuthTokenService oAuthTokenService;
+    private final ObjectMapper objectMapper;
 
-    private Flux<Map<String, Object>> latestDataFlux;
+    @Value("${realtime.enabled:false}")
+    private boolean enabled;
+
+    @Value("${realtime.websocket-url:wss://api.kiwoom.com:10000/api/dostk/websocket}")
+    private String websocketUrl;
+
+    // 실시간 항목 유형 (0B: 주식체결)
+    @Value("${realtime.types:0B}")
+    private List<String> types;
+
+    @Value("${realtime.max-items-per-message:100}")
+    private int maxItemsPerMessage;
+
+    @Value("${realtime.max-items-per-session:100}")
+    private int maxItemsPerSession;
+
+    @Value("${realtime.max-sessions:5}")
+    private int maxSessions;
+
+    @Value("${realtime.reconnect.initial-ms:1000}")
+    private long reconnectInitialMs;
+
+    @Value("${realtime.reconnect.max-ms:60000}")
+    private long reconnectMaxMs;
+
+    @Value("${realtime.sync-ms:1000}")
+    private long syncMs;
+
+    // 서버 PING 주기보다 충분히 길게
+    @Value("${realtime.idle-timeout-seconds:120}")
+    private long idleTimeoutSeconds;
+
+    private final ReactorNettyWebSocketClient client = new ReactorNettyWebSocketClient();
+
+    // 아래 상태는 this 로 동기화
+    private final List<Shard> shards = new ArrayList<>();
+    private final Map<String, Shard> assignment = new HashMap<>();
+    private int lastSkipped;
+    private volatile boolean running;
+
+    private Scheduler syncScheduler;
+    private Disposable syncTask;
 
     /**
-     * WebSocket 연결 및 실시간 데이터 스트림 시작
+     * 샤드별 상태
+     *
+     * @param stockCount 등록 대상 종목 수 (세션이 끊겨도 유지, 재연결 시 전부 재등록)
+     * @param failures 마지막 로그인 성공 이후 재연결 시도 횟수
      */
-    public Flux<Map<String, Object>> connectAndStream(String websocketUrl) {
-        ReactorNettyWebSocketClient client = new ReactorNettyWebSocketClient();
-
-        return Flux.create(sink -> {
-            client.execute(
-                    URI.create(websocketUrl),
-                    session -> handleWebSocketSession(session, sink::next)
-            ).subscribe();
+    public record ShardStatus(int index, boolean connected, boolean loggedIn, int stockCount, int failures) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("실시간 시세 비활성 (realtime.enabled=false)");
+            return;
+        }
+        running = true;
+        log.info("실시간 시세 시작 - {}, 세션당 최대 {}종목, 최대 {}세션", websocketUrl, maxItemsPerSession, maxSessions);
+        syncScheduler = Schedulers.newSingle("realtime-sync");
+        syncTask = Flux.interval(Duration.ZERO, Duration.ofMillis(syncMs), syncScheduler)
+                .onBackpressureDrop()
+                .subscribe(t -> {
+                    try {
+                        sync();
+                    } catch (Exception e) {
+                        log.error("실시간 구독 동기화 실패: {}", e.getMessage(), e);
+                    }
+                });
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (syncTask != null) {
+            syncTask.dispose();
+        }
+        if (syncScheduler != null) {
+            syncScheduler.dispose();
+        }
+        shards.forEach(shard -> {
+            if (shard.connection != null) {
+                shard.connection.dispose();
+            }
         });
     }
 
+    /**
+     * 구독 대상과 등록 상태 동기화 (realtime.sync-ms 주기)
+     */
+    public synchronized void sync() {
+        if (!running) {
+            return;
+        }
+        // 세션 한도를 넘는 종목은 우선순위가 낮은 쪽부터 제외 (등록되어 있으면 REMOVE 하여 자리 확보)
+        Set<String> requested = subscriptionRegistry.desired();
+        int limit = maxSessions * maxItemsPerSession;
+        Set<String> desired = new LinkedHashSet<>();
+        for (String code : requested) {
+            if (desired.size() >= limit) {
+                break;
+            }
+            desired.add(code);
+        }
+        int skipped = requested.size() - desired.size();
+
+        Map<Shard, List<String>> removed = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, Shard>> it = assignment.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Shard> entry = it.next();
+            if (!desired.contains(entry.getKey())) {
+                entry.getValue().stockCodes.remove(entry.getKey());
+                removed.computeIfAbsent(entry.getValue(), k -> new ArrayList<>()).add(entry.getKey());
+                it.remove();
+            }
+        }
+
+        Map<Shard, List<String>> added = new LinkedHashMap<>();
+        for (String code : desired) {
+            if (assignment.containsKey(code)) {
+                continue;
+            }
+            Shard shard = shardWithRoom();
+            if (shard == null) {
+                skipped++;
+                continue;
+            }
+            shard.stockCodes.add(code);
+            assignment.put(code, shard);
+            added.computeIfAbsent(shard, k -> new ArrayList<>()).add(code);
+        }
+        if (skipped != lastSkipped) {
+            if (skipped > 0) {
+                log.warn("실시간 세션 한도 초과로 {}종목 미등록 (세션 {} × {}종목)", skipped, maxSessions, maxItemsPerSession);
+            }
+            lastSkipped = skipped;
+        }
+
+        // 로그인 전 샤드는 로그인 직후 전체 등록하므로 여기서는 보내지 않음
+        removed.forEach((shard, codes) -> sendBatches(shard, "REMOVE", codes));
+        added.forEach((shard, codes) -> sendBatches(shard, "REG", codes));
+    }
+
+    public synchronized List<ShardStatus> status() {
+        return shards.stream()
+                .map(shard -> new ShardStatus(shard.index, shard.outbound != null, shard.loggedIn,
+                        shard.stockCodes.size(), shard.failures))
+                .toList();
+    }
+
+    private Shard shardWithRoom() {
+        for (Shard shard : shards) {
+            if (shard.stockCodes.size() < maxItemsPerSession) {
+                return shard;
+            }
+        }
+        if (shards.size() >= maxSessions) {
+            return null;
+        }
+        Shard shard = new Shard(shards.size());
+        shards.add(shard);
+        connect(shard);
+        return shard;
+    }
+
+    // ============================================
+    // 연결 / 재연결
+    // ============================================
+
+    private synchronized void connect(Shard shard) {
+        if (!running) {
+            return;
+        }
+        log.info("실시간 세션[{}] 연결 시도 (연속 실패 {}회)", shard.index, shard.failures);
+        shard.connection = Mono.defer(() -> client.execute(URI.create(websocketUrl),
+                        session -> handleWebSocketSession(session, shard)))
+                .doFinally(signal -> scheduleReconnect(shard))
+                .subscribe(
+                        v -> { },
+                        error -> log.warn("실시간 세션[{}] 종료: {}", shard.index, error.getMessage()));
+    }
+
+    private synchronized void scheduleReconnect(Shard shard) {
+        if (!running) {
+            return;
+        }
+        long backoff = Math.min(reconnectMaxMs, reconnectInitialMs << Math.min(shard.failures, 16));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        shard.failures++;
+        log.info("실시간 세션[{}] {}ms 후 재연결", shard.index, delay);
+        shard.connection = Mono.delay(Duration.ofMillis(delay))
+                .subscribe(t -> connect(shard));
+    }
+
     /**
      * WebSocket 세션 처리
+     *
+     * 수신 프레임은 payload 버퍼에서 바로 디코딩하고 (텍스트 변환 없음),
+     * 세션마다 틱 객체 1개를 재사용한다. (수신은 세션 내에서 순차 처리)
      */
-    private Mono<Void> handleWebSocketSession(WebSocketSession session, java.util.function.Consumer<Map<String, Object>> dataSink) {
-        log.info("WebSocket 연결 성공");
+    private Mono<Void> handleWebSocketSession(WebSocketSession session, Shard shard) {
+        log.info("실시간 세션[{}] WebSocket 연결 성공", shard.index);
+        Sinks.Many<String> outbound = Sinks.many().unicast().onBackpressureBuffer();
+        RealTimeTick tick = new RealTimeTick();
+
+        // 송신 메시지 (로그인, 구독 요청, PING 응답)
+        Mono<Void> send = session.send(outbound.asFlux().map(session::textMessage));
+
+        // 수신 메시지 처리 (끊기거나 유휴 시간 초과면 송신도 종료)
+        Mono<Void> receive = session.receive()
+                .timeout(Duration.ofSeconds(idleTimeoutSeconds))
+                .doOnNext(message -> onMessage(shard, message, tick))
+                .doOnError(TimeoutException.class, error ->
+                        log.warn("실시간 세션[{}] {}초간 수신 없음 - 재연결", shard.index, idleTimeoutSeconds))
+                .doOnError(error -> log.error("WebSocket 메시지 처리 오류: {}", error.getMessage()))
+                .doFinally(signal -> detach(shard, outbound))
+                .then();
 
-        // 수신 메시지 처리
-        Flux<Map<String, Object>> messageFlux = session.receive()
-                .map(WebSocketMessage::getPayloadAsText)
-                .doOnNext(message -> log.debug("실시간 데이터 수신: {}", message))
-                .flatMap(this::parseStockPriceMessage)
-                .flatMap(priceData -> processor.process(priceData).thenReturn(priceData))
-                .doOnNext(dataSink)
-                .doOnError(error -> log.error("WebSocket 메시지 처리 오류: {}", error.getMessage()));
+        return oAuthTokenService.getValidToken()
+                .doOnNext(token -> attach(shard, outbound, token))
+                .then(Mono.when(send, receive));
+    }
 
-        // 송신 메시지 (구독 요청 등)
-        Mono<Void> sendSubscription = session.send(
-                Flux.just(session.textMessage("{\"action\":\"subscribe\",\"stocks\":[\"005930\"]}"))
-        );
+    private synchronized void attach(Shard shard, Sinks.Many<String> outbound, String token) {
+        shard.outbound = outbound;
+        shard.loggedIn = false;
+        emit(shard, "{\"trnm\":\"LOGIN\",\"token\":\"" + token + "\"}");
+    }
 
-        return sendSubscription.thenMany(messageFlux).then();
+    private synchronized void detach(Shard shard, Sinks.Many<String> outbound) {
+        if (shard.outbound == outbound) {
+            shard.outbound = null;
+            shard.loggedIn = false;
+        }
+        outbound.tryEmitComplete();
     }
 
     /**
-     * 메시지 파싱
+     * 로그인 성공: 샤드의 전 종목 재등록
+     */
+    private synchronized void onLogin(Shard shard) {
+        shard.loggedIn = true;
+        shard.failures = 0;
+        log.info("실시간 세션[{}] 로그인 성공 - {}종목 등록", shard.index, shard.stockCodes.size());
+        sendBatches(shard, "REG", new ArrayList<>(shard.stockCodes));
+    }
+
+    // ============================================
+    // 수신
+    // ============================================
+
+    /**
+     * 실시간 프레임은 디코더로, 그 외(LOGIN/PING/REG 응답)는 JSON 으로 처리
+     * 프레임 하나의 처리 실패는 로그만 남기고 세션은 유지한다. (로그인 실패만 세션 종료)
      */
-    private Mono<Map<String, Object>> parseStockPriceMessage(String message) {
+    private void onMessage(Shard shard, WebSocketMessage message, RealTimeTick tick) {
+        int count;
         try {
-            // TODO: 실제 메시지 파싱 로직
-            return Mono.just(Map.of(
-                    "stock_code", "005930",
-                    "price", 50000,
-                    "timestamp", System.currentTimeMillis()
-            ));
+            count = decoder.decode(message.getPayload(), tick, processor::process);
+        } catch (IllegalArgumentException e) {
+            log.warn("메시지 파싱 실패: {}", e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            log.error("실시간 세션[{}] 프레임 처리 실패: {}", shard.index, e.getMessage(), e);
+            return;
+        }
+        if (count == KiwoomRealFrameDecoder.NOT_REAL) {
+            onControlMessage(shard, message.getPayloadAsText());
+        }
+    }
+
+    private void onControlMessage(Shard shard, String text) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(text);
         } catch (Exception e) {
-            log.error("메시지 파싱 실패: {}", e.getMessage());
-            return Mono.empty();
+            log.warn("실시간 세션[{}] 알 수 없는 메시지: {}", shard.index, text);
+            return;
+        }
+        String trnm = root.path("trnm").asText();
+        int returnCode = root.path("return_code").asInt(0);
+        switch (trnm) {
+            // 서버 PING 은 그대로 돌려보내야 연결 유지
+            case "PING" -> echo(shard, text);
+            case "LOGIN" -> {
+                if (returnCode != 0) {
+                    // 세션 오류로 종료시켜 백오프 후 재연결
+                    throw new IllegalStateException("실시간 로그인 실패: " + root.path("return_msg").asText());
+                }
+                onLogin(shard);
+            }
+            case "REG", "REMOVE" -> {
+                if (returnCode != 0) {
+                    log.warn("실시간 세션[{}] {} 실패: {}", shard.index, trnm, root.path("return_msg").asText());
+                }
+            }
+            default -> log.debug("실시간 세션[{}] 메시지 수신: {}", shard.index, text);
+        }
+    }
+
+    private synchronized void echo(Shard shard, String text) {
+        emit(shard, text);
+    }
+
+    // ============================================
+    // 송신
+    // ============================================
+
+    /**
+     * REG/REMOVE 를 메시지당 최대 개수로 나눠 전송 (로그인 전이면 생략)
+     */
+    private void sendBatches(Shard shard, String trnm, List<String> codes) {
+        if (!shard.loggedIn || codes.isEmpty()) {
+            return;
+        }
+        for (int from = 0; from < codes.size(); from += maxItemsPerMessage) {
+            List<String> batch = codes.subList(from, Math.min(codes.size(), from + maxItemsPerMessage));
+            emit(shard, subscriptionMessage(trnm, batch));
+        }
+        log.debug("실시간 세션[{}] {} {}종목", shard.index, trnm, codes.size());
+    }
+
+    /**
+     * {"trnm":"REG","grp_no":"1","refresh":"1","data":[{"item":[...],"type":["0B"]}]}
+     * (refresh=1: 기존 등록 유지하고 추가)
+     */
+    private String subscriptionMessage(String trnm, List<String> codes) {
+        StringBuilder message = new StringBuilder(64 + codes.size() * 9)
+                .append("{\"trnm\":\"").append(trnm).append("\",\"grp_no\":\"1\",\"refresh\":\"1\",\"data\":[{\"item\":[");
+        for (int i = 0; i < codes.size(); i++) {
+            message.append(i > 0 ? "," : "").append('"').append(codes.get(i)).append('"');
+        }
+        message.append("],\"type\":[");
+        for (int i = 0; i < types.size(); i++) {
+            message.append(i > 0 ? "," : "").append('"').append(types.get(i).trim()).append('"');
+        }
+        return message.append("]}]}").toString();
+    }
+
+    private void emit(Shard shard, String message) {
+        Sinks.Many<String> outbound = shard.outbound;
+        if (outbound != null) {
+            Sinks.EmitResult result = outbound.tryEmitNext(message);
+            if (result.isFailure()) {
+                log.warn("실시간 세션[{}] 전송 실패: {}", shard.index, result);
+            }
+        }
+    }
+
+    /**
+     * WebSocket 세션 1개와 등록 종목
+     */
+    private static final class Shard {
+
+        private final int index;
+        private final Set<String> stockCodes = new LinkedHashSet<>();
+        private volatile Sinks.Many<String> outbound;
+        private volatile boolean loggedIn;
+        private int failures;
+        private Disposable connection;
+
+        Shard(int index) {
+            this.index = index;
         }
     }
 }
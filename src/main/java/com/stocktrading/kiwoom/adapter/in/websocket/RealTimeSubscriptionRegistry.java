@@ -0,0 +1,141 @@
+package com.stocktrading.kiwoom.adapter.in.websocket;
+
+import com.stocktrading.kiwoom.service.StockMetaRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 실시간 구독 대상 종목 레지스트리
+ *
+ * 구독 대상 = 설정 관심종목(realtime.watchlist) + KOSPI200 (realtime.include-kospi200) + 화면별 임대(lease) 종목.
+ * 화면은 주기적으로 {@link #lease} 를 다시 호출해 임대를 연장하고, realtime.viewer-ttl-ms 동안 갱신이 없으면 만료된다.
+ * 실제 REG/REMOVE 전송은 {@link RealTimeStockPriceHandler} 가 {@link #desired()} 와 현재 등록 상태를 비교하여 처리한다.
+ * 세션 한도를 넘으면 우선순위(관심종목 → KOSPI200 → 먼저 등록한 화면 순)가 낮은 종목부터 제외된다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RealTimeSubscriptionRegistry {
+
+    private final StockMetaRegistry stockMetaRegistry;
+
+    @Value("${realtime.watchlist:}")
+    private List<String> watchlist;
+
+    @Value("${realtime.include-kospi200:true}")
+    private boolean includeKospi200;
+
+    @Value("${realtime.viewer-ttl-ms:120000}")
+    private long viewerTtlMs;
+
+    @Value("${realtime.max-codes-per-viewer:200}")
+    private int maxCodesPerViewer;
+
+    @Value("${realtime.max-viewers:100}")
+    private int maxViewers;
+
+    private final Map<String, Lease> viewers = new ConcurrentHashMap<>();
+
+    /**
+     * 화면별 구독 종목 (leasedAt: 최초 등록 시각, 연장해도 유지 / expiresAt: epoch millis)
+     */
+    public record Lease(Set<String> stockCodes, long leasedAt, long expiresAt) {
+    }
+
+    /**
+     * 화면 구독 종목 등록/연장 (같은 viewerId 의 이전 목록은 교체)
+     *
+     * @throws IllegalArgumentException 종목 목록이 없거나, 모르는 종목코드가 있거나, 화면당 한도 초과
+     * @throws IllegalStateException 화면 수 한도 초과 (새 화면)
+     */
+    public synchronized void lease(String viewerId, Collection<String> stockCodes) {
+        if (stockCodes == null) {
+            throw new IllegalArgumentException("stockCodes 가 필요합니다");
+        }
+        Set<String> codes = new TreeSet<>();
+        List<String> unknown = new ArrayList<>();
+        for (String code : stockCodes) {
+            if (code == null || code.isBlank()) {
+                continue;
+            }
+            String trimmed = code.trim();
+            if (stockMetaRegistry.find(trimmed).isPresent()) {
+                codes.add(trimmed);
+            } else {
+                unknown.add(trimmed);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("등록되지 않은 종목코드입니다: " + unknown);
+        }
+        if (codes.size() > maxCodesPerViewer) {
+            throw new IllegalArgumentException("화면당 실시간 종목은 최대 " + maxCodesPerViewer + "개입니다: " + codes.size());
+        }
+
+        long now = System.currentTimeMillis();
+        Lease previous = viewers.get(viewerId);
+        if (previous == null) {
+            removeExpired(now);
+            if (viewers.size() >= maxViewers) {
+                throw new IllegalStateException("실시간 구독 화면 수가 한도(" + maxViewers + ")에 도달했습니다");
+            }
+        }
+        long leasedAt = previous != null ? previous.leasedAt() : now;
+        viewers.put(viewerId, new Lease(Collections.unmodifiableSet(codes), leasedAt, now + viewerTtlMs));
+    }
+
+    /**
+     * 화면 구독 해제
+     */
+    public void release(String viewerId) {
+        viewers.remove(viewerId);
+    }
+
+    /**
+     * 현재 구독해야 하는 종목 (우선순위 순: 관심종목, KOSPI200, 먼저 등록한 화면. 만료된 화면 임대는 정리)
+     */
+    public Set<String> desired() {
+        removeExpired(System.currentTimeMillis());
+
+        Set<String> codes = new LinkedHashSet<>();
+        for (String code : watchlist) {
+            if (!code.isBlank()) {
+                codes.add(code.trim());
+            }
+        }
+        if (includeKospi200) {
+            stockMetaRegistry.kospi200().forEach(meta -> codes.add(meta.code()));
+        }
+        viewers.values().stream()
+            .sorted(Comparator.comparingLong(Lease::leasedAt))
+            .forEach(lease -> codes.addAll(lease.stockCodes()));
+        return codes;
+    }
+
+    private void removeExpired(long now) {
+        viewers.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue().expiresAt() < now;
+            if (expired) {
+                log.debug("실시간 화면 구독 만료: {}", entry.getKey());
+            }
+            return expired;
+        });
+    }
+
+    public int viewerCount() {
+        return viewers.size();
+    }
+}
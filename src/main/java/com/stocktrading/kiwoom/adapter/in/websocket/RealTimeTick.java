@@ -0,0 +1,130 @@
+package com.stocktrading.kiwoom.adapter.in.websocket;
+
+import lombok.Getter;
+
+/**
+ * 실시간 체결/호가 1건 (재사용 객체)
+ *
+ * 디코더가 프레임마다 같은 인스턴스에 값을 덮어쓰므로 콜백 안에서만 유효하다.
+ * 콜백 밖으로 넘길 값은 primitive 로 복사해야 한다.
+ * 프레임에 없는 항목은 0 (시각은 수신 시각).
+ */
+@Getter
+public final class RealTimeTick {
+
+    /**
+     * 종목코드 ID ({@link StockCodeInterner#code(int)})
+     */
+    private int stockId;
+
+    /**
+     * 실시간 항목 유형 (0B: 주식체결, 0D: 주식호가잔량 등, 2바이트 ASCII 를 int 로)
+     */
+    private int type;
+
+    /**
+     * 현재가 (FID 10, 부호 제거)
+     */
+    private long price;
+
+    /**
+     * 전일 대비 (FID 11, 부호 포함)
+     */
+    private long change;
+
+    /**
+     * 체결량 (FID 15, 부호 제거)
+     */
+    private long volume;
+
+    /**
+     * 체결 방향 (FID 15 부호: 1 매수체결, -1 매도체결, 0 없음)
+     */
+    private int side;
+
+    /**
+     * 누적 거래량 (FID 13)
+     */
+    private long accVolume;
+
+    /**
+     * 최우선 매도호가 (FID 27, 부호 제거)
+     */
+    private long bestAsk;
+
+    /**
+     * 최우선 매수호가 (FID 28, 부호 제거)
+     */
+    private long bestBid;
+
+    /**
+     * 체결 시각 (epoch nanos, FID 20 의 HHmmss 를 KST 당일로 변환)
+     */
+    private long timestampNanos;
+
+    public static int type(String code) {
+        return code.length() < 2 ? 0 : (code.charAt(0) << 8) | code.charAt(1);
+    }
+
+    public long timestampMillis() {
+        return timestampNanos / 1_000_000L;
+    }
+
+    void reset(long receivedNanos) {
+        stockId = -1;
+        type = 0;
+        price = 0;
+        change = 0;
+        volume = 0;
+        side = 0;
+        accVolume = 0;
+        bestAsk = 0;
+        bestBid = 0;
+        timestampNanos = receivedNanos;
+    }
+
+    void stockId(int stockId) {
+        this.stockId = stockId;
+    }
+
+    void type(int type) {
+        this.type = type;
+    }
+
+    void price(long price) {
+        this.price = Math.abs(price);
+    }
+
+    void change(long change) {
+        this.change = change;
+    }
+
+    void volume(long signedVolume) {
+        this.volume = Math.abs(signedVolume);
+        this.side = Long.signum(signedVolume);
+    }
+
+    void accVolume(long accVolume) {
+        this.accVolume = accVolume;
+    }
+
+    void bestAsk(long bestAsk) {
+        this.bestAsk = Math.abs(bestAsk);
+    }
+
+    void bestBid(long bestBid) {
+        this.bestBid = Math.abs(bestBid);
+    }
+
+    void timestampNanos(long timestampNanos) {
+        this.timestampNanos = timestampNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "RealTimeTick{stockId=" + stockId + ", type=" + (char) (type >> 8) + (char) (type & 0xff) +
+                ", price=" + price + ", change=" + change + ", volume=" + volume + ", side=" + side +
+                ", accVolume=" + accVolume + ", bestAsk=" + bestAsk + ", bestBid=" + bestBid +
+                ", timestampNanos=" + timestampNanos + "}";
+    }
+}
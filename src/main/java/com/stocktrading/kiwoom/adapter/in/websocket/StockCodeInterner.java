@@ -0,0 +1,154 @@
+package com.stocktrading.kiwoom.adapter.in.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 실시간 종목코드 → 정수 ID
+ *
+ * 수신 프레임의 종목코드 바이트를 String 생성 없이 ID 로 바꾼다. (ID 는 0 부터 등록 순, 재시작 전까지 고정)
+ * 조회는 락 없이 현재 테이블 스냅샷을 읽고, 처음 보는 코드만 동기화하여 새 테이블로 교체한다.
+ * (종목 수가 수천 개 수준이라 등록 시 복사 비용은 무시)
+ */
+@Slf4j
+@Component
+public class StockCodeInterner {
+
+    private static final int INITIAL_SLOTS = 4096;
+
+    private volatile Table table = new Table(new int[INITIAL_SLOTS], new byte[0][], new String[0]);
+
+    /**
+     * 버퍼 구간 [start, start + length) 의 종목코드 ID (처음 보면 등록)
+     */
+    public int intern(DataBuffer buffer, int start, int length) {
+        int hash = hash(buffer, start, length);
+        Table current = table;
+        int id = current.find(buffer, start, length, hash);
+        if (id >= 0) {
+            return id;
+        }
+        byte[] code = new byte[length];
+        for (int i = 0; i < length; i++) {
+            code[i] = buffer.getByte(start + i);
+        }
+        return register(code, hash);
+    }
+
+    /**
+     * 종목코드 ID (처음 보면 등록)
+     */
+    public int intern(String stockCode) {
+        byte[] code = stockCode.getBytes(StandardCharsets.US_ASCII);
+        int hash = hash(code);
+        Table current = table;
+        int id = current.find(code, hash);
+        return id >= 0 ? id : register(code, hash);
+    }
+
+    /**
+     * ID 의 종목코드 (등록 시 한 번만 생성한 String)
+     */
+    public String code(int id) {
+        return table.names[id];
+    }
+
+    public int size() {
+        return table.names.length;
+    }
+
+    private synchronized int register(byte[] code, int hash) {
+        Table current = table;
+        int id = current.find(code, hash);
+        if (id >= 0) {
+            return id;
+        }
+
+        int count = current.names.length;
+        int slots = current.slots.length;
+        while ((count + 1) * 2 > slots) {
+            slots *= 2;
+        }
+        byte[][] codes = Arrays.copyOf(current.codes, count + 1);
+        String[] names = Arrays.copyOf(current.names, count + 1);
+        codes[count] = code;
+        names[count] = new String(code, StandardCharsets.US_ASCII);
+
+        int[] newSlots = new int[slots];
+        for (int i = 0; i <= count; i++) {
+            Table.put(newSlots, hash(codes[i]), i);
+        }
+        table = new Table(newSlots, codes, names);
+        log.debug("실시간 종목코드 등록: {} → {}", names[count], count);
+        return count;
+    }
+
+    private static int hash(DataBuffer buffer, int start, int length) {
+        int h = 0x811c9dc5;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ (buffer.getByte(start + i) & 0xff)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(byte[] code) {
+        int h = 0x811c9dc5;
+        for (byte b : code) {
+            h = (h ^ (b & 0xff)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 불변 스냅샷 (open addressing, 슬롯 값은 ID + 1, 0 은 빈 슬롯)
+     */
+    private record Table(int[] slots, byte[][] codes, String[] names) {
+
+        static void put(int[] slots, int hash, int id) {
+            int mask = slots.length - 1;
+            int index = hash & mask;
+            while (slots[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            slots[index] = id + 1;
+        }
+
+        int find(DataBuffer buffer, int start, int length, int hash) {
+            int mask = slots.length - 1;
+            for (int index = hash & mask; slots[index] != 0; index = (index + 1) & mask) {
+                int id = slots[index] - 1;
+                if (matches(codes[id], buffer, start, length)) {
+                    return id;
+                }
+            }
+            return -1;
+        }
+
+        int find(byte[] code, int hash) {
+            int mask = slots.length - 1;
+            for (int index = hash & mask; slots[index] != 0; index = (index + 1) & mask) {
+                int id = slots[index] - 1;
+                if (Arrays.equals(codes[id], code)) {
+                    return id;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean matches(byte[] code, DataBuffer buffer, int start, int length) {
+            if (code.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (code[i] != buffer.getByte(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
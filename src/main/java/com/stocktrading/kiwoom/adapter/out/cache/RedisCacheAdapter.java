@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
@@ -134,6 +135,15 @@ public class RedisCacheAdapter implements CachePort {
                 .doOnError(error -> log.error("Redis PUBLISH 실패 - channel: {}, error: {}", channel, error.getMessage()));
     }
 
+    @Override
+    public Flux<String> subscribe(String channel) {
+        log.debug("Redis SUBSCRIBE - channel: {}", channel);
+        return reactiveRedisTemplate.listenToChannel(channel)
+                .map(message -> String.valueOf(message.getMessage()))
+                .doOnSubscribe(subscription -> log.debug("Redis SUBSCRIBE 시작 - channel: {}", channel))
+                .doOnError(error -> log.error("Redis SUBSCRIBE 실패 - channel: {}, error: {}", channel, error.getMessage()));
+    }
+
     @Override
     public Mono<Long> increment(String key) {
         log.debug("Redis INCR - key: {}", key);
@@ -0,0 +1,97 @@
+package com.stocktrading.kiwoom.adapter.out.cache;
+
+import com.stocktrading.kiwoom.domain.model.RealTimePriceBatch;
+import com.stocktrading.kiwoom.domain.port.out.RealTimePricePort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 실시간 시세 Redis Adapter
+ * RealTimePricePort 구현체
+ *
+ * 묶음 하나의 SET/PUBLISH/HSET 을 RedisTemplate 파이프라인 한 번으로 보낸다.
+ * 키/값 형식은 기존 단건 처리(CachePort)와 동일:
+ * - realtime:price:{종목코드} = {"stock_code":..,"price":..,"volume":..,"timestamp":..} (TTL)
+ * - stock:price:{종목코드} 채널 = 같은 JSON 을 문자열로 직렬화한 메시지
+ * - batch:queue:price 해시 = {종목코드}:{timestamp}:{순번} → JSON
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisRealTimePriceAdapter implements RealTimePricePort {
+
+    private static final String PRICE_KEY_PREFIX = "realtime:price:";
+    private static final String CHANNEL_PREFIX = "stock:price:";
+    private static final byte[] QUEUE_KEY = "batch:queue:price".getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    // 종목코드 → 키/채널 바이트 (종목 수만큼만 생성)
+    private final Map<String, byte[]> priceKeys = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> channels = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(RealTimePriceBatch batch, Duration priceTtl) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        Expiration expiration = Expiration.from(priceTtl);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            // 1. 현재가 캐시: 종목별 마지막 체결만
+            for (int k = 0; k < batch.latestCount(); k++) {
+                String stockCode = batch.latestStockCode(k);
+                byte[] key = priceKeys.computeIfAbsent(stockCode,
+                        code -> (PRICE_KEY_PREFIX + code).getBytes(StandardCharsets.UTF_8));
+                String json = toJson(stockCode, batch.latestPrice(k), batch.latestVolume(k), batch.latestTimestamp(k));
+                connection.stringCommands().set(key, json.getBytes(StandardCharsets.UTF_8),
+                        expiration, SetOption.upsert());
+            }
+
+            // 2. Pub/Sub 발행, 3. 집계 큐: 전체 체결 (큐는 HSET 1회)
+            Map<byte[], byte[]> queue = new LinkedHashMap<>(batch.size() * 2);
+            for (int i = 0; i < batch.size(); i++) {
+                String json = toJson(batch.stockCode(i), batch.price(i), batch.volume(i), batch.timestamp(i));
+                byte[] channel = channels.computeIfAbsent(batch.stockCode(i),
+                        code -> (CHANNEL_PREFIX + code).getBytes(StandardCharsets.UTF_8));
+                connection.publish(channel, valueSerializer.serialize(json));
+
+                String field = batch.stockCode(i) + ":" + batch.timestamp(i) + ":" + sequence.incrementAndGet();
+                queue.put(field.getBytes(StandardCharsets.UTF_8), json.getBytes(StandardCharsets.UTF_8));
+            }
+            // 이력 한도를 넘은 묶음은 현재가만 있을 수 있음
+            if (!queue.isEmpty()) {
+                connection.hashCommands().hMSet(QUEUE_KEY, queue);
+            }
+            return null;
+        });
+
+        log.debug("실시간 시세 Redis 기록 - 체결 {}건, 종목 {}개", batch.size(), batch.latestCount());
+    }
+
+    private static String toJson(String stockCode, long price, long volume, long timestamp) {
+        return new StringBuilder(96)
+                .append("{\"stock_code\":\"").append(stockCode)
+                .append("\",\"price\":").append(price)
+                .append(",\"volume\":").append(volume)
+                .append(",\"timestamp\":").append(timestamp)
+                .append('}')
+                .toString();
+    }
+}
@@ -2,16 +2,30 @@ package com.stocktrading.kiwoom.adapter.out.persistence;
 
 import com.stocktrading.kiwoom.adapter.out.persistence.entity.StockInvestorChart;
 import com.stocktrading.kiwoom.adapter.out.persistence.repository.StockInvestorChartRepository;
+import com.stocktrading.kiwoom.domain.event.InvestorChartSavedEvent;
 import com.stocktrading.kiwoom.domain.model.InvestorChart;
 import com.stocktrading.kiwoom.domain.port.out.InvestorChartPort;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -25,39 +39,74 @@ public class InvestorChartPersistenceAdapter implements InvestorChartPort {
 
     private final StockInvestorChartRepository repository;
     private final InvestorChartMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    // 내보내기용 커서 fetch 크기 (PostgreSQL 은 트랜잭션 안에서만 커서로 나눠 읽음)
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String STREAM_COLUMNS =
+            "SELECT stk_cd, dt, unit_tp, cur_prc, pred_pre, acc_trde_prica, " +
+            "ind_invsr, frgnr_invsr, orgn, natfor, fnnc_invt, insrnc, invtrt, etc_fnnc, bank, " +
+            "penfnd_etc, samo_fund, natn, etc_corp FROM tb_stock_investor_chart ";
 
     @Override
     @Transactional
     public InvestorChart save(InvestorChart chart) {
+        Map<String, SortedSet<LocalDate>> changed = new TreeMap<>();
+        InvestorChart saved = upsert(chart, changed);
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new InvestorChartSavedEvent(changed));
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<InvestorChart> saveAll(List<InvestorChart> charts) {
+        Map<String, SortedSet<LocalDate>> changed = new TreeMap<>();
+        List<InvestorChart> saved = charts.stream()
+                .map(chart -> upsert(chart, changed))
+                .collect(Collectors.toList());
+
+        // 저장 단위(트랜잭션)당 이벤트 1건 (값이 바뀐 일자만)
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new InvestorChartSavedEvent(changed));
+        }
+        return saved;
+    }
+
+    /**
+     * Upsert: 기존 데이터가 있으면 업데이트
+     * 신규 저장이거나 값이 바뀐 경우에만 changed 에 일자를 추가한다.
+     * (일별 수집은 이미 받은 일자를 다시 저장하므로, 같은 값 재저장으로 파생 데이터를 다시 계산하지 않도록)
+     */
+    private InvestorChart upsert(InvestorChart chart, Map<String, SortedSet<LocalDate>> changed) {
         StockInvestorChart entity = mapper.toEntity(chart);
 
-        // Upsert: 기존 데이터가 있으면 업데이트
         Optional<StockInvestorChart> existing = repository.findByStkCdAndDt(
                 chart.getStockCode(), chart.getDate());
 
         if (existing.isPresent()) {
             StockInvestorChart existingEntity = existing.get();
+            if (hasSameValues(existingEntity, entity)) {
+                return mapper.toDomain(existingEntity);
+            }
             updateEntity(existingEntity, entity);
             StockInvestorChart saved = repository.save(existingEntity);
+            changed.computeIfAbsent(chart.getStockCode(), k -> new TreeSet<>()).add(chart.getDate());
             log.debug("투자자 차트 데이터 업데이트 - 종목: {}, 일자: {}",
                     chart.getStockCode(), chart.getDate());
             return mapper.toDomain(saved);
         }
 
         StockInvestorChart saved = repository.save(entity);
+        changed.computeIfAbsent(chart.getStockCode(), k -> new TreeSet<>()).add(chart.getDate());
         log.debug("투자자 차트 데이터 저장 - 종목: {}, 일자: {}",
                 chart.getStockCode(), chart.getDate());
         return mapper.toDomain(saved);
     }
 
-    @Override
-    @Transactional
-    public List<InvestorChart> saveAll(List<InvestorChart> charts) {
-        return charts.stream()
-                .map(this::save)
-                .collect(Collectors.toList());
-    }
-
     @Override
     public Optional<InvestorChart> findByStockAndDate(String stockCode, LocalDate date) {
         return repository.findByStkCdAndDt(stockCode, date)
@@ -80,6 +129,66 @@ public class InvestorChartPersistenceAdapter implements InvestorChartPort {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByStockAndPeriod(String stockCode, LocalDate startDate, LocalDate endDate,
+                                       Consumer<InvestorChart> consumer) {
+        stream(STREAM_COLUMNS + "WHERE stk_cd = ? AND dt BETWEEN ? AND ? ORDER BY dt", consumer,
+                stockCode, Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByStocksAndPeriod(List<String> stockCodes, LocalDate startDate, LocalDate endDate,
+                                        Consumer<InvestorChart> consumer) {
+        stream(STREAM_COLUMNS + "WHERE stk_cd = ANY(?) AND dt BETWEEN ? AND ? ORDER BY stk_cd, dt", consumer,
+                stockCodes.toArray(new String[0]), Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByDate(LocalDate date, Consumer<InvestorChart> consumer) {
+        stream(STREAM_COLUMNS + "WHERE dt = ? ORDER BY stk_cd", consumer, Date.valueOf(date));
+    }
+
+    /**
+     * 전방 전용 커서로 한 행씩 읽어 도메인으로 변환 후 전달 (Entity 를 영속성 컨텍스트에 올리지 않음)
+     */
+    private void stream(String sql, Consumer<InvestorChart> consumer, Object... args) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapper.toDomain(toEntity(rs))));
+    }
+
+    private static StockInvestorChart toEntity(ResultSet rs) throws SQLException {
+        return StockInvestorChart.builder()
+                .stkCd(rs.getString("stk_cd"))
+                .dt(rs.getDate("dt").toLocalDate())
+                .unitTp(rs.getString("unit_tp"))
+                .curPrc(rs.getObject("cur_prc", Long.class))
+                .predPre(rs.getObject("pred_pre", Long.class))
+                .accTrdePrica(rs.getObject("acc_trde_prica", Long.class))
+                .indInvsr(rs.getObject("ind_invsr", Long.class))
+                .frgnrInvsr(rs.getObject("frgnr_invsr", Long.class))
+                .orgn(rs.getObject("orgn", Long.class))
+                .natfor(rs.getObject("natfor", Long.class))
+                .fnncInvt(rs.getObject("fnnc_invt", Long.class))
+                .insrnc(rs.getObject("insrnc", Long.class))
+                .invtrt(rs.getObject("invtrt", Long.class))
+                .etcFnnc(rs.getObject("etc_fnnc", Long.class))
+                .bank(rs.getObject("bank", Long.class))
+                .penfndEtc(rs.getObject("penfnd_etc", Long.class))
+                .samoFund(rs.getObject("samo_fund", Long.class))
+                .natn(rs.getObject("natn", Long.class))
+                .etcCorp(rs.getObject("etc_corp", Long.class))
+                .build();
+    }
+
     @Override
     public Optional<InvestorChart> findLatestByStock(String stockCode) {
         return repository.findFirstByStkCdOrderByDtDesc(stockCode)
@@ -111,6 +220,7 @@ public class InvestorChartPersistenceAdapter implements InvestorChartPort {
     @Transactional
     public void deleteByStockAndDate(String stockCode, LocalDate date) {
         repository.deleteByStkCdAndDt(stockCode, date);
+        eventPublisher.publishEvent(InvestorChartSavedEvent.of(stockCode, date));
         log.debug("투자자 차트 데이터 삭제 - 종목: {}, 일자: {}", stockCode, date);
     }
 
@@ -141,6 +251,28 @@ public class InvestorChartPersistenceAdapter implements InvestorChartPort {
         return map;
     }
 
+    /**
+     * 업데이트 대상 컬럼이 모두 같은지 ({@link #updateEntity} 와 같은 컬럼)
+     */
+    private static boolean hasSameValues(StockInvestorChart existing, StockInvestorChart updated) {
+        return Objects.equals(existing.getCurPrc(), updated.getCurPrc())
+                && Objects.equals(existing.getPredPre(), updated.getPredPre())
+                && Objects.equals(existing.getAccTrdePrica(), updated.getAccTrdePrica())
+                && Objects.equals(existing.getIndInvsr(), updated.getIndInvsr())
+                && Objects.equals(existing.getFrgnrInvsr(), updated.getFrgnrInvsr())
+                && Objects.equals(existing.getOrgn(), updated.getOrgn())
+                && Objects.equals(existing.getNatfor(), updated.getNatfor())
+                && Objects.equals(existing.getFnncInvt(), updated.getFnncInvt())
+                && Objects.equals(existing.getInsrnc(), updated.getInsrnc())
+                && Objects.equals(existing.getInvtrt(), updated.getInvtrt())
+                && Objects.equals(existing.getEtcFnnc(), updated.getEtcFnnc())
+                && Objects.equals(existing.getBank(), updated.getBank())
+                && Objects.equals(existing.getPenfndEtc(), updated.getPenfndEtc())
+                && Objects.equals(existing.getSamoFund(), updated.getSamoFund())
+                && Objects.equals(existing.getNatn(), updated.getNatn())
+                && Objects.equals(existing.getEtcCorp(), updated.getEtcCorp());
+    }
+
     /**
      * 기존 Entity 업데이트
      */
@@ -4,11 +4,13 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.stocktrading.kiwoom.adapter.out.persistence.repository.StockListMetaRepository;
 import com.stocktrading.kiwoom.adapter.out.persistence.repository.StockListRepository;
+import com.stocktrading.kiwoom.domain.event.StockListRefreshedEvent;
 import com.stocktrading.kiwoom.domain.model.StockInfo;
 import com.stocktrading.kiwoom.domain.port.out.StockListPort;
 
@@ -26,6 +28,7 @@ public class StockListPersistenceAdapter implements StockListPort {
     private final StockListRepository repository;
     private final StockListMetaRepository metaRepository;
     private final StockListMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -45,6 +48,7 @@ public class StockListPersistenceAdapter implements StockListPort {
                 .saveAll(entities);
 
         log.info("종목 리스트 Batch 저장 완료 - {}건", saved.size());
+        eventPublisher.publishEvent(new StockListRefreshedEvent(saved.size()));
         return saved.size();
     }
 
@@ -55,9 +59,17 @@ public class StockListPersistenceAdapter implements StockListPort {
         long count = repository.count();
         repository.truncate();
         log.info("종목 리스트 전체 삭제 완료 - {}건 삭제됨", count);
+        eventPublisher.publishEvent(new StockListRefreshedEvent(0));
         return (int) count;
     }
 
+    @Override
+    public List<StockInfo> findAll() {
+        return repository.findAll().stream()
+                .map(mapper::toDomain)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Optional<StockInfo> findByCode(String code) {
         return repository.findById(code)
@@ -0,0 +1,37 @@
+package com.stocktrading.kiwoom.adapter.out.persistence.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * 사용자 정의 바스켓 Entity
+ * Table: tb_custom_basket
+ */
+@Entity
+@Table(name = "tb_custom_basket")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomBasketEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "basket_id")
+    private Long basketId;
+
+    @Column(name = "basket_nm", length = 100, nullable = false)
+    private String basketNm;
+
+    @Column(name = "description", length = 500)
+    private String description;
+
+    @Column(name = "reg_dt", updatable = false)
+    private LocalDateTime regDt;
+
+    @Column(name = "upd_dt")
+    private LocalDateTime updDt;
+}
@@ -0,0 +1,32 @@
+package com.stocktrading.kiwoom.adapter.out.persistence.entity;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * 사용자 정의 바스켓 구성종목 Entity
+ * Table: tb_custom_basket_item
+ */
+@Entity
+@Table(name = "tb_custom_basket_item")
+@IdClass(CustomBasketItemId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomBasketItemEntity {
+
+    @Id
+    @Column(name = "basket_id")
+    private Long basketId;
+
+    @Id
+    @Column(name = "stk_cd", length = 20)
+    private String stkCd;
+
+    @Column(name = "weight", precision = 12, scale = 6, nullable = false)
+    private BigDecimal weight;
+}
@@ -0,0 +1,17 @@
+package com.stocktrading.kiwoom.adapter.out.persistence.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomBasketItemId implements Serializable {
+    private Long basketId;
+    private String stkCd;
+}
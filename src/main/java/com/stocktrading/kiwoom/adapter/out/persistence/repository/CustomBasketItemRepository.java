@@ -0,0 +1,34 @@
+package com.stocktrading.kiwoom.adapter.out.persistence.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.stocktrading.kiwoom.adapter.out.persistence.entity.CustomBasketItemEntity;
+import com.stocktrading.kiwoom.adapter.out.persistence.entity.CustomBasketItemId;
+
+/**
+ * 사용자 정의 바스켓 구성종목 Repository
+ */
+@Repository
+public interface CustomBasketItemRepository extends JpaRepository<CustomBasketItemEntity, CustomBasketItemId> {
+
+    List<CustomBasketItemEntity> findByBasketIdOrderByStkCdAsc(Long basketId);
+
+    List<CustomBasketItemEntity> findByBasketIdIn(Collection<Long> basketIds);
+
+    /**
+     * 종목을 포함하는 바스켓 ID 목록
+     */
+    @Query("SELECT DISTINCT i.basketId FROM CustomBasketItemEntity i WHERE i.stkCd IN :stkCds")
+    List<Long> findBasketIdsByStkCdIn(@Param("stkCds") Collection<String> stkCds);
+
+    @Modifying
+    @Query("DELETE FROM CustomBasketItemEntity i WHERE i.basketId = :basketId")
+    int deleteByBasketId(@Param("basketId") Long basketId);
+}
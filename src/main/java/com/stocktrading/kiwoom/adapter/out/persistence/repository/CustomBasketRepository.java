@@ -0,0 +1,17 @@
+package com.stocktrading.kiwoom.adapter.out.persistence.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.stocktrading.kiwoom.adapter.out.persistence.entity.CustomBasketEntity;
+
+/**
+ * 사용자 정의 바스켓 Repository
+ */
+@Repository
+public interface CustomBasketRepository extends JpaRepository<CustomBasketEntity, Long> {
+
+    List<CustomBasketEntity> findAllByOrderByBasketIdAsc();
+}
@@ -0,0 +1,176 @@
+package com.stocktrading.kiwoom.analytics;
+
+import java.util.Arrays;
+
+/**
+ * 횡단면 상관계수 행렬 커널
+ *
+ * 공통 거래일 축에 정렬된 N 개 시계열을 행별로 표준화(z-score)한 뒤
+ * C = Z·Zᵀ / (T - 1) 를 블록 단위 primitive 루프로 계산한다. (대칭이므로 상삼각만 계산)
+ * 결측(NaN)은 표준화 후 0 으로 두어 해당 날짜가 공분산에 기여하지 않도록 한다.
+ */
+public final class CorrelationMatrix {
+
+    // 캐시 친화적 블록 크기 (행 단위)
+    private static final int BLOCK = 64;
+
+    private final int size;
+    private final double[] values;
+
+    private CorrelationMatrix(int size, double[] values) {
+        this.size = size;
+        this.values = values;
+    }
+
+    /**
+     * 상관계수 행렬 계산
+     *
+     * @param series [종목][거래일] (같은 거래일 축, 결측은 NaN)
+     * @param minObservations 종목별 최소 유효 관측치 수 (미달 또는 분산 0 인 종목의 행/열은 NaN)
+     */
+    public static CorrelationMatrix compute(double[][] series, int minObservations) {
+        int n = series.length;
+        int days = n == 0 ? 0 : series[0].length;
+        double[][] z = new double[n][];
+        boolean[] valid = new boolean[n];
+
+        for (int i = 0; i < n; i++) {
+            z[i] = standardize(series[i], minObservations);
+            valid[i] = z[i] != null;
+        }
+
+        double[] values = new double[n * n];
+        Arrays.fill(values, Double.NaN);
+        double scale = days > 1 ? 1.0 / (days - 1) : Double.NaN;
+
+        for (int bi = 0; bi < n; bi += BLOCK) {
+            int iEnd = Math.min(bi + BLOCK, n);
+            for (int bj = bi; bj < n; bj += BLOCK) {
+                int jEnd = Math.min(bj + BLOCK, n);
+                for (int i = bi; i < iEnd; i++) {
+                    if (!valid[i]) {
+                        continue;
+                    }
+                    double[] zi = z[i];
+                    for (int j = Math.max(i, bj); j < jEnd; j++) {
+                        if (!valid[j]) {
+                            continue;
+                        }
+                        double r = i == j ? 1.0 : clamp(dot(zi, z[j], days) * scale);
+                        values[i * n + j] = r;
+                        values[j * n + i] = r;
+                    }
+                }
+            }
+        }
+        return new CorrelationMatrix(n, values);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * i, j 종목 간 상관계수 (계산 불가 시 NaN)
+     */
+    public double get(int i, int j) {
+        return values[i * size + j];
+    }
+
+    /**
+     * i 종목 행 복사본
+     */
+    public double[] row(int i) {
+        return Arrays.copyOfRange(values, i * size, (i + 1) * size);
+    }
+
+    /**
+     * i 종목과 상관계수가 높은 순서의 상위 k 개 종목 인덱스 (자기 자신, NaN 제외)
+     *
+     * @param absolute true 면 절대값 기준 (음의 상관 포함)
+     */
+    public int[] topNeighbors(int i, int k, boolean absolute) {
+        Integer[] order = new Integer[size];
+        int count = 0;
+        for (int j = 0; j < size; j++) {
+            if (j != i && !Double.isNaN(get(i, j))) {
+                order[count++] = j;
+            }
+        }
+        Integer[] candidates = Arrays.copyOf(order, count);
+        Arrays.sort(candidates, (a, b) -> Double.compare(score(i, b, absolute), score(i, a, absolute)));
+
+        int limit = Math.min(k, count);
+        int[] result = new int[limit];
+        for (int idx = 0; idx < limit; idx++) {
+            result[idx] = candidates[idx];
+        }
+        return result;
+    }
+
+    private double score(int i, int j, boolean absolute) {
+        double r = get(i, j);
+        return absolute ? Math.abs(r) : r;
+    }
+
+    /**
+     * 표준화 (평균 0, 표본 표준편차 1, 결측은 0)
+     *
+     * @return 유효 관측치 부족 또는 분산 0 이면 null
+     */
+    private static double[] standardize(double[] values, int minObservations) {
+        int count = 0;
+        double sum = 0;
+        for (double v : values) {
+            if (!Double.isNaN(v)) {
+                sum += v;
+                count++;
+            }
+        }
+        if (count < Math.max(2, minObservations)) {
+            return null;
+        }
+        double mean = sum / count;
+        double sumSq = 0;
+        for (double v : values) {
+            if (!Double.isNaN(v)) {
+                double d = v - mean;
+                sumSq += d * d;
+            }
+        }
+        // 결측 날짜는 0 으로 채우므로 전체 거래일 수 기준으로 정규화하여 자기 상관이 1 이 되도록 한다
+        double norm = Math.sqrt(sumSq / (values.length - 1));
+        if (norm == 0 || Double.isNaN(norm)) {
+            return null;
+        }
+
+        double[] z = new double[values.length];
+        for (int t = 0; t < values.length; t++) {
+            double v = values[t];
+            z[t] = Double.isNaN(v) ? 0.0 : (v - mean) / norm;
+        }
+        return z;
+    }
+
+    private static double dot(double[] a, double[] b, int length) {
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int t = 0;
+        for (; t + 3 < length; t += 4) {
+            s0 += a[t] * b[t];
+            s1 += a[t + 1] * b[t + 1];
+            s2 += a[t + 2] * b[t + 2];
+            s3 += a[t + 3] * b[t + 3];
+        }
+        for (; t < length; t++) {
+            s0 += a[t] * b[t];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static double clamp(double r) {
+        return Math.max(-1.0, Math.min(1.0, r));
+    }
+}
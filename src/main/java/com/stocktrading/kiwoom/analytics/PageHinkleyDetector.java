@@ -0,0 +1,135 @@
+package com.stocktrading.kiwoom.analytics;
+
+/**
+ * 스트리밍 양방향 Page-Hinkley 변화점 탐지기
+ *
+ * 관측치를 지수가중(EWMA) 평균/분산으로 표준화한 뒤 상승/하락 누적합
+ *   g⁺ = max(0, g⁺ + z - δ), g⁻ = max(0, g⁻ - z - δ)
+ * 가 임계값 λ 를 넘으면 변화점으로 판정하고 누적합을 초기화한다.
+ * 상태는 primitive 필드 6개뿐이므로 DB 에 저장했다가 다음 거래일부터 이어서 계산할 수 있다.
+ */
+public final class PageHinkleyDetector {
+
+    /** 변화 방향 */
+    public enum Direction { UP, DOWN }
+
+    private final double alpha;
+    private final double delta;
+    private final double lambda;
+    private final int warmup;
+
+    private long count;
+    private double mean;
+    private double variance;
+    private double gPos;
+    private double gNeg;
+
+    // 마지막 관측치 판정 결과
+    private Direction lastDirection;
+    private double lastZ;
+    private double lastScore;
+    private double lastMean;
+
+    /**
+     * @param alpha EWMA 가중치 (0 ~ 1, 클수록 최근 값 비중 큼)
+     * @param delta 허용 드리프트 (표준화 단위)
+     * @param lambda 탐지 임계값 (표준화 단위 누적합)
+     * @param warmup 탐지 전 최소 관측치 수
+     */
+    public PageHinkleyDetector(double alpha, double delta, double lambda, int warmup) {
+        if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("EWMA 가중치는 0 과 1 사이여야 합니다: " + alpha);
+        }
+        this.alpha = alpha;
+        this.delta = delta;
+        this.lambda = lambda;
+        this.warmup = warmup;
+    }
+
+    /**
+     * 저장된 상태 복원
+     */
+    public void restore(long count, double mean, double variance, double gPos, double gNeg) {
+        this.count = count;
+        this.mean = mean;
+        this.variance = variance;
+        this.gPos = gPos;
+        this.gNeg = gNeg;
+    }
+
+    /**
+     * 관측치 추가
+     *
+     * @return 변화점이면 방향, 아니면 null (NaN 관측치는 무시)
+     */
+    public Direction push(double x) {
+        lastDirection = null;
+        if (Double.isNaN(x)) {
+            return null;
+        }
+        if (count == 0) {
+            count = 1;
+            mean = x;
+            variance = 0;
+            return null;
+        }
+
+        lastMean = mean;
+        double deviation = x - mean;
+        double sd = Math.sqrt(variance);
+        if (count >= warmup && sd > 0) {
+            double z = deviation / sd;
+            gPos = Math.max(0, gPos + z - delta);
+            gNeg = Math.max(0, gNeg - z - delta);
+            if (gPos > lambda || gNeg > lambda) {
+                lastDirection = gPos >= gNeg ? Direction.UP : Direction.DOWN;
+                lastZ = z;
+                lastScore = Math.max(gPos, gNeg);
+                gPos = 0;
+                gNeg = 0;
+            }
+        }
+
+        // EWMA 평균/분산 갱신 (West 방식)
+        double increment = alpha * deviation;
+        mean += increment;
+        variance = (1 - alpha) * (variance + deviation * increment);
+        count++;
+        return lastDirection;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    public double variance() {
+        return variance;
+    }
+
+    public double gPos() {
+        return gPos;
+    }
+
+    public double gNeg() {
+        return gNeg;
+    }
+
+    /** 마지막 변화점의 표준화 값 */
+    public double lastZ() {
+        return lastZ;
+    }
+
+    /** 마지막 변화점의 누적합 (임계값 초과 시점) */
+    public double lastScore() {
+        return lastScore;
+    }
+
+    /** 마지막 관측 직전의 EWMA 평균 (변화 이전 수준) */
+    public double lastMean() {
+        return lastMean;
+    }
+}
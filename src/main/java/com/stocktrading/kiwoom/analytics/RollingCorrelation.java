@@ -0,0 +1,162 @@
+package com.stocktrading.kiwoom.analytics;
+
+/**
+ * 스트리밍 이동 상관계수 (Pearson)
+ *
+ * 고정 크기 링 버퍼와 Σx, Σy, Σxy, Σx², Σy² 누적값을 유지하여 새 관측치마다 O(1)로 계산한다.
+ * pandas rolling(window).corr() 과 같이 구간 내 값이 하나라도 NaN 이거나 분산이 0 이면 NaN 을 반환한다.
+ * 누적 오차를 막기 위해 일정 횟수마다 버퍼에서 합계를 다시 계산한다.
+ * 값이 큰 기준값 위에서 조금씩 움직이면 Σx² - (Σx)²/n 이 자릿수 손실을 일으키므로,
+ * 합계는 기준점(첫 관측치, 재계산 시 구간 평균)을 뺀 값으로 누적한다. (상관계수는 이동에 불변)
+ */
+public final class RollingCorrelation {
+
+    // 합계 재계산 주기 (관측치 수)
+    private static final int RESYNC_INTERVAL = 512;
+
+    // 분산 0 판정 상대 오차
+    private static final double VARIANCE_EPSILON = 1e-12;
+
+    private final int window;
+    private final double[] xs;
+    private final double[] ys;
+
+    private int head;
+    private int count;
+    private int nanCount;
+    private int sinceResync;
+
+    private double sumX;
+    private double sumY;
+    private double sumXY;
+    private double sumXX;
+    private double sumYY;
+
+    // 누적 기준점 (shifted 가 false 면 다음 유효 관측치로 설정)
+    private boolean shifted;
+    private double shiftX;
+    private double shiftY;
+
+    public RollingCorrelation(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("상관계수 기간은 2 이상이어야 합니다: " + window);
+        }
+        this.window = window;
+        this.xs = new double[window];
+        this.ys = new double[window];
+    }
+
+    public int window() {
+        return window;
+    }
+
+    /**
+     * 관측치 추가 후 현재 구간의 상관계수 반환
+     *
+     * @return 상관계수 (구간 부족, NaN 포함, 분산 0 이면 NaN)
+     */
+    public double push(double x, double y) {
+        if (count == window) {
+            remove(xs[head], ys[head]);
+        } else {
+            count++;
+        }
+        xs[head] = x;
+        ys[head] = y;
+        head = (head + 1) % window;
+        add(x, y);
+
+        if (++sinceResync >= RESYNC_INTERVAL) {
+            resync();
+        }
+        return current();
+    }
+
+    /**
+     * 현재 구간의 상관계수
+     */
+    public double current() {
+        if (count < window || nanCount > 0) {
+            return Double.NaN;
+        }
+        double n = window;
+        double covariance = n * sumXY - sumX * sumY;
+        double varianceX = n * sumXX - sumX * sumX;
+        double varianceY = n * sumYY - sumY * sumY;
+
+        if (varianceX <= VARIANCE_EPSILON * n * sumXX || varianceY <= VARIANCE_EPSILON * n * sumYY) {
+            return Double.NaN;
+        }
+        double r = covariance / Math.sqrt(varianceX * varianceY);
+        return Math.max(-1.0, Math.min(1.0, r));
+    }
+
+    /**
+     * 버퍼 초기화
+     */
+    public void reset() {
+        head = 0;
+        count = 0;
+        nanCount = 0;
+        sinceResync = 0;
+        sumX = sumY = sumXY = sumXX = sumYY = 0;
+        shifted = false;
+    }
+
+    private void add(double x, double y) {
+        if (Double.isNaN(x) || Double.isNaN(y)) {
+            nanCount++;
+            return;
+        }
+        if (!shifted) {
+            shiftX = x;
+            shiftY = y;
+            shifted = true;
+        }
+        x -= shiftX;
+        y -= shiftY;
+        sumX += x;
+        sumY += y;
+        sumXY += x * y;
+        sumXX += x * x;
+        sumYY += y * y;
+    }
+
+    private void remove(double x, double y) {
+        if (Double.isNaN(x) || Double.isNaN(y)) {
+            nanCount--;
+            return;
+        }
+        x -= shiftX;
+        y -= shiftY;
+        sumX -= x;
+        sumY -= y;
+        sumXY -= x * y;
+        sumXX -= x * x;
+        sumYY -= y * y;
+    }
+
+    private void resync() {
+        // 기준점을 현재 구간 평균으로 옮김 (추세가 있어도 누적값이 커지지 않도록)
+        double meanX = 0;
+        double meanY = 0;
+        int valid = 0;
+        for (int i = 0; i < count; i++) {
+            if (!Double.isNaN(xs[i]) && !Double.isNaN(ys[i])) {
+                meanX += xs[i];
+                meanY += ys[i];
+                valid++;
+            }
+        }
+        shifted = valid > 0;
+        shiftX = valid > 0 ? meanX / valid : 0;
+        shiftY = valid > 0 ? meanY / valid : 0;
+
+        sinceResync = 0;
+        nanCount = 0;
+        sumX = sumY = sumXY = sumXX = sumYY = 0;
+        for (int i = 0; i < count; i++) {
+            add(xs[i], ys[i]);
+        }
+    }
+}
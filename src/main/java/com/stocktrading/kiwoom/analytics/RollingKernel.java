@@ -0,0 +1,67 @@
+package com.stocktrading.kiwoom.analytics;
+
+/**
+ * 이동평균/이동통계 primitive 커널
+ *
+ * 모든 입력은 날짜 오름차순의 연속 배열이며, 기간이 부족한 위치의 결과는 NaN 으로 채운다.
+ * 구현체: {@link VectorRollingKernel} (jdk.incubator.vector), {@link ScalarRollingKernel} (대체 구현)
+ */
+public interface RollingKernel {
+
+    /**
+     * 누적합 계산
+     *
+     * @param values 원본 값 (길이 n)
+     * @param prefix 결과 (길이 n + 1, prefix[0] = 0, prefix[i + 1] = values[0..i] 합계)
+     */
+    void prefixSums(long[] values, long[] prefix);
+
+    /**
+     * 누적합으로 이동합계 계산
+     *
+     * @param prefix {@link #prefixSums} 결과 (길이 n + 1)
+     * @param window 기간
+     * @param out 결과 (길이 n, 기간 부족 위치는 0)
+     */
+    void windowSums(long[] prefix, int window, long[] out);
+
+    /**
+     * 누적합으로 이동평균 계산 (합계 / 기간, double 나눗셈)
+     *
+     * @param prefix {@link #prefixSums} 결과 (길이 n + 1)
+     * @param window 기간
+     * @param out 결과 (길이 n, 기간 부족 위치는 NaN)
+     */
+    void windowAverages(long[] prefix, int window, double[] out);
+
+    /**
+     * 이동 표준편차 (표본, ddof = 1)
+     * 두 구현 모두 평균을 뺀 값의 Σx, Σx² 누적합(double, 순차 계산) 구간 차이로 분산을 구한다.
+     * 분산 오차는 구간이 아니라 전체 제곱합에 비례하므로, 변동이 거의 없는 구간은 0 근처 값이 나올 수 있다.
+     *
+     * @param values 원본 값 (길이 n)
+     * @param window 기간 (2 이상)
+     * @param out 결과 (길이 n, 기간 부족 위치는 NaN)
+     */
+    void rollingStd(long[] values, int window, double[] out);
+
+    /**
+     * 이동비율: 기간 내 분자 합계 / 분모 합계
+     *
+     * @param numeratorPrefix 분자 누적합 (길이 n + 1)
+     * @param denominatorPrefix 분모 누적합 (길이 n + 1)
+     * @param window 기간
+     * @param out 결과 (길이 n, 기간 부족 또는 분모 0 위치는 NaN)
+     */
+    void rollingRatio(long[] numeratorPrefix, long[] denominatorPrefix, int window, double[] out);
+
+    /**
+     * 구간 절대값 합계 (NaN 은 제외)
+     */
+    double sumAbs(double[] values, int from, int to);
+
+    /**
+     * Σ|a[i] × b[i]| (가격 × 순매수량 거래규모 합계)
+     */
+    long sumAbsProducts(long[] a, long[] b, int from, int to);
+}
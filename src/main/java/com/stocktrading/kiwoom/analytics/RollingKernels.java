@@ -0,0 +1,104 @@
+package com.stocktrading.kiwoom.analytics;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 이동평균/이동통계 커널 진입점
+ *
+ * jdk.incubator.vector 모듈이 로드되어 있으면 SIMD 구현을, 아니면 스칼라 구현을 사용한다.
+ * (-Dkiwoom.kernel.scalar=true 로 스칼라 구현 강제)
+ */
+@Slf4j
+public final class RollingKernels {
+
+    private static final RollingKernel KERNEL = load();
+
+    private RollingKernels() {
+    }
+
+    /**
+     * 현재 JVM 에서 사용할 커널
+     */
+    public static RollingKernel get() {
+        return KERNEL;
+    }
+
+    /**
+     * SIMD 커널 사용 여부
+     */
+    public static boolean isVectorized() {
+        return KERNEL instanceof VectorRollingKernel;
+    }
+
+    /**
+     * 여러 투자자 컬럼의 모든 기간 이동평균을 한 번에 계산
+     * (컬럼별 누적합 1회 + 기간별 구간 차이)
+     *
+     * @param columns 투자자별 일별 값 [컬럼][날짜 오름차순]
+     * @param periods 이동평균 기간
+     * @return [컬럼][기간 인덱스][날짜] (기간 부족 위치는 NaN)
+     */
+    public static double[][][] movingAverages(long[][] columns, int[] periods) {
+        double[][][] result = new double[columns.length][periods.length][];
+        for (int c = 0; c < columns.length; c++) {
+            long[] prefix = prefixSums(columns[c]);
+            for (int p = 0; p < periods.length; p++) {
+                double[] out = new double[columns[c].length];
+                KERNEL.windowAverages(prefix, periods[p], out);
+                result[c][p] = out;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 마지막 날짜 기준 기간별 이동평균 (배치의 단일 날짜 계산용)
+     *
+     * @param columns 투자자별 일별 값 [컬럼][날짜 오름차순]
+     * @param periods 이동평균 기간
+     * @return [컬럼][기간 인덱스] (기간 부족 시 NaN)
+     */
+    public static double[][] trailingAverages(long[][] columns, int[] periods) {
+        double[][] result = new double[columns.length][periods.length];
+        for (int c = 0; c < columns.length; c++) {
+            long[] column = columns[c];
+            int n = column.length;
+            long[] prefix = prefixSums(column);
+            for (int p = 0; p < periods.length; p++) {
+                int period = periods[p];
+                result[c][p] = n < period ? Double.NaN : (double) (prefix[n] - prefix[n - period]) / period;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 누적합 (길이 n + 1)
+     */
+    public static long[] prefixSums(long[] values) {
+        long[] prefix = new long[values.length + 1];
+        KERNEL.prefixSums(values, prefix);
+        return prefix;
+    }
+
+    private static RollingKernel load() {
+        if (Boolean.getBoolean("kiwoom.kernel.scalar")) {
+            log.info("이동통계 커널: scalar (강제 설정)");
+            return new ScalarRollingKernel();
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                RollingKernel kernel = (RollingKernel) Class
+                    .forName("com.stocktrading.kiwoom.analytics.VectorRollingKernel")
+                    .getDeclaredConstructor()
+                    .newInstance();
+                log.info("이동통계 커널: jdk.incubator.vector");
+                return kernel;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.warn("Vector API 커널 로드 실패, scalar 커널 사용: {}", e.getMessage());
+            }
+        }
+        log.info("이동통계 커널: scalar (jdk.incubator.vector 모듈 없음)");
+        return new ScalarRollingKernel();
+    }
+}
@@ -0,0 +1,120 @@
+package com.stocktrading.kiwoom.analytics;
+
+import java.util.Arrays;
+
+/**
+ * 스칼라 커널 (jdk.incubator.vector 모듈이 없을 때 사용)
+ */
+final class ScalarRollingKernel implements RollingKernel {
+
+    @Override
+    public void prefixSums(long[] values, long[] prefix) {
+        long sum = 0;
+        prefix[0] = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i];
+            prefix[i + 1] = sum;
+        }
+    }
+
+    @Override
+    public void windowSums(long[] prefix, int window, long[] out) {
+        int start = Math.min(window - 1, out.length);
+        Arrays.fill(out, 0, start, 0L);
+        for (int i = start; i < out.length; i++) {
+            out[i] = prefix[i + 1] - prefix[i + 1 - window];
+        }
+    }
+
+    @Override
+    public void windowAverages(long[] prefix, int window, double[] out) {
+        int start = Math.min(window - 1, out.length);
+        Arrays.fill(out, 0, start, Double.NaN);
+        for (int i = start; i < out.length; i++) {
+            out[i] = (double) (prefix[i + 1] - prefix[i + 1 - window]) / window;
+        }
+    }
+
+    @Override
+    public void rollingStd(long[] values, int window, double[] out) {
+        int n = values.length;
+        int start = Math.min(window - 1, n);
+        Arrays.fill(out, 0, start, Double.NaN);
+        if (start >= n) {
+            return;
+        }
+
+        double[] sum = new double[n + 1];
+        double[] sumSq = new double[n + 1];
+        centeredPrefixSums(values, sum, sumSq);
+
+        double w = window;
+        double wMinus1 = window - 1;
+        for (int i = start; i < n; i++) {
+            out[i] = std(sum[i + 1] - sum[i + 1 - window], sumSq[i + 1] - sumSq[i + 1 - window], w, wMinus1);
+        }
+    }
+
+    @Override
+    public void rollingRatio(long[] numeratorPrefix, long[] denominatorPrefix, int window, double[] out) {
+        int start = Math.min(window - 1, out.length);
+        Arrays.fill(out, 0, start, Double.NaN);
+        for (int i = start; i < out.length; i++) {
+            out[i] = ratio(numeratorPrefix[i + 1] - numeratorPrefix[i + 1 - window],
+                denominatorPrefix[i + 1] - denominatorPrefix[i + 1 - window]);
+        }
+    }
+
+    @Override
+    public double sumAbs(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            double v = values[i];
+            if (!Double.isNaN(v)) {
+                sum += Math.abs(v);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public long sumAbsProducts(long[] a, long[] b, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += Math.abs(a[i] * b[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * 전체 평균을 뺀 값의 Σx, Σx² 누적합 (분산은 이동 불변, 평균을 빼서 큰 값끼리의 상쇄 오차를 줄임)
+     *
+     * @param sum 결과 (길이 n + 1)
+     * @param sumSq 결과 (길이 n + 1)
+     */
+    static void centeredPrefixSums(long[] values, double[] sum, double[] sumSq) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        double mean = values.length == 0 ? 0 : (double) total / values.length;
+        sum[0] = 0;
+        sumSq[0] = 0;
+        for (int i = 0; i < values.length; i++) {
+            double x = values[i] - mean;
+            sum[i + 1] = sum[i] + x;
+            sumSq[i + 1] = sumSq[i] + x * x;
+        }
+    }
+
+    /**
+     * 구간 합계로 표본 표준편차 (음수 분산은 반올림 오차이므로 0)
+     */
+    static double std(double s, double sq, double w, double wMinus1) {
+        return Math.sqrt(Math.max((sq - s * s / w) / wMinus1, 0.0));
+    }
+
+    static double ratio(long numerator, long denominator) {
+        return denominator == 0 ? Double.NaN : (double) numerator / denominator;
+    }
+}
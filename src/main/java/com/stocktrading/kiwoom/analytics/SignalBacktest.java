@@ -0,0 +1,118 @@
+package com.stocktrading.kiwoom.analytics;
+
+/**
+ * 임계값 돌파 신호 백테스트 커널
+ *
+ * 신호가 임계값을 아래에서 위로 돌파한 날 종가에 매수하고,
+ * 보유일수가 지정되면 그 기간 후, 아니면 신호가 임계값 이하로 내려온 날 종가에 매도한다.
+ * 구간 끝까지 보유 중이면 마지막 종가로 청산한다. 모든 배열은 primitive 이며 할당이 없다.
+ */
+public final class SignalBacktest {
+
+    private SignalBacktest() {
+    }
+
+    /**
+     * 거래 통계 (조합별 누적, 스레드 간 {@link #merge} 로 합산)
+     */
+    public static final class Stats {
+
+        private long trades;
+        private long wins;
+        private long holdingDays;
+        private double sumReturn;
+        private double sumLogReturn;
+        private double sumSquaredReturn;
+
+        public void add(double ret, int days) {
+            trades++;
+            if (ret > 0) {
+                wins++;
+            }
+            holdingDays += days;
+            sumReturn += ret;
+            sumSquaredReturn += ret * ret;
+            sumLogReturn += Math.log1p(Math.max(ret, -0.999999));
+        }
+
+        public void merge(Stats other) {
+            trades += other.trades;
+            wins += other.wins;
+            holdingDays += other.holdingDays;
+            sumReturn += other.sumReturn;
+            sumLogReturn += other.sumLogReturn;
+            sumSquaredReturn += other.sumSquaredReturn;
+        }
+
+        public long trades() {
+            return trades;
+        }
+
+        public double hitRate() {
+            return trades == 0 ? Double.NaN : (double) wins / trades;
+        }
+
+        public double averageReturn() {
+            return trades == 0 ? Double.NaN : sumReturn / trades;
+        }
+
+        public double returnStdDev() {
+            if (trades < 2) {
+                return Double.NaN;
+            }
+            double mean = sumReturn / trades;
+            return Math.sqrt(Math.max(0, (sumSquaredReturn - trades * mean * mean) / (trades - 1)));
+        }
+
+        public double averageHoldingDays() {
+            return trades == 0 ? Double.NaN : (double) holdingDays / trades;
+        }
+
+        /** 전체 거래 로그수익률 합 (복리 누적수익률 = exp(x) - 1) */
+        public double totalLogReturn() {
+            return sumLogReturn;
+        }
+    }
+
+    /**
+     * 단일 종목 × 단일 조합 백테스트
+     *
+     * @param prices 종가 (0 이하는 가격 없음)
+     * @param signal 신호 (NaN 은 신호 없음)
+     * @param from 시작 인덱스 (포함)
+     * @param to 종료 인덱스 (미포함)
+     * @param threshold 진입 임계값
+     * @param holdDays 보유 거래일 수 (0 이면 신호 이탈 시 청산)
+     * @param cost 왕복 거래비용 (비율)
+     */
+    public static void run(long[] prices, double[] signal, int from, int to,
+                           double threshold, int holdDays, double cost, Stats stats) {
+        int entry = -1;
+        double previous = Double.NaN;
+
+        for (int t = from; t < to; t++) {
+            double s = signal[t];
+            long price = prices[t];
+
+            if (entry >= 0 && price > 0) {
+                boolean exit = holdDays > 0 ? t - entry >= holdDays : !(s > threshold);
+                if (exit) {
+                    stats.add((double) price / prices[entry] - 1.0 - cost, t - entry);
+                    entry = -1;
+                }
+            } else if (entry < 0 && price > 0 && s > threshold && previous <= threshold) {
+                entry = t;
+            }
+            previous = s;
+        }
+
+        if (entry >= 0) {
+            for (int t = to - 1; t > entry; t--) {
+                if (prices[t] > 0) {
+                    stats.add((double) prices[t] / prices[entry] - 1.0 - cost, t - entry);
+                    break;
+                }
+            }
+        }
+    }
+}
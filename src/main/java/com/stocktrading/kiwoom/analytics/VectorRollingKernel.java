@@ -0,0 +1,168 @@
+package com.stocktrading.kiwoom.analytics;
+
+import java.util.Arrays;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * jdk.incubator.vector 기반 SIMD 커널
+ *
+ * 누적합 자체는 순차 계산이지만, 기간별 이동합계/평균/표준편차/비율은 이동된 두 누적합 배열의
+ * 차이이므로 lane 단위로 병렬 계산한다. (--add-modules jdk.incubator.vector 필요)
+ */
+final class VectorRollingKernel implements RollingKernel {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    private final ScalarRollingKernel scalar = new ScalarRollingKernel();
+
+    @Override
+    public void prefixSums(long[] values, long[] prefix) {
+        scalar.prefixSums(values, prefix);
+    }
+
+    @Override
+    public void windowSums(long[] prefix, int window, long[] out) {
+        int n = out.length;
+        int start = Math.min(window - 1, n);
+        Arrays.fill(out, 0, start, 0L);
+
+        int i = start;
+        int upper = start + LONGS.loopBound(n - start);
+        for (; i < upper; i += LONGS.length()) {
+            LongVector hi = LongVector.fromArray(LONGS, prefix, i + 1);
+            LongVector lo = LongVector.fromArray(LONGS, prefix, i + 1 - window);
+            hi.sub(lo).intoArray(out, i);
+        }
+        for (; i < n; i++) {
+            out[i] = prefix[i + 1] - prefix[i + 1 - window];
+        }
+    }
+
+    @Override
+    public void windowAverages(long[] prefix, int window, double[] out) {
+        int n = out.length;
+        int start = Math.min(window - 1, n);
+        Arrays.fill(out, 0, start, Double.NaN);
+
+        if (LONGS.length() != DOUBLES.length()) {
+            scalar.windowAverages(prefix, window, out);
+            return;
+        }
+
+        double divisor = window;
+        int i = start;
+        int upper = start + LONGS.loopBound(n - start);
+        for (; i < upper; i += LONGS.length()) {
+            LongVector hi = LongVector.fromArray(LONGS, prefix, i + 1);
+            LongVector lo = LongVector.fromArray(LONGS, prefix, i + 1 - window);
+            DoubleVector sums = (DoubleVector) hi.sub(lo).convert(VectorOperators.L2D, 0);
+            sums.div(divisor).intoArray(out, i);
+        }
+        for (; i < n; i++) {
+            out[i] = (double) (prefix[i + 1] - prefix[i + 1 - window]) / window;
+        }
+    }
+
+    @Override
+    public void rollingStd(long[] values, int window, double[] out) {
+        int n = values.length;
+        int start = Math.min(window - 1, n);
+        Arrays.fill(out, 0, start, Double.NaN);
+        if (start >= n) {
+            return;
+        }
+
+        // 누적합은 스칼라와 같은 순서로 계산하고 구간 차이만 lane 단위로 계산 (결과 동일)
+        double[] sum = new double[n + 1];
+        double[] sumSq = new double[n + 1];
+        ScalarRollingKernel.centeredPrefixSums(values, sum, sumSq);
+
+        double w = window;
+        double wMinus1 = window - 1;
+        int i = start;
+        int upper = start + DOUBLES.loopBound(n - start);
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector s = DoubleVector.fromArray(DOUBLES, sum, i + 1)
+                .sub(DoubleVector.fromArray(DOUBLES, sum, i + 1 - window));
+            DoubleVector sq = DoubleVector.fromArray(DOUBLES, sumSq, i + 1)
+                .sub(DoubleVector.fromArray(DOUBLES, sumSq, i + 1 - window));
+            sq.sub(s.mul(s).div(w)).div(wMinus1).max(0.0).sqrt().intoArray(out, i);
+        }
+        for (; i < n; i++) {
+            out[i] = ScalarRollingKernel.std(sum[i + 1] - sum[i + 1 - window],
+                sumSq[i + 1] - sumSq[i + 1 - window], w, wMinus1);
+        }
+    }
+
+    @Override
+    public void rollingRatio(long[] numeratorPrefix, long[] denominatorPrefix, int window, double[] out) {
+        int n = out.length;
+        int start = Math.min(window - 1, n);
+        Arrays.fill(out, 0, start, Double.NaN);
+
+        if (LONGS.length() != DOUBLES.length()) {
+            scalar.rollingRatio(numeratorPrefix, denominatorPrefix, window, out);
+            return;
+        }
+
+        int i = start;
+        int upper = start + LONGS.loopBound(n - start);
+        for (; i < upper; i += LONGS.length()) {
+            LongVector num = LongVector.fromArray(LONGS, numeratorPrefix, i + 1)
+                .sub(LongVector.fromArray(LONGS, numeratorPrefix, i + 1 - window));
+            LongVector den = LongVector.fromArray(LONGS, denominatorPrefix, i + 1)
+                .sub(LongVector.fromArray(LONGS, denominatorPrefix, i + 1 - window));
+            VectorMask<Long> zero = den.compare(VectorOperators.EQ, 0L);
+            DoubleVector ratio = ((DoubleVector) num.convert(VectorOperators.L2D, 0))
+                .div((DoubleVector) den.convert(VectorOperators.L2D, 0));
+            ratio.blend(Double.NaN, zero.cast(DOUBLES)).intoArray(out, i);
+        }
+        for (; i < n; i++) {
+            out[i] = ScalarRollingKernel.ratio(numeratorPrefix[i + 1] - numeratorPrefix[i + 1 - window],
+                denominatorPrefix[i + 1] - denominatorPrefix[i + 1 - window]);
+        }
+    }
+
+    @Override
+    public double sumAbs(double[] values, int from, int to) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        int i = from;
+        int upper = from + DOUBLES.loopBound(to - from);
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, values, i);
+            VectorMask<Double> valid = v.test(VectorOperators.IS_NAN).not();
+            acc = acc.add(v.abs(), valid);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double v = values[i];
+            if (!Double.isNaN(v)) {
+                sum += Math.abs(v);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public long sumAbsProducts(long[] a, long[] b, int from, int to) {
+        LongVector acc = LongVector.zero(LONGS);
+        int i = from;
+        int upper = from + LONGS.loopBound(to - from);
+        for (; i < upper; i += LONGS.length()) {
+            LongVector va = LongVector.fromArray(LONGS, a, i);
+            LongVector vb = LongVector.fromArray(LONGS, b, i);
+            acc = acc.add(va.mul(vb).abs());
+        }
+        long sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += Math.abs(a[i] * b[i]);
+        }
+        return sum;
+    }
+}
@@ -2,7 +2,11 @@ package com.stocktrading.kiwoom.application.service;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -250,11 +254,38 @@ public class InvestorChartApplicationService implements FetchInvestorChartUseCas
         return chartPort.findByStockAndPeriod(stockCode, startDate, endDate);
     }
 
+    @Override
+    public Map<String, List<InvestorChart>> queryByStocksAndPeriod(List<String> stockCodes, LocalDate startDate,
+                                                                   LocalDate endDate) {
+        Map<String, List<InvestorChart>> result = new LinkedHashMap<>();
+        stockCodes.forEach(stockCode -> result.put(stockCode, new ArrayList<>()));
+        chartPort.streamByStocksAndPeriod(stockCodes, startDate, endDate,
+                chart -> result.computeIfAbsent(chart.getStockCode(), k -> new ArrayList<>()).add(chart));
+        return result;
+    }
+
+    @Override
+    public void exportByStocksAndPeriod(List<String> stockCodes, LocalDate startDate, LocalDate endDate,
+                                        Consumer<InvestorChart> consumer) {
+        chartPort.streamByStocksAndPeriod(stockCodes, startDate, endDate, consumer);
+    }
+
     @Override
     public List<InvestorChart> queryByDate(LocalDate date) {
         return chartPort.findByDate(date);
     }
 
+    @Override
+    public void exportByStockAndPeriod(String stockCode, LocalDate startDate, LocalDate endDate,
+                                       Consumer<InvestorChart> consumer) {
+        chartPort.streamByStockAndPeriod(stockCode, startDate, endDate, consumer);
+    }
+
+    @Override
+    public void exportByDate(LocalDate date, Consumer<InvestorChart> consumer) {
+        chartPort.streamByDate(date, consumer);
+    }
+
     @Override
     public InvestorChart queryLatestByStock(String stockCode) {
         return chartPort.findLatestByStock(stockCode).orElse(null);
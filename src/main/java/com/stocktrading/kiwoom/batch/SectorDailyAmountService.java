@@ -0,0 +1,200 @@
+package com.stocktrading.kiwoom.batch;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
+import com.stocktrading.kiwoom.domain.event.InvestorChartSavedEvent;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+import com.stocktrading.kiwoom.service.InvestorPrefixSumService;
+import com.stocktrading.kiwoom.service.InvestorPrefixSumService.TargetType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 섹터 일별 거래대금 합계(tb_sector_daily_amount) 증분 갱신 서비스
+ *
+ * 차트 데이터가 저장되면 해당 종목이 속한 섹터(tb_sector_member_snapshot 기준)의
+ * 변경 일자 합계만 원천 데이터에서 다시 집계하고, 종목/섹터 누적합을 변경 일자부터 재구성한다.
+ *
+ * 수집 중에는 종목마다 저장 이벤트가 오므로 바로 계산하면 같은 섹터를 종목 수만큼 다시 집계한다.
+ * 변경 종목/일자를 모아 두었다가 주기적으로 한 번에 계산한다. (섹터당 재집계/누적합 재구성 1회)
+ * 변경 목록은 메모리에만 있으므로, 기동 시 원천 행의 등록/수정 시각이 파생 행보다 늦은 종목/일자를 다시 등록한다.
+ * 구성종목 변경은 {@link SectorMembershipDeltaService} 가 처리한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SectorDailyAmountService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvestorPrefixSumService prefixSumService;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final String REFRESH_DATES_SQL = buildRefreshDatesSql();
+
+    // 파생 행(종목 누적합, 섹터 합계)보다 늦게 저장/수정된 원천 종목/일자
+    // (섹터 합계는 첫 적재 일자 이후 누락된 일자 포함)
+    private static final String STALE_DATES_SQL =
+        "SELECT c.stk_cd, c.dt FROM tb_stock_investor_chart c " +
+        "INNER JOIN tb_investor_prefix_sum p ON p.target_tp = 'STOCK' AND p.target_cd = c.stk_cd AND p.dt = c.dt " +
+        "WHERE COALESCE(c.upd_dt, c.reg_dt) > p.reg_dt " +
+        "UNION " +
+        "SELECT c.stk_cd, c.dt FROM tb_stock_investor_chart c " +
+        "INNER JOIN tb_sector_member_snapshot m ON m.stk_cd = c.stk_cd " +
+        "LEFT JOIN tb_sector_daily_amount a ON a.sector_cd = m.sector_cd AND a.dt = c.dt " +
+        "WHERE c.dt >= (SELECT MIN(dt) FROM tb_sector_daily_amount) " +
+        "AND (a.dt IS NULL OR COALESCE(c.upd_dt, c.reg_dt) > a.reg_dt)";
+
+    // 다시 집계할 종목코드 → 변경 일자 (값은 merge 안에서만 수정)
+    private final Map<String, SortedSet<LocalDate>> pendingDatesByStock = new ConcurrentHashMap<>();
+
+    /**
+     * 차트 저장 커밋 후 변경 종목/일자 등록 (계산은 {@link #flushPending()})
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvestorChartSaved(InvestorChartSavedEvent event) {
+        event.datesByStock().forEach(this::enqueue);
+    }
+
+    /**
+     * 기동 시 파생 데이터가 원천보다 오래된 종목/일자 등록 (이전 프로세스 종료로 잃어버린 변경 복구)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void enqueueStaleDates() {
+        try {
+            Map<String, SortedSet<LocalDate>> stale = new TreeMap<>();
+            jdbcTemplate.query(STALE_DATES_SQL, rs -> {
+                stale.computeIfAbsent(rs.getString("stk_cd"), k -> new TreeSet<>())
+                    .add(rs.getDate("dt").toLocalDate());
+            });
+            stale.forEach(this::enqueue);
+            if (!stale.isEmpty()) {
+                log.info("섹터 일별 거래대금 미반영 변경 등록: 종목 {} 개", stale.size());
+            }
+        } catch (Exception e) {
+            log.error("섹터 일별 거래대금 미반영 변경 조회 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 모아 둔 변경 종목/일자 일괄 갱신
+     * (별도 트랜잭션 사용, 실패해도 차트 저장에는 영향 없음, 실패한 변경은 다시 등록하여 다음 주기에 재시도)
+     */
+    @Scheduled(fixedDelayString = "${batch.sector-daily-amount.flush-delay-ms:30000}")
+    public void flushPending() {
+        if (pendingDatesByStock.isEmpty()) {
+            return;
+        }
+        Map<String, SortedSet<LocalDate>> datesByStock = new TreeMap<>();
+        for (String stkCd : new ArrayList<>(pendingDatesByStock.keySet())) {
+            SortedSet<LocalDate> dates = pendingDatesByStock.remove(stkCd);
+            if (dates != null && !dates.isEmpty()) {
+                datesByStock.put(stkCd, dates);
+            }
+        }
+        if (datesByStock.isEmpty()) {
+            return;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transactionTemplate.executeWithoutResult(status -> refresh(datesByStock));
+        } catch (Exception e) {
+            datesByStock.forEach(this::enqueue);
+            log.error("섹터 일별 거래대금 증분 갱신 실패 - 다음 주기에 재시도: 종목수={}", datesByStock.size(), e);
+        }
+    }
+
+    private void enqueue(String stkCd, SortedSet<LocalDate> dates) {
+        pendingDatesByStock.merge(stkCd, new TreeSet<>(dates), (pending, added) -> {
+            pending.addAll(added);
+            return pending;
+        });
+    }
+
+    /**
+     * 변경된 종목/일자 기준으로 섹터 일별 합계와 누적합 갱신
+     *
+     * @param datesByStock 종목코드 → 변경 일자
+     * @return 갱신된 섹터 일별 합계 행 수
+     */
+    @Transactional
+    public int refresh(Map<String, ? extends SortedSet<LocalDate>> datesByStock) {
+        long startTime = System.currentTimeMillis();
+
+        // 1. 종목 누적합: 가장 이른 변경 일자부터 재구성 (마지막 누적일 이후면 단순 추가와 동일)
+        for (Map.Entry<String, ? extends SortedSet<LocalDate>> entry : datesByStock.entrySet()) {
+            prefixSumService.rebuildFrom(TargetType.STOCK, entry.getKey(), entry.getValue().first());
+        }
+
+        // 2. 변경 종목이 속한 섹터별 변경 일자 모으기
+        Map<String, SortedSet<LocalDate>> datesBySector = new TreeMap<>();
+        jdbcTemplate.query(
+            "SELECT sector_cd, stk_cd FROM tb_sector_member_snapshot WHERE stk_cd = ANY(?)",
+            rs -> {
+                datesBySector.computeIfAbsent(rs.getString("sector_cd"), k -> new TreeSet<>())
+                    .addAll(datesByStock.get(rs.getString("stk_cd")));
+            },
+            (Object) datesByStock.keySet().toArray(new String[0]));
+
+        // 3. 섹터별 변경 일자 합계 재집계 후 누적합 재구성
+        int rows = 0;
+        for (Map.Entry<String, SortedSet<LocalDate>> entry : datesBySector.entrySet()) {
+            String sectorCd = entry.getKey();
+            String[] dates = entry.getValue().stream().map(LocalDate::toString).toArray(String[]::new);
+
+            jdbcTemplate.update(
+                "DELETE FROM tb_sector_daily_amount WHERE sector_cd = ? AND dt = ANY(CAST(? AS DATE[]))",
+                sectorCd, dates);
+            rows += jdbcTemplate.update(REFRESH_DATES_SQL, sectorCd, sectorCd, dates);
+
+            prefixSumService.rebuildFrom(TargetType.SECTOR, sectorCd, entry.getValue().first());
+        }
+
+        // 4. 누적합 기반 조회 응답 무효화 (커밋 후)
+        eventPublisher.publishEvent(AnalyticsDataChangedEvent.of(Dataset.STOCK_MA, datesByStock.keySet()));
+        if (!datesBySector.isEmpty()) {
+            eventPublisher.publishEvent(AnalyticsDataChangedEvent.of(Dataset.SECTOR_MA, datesBySector.keySet()));
+        }
+
+        log.debug("섹터 일별 거래대금 증분 갱신: 종목={} 개, 섹터={}, {} 행, {}ms",
+            datesByStock.size(), datesBySector.keySet(), rows, System.currentTimeMillis() - startTime);
+        return rows;
+    }
+
+    /**
+     * 스냅샷 구성종목 기준으로 지정 일자의 섹터 합계를 집계하여 적재
+     */
+    private static String buildRefreshDatesSql() {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder select = new StringBuilder("SELECT ?, c.dt, COUNT(*)");
+        for (InvestorType investor : InvestorType.values()) {
+            columns.append(", ").append(investor.getColumn());
+            select.append(", COALESCE(SUM(c.cur_prc * ").append(investor.chartExpression("c")).append("), 0)");
+        }
+        return "INSERT INTO tb_sector_daily_amount (sector_cd, dt, stk_cnt" + columns + ") " +
+            select + " " +
+            "FROM tb_stock_investor_chart c " +
+            "INNER JOIN tb_sector_member_snapshot m ON m.stk_cd = c.stk_cd AND m.sector_cd = ? " +
+            "WHERE c.dt = ANY(CAST(? AS DATE[])) " +
+            "GROUP BY c.dt";
+    }
+}
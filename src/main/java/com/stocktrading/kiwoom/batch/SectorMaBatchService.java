@@ -7,12 +7,16 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.stocktrading.kiwoom.adapter.out.persistence.entity.StockInvestorSectorMaEntity;
 import com.stocktrading.kiwoom.adapter.out.persistence.repository.StockInvestorSectorMaRepository;
+import com.stocktrading.kiwoom.analytics.RollingKernels;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,12 +33,33 @@ public class SectorMaBatchService {
 
     private final JdbcTemplate jdbcTemplate;
     private final StockInvestorSectorMaRepository sectorMaRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
 
     // 이동평균 기간
     private static final int[] MA_PERIODS = {5, 10, 20, 30, 40, 50, 60, 90, 120, 140};
 
+    // 섹터 투자자 컬럼 (toColumns 순서)
+    private static final String[] INVESTOR_COLUMNS = {
+        "frgnr_invsr", "orgn", "frgnr_orgn", "ind_invsr", "fnnc_invt", "insrnc", "invtrt",
+        "etc_fnnc", "bank", "penfnd_etc", "samo_fund", "natn", "etc_corp", "natfor"
+    };
+
+    // 섹터 코드 → 섹터명
+    private static final Map<String, String> SECTOR_NAME_MAP = Map.of(
+        "semicon", "반도체",
+        "heavyind", "철강/조선",
+        "auto", "자동차",
+        "battery", "이차전지",
+        "ai_infra", "AI(전력/SMR/에너지)",
+        "petro", "석유화학/정유",
+        "defense", "방위산업",
+        "culture", "뷰티/엔터/게임",
+        "robot", "첨단로봇",
+        "bio", "바이오/제약"
+    );
+
     /**
      * 특정 날짜의 모든 섹터에 대해 이동평균 계산 및 저장
      */
@@ -61,6 +86,7 @@ public class SectorMaBatchService {
                 }
             }
 
+            eventPublisher.publishEvent(AnalyticsDataChangedEvent.all(Dataset.SECTOR_MA));
             log.info("=== 섹터별 이동평균 계산 완료: 성공={}, 실패={} ===", successCount, failCount);
 
         } catch (Exception e) {
@@ -71,7 +97,8 @@ public class SectorMaBatchService {
 
     /**
      * 특정 섹터의 기간 범위에 대해 이동평균 계산 및 저장
-     * 섹터에 새로운 종목이 추가되었을 때 해당 섹터만 재계산
+     * 원천 데이터부터 전체 기간을 다시 계산하므로, 단순 편입/편출은
+     * {@link SectorMembershipDeltaService#syncMembership()} 사용
      * (각 날짜별로 개별 트랜잭션으로 처리하여 타임아웃 방지)
      *
      * @param sectorCd 섹터 코드
@@ -129,6 +156,7 @@ public class SectorMaBatchService {
                 }
             }
 
+            eventPublisher.publishEvent(AnalyticsDataChangedEvent.of(Dataset.SECTOR_MA, sectorCd));
             log.info("=== 특정 섹터 이동평균 기간 배치 완료 ===");
             log.info("섹터: {}", sectorCd);
             log.info("처리 기간: {} ~ {}", startDate, endDate);
@@ -201,6 +229,7 @@ public class SectorMaBatchService {
                 }
             }
 
+            eventPublisher.publishEvent(AnalyticsDataChangedEvent.all(Dataset.SECTOR_MA));
             log.info("=== 섹터별 이동평균 기간 배치 완료 ===");
             log.info("처리 기간: {} ~ {}", startDate, endDate);
             log.info("처리 일수: {} 일", totalDays);
@@ -310,34 +339,17 @@ public class SectorMaBatchService {
 
     /**
      * 특정 날짜까지의 섹터별 일별 거래대금 데이터 조회 (거래일 기준 정확한 계산용)
+     * (tb_sector_daily_amount 에 미리 집계된 합계 사용)
      */
     private List<SectorDailyData> getSectorDailyTradingAmountUntilDate(String sectorCd, LocalDate endDate) {
         String sql =
-            "WITH sector_stocks AS ( " +
-            "  SELECT code FROM tb_stock_list_meta " +
-            "  WHERE main = 'SECTOR' AND detail = ? " +
-            ") " +
             "SELECT " +
-            "  TO_CHAR(c.dt, 'YYYYMMDD') as dt, " +
-            "  COALESCE(SUM(c.cur_prc * c.frgnr_invsr), 0) as frgnr_invsr, " +
-            "  COALESCE(SUM(c.cur_prc * c.orgn), 0) as orgn, " +
-            "  COALESCE(SUM(c.cur_prc * (c.frgnr_invsr + c.orgn)), 0) as frgnr_orgn, " +
-            "  COALESCE(SUM(c.cur_prc * c.ind_invsr), 0) as ind_invsr, " +
-            "  COALESCE(SUM(c.cur_prc * c.fnnc_invt), 0) as fnnc_invt, " +
-            "  COALESCE(SUM(c.cur_prc * c.insrnc), 0) as insrnc, " +
-            "  COALESCE(SUM(c.cur_prc * c.invtrt), 0) as invtrt, " +
-            "  COALESCE(SUM(c.cur_prc * c.etc_fnnc), 0) as etc_fnnc, " +
-            "  COALESCE(SUM(c.cur_prc * c.bank), 0) as bank, " +
-            "  COALESCE(SUM(c.cur_prc * c.penfnd_etc), 0) as penfnd_etc, " +
-            "  COALESCE(SUM(c.cur_prc * c.samo_fund), 0) as samo_fund, " +
-            "  COALESCE(SUM(c.cur_prc * c.natn), 0) as natn, " +
-            "  COALESCE(SUM(c.cur_prc * c.etc_corp), 0) as etc_corp, " +
-            "  COALESCE(SUM(c.cur_prc * c.natfor), 0) as natfor " +
-            "FROM tb_stock_investor_chart c " +
-            "INNER JOIN sector_stocks s ON c.stk_cd = s.code " +
-            "WHERE c.dt <= ? " +
-            "GROUP BY c.dt " +
-            "ORDER BY c.dt DESC " +  // 내림차순으로 정렬 (최신 날짜가 먼저)
+            "  TO_CHAR(dt, 'YYYYMMDD') as dt, " +
+            "  frgnr_invsr, orgn, frgnr_orgn, ind_invsr, fnnc_invt, insrnc, invtrt, " +
+            "  etc_fnnc, bank, penfnd_etc, samo_fund, natn, etc_corp, natfor " +
+            "FROM tb_sector_daily_amount " +
+            "WHERE sector_cd = ? AND dt <= ? " +
+            "ORDER BY dt DESC " +  // 내림차순으로 정렬 (최신 날짜가 먼저)
             "LIMIT 200";  // 충분한 거래일 데이터 확보 (140일 + 여유분)
 
         return jdbcTemplate.query(sql,
@@ -369,35 +381,18 @@ public class SectorMaBatchService {
      * 섹터별 일별 거래대금 데이터 조회
      *
      * 거래대금 = cur_prc × 투자자별_순매수량
-     * 섹터별로 GROUP BY하여 SUM
+     * 섹터별 합계는 tb_sector_daily_amount 에 미리 집계되어 있음
+     * (차트 저장 시 {@link SectorDailyAmountService}, 구성종목 변경 시 {@link SectorMembershipDeltaService} 가 갱신)
      */
     private List<SectorDailyData> getSectorDailyTradingAmount(String sectorCd, LocalDate startDate, LocalDate endDate) {
         String sql =
-            "WITH sector_stocks AS ( " +
-            "  SELECT code FROM tb_stock_list_meta " +
-            "  WHERE main = 'SECTOR' AND detail = ? " +
-            ") " +
             "SELECT " +
-            "  TO_CHAR(c.dt, 'YYYYMMDD') as dt, " +
-            "  COALESCE(SUM(c.cur_prc * c.frgnr_invsr), 0) as frgnr_invsr, " +
-            "  COALESCE(SUM(c.cur_prc * c.orgn), 0) as orgn, " +
-            "  COALESCE(SUM(c.cur_prc * (c.frgnr_invsr + c.orgn)), 0) as frgnr_orgn, " +
-            "  COALESCE(SUM(c.cur_prc * c.ind_invsr), 0) as ind_invsr, " +
-            "  COALESCE(SUM(c.cur_prc * c.fnnc_invt), 0) as fnnc_invt, " +
-            "  COALESCE(SUM(c.cur_prc * c.insrnc), 0) as insrnc, " +
-            "  COALESCE(SUM(c.cur_prc * c.invtrt), 0) as invtrt, " +
-            "  COALESCE(SUM(c.cur_prc * c.etc_fnnc), 0) as etc_fnnc, " +
-            "  COALESCE(SUM(c.cur_prc * c.bank), 0) as bank, " +
-            "  COALESCE(SUM(c.cur_prc * c.penfnd_etc), 0) as penfnd_etc, " +
-            "  COALESCE(SUM(c.cur_prc * c.samo_fund), 0) as samo_fund, " +
-            "  COALESCE(SUM(c.cur_prc * c.natn), 0) as natn, " +
-            "  COALESCE(SUM(c.cur_prc * c.etc_corp), 0) as etc_corp, " +
-            "  COALESCE(SUM(c.cur_prc * c.natfor), 0) as natfor " +
-            "FROM tb_stock_investor_chart c " +
-            "INNER JOIN sector_stocks s ON c.stk_cd = s.code " +
-            "WHERE c.dt BETWEEN ? AND ? " +
-            "GROUP BY c.dt " +
-            "ORDER BY c.dt";
+            "  TO_CHAR(dt, 'YYYYMMDD') as dt, " +
+            "  frgnr_invsr, orgn, frgnr_orgn, ind_invsr, fnnc_invt, insrnc, invtrt, " +
+            "  etc_fnnc, bank, penfnd_etc, samo_fund, natn, etc_corp, natfor " +
+            "FROM tb_sector_daily_amount " +
+            "WHERE sector_cd = ? AND dt BETWEEN ? AND ? " +
+            "ORDER BY dt";
 
         return jdbcTemplate.query(sql,
             (rs, rowNum) -> {
@@ -457,9 +452,21 @@ public class SectorMaBatchService {
             dailyDataList = filteredList;
         }
 
-        // 각 이동평균 기간에 대해 계산 (거래일 기준)
-        for (int period : MA_PERIODS) {
-            calculateMovingAverageForTradingDays(entity, dailyDataList, period);
+        // 날짜 오름차순 컬럼 배열로 변환 후 모든 기간을 한 번에 계산 (거래일 기준)
+        List<SectorDailyData> ascending = new ArrayList<>(dailyDataList);
+        Collections.reverse(ascending);
+        double[][] averages = RollingKernels.trailingAverages(toColumns(ascending), MA_PERIODS);
+
+        for (int p = 0; p < MA_PERIODS.length; p++) {
+            int period = MA_PERIODS[p];
+            if (dailyDataList.size() < period) {
+                log.debug("이동평균 계산 스킵 (데이터 부족): period={}, available={}",
+                    period, dailyDataList.size());
+                continue;
+            }
+            for (int c = 0; c < INVESTOR_COLUMNS.length; c++) {
+                setMovingAverageValue(entity, INVESTOR_COLUMNS[c], period, toMaValue(averages[c][p]));
+            }
         }
 
         return entity;
@@ -506,41 +513,6 @@ public class SectorMaBatchService {
         return entity;
     }
 
-    /**
-     * 특정 기간의 이동평균 계산 (거래일 기준)
-     */
-    private void calculateMovingAverageForTradingDays(
-        StockInvestorSectorMaEntity entity,
-        List<SectorDailyData> dailyDataList,
-        int period
-    ) {
-        // 거래일 기준으로 정확히 period 개수만큼 가져오기
-        if (dailyDataList.size() < period) {
-            log.debug("이동평균 계산 스킵 (데이터 부족): period={}, available={}",
-                period, dailyDataList.size());
-            return;
-        }
-
-        // 정확히 period 개수만큼 데이터 가져오기 (이미 내림차순 정렬되어 있음)
-        List<SectorDailyData> periodData = dailyDataList.subList(0, period);
-
-        // 각 투자자별 이동평균 계산
-        setMovingAverageValue(entity, "frgnr_invsr", period, calculateAverage(periodData, SectorDailyData::getFrgnrInvsr));
-        setMovingAverageValue(entity, "orgn", period, calculateAverage(periodData, SectorDailyData::getOrgn));
-        setMovingAverageValue(entity, "frgnr_orgn", period, calculateAverage(periodData, SectorDailyData::getFrgnrOrgn));
-        setMovingAverageValue(entity, "ind_invsr", period, calculateAverage(periodData, SectorDailyData::getIndInvsr));
-        setMovingAverageValue(entity, "fnnc_invt", period, calculateAverage(periodData, SectorDailyData::getFnncInvt));
-        setMovingAverageValue(entity, "insrnc", period, calculateAverage(periodData, SectorDailyData::getInsrnc));
-        setMovingAverageValue(entity, "invtrt", period, calculateAverage(periodData, SectorDailyData::getInvtrt));
-        setMovingAverageValue(entity, "etc_fnnc", period, calculateAverage(periodData, SectorDailyData::getEtcFnnc));
-        setMovingAverageValue(entity, "bank", period, calculateAverage(periodData, SectorDailyData::getBank));
-        setMovingAverageValue(entity, "penfnd_etc", period, calculateAverage(periodData, SectorDailyData::getPenfndEtc));
-        setMovingAverageValue(entity, "samo_fund", period, calculateAverage(periodData, SectorDailyData::getSamoFund));
-        setMovingAverageValue(entity, "natn", period, calculateAverage(periodData, SectorDailyData::getNatn));
-        setMovingAverageValue(entity, "etc_corp", period, calculateAverage(periodData, SectorDailyData::getEtcCorp));
-        setMovingAverageValue(entity, "natfor", period, calculateAverage(periodData, SectorDailyData::getNatfor));
-    }
-
     /**
      * 특정 기간의 이동평균 계산 (기존 메서드)
      */
@@ -559,31 +531,43 @@ public class SectorMaBatchService {
             return;
         }
 
-        // 각 투자자별 이동평균 계산
-        setMovingAverageValue(entity, "frgnr_invsr", period, calculateAverage(periodData, SectorDailyData::getFrgnrInvsr));
-        setMovingAverageValue(entity, "orgn", period, calculateAverage(periodData, SectorDailyData::getOrgn));
-        setMovingAverageValue(entity, "frgnr_orgn", period, calculateAverage(periodData, SectorDailyData::getFrgnrOrgn));
-        setMovingAverageValue(entity, "ind_invsr", period, calculateAverage(periodData, SectorDailyData::getIndInvsr));
-        setMovingAverageValue(entity, "fnnc_invt", period, calculateAverage(periodData, SectorDailyData::getFnncInvt));
-        setMovingAverageValue(entity, "insrnc", period, calculateAverage(periodData, SectorDailyData::getInsrnc));
-        setMovingAverageValue(entity, "invtrt", period, calculateAverage(periodData, SectorDailyData::getInvtrt));
-        setMovingAverageValue(entity, "etc_fnnc", period, calculateAverage(periodData, SectorDailyData::getEtcFnnc));
-        setMovingAverageValue(entity, "bank", period, calculateAverage(periodData, SectorDailyData::getBank));
-        setMovingAverageValue(entity, "penfnd_etc", period, calculateAverage(periodData, SectorDailyData::getPenfndEtc));
-        setMovingAverageValue(entity, "samo_fund", period, calculateAverage(periodData, SectorDailyData::getSamoFund));
-        setMovingAverageValue(entity, "natn", period, calculateAverage(periodData, SectorDailyData::getNatn));
-        setMovingAverageValue(entity, "etc_corp", period, calculateAverage(periodData, SectorDailyData::getEtcCorp));
-        setMovingAverageValue(entity, "natfor", period, calculateAverage(periodData, SectorDailyData::getNatfor));
+        // 각 투자자별 이동평균 계산 (구간 전체 평균)
+        double[][] averages = RollingKernels.trailingAverages(toColumns(periodData), new int[] {periodData.size()});
+        for (int c = 0; c < INVESTOR_COLUMNS.length; c++) {
+            setMovingAverageValue(entity, INVESTOR_COLUMNS[c], period, toMaValue(averages[c][0]));
+        }
+    }
+
+    /**
+     * 일별 데이터를 투자자 컬럼별 배열로 변환 (INVESTOR_COLUMNS 순서)
+     */
+    private long[][] toColumns(List<SectorDailyData> dataList) {
+        int n = dataList.size();
+        long[][] columns = new long[INVESTOR_COLUMNS.length][n];
+        for (int i = 0; i < n; i++) {
+            SectorDailyData data = dataList.get(i);
+            columns[0][i] = data.getFrgnrInvsr();
+            columns[1][i] = data.getOrgn();
+            columns[2][i] = data.getFrgnrOrgn();
+            columns[3][i] = data.getIndInvsr();
+            columns[4][i] = data.getFnncInvt();
+            columns[5][i] = data.getInsrnc();
+            columns[6][i] = data.getInvtrt();
+            columns[7][i] = data.getEtcFnnc();
+            columns[8][i] = data.getBank();
+            columns[9][i] = data.getPenfndEtc();
+            columns[10][i] = data.getSamoFund();
+            columns[11][i] = data.getNatn();
+            columns[12][i] = data.getEtcCorp();
+            columns[13][i] = data.getNatfor();
+        }
+        return columns;
     }
 
     /**
-     * 평균값 계산
+     * 평균값을 저장 단위(원 단위 반올림)로 변환
      */
-    private BigDecimal calculateAverage(List<SectorDailyData> data, java.util.function.ToLongFunction<SectorDailyData> getter) {
-        double avg = data.stream()
-            .mapToLong(getter)
-            .average()
-            .orElse(0.0);
+    private BigDecimal toMaValue(double avg) {
         return BigDecimal.valueOf(avg).setScale(0, RoundingMode.HALF_UP);
     }
 
@@ -625,20 +609,8 @@ public class SectorMaBatchService {
     /**
      * 섹터명 조회
      */
-    private String getSectorName(String sectorCd) {
-        Map<String, String> sectorNameMap = new HashMap<>();
-        sectorNameMap.put("semicon", "반도체");
-        sectorNameMap.put("heavyind", "철강/조선");
-        sectorNameMap.put("auto", "자동차");
-        sectorNameMap.put("battery", "이차전지");
-        sectorNameMap.put("ai_infra", "AI(전력/SMR/에너지)");
-        sectorNameMap.put("petro", "석유화학/정유");
-        sectorNameMap.put("defense", "방위산업");
-        sectorNameMap.put("culture", "뷰티/엔터/게임");
-        sectorNameMap.put("robot", "첨단로봇");
-        sectorNameMap.put("bio", "바이오/제약");
-
-        return sectorNameMap.getOrDefault(sectorCd, sectorCd);
+    static String getSectorName(String sectorCd) {
+        return SECTOR_NAME_MAP.getOrDefault(sectorCd, sectorCd);
     }
 
     /**
@@ -0,0 +1,402 @@
+package com.stocktrading.kiwoom.batch;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.stocktrading.kiwoom.analytics.RollingKernels;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
+import com.stocktrading.kiwoom.service.InvestorPrefixSumService;
+import com.stocktrading.kiwoom.service.StockMetaRegistry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 섹터 구성종목 변경 반영 서비스
+ *
+ * tb_stock_list_meta 의 섹터 배정을 마지막 스냅샷(tb_sector_member_snapshot)과 비교하여
+ * 편입/편출된 종목의 일별 거래대금만 tb_sector_daily_amount 합계에 가감한 뒤,
+ * 영향받은 날짜 이후의 섹터 이동평균과 누적합만 다시 계산한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SectorMembershipDeltaService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InvestorPrefixSumService prefixSumService;
+    private final StockMetaRegistry stockMetaRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // 이동평균 기간 (SectorMaBatchService 와 동일)
+    private static final int[] MA_PERIODS = {5, 10, 20, 30, 40, 50, 60, 90, 120, 140};
+
+    // 섹터 거래대금 컬럼 (tb_sector_daily_amount / tb_stock_investor_sector_ma 공통)
+    private static final String[] AMOUNT_COLUMNS = {
+        "frgnr_invsr", "orgn", "frgnr_orgn", "ind_invsr", "fnnc_invt", "insrnc", "invtrt",
+        "etc_fnnc", "bank", "penfnd_etc", "samo_fund", "natn", "etc_corp", "natfor"
+    };
+
+    // 종목 일별 거래대금 식 (AMOUNT_COLUMNS 순서)
+    private static final String[] AMOUNT_EXPRESSIONS = {
+        "c.cur_prc * c.frgnr_invsr", "c.cur_prc * c.orgn", "c.cur_prc * (c.frgnr_invsr + c.orgn)",
+        "c.cur_prc * c.ind_invsr", "c.cur_prc * c.fnnc_invt", "c.cur_prc * c.insrnc", "c.cur_prc * c.invtrt",
+        "c.cur_prc * c.etc_fnnc", "c.cur_prc * c.bank", "c.cur_prc * c.penfnd_etc", "c.cur_prc * c.samo_fund",
+        "c.cur_prc * c.natn", "c.cur_prc * c.etc_corp", "c.cur_prc * c.natfor"
+    };
+
+    private static final String STOCK_DELTA_SQL = buildStockDeltaSql();
+    private static final String SECTOR_REBUILD_SQL = buildSectorRebuildSql();
+    private static final String SECTOR_MA_UPSERT_SQL = buildSectorMaUpsertSql();
+
+    /**
+     * 섹터별 구성종목 변경 결과
+     */
+    public record SectorDelta(
+        String sectorCd,
+        List<String> added,
+        List<String> removed,
+        String fromDt,
+        int maRows,
+        long elapsedMs
+    ) {}
+
+    /**
+     * 모든 섹터의 구성종목 변경을 반영
+     * (섹터별 개별 트랜잭션)
+     *
+     * @return 변경이 있었던 섹터별 처리 결과
+     */
+    public List<SectorDelta> syncMembership() {
+        log.info("=== 섹터 구성종목 변경 반영 시작 ===");
+
+        Map<String, Set<String>> current = loadCurrentMembers();
+        Map<String, Set<String>> snapshot = loadSnapshotMembers();
+
+        Set<String> sectorCodes = new TreeSet<>(current.keySet());
+        sectorCodes.addAll(snapshot.keySet());
+
+        List<SectorDelta> results = new ArrayList<>();
+        for (String sectorCd : sectorCodes) {
+            Set<String> currentMembers = current.getOrDefault(sectorCd, Set.of());
+            Set<String> snapshotMembers = snapshot.get(sectorCd);
+
+            try {
+                SectorDelta delta = transactionTemplate.execute(status ->
+                    syncSector(sectorCd, currentMembers, snapshotMembers));
+                if (delta != null) {
+                    results.add(delta);
+                }
+            } catch (Exception e) {
+                log.error("섹터 구성종목 변경 반영 실패: sectorCd={}", sectorCd, e);
+            }
+        }
+
+        eventPublisher.publishEvent(AnalyticsDataChangedEvent.of(Dataset.SECTOR_MA, sectorCodes));
+        if (!results.isEmpty()) {
+            stockMetaRegistry.refresh();
+        }
+
+        log.info("=== 섹터 구성종목 변경 반영 완료: 변경 섹터 {} 개 ===", results.size());
+        return results;
+    }
+
+    /**
+     * 섹터 1개 처리
+     *
+     * @param snapshotMembers 마지막 스냅샷 (없으면 null → 최초 적재)
+     */
+    private SectorDelta syncSector(String sectorCd, Set<String> currentMembers, Set<String> snapshotMembers) {
+        long startTime = System.currentTimeMillis();
+
+        // 1. 최초 실행: 현재 구성종목 기준으로 일별 합계를 적재하고 스냅샷만 기록
+        if (snapshotMembers == null) {
+            rebuildSectorDailyAmount(sectorCd, currentMembers, null);
+            saveSnapshot(sectorCd, currentMembers, Set.of());
+            prefixSumService.appendSector(sectorCd);
+            log.info("섹터 일별 거래대금 최초 적재: sectorCd={}, 종목수={}", sectorCd, currentMembers.size());
+            return null;
+        }
+
+        List<String> added = new ArrayList<>(currentMembers);
+        added.removeAll(snapshotMembers);
+        List<String> removed = new ArrayList<>(snapshotMembers);
+        removed.removeAll(currentMembers);
+
+        // 2. 스냅샷 이후 새로 적재된 날짜는 기존 구성종목으로 먼저 합계를 맞춘다
+        LocalDate lastDt = jdbcTemplate.queryForObject(
+            "SELECT MAX(dt) FROM tb_sector_daily_amount WHERE sector_cd = ?", LocalDate.class, sectorCd);
+        if (lastDt != null) {
+            rebuildSectorDailyAmount(sectorCd, snapshotMembers, lastDt);
+        }
+
+        if (added.isEmpty() && removed.isEmpty()) {
+            prefixSumService.appendSector(sectorCd);
+            return null;
+        }
+
+        // 3. 편입/편출 종목의 일별 거래대금만 가감
+        LocalDate fromDate = null;
+        for (String stkCd : added) {
+            fromDate = earliest(fromDate, applyStockDelta(sectorCd, stkCd, 1));
+        }
+        for (String stkCd : removed) {
+            fromDate = earliest(fromDate, applyStockDelta(sectorCd, stkCd, -1));
+        }
+        jdbcTemplate.update("DELETE FROM tb_sector_daily_amount WHERE sector_cd = ? AND stk_cnt <= 0", sectorCd);
+
+        // 4. 영향받은 날짜 이후 이동평균 재계산
+        int maRows = 0;
+        if (fromDate != null) {
+            maRows = slideMovingAverages(sectorCd, fromDate);
+            prefixSumService.rebuildFrom(InvestorPrefixSumService.TargetType.SECTOR, sectorCd, fromDate);
+        } else {
+            prefixSumService.appendSector(sectorCd);
+        }
+
+        // 5. 스냅샷 갱신
+        saveSnapshot(sectorCd, new HashSet<>(added), new HashSet<>(removed));
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        log.info("섹터 구성종목 변경 반영: sectorCd={}, 편입={}, 편출={}, 재계산시작일={}, MA 저장={} 건, {}ms",
+            sectorCd, added, removed, fromDate, maRows, elapsed);
+
+        return new SectorDelta(sectorCd, added, removed,
+            fromDate != null ? fromDate.format(DATE_FORMATTER) : null, maRows, elapsed);
+    }
+
+    /**
+     * 종목 1개의 일별 거래대금을 섹터 합계에 가감
+     *
+     * @param sign 1: 편입, -1: 편출
+     * @return 해당 종목의 최초 거래일 (데이터 없으면 null)
+     */
+    private LocalDate applyStockDelta(String sectorCd, String stkCd, int sign) {
+        Object[] args = new Object[AMOUNT_COLUMNS.length + 3];
+        Arrays.fill(args, sign);
+        args[0] = sectorCd;
+        args[args.length - 1] = stkCd;
+
+        int updated = jdbcTemplate.update(STOCK_DELTA_SQL, args);
+        if (updated == 0) {
+            return null;
+        }
+        return jdbcTemplate.queryForObject(
+            "SELECT MIN(dt) FROM tb_stock_investor_chart WHERE stk_cd = ?", LocalDate.class, stkCd);
+    }
+
+    /**
+     * 구성종목 기준으로 섹터 일별 합계를 원천 데이터에서 다시 집계
+     *
+     * @param afterDate 이 날짜 이후만 집계 (null 이면 전체)
+     */
+    private void rebuildSectorDailyAmount(String sectorCd, Set<String> members, LocalDate afterDate) {
+        if (members.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(SECTOR_REBUILD_SQL, sectorCd, members.toArray(new String[0]),
+            Date.valueOf(afterDate != null ? afterDate : LocalDate.of(1900, 1, 1)));
+    }
+
+    /**
+     * fromDate 이후의 섹터 이동평균 재계산 및 저장
+     * (fromDate 이전 최대 기간(140 거래일)의 합계도 함께 읽어 누적합으로 슬라이딩)
+     *
+     * @return 저장한 이동평균 행 수
+     */
+    private int slideMovingAverages(String sectorCd, LocalDate fromDate) {
+        int maxPeriod = MA_PERIODS[MA_PERIODS.length - 1];
+
+        String sql =
+            "SELECT dt, " + String.join(", ", AMOUNT_COLUMNS) + " " +
+            "FROM tb_sector_daily_amount " +
+            "WHERE sector_cd = ? AND dt >= COALESCE(( " +
+            "  SELECT dt FROM tb_sector_daily_amount " +
+            "  WHERE sector_cd = ? AND dt < ? " +
+            "  ORDER BY dt DESC OFFSET ? LIMIT 1 " +
+            "), DATE '1900-01-01') " +
+            "ORDER BY dt";
+
+        List<LocalDate> dates = new ArrayList<>();
+        List<long[]> rows = new ArrayList<>();
+        jdbcTemplate.query(sql, rs -> {
+            dates.add(rs.getObject("dt", LocalDate.class));
+            long[] row = new long[AMOUNT_COLUMNS.length];
+            for (int c = 0; c < AMOUNT_COLUMNS.length; c++) {
+                row[c] = rs.getLong(c + 2);
+            }
+            rows.add(row);
+        }, sectorCd, sectorCd, Date.valueOf(fromDate), maxPeriod - 2);
+
+        int n = dates.size();
+        int columns = AMOUNT_COLUMNS.length;
+
+        // 컬럼별 이동평균 일괄 계산 (누적합 + 구간 차이, 기간 부족 위치는 NaN)
+        long[][] values = new long[columns][n];
+        for (int i = 0; i < n; i++) {
+            long[] row = rows.get(i);
+            for (int c = 0; c < columns; c++) {
+                values[c][i] = row[c];
+            }
+        }
+        double[][][] averages = RollingKernels.movingAverages(values, MA_PERIODS);
+
+        // fromDate 이전 행은 이동평균 계산용으로만 사용
+        int firstTarget = 0;
+        while (firstTarget < n && dates.get(firstTarget).isBefore(fromDate)) {
+            firstTarget++;
+        }
+
+        String sectorNm = SectorMaBatchService.getSectorName(sectorCd);
+        List<Object[]> batchArgs = new ArrayList<>(n - firstTarget);
+
+        for (int i = firstTarget; i < n; i++) {
+            Object[] args = new Object[3 + MA_PERIODS.length * columns];
+            args[0] = sectorCd;
+            args[1] = dates.get(i).format(DATE_FORMATTER);
+            args[2] = sectorNm;
+
+            int idx = 3;
+            for (int p = 0; p < MA_PERIODS.length; p++) {
+                for (int c = 0; c < columns; c++) {
+                    double avg = averages[c][p][i];
+                    args[idx++] = Double.isNaN(avg) ? null : BigDecimal.valueOf(avg).setScale(0, RoundingMode.HALF_UP);
+                }
+            }
+            batchArgs.add(args);
+        }
+
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(SECTOR_MA_UPSERT_SQL, batchArgs);
+        }
+
+        // 구성종목 변경으로 거래일이 사라진 날짜의 이동평균 삭제
+        jdbcTemplate.update(
+            "DELETE FROM tb_stock_investor_sector_ma m " +
+            "WHERE m.sector_cd = ? AND m.dt >= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM tb_sector_daily_amount d " +
+            "  WHERE d.sector_cd = m.sector_cd AND TO_CHAR(d.dt, 'YYYYMMDD') = m.dt)",
+            sectorCd, fromDate.format(DATE_FORMATTER));
+
+        return batchArgs.size();
+    }
+
+    /**
+     * 스냅샷 갱신
+     */
+    private void saveSnapshot(String sectorCd, Set<String> added, Set<String> removed) {
+        if (!removed.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM tb_sector_member_snapshot WHERE sector_cd = ? AND stk_cd = ANY(?)",
+                sectorCd, removed.toArray(new String[0]));
+        }
+        if (!added.isEmpty()) {
+            List<Object[]> args = added.stream()
+                .map(stkCd -> new Object[] {sectorCd, stkCd})
+                .toList();
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO tb_sector_member_snapshot (sector_cd, stk_cd) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                args);
+        }
+    }
+
+    /**
+     * 현재 섹터 구성종목 조회 (tb_stock_list_meta)
+     */
+    private Map<String, Set<String>> loadCurrentMembers() {
+        Map<String, Set<String>> members = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT detail, code FROM tb_stock_list_meta WHERE main = 'SECTOR' AND detail IS NOT NULL",
+            rs -> {
+                members.computeIfAbsent(rs.getString("detail"), k -> new HashSet<>()).add(rs.getString("code"));
+            });
+        return members;
+    }
+
+    /**
+     * 마지막 반영 스냅샷 조회
+     */
+    private Map<String, Set<String>> loadSnapshotMembers() {
+        Map<String, Set<String>> members = new HashMap<>();
+        jdbcTemplate.query("SELECT sector_cd, stk_cd FROM tb_sector_member_snapshot",
+            rs -> {
+                members.computeIfAbsent(rs.getString("sector_cd"), k -> new HashSet<>()).add(rs.getString("stk_cd"));
+            });
+        return members;
+    }
+
+    private static LocalDate earliest(LocalDate a, LocalDate b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * 종목 1개의 일별 거래대금을 부호(±1)를 곱해 섹터 합계에 upsert
+     */
+    private static String buildStockDeltaSql() {
+        StringBuilder select = new StringBuilder("SELECT ?, c.dt, ?");
+        StringBuilder update = new StringBuilder("stk_cnt = t.stk_cnt + EXCLUDED.stk_cnt");
+        for (int i = 0; i < AMOUNT_COLUMNS.length; i++) {
+            select.append(", ? * COALESCE(").append(AMOUNT_EXPRESSIONS[i]).append(", 0)");
+            update.append(", ").append(AMOUNT_COLUMNS[i])
+                .append(" = t.").append(AMOUNT_COLUMNS[i]).append(" + EXCLUDED.").append(AMOUNT_COLUMNS[i]);
+        }
+        return "INSERT INTO tb_sector_daily_amount AS t (sector_cd, dt, stk_cnt, " +
+            String.join(", ", AMOUNT_COLUMNS) + ") " +
+            select + " FROM tb_stock_investor_chart c WHERE c.stk_cd = ? " +
+            "ON CONFLICT (sector_cd, dt) DO UPDATE SET " + update + ", upd_dt = NOW()";
+    }
+
+    /**
+     * 구성종목 전체의 일별 거래대금을 집계하여 섹터 합계를 덮어쓰기
+     */
+    private static String buildSectorRebuildSql() {
+        StringBuilder select = new StringBuilder("SELECT ?, c.dt, COUNT(*)");
+        StringBuilder update = new StringBuilder("stk_cnt = EXCLUDED.stk_cnt");
+        for (int i = 0; i < AMOUNT_COLUMNS.length; i++) {
+            select.append(", COALESCE(SUM(").append(AMOUNT_EXPRESSIONS[i]).append("), 0)");
+            update.append(", ").append(AMOUNT_COLUMNS[i]).append(" = EXCLUDED.").append(AMOUNT_COLUMNS[i]);
+        }
+        return "INSERT INTO tb_sector_daily_amount (sector_cd, dt, stk_cnt, " +
+            String.join(", ", AMOUNT_COLUMNS) + ") " +
+            select + " FROM tb_stock_investor_chart c WHERE c.stk_cd = ANY(?) AND c.dt > ? GROUP BY c.dt " +
+            "ON CONFLICT (sector_cd, dt) DO UPDATE SET " + update + ", upd_dt = NOW()";
+    }
+
+    /**
+     * 섹터 이동평균 upsert (기간 × 투자자 컬럼)
+     */
+    private static String buildSectorMaUpsertSql() {
+        List<String> maColumns = new ArrayList<>();
+        for (int period : MA_PERIODS) {
+            for (String column : AMOUNT_COLUMNS) {
+                maColumns.add(column + "_ma" + period);
+            }
+        }
+        StringBuilder update = new StringBuilder("sector_nm = EXCLUDED.sector_nm");
+        for (String column : maColumns) {
+            update.append(", ").append(column).append(" = EXCLUDED.").append(column);
+        }
+        return "INSERT INTO tb_stock_investor_sector_ma (sector_cd, dt, sector_nm, " +
+            String.join(", ", maColumns) + ") VALUES (?, ?, ?" +
+            ", ?".repeat(maColumns.size()) + ") " +
+            "ON CONFLICT (sector_cd, dt) DO UPDATE SET " + update;
+    }
+}
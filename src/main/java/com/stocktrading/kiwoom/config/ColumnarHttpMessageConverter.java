@@ -0,0 +1,50 @@
+package com.stocktrading.kiwoom.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.stocktrading.kiwoom.dto.ColumnarFrame;
+
+/**
+ * 컬럼형 바이너리 차트 응답 컨버터 (응답 전용)
+ *
+ * Accept: application/vnd.kiwoom.columnar 요청에만 {@link ColumnarFrame} 레이아웃으로 응답한다.
+ * 기본 JSON 컨버터 뒤에 등록되므로 Accept 가 없거나 모든 타입을 허용하면 기존처럼 JSON 으로 응답한다.
+ */
+public class ColumnarHttpMessageConverter extends AbstractHttpMessageConverter<ColumnarFrame.Source> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.kiwoom.columnar";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    public ColumnarHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ColumnarFrame.Source.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ColumnarFrame.Source readInternal(Class<? extends ColumnarFrame.Source> clazz,
+                                                HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("컬럼형 포맷은 응답 전용입니다.", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ColumnarFrame.Source source, HttpOutputMessage outputMessage) throws IOException {
+        byte[] body = source.toColumnarFrame().toBytes();
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+}
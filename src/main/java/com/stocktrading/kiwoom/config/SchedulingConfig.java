@@ -0,0 +1,23 @@
+package com.stocktrading.kiwoom.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * @Scheduled 작업 스케줄러 설정
+ * - 기본 스케줄러는 스레드 1개라 긴 배치(누적합/상관계수/횡단면 순위 등)가 다른 주기 작업을 막음
+ * - 작업 간 대기를 줄이도록 스레드 풀 사용 (같은 작업은 fixedDelay 로 겹쳐 실행되지 않음)
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${batch.scheduler.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("batch-scheduler-");
+        return scheduler;
+    }
+}
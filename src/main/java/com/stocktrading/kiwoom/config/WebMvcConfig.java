@@ -0,0 +1,22 @@
+package com.stocktrading.kiwoom.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC 메시지 컨버터 설정
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    /**
+     * 컬럼형 바이너리 컨버터는 기본 컨버터 뒤에 추가 (Accept 로 명시한 경우에만 선택되도록)
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ColumnarHttpMessageConverter());
+    }
+}
@@ -0,0 +1,120 @@
+package com.stocktrading.kiwoom.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+import com.stocktrading.kiwoom.service.SignalBacktestService;
+import com.stocktrading.kiwoom.service.SignalBacktestService.ComboResult;
+import com.stocktrading.kiwoom.service.SignalBacktestService.Grid;
+import com.stocktrading.kiwoom.service.SignalBacktestService.Result;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 투자자 수급 신호 백테스트 API Controller
+ *
+ * "투자자 X 의 N일 순매수 거래대금 이동평균이 Y 억원을 상향 돌파하면 매수" 형태의 조건을
+ * 투자자 × 기간 × 임계값 × 보유일수 그리드로 KOSPI200 전 종목에 대해 평가한다.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/statistics/backtest")
+@RequiredArgsConstructor
+@CrossOrigin(origins = { "http://localhost:3000", "http://localhost:3001" })
+public class BacktestController {
+
+    private final SignalBacktestService backtestService;
+
+    /**
+     * 그리드 백테스트 실행
+     * POST /api/statistics/backtest
+     */
+    @PostMapping
+    public ResponseEntity<BacktestResponse> runBacktest(@RequestBody BacktestRequest request) {
+        log.info("백테스트 요청 - 투자자: {}, 기간: {}, 임계값: {}, 보유일수: {}, 구간: {} ~ {}",
+            request.getInvestors(), request.getPeriods(), request.getThresholds(), request.getHoldDays(),
+            request.getStartDate(), request.getEndDate());
+
+        try {
+            List<InvestorType> investors = new ArrayList<>();
+            for (String key : request.getInvestors()) {
+                investors.add(InvestorType.fromKey(key)
+                    .orElseThrow(() -> new IllegalArgumentException("알 수 없는 투자자: " + key)));
+            }
+
+            Grid grid = new Grid(
+                investors,
+                request.getPeriods().stream().mapToInt(Integer::intValue).toArray(),
+                request.getThresholds().stream().mapToDouble(Double::doubleValue).toArray(),
+                request.getHoldDays().stream().mapToInt(Integer::intValue).toArray(),
+                normalizeDate(request.getStartDate()),
+                normalizeDate(request.getEndDate()),
+                request.getCostBps());
+
+            Result result = backtestService.run(grid, request.getSortBy(), request.getTop());
+
+            return ResponseEntity.ok(BacktestResponse.builder()
+                .success(true)
+                .stockCount(result.stockCount())
+                .combinations(result.combinations())
+                .elapsedMs(result.elapsedMs())
+                .vectorized(result.vectorized())
+                .results(result.results())
+                .message("백테스트 완료")
+                .build());
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(BacktestResponse.builder()
+                .success(false)
+                .message(e.getMessage())
+                .build());
+        } catch (Exception e) {
+            log.error("백테스트 실패", e);
+            return ResponseEntity.internalServerError().body(BacktestResponse.builder()
+                .success(false)
+                .message("백테스트 실패: " + e.getMessage())
+                .build());
+        }
+    }
+
+    private static String normalizeDate(String date) {
+        return date == null || date.isBlank() ? null : date.replace("-", "");
+    }
+
+    /**
+     * 백테스트 요청 DTO
+     */
+    @Data
+    @NoArgsConstructor
+    public static class BacktestRequest {
+        private List<String> investors = List.of("frgnr", "orgn");
+        private List<Integer> periods = List.of(5, 10, 20, 60);
+        private List<Double> thresholds = List.of(0.0); // 억원
+        private List<Integer> holdDays = List.of(0); // 0: 이동평균이 임계값 아래로 내려오면 청산
+        private String startDate; // yyyyMMdd (옵션)
+        private String endDate; // yyyyMMdd (옵션)
+        private double costBps = 30; // 왕복 거래비용 (bp)
+        private String sortBy = "avgReturn"; // avgReturn, hitRate, geoMeanReturn, trades
+        private int top = 100;
+    }
+
+    @Data
+    @Builder
+    public static class BacktestResponse {
+        private boolean success;
+        private String message;
+        private int stockCount;
+        private int combinations;
+        private long elapsedMs;
+        private boolean vectorized;
+        private List<ComboResult> results;
+    }
+}
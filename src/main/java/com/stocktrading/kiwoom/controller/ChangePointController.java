@@ -0,0 +1,146 @@
+package com.stocktrading.kiwoom.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+import com.stocktrading.kiwoom.service.InvestorChangePointService;
+import com.stocktrading.kiwoom.service.InvestorChangePointService.ChangePoint;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 투자자 순매수 변화점(수급 국면 전환) API Controller
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/changepoints")
+@RequiredArgsConstructor
+@CrossOrigin(origins = { "http://localhost:3000", "http://localhost:3001" })
+public class ChangePointController {
+
+    private final InvestorChangePointService changePointService;
+
+    /**
+     * 전체 시장 최근 변화점 조회
+     * GET /api/v1/changepoints/recent
+     *
+     * @param days 최근 변화점 일자 기준 조회 기간 (달력일, 기본: 5)
+     * @param investor 투자자 (frgnr, orgn, samo_fund 등, 옵션)
+     * @param direction UP / DOWN (옵션)
+     * @param limit 조회 건수 (기본: 200)
+     */
+    @GetMapping("/recent")
+    public ResponseEntity<ChangePointResponse> getRecentChangePoints(
+            @RequestParam(defaultValue = "5") int days,
+            @RequestParam(required = false) String investor,
+            @RequestParam(required = false) String direction,
+            @RequestParam(defaultValue = "200") int limit) {
+
+        log.info("최근 변화점 조회 요청 - 기간: {}일, 투자자: {}, 방향: {}, 제한: {}", days, investor, direction, limit);
+
+        try {
+            InvestorType investorType = null;
+            if (investor != null && !investor.isBlank()) {
+                investorType = InvestorType.fromKey(investor)
+                    .orElseThrow(() -> new IllegalArgumentException("알 수 없는 투자자: " + investor));
+            }
+            String directionFilter = direction != null && !direction.isBlank() ? direction.trim().toUpperCase() : null;
+
+            List<ChangePoint> data = changePointService.getRecent(days, investorType, directionFilter, limit);
+            return ResponseEntity.ok(ChangePointResponse.builder()
+                .success(true)
+                .count(data.size())
+                .data(data)
+                .message("조회 성공")
+                .build());
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ChangePointResponse.builder()
+                .success(false)
+                .message(e.getMessage())
+                .build());
+        } catch (Exception e) {
+            log.error("최근 변화점 조회 실패", e);
+            return ResponseEntity.internalServerError().body(ChangePointResponse.builder()
+                .success(false)
+                .message("조회 실패: " + e.getMessage())
+                .build());
+        }
+    }
+
+    /**
+     * 종목 변화점 이력 조회
+     * GET /api/v1/changepoints/{stkCd}
+     */
+    @GetMapping("/{stkCd}")
+    public ResponseEntity<ChangePointResponse> getStockChangePoints(
+            @PathVariable String stkCd,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        log.info("종목 변화점 조회 요청 - 종목: {}, 제한: {}", stkCd, limit);
+
+        try {
+            List<ChangePoint> data = changePointService.getByStock(stkCd, limit);
+            return ResponseEntity.ok(ChangePointResponse.builder()
+                .success(true)
+                .count(data.size())
+                .data(data)
+                .message("조회 성공")
+                .build());
+
+        } catch (Exception e) {
+            log.error("종목 변화점 조회 실패 - 종목: {}", stkCd, e);
+            return ResponseEntity.internalServerError().body(ChangePointResponse.builder()
+                .success(false)
+                .message("조회 실패: " + e.getMessage())
+                .build());
+        }
+    }
+
+    /**
+     * 변화점 증분 계산 수동 실행
+     * POST /api/v1/changepoints/batch/run
+     *
+     * @param stkCd 종목코드 (옵션, 지정 시 해당 종목 전체 재계산)
+     */
+    @PostMapping("/batch/run")
+    public ResponseEntity<ChangePointResponse> runBatch(@RequestParam(required = false) String stkCd) {
+        log.info("변화점 계산 수동 실행 요청 - 종목: {}", stkCd);
+
+        try {
+            long startTime = System.currentTimeMillis();
+            int detected = stkCd != null && !stkCd.isBlank()
+                ? changePointService.refresh(stkCd, LocalDate.MIN)
+                : changePointService.refreshAll();
+
+            return ResponseEntity.ok(ChangePointResponse.builder()
+                .success(true)
+                .count(detected)
+                .message("변화점 계산 완료 (" + (System.currentTimeMillis() - startTime) + "ms)")
+                .build());
+
+        } catch (Exception e) {
+            log.error("변화점 계산 실패", e);
+            return ResponseEntity.internalServerError().body(ChangePointResponse.builder()
+                .success(false)
+                .message("실행 실패: " + e.getMessage())
+                .build());
+        }
+    }
+
+    @Data
+    @Builder
+    public static class ChangePointResponse {
+        private boolean success;
+        private int count;
+        private String message;
+        private List<ChangePoint> data;
+    }
+}
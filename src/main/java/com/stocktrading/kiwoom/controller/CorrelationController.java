@@ -1,19 +1,32 @@
 package com.stocktrading.kiwoom.controller;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.stocktrading.kiwoom.adapter.out.persistence.entity.StockInvestorCorrDailyEntity;
 import com.stocktrading.kiwoom.adapter.out.persistence.repository.StockInvestorCorrDailyRepository;
+import com.stocktrading.kiwoom.analytics.CorrelationMatrix;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+import com.stocktrading.kiwoom.service.AnalyticsResponseCache;
+import com.stocktrading.kiwoom.service.CorrelationMatrixService;
+import com.stocktrading.kiwoom.service.DataVersionRegistry;
+import com.stocktrading.kiwoom.service.CorrelationMatrixService.MatrixResult;
+import com.stocktrading.kiwoom.service.CorrelationMatrixService.Neighbor;
 
 @RestController
 @RequestMapping("/api/statistics/correlation")
@@ -23,16 +36,29 @@ import com.stocktrading.kiwoom.adapter.out.persistence.repository.StockInvestorC
 public class CorrelationController {
 
     private final StockInvestorCorrDailyRepository repository;
+    private final CorrelationMatrixService correlationMatrixService;
+    private final AnalyticsResponseCache analyticsResponseCache;
+    private final DataVersionRegistry dataVersionRegistry;
 
     @GetMapping("/chart/{stkCd}")
     public ResponseEntity<CorrChartResponse> getCorrelationChart(
             @PathVariable String stkCd,
             @RequestParam(defaultValue = "20") int corrDays, // 20일 상관계수 or 60일
             @RequestParam(defaultValue = "1500") int limit, // 조회 개수 (최근 N일)
-            @RequestParam(required = false) String beforeDate) {
+            @RequestParam(required = false) String beforeDate,
+            WebRequest webRequest) {
 
         log.info("상관계수 차트 조회 - 종목: {}, 기간: {}, Limit: {}, Before: {}", stkCd, corrDays, limit, beforeDate);
 
+        String params = corrDays + "|" + limit + "|" + beforeDate;
+        return dataVersionRegistry.conditional(webRequest, Dataset.CORRELATION, stkCd, params,
+                DataVersionRegistry.endsBeforeToday(beforeDate),
+                () -> analyticsResponseCache.getResponse(Dataset.CORRELATION, stkCd, params, CorrChartResponse.class,
+                        () -> loadCorrelationChart(stkCd, corrDays, limit, beforeDate)));
+    }
+
+    private ResponseEntity<CorrChartResponse> loadCorrelationChart(String stkCd, int corrDays, int limit,
+            String beforeDate) {
         try {
             List<StockInvestorCorrDailyEntity> entities;
 
@@ -91,8 +117,126 @@ public class CorrelationController {
         }
     }
 
+    /**
+     * 횡단면 상관계수 행렬 조회
+     *
+     * @param universe KOSPI200, SECTORS, SECTOR:{섹터코드}, 또는 쉼표로 구분한 종목코드
+     * @param investor 투자자 (frgnr, orgn, ind_invsr 등)
+     * @param window 상관 기간 (거래일)
+     * @param asOf 기준일 (yyyy-MM-dd, 없으면 최근 거래일)
+     */
+    @GetMapping("/matrix")
+    public ResponseEntity<CorrMatrixResponse> getCorrelationMatrix(
+            @RequestParam(defaultValue = CorrelationMatrixService.UNIVERSE_KOSPI200) String universe,
+            @RequestParam(defaultValue = "frgnr") String investor,
+            @RequestParam(defaultValue = "60") int window,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+
+        log.info("상관계수 행렬 조회 - 유니버스: {}, 투자자: {}, 기간: {}, 기준일: {}", universe, investor, window, asOf);
+
+        try {
+            InvestorType investorType = InvestorType.fromKey(investor)
+                    .orElseThrow(() -> new IllegalArgumentException("알 수 없는 투자자: " + investor));
+            MatrixResult result = correlationMatrixService.getMatrix(universe, investorType, window, asOf);
+
+            CorrelationMatrix matrix = result.matrix();
+            List<List<Double>> rows = new ArrayList<>(matrix.size());
+            for (int i = 0; i < matrix.size(); i++) {
+                List<Double> row = new ArrayList<>(matrix.size());
+                for (int j = 0; j < matrix.size(); j++) {
+                    row.add(round(matrix.get(i, j)));
+                }
+                rows.add(row);
+            }
+
+            return ResponseEntity.ok(CorrMatrixResponse.builder()
+                    .universe(result.key().universe())
+                    .investor(investorType.getKey())
+                    .window(window)
+                    .asOf(result.key().asOf())
+                    .tradingDays(result.dates().size())
+                    .codes(result.codes())
+                    .names(result.names())
+                    .matrix(rows)
+                    .message("조회 성공")
+                    .build());
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(CorrMatrixResponse.builder()
+                    .message(e.getMessage())
+                    .build());
+        } catch (Exception e) {
+            log.error("상관계수 행렬 조회 실패", e);
+            return ResponseEntity.internalServerError().body(CorrMatrixResponse.builder()
+                    .message("에러: " + e.getMessage())
+                    .build());
+        }
+    }
+
+    /**
+     * 종목별 상관계수 상위 K 개 이웃 조회
+     */
+    @GetMapping("/neighbors/{stkCd}")
+    public ResponseEntity<CorrNeighborResponse> getCorrelationNeighbors(
+            @PathVariable String stkCd,
+            @RequestParam(defaultValue = CorrelationMatrixService.UNIVERSE_KOSPI200) String universe,
+            @RequestParam(defaultValue = "frgnr") String investor,
+            @RequestParam(defaultValue = "60") int window,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(defaultValue = "false") boolean absolute) {
+
+        log.info("상관계수 이웃 조회 - 종목: {}, 유니버스: {}, 투자자: {}, 기간: {}, K: {}", stkCd, universe, investor, window, k);
+
+        try {
+            InvestorType investorType = InvestorType.fromKey(investor)
+                    .orElseThrow(() -> new IllegalArgumentException("알 수 없는 투자자: " + investor));
+            List<Neighbor> neighbors = correlationMatrixService.getNeighbors(
+                    stkCd, universe, investorType, window, asOf, Math.max(1, k), absolute);
+
+            List<CorrNeighbor> data = new ArrayList<>(neighbors.size());
+            for (Neighbor neighbor : neighbors) {
+                data.add(CorrNeighbor.builder()
+                        .code(neighbor.code())
+                        .name(neighbor.name())
+                        .corr(round(neighbor.correlation()))
+                        .build());
+            }
+
+            return ResponseEntity.ok(CorrNeighborResponse.builder()
+                    .stkCd(stkCd)
+                    .investor(investorType.getKey())
+                    .window(window)
+                    .data(data)
+                    .message("조회 성공")
+                    .build());
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(CorrNeighborResponse.builder()
+                    .stkCd(stkCd)
+                    .message(e.getMessage())
+                    .build());
+        } catch (Exception e) {
+            log.error("상관계수 이웃 조회 실패", e);
+            return ResponseEntity.internalServerError().body(CorrNeighborResponse.builder()
+                    .stkCd(stkCd)
+                    .message("에러: " + e.getMessage())
+                    .build());
+        }
+    }
+
+    // 소수점 4자리 반올림 (NaN 은 null)
+    private static Double round(double value) {
+        if (Double.isNaN(value)) {
+            return null;
+        }
+        return Math.round(value * 10000.0) / 10000.0;
+    }
+
     @Data
     @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class CorrChartResponse {
         private String stkCd;
         private String sector;
@@ -103,6 +247,8 @@ public class CorrelationController {
 
     @Data
     @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class CorrDataPoint {
         private String dt;
         private Long curPrc;
@@ -121,4 +267,36 @@ public class CorrelationController {
         private BigDecimal etcCorpCorr;
         private BigDecimal natforCorr;
     }
+
+    @Data
+    @Builder
+    public static class CorrMatrixResponse {
+        private String universe;
+        private String investor;
+        private int window;
+        private LocalDate asOf;
+        private int tradingDays;
+        private String message;
+        private List<String> codes;
+        private List<String> names;
+        private List<List<Double>> matrix;
+    }
+
+    @Data
+    @Builder
+    public static class CorrNeighborResponse {
+        private String stkCd;
+        private String investor;
+        private int window;
+        private String message;
+        private List<CorrNeighbor> data;
+    }
+
+    @Data
+    @Builder
+    public static class CorrNeighbor {
+        private String code;
+        private String name;
+        private Double corr;
+    }
 }
@@ -0,0 +1,270 @@
+package com.stocktrading.kiwoom.controller;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.stocktrading.kiwoom.dto.SectorMaResponse;
+import com.stocktrading.kiwoom.service.CustomBasketService;
+import com.stocktrading.kiwoom.service.CustomBasketService.Basket;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 사용자 정의 바스켓 API Controller
+ *
+ * 바스켓 관리(CRUD)와 섹터 API 와 같은 형식의 투자자 이동평균 차트/비중 조회
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/baskets")
+@RequiredArgsConstructor
+@CrossOrigin(origins = { "http://localhost:3000", "http://localhost:3001" })
+public class CustomBasketController {
+
+    private final CustomBasketService basketService;
+
+    /**
+     * 바스켓 목록 조회
+     * GET /api/v1/baskets
+     */
+    @GetMapping
+    public ResponseEntity<BasketResponse> getBaskets() {
+        try {
+            List<Basket> baskets = basketService.getBaskets();
+            return ResponseEntity.ok(BasketResponse.builder()
+                .success(true)
+                .baskets(baskets)
+                .message("조회 성공")
+                .build());
+        } catch (Exception e) {
+            log.error("바스켓 목록 조회 실패", e);
+            return ResponseEntity.internalServerError().body(BasketResponse.builder()
+                .success(false)
+                .message("조회 실패: " + e.getMessage())
+                .build());
+        }
+    }
+
+    /**
+     * 바스켓 조회
+     * GET /api/v1/baskets/{basketId}
+     */
+    @GetMapping("/{basketId}")
+    public ResponseEntity<BasketResponse> getBasket(@PathVariable Long basketId) {
+        try {
+            return ResponseEntity.ok(BasketResponse.builder()
+                .success(true)
+                .basket(basketService.getBasket(basketId))
+                .message("조회 성공")
+                .build());
+        } catch (Exception e) {
+            return error("바스켓 조회 실패", basketId, e);
+        }
+    }
+
+    /**
+     * 바스켓 생성
+     * POST /api/v1/baskets
+     */
+    @PostMapping
+    public ResponseEntity<BasketResponse> createBasket(@RequestBody BasketRequest request) {
+        log.info("바스켓 생성 요청 - 이름: {}, 종목수: {}", request.getBasketNm(),
+            request.getItems() != null ? request.getItems().size() : 0);
+        try {
+            Basket basket = basketService.createBasket(
+                request.getBasketNm(), request.getDescription(), request.toWeights());
+            return ResponseEntity.status(HttpStatus.CREATED).body(BasketResponse.builder()
+                .success(true)
+                .basket(basket)
+                .message("생성 완료")
+                .build());
+        } catch (Exception e) {
+            return error("바스켓 생성 실패", null, e);
+        }
+    }
+
+    /**
+     * 바스켓 수정 (구성종목 전체 교체)
+     * PUT /api/v1/baskets/{basketId}
+     */
+    @PutMapping("/{basketId}")
+    public ResponseEntity<BasketResponse> updateBasket(@PathVariable Long basketId,
+                                                       @RequestBody BasketRequest request) {
+        log.info("바스켓 수정 요청 - ID: {}, 이름: {}", basketId, request.getBasketNm());
+        try {
+            Basket basket = basketService.updateBasket(
+                basketId, request.getBasketNm(), request.getDescription(), request.toWeights());
+            return ResponseEntity.ok(BasketResponse.builder()
+                .success(true)
+                .basket(basket)
+                .message("수정 완료")
+                .build());
+        } catch (Exception e) {
+            return error("바스켓 수정 실패", basketId, e);
+        }
+    }
+
+    /**
+     * 바스켓 삭제
+     * DELETE /api/v1/baskets/{basketId}
+     */
+    @DeleteMapping("/{basketId}")
+    public ResponseEntity<BasketResponse> deleteBasket(@PathVariable Long basketId) {
+        log.info("바스켓 삭제 요청 - ID: {}", basketId);
+        try {
+            basketService.deleteBasket(basketId);
+            return ResponseEntity.ok(BasketResponse.builder()
+                .success(true)
+                .message("삭제 완료")
+                .build());
+        } catch (Exception e) {
+            return error("바스켓 삭제 실패", basketId, e);
+        }
+    }
+
+    /**
+     * 바스켓 투자자별 이동평균 차트 조회
+     * GET /api/v1/baskets/{basketId}/chart
+     *
+     * @param days 조회 일수 (기본: 120)
+     * @param investors 투자자 유형 (쉼표 구분, 기본: "frgnr,orgn")
+     * @param period 이동평균 기간 (임의 기간)
+     * @param beforeDate 무한 스크롤용 날짜 (YYYYMMDD, 옵션)
+     */
+    @GetMapping("/{basketId}/chart")
+    public ResponseEntity<SectorMaResponse.SectorMaChartResponse> getChartData(
+            @PathVariable Long basketId,
+            @RequestParam(defaultValue = "120") int days,
+            @RequestParam(defaultValue = "frgnr,orgn") String investors,
+            @RequestParam(defaultValue = "5") int period,
+            @RequestParam(required = false) String beforeDate) {
+
+        log.info("바스켓 차트 데이터 조회 요청 - 바스켓: {}, 일수: {}, 투자자: {}, 기간: {}, 이전날짜: {}",
+            basketId, days, investors, period, beforeDate);
+
+        try {
+            return ResponseEntity.ok(basketService.getChartData(basketId, days, investors, period, beforeDate));
+        } catch (NoSuchElementException | IllegalArgumentException e) {
+            return ResponseEntity.status(statusOf(e)).body(SectorMaResponse.SectorMaChartResponse.builder()
+                .message(e.getMessage())
+                .build());
+        } catch (Exception e) {
+            log.error("바스켓 차트 데이터 조회 실패 - 바스켓: {}, 오류: {}", basketId, e.getMessage(), e);
+            return ResponseEntity.status(500).body(SectorMaResponse.SectorMaChartResponse.builder()
+                .message("조회 실패: " + e.getMessage())
+                .build());
+        }
+    }
+
+    /**
+     * 바스켓 투자자별 이동평균 비중 조회
+     * GET /api/v1/baskets/{basketId}/investor-ratio-ma
+     *
+     * @param fromDate 시작일 (YYYYMMDD or YYYY-MM-DD)
+     * @param toDate 종료일 (YYYYMMDD or YYYY-MM-DD)
+     */
+    @GetMapping("/{basketId}/investor-ratio-ma")
+    public ResponseEntity<StatisticsController.InvestorRatioMaResponse> getInvestorRatioMa(
+            @PathVariable Long basketId,
+            @RequestParam(defaultValue = "20") int period,
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate) {
+
+        log.info("바스켓 투자자별 이동평균 비중 조회: 바스켓={}, 기간=MA{}, from={}, to={}",
+            basketId, period, fromDate, toDate);
+
+        if (fromDate == null || toDate == null) {
+            return ResponseEntity.badRequest().body(StatisticsController.InvestorRatioMaResponse.builder()
+                .period(period)
+                .message("fromDate와 toDate는 필수입니다.")
+                .build());
+        }
+
+        try {
+            return ResponseEntity.ok(basketService.getInvestorRatioMa(
+                basketId, period, fromDate.replace("-", ""), toDate.replace("-", "")));
+        } catch (NoSuchElementException | IllegalArgumentException e) {
+            return ResponseEntity.status(statusOf(e)).body(StatisticsController.InvestorRatioMaResponse.builder()
+                .period(period)
+                .message(e.getMessage())
+                .build());
+        } catch (Exception e) {
+            log.error("바스켓 투자자 비중 조회 실패 - 바스켓: {}, 오류: {}", basketId, e.getMessage(), e);
+            return ResponseEntity.status(500).body(StatisticsController.InvestorRatioMaResponse.builder()
+                .period(period)
+                .message("조회 실패: " + e.getMessage())
+                .build());
+        }
+    }
+
+    private ResponseEntity<BasketResponse> error(String action, Long basketId, Exception e) {
+        HttpStatus status = statusOf(e);
+        if (status.is5xxServerError()) {
+            log.error("{} - 바스켓: {}", action, basketId, e);
+        }
+        return ResponseEntity.status(status).body(BasketResponse.builder()
+            .success(false)
+            .message(status.is5xxServerError() ? action + ": " + e.getMessage() : e.getMessage())
+            .build());
+    }
+
+    private static HttpStatus statusOf(Exception e) {
+        if (e instanceof NoSuchElementException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * 바스켓 생성/수정 요청 DTO
+     */
+    @Data
+    @NoArgsConstructor
+    public static class BasketRequest {
+        private String basketNm;
+        private String description;
+        private List<ItemRequest> items;
+
+        Map<String, BigDecimal> toWeights() {
+            Map<String, BigDecimal> weights = new LinkedHashMap<>();
+            if (items != null) {
+                for (ItemRequest item : items) {
+                    if (item.getStkCd() != null && !item.getStkCd().isBlank()) {
+                        weights.put(item.getStkCd().trim(), item.getWeight());
+                    }
+                }
+            }
+            return weights;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class ItemRequest {
+        private String stkCd;
+        private BigDecimal weight; // 옵션 (기본: 1)
+    }
+
+    @Data
+    @Builder
+    public static class BasketResponse {
+        private boolean success;
+        private String message;
+        private Basket basket;
+        private List<Basket> baskets;
+    }
+}
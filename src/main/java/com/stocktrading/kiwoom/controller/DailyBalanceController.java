@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.stocktrading.kiwoom.dto.DailyBalanceResponse;
 import com.stocktrading.kiwoom.service.DailyBalanceService;
+import com.stocktrading.kiwoom.service.SingleFlight;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +27,7 @@ import reactor.core.publisher.Mono;
 public class DailyBalanceController {
     
     private final DailyBalanceService dailyBalanceService;
+    private final SingleFlight singleFlight;
     
     /**
      * 일별 잔고 수익률 조회 API
@@ -40,7 +42,9 @@ public class DailyBalanceController {
         
         log.info("일별 잔고 수익률 조회 API 호출: queryDate={}", resolvedQueryDate);
         
-        return dailyBalanceService.getDailyBalance(resolvedQueryDate)
+        // 동시에 들어온 같은 일자 조회는 키움 API 를 한 번만 호출
+        return singleFlight.executeMono(SingleFlight.key("balance:daily", resolvedQueryDate),
+                        () -> dailyBalanceService.getDailyBalance(resolvedQueryDate))
                 .map(ResponseEntity::ok)
                 .onErrorResume(e -> {
                     log.error("일별 잔고 수익률 조회 실패", e);
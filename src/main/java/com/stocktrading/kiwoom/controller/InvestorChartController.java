@@ -2,7 +2,13 @@ package com.stocktrading.kiwoom.controller;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -13,14 +19,21 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
 import com.stocktrading.kiwoom.domain.model.InvestorChart;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
 import com.stocktrading.kiwoom.domain.port.in.FetchInvestorChartUseCase;
 import com.stocktrading.kiwoom.domain.port.in.FetchInvestorChartUseCase.FetchInvestorChartCommand;
 import com.stocktrading.kiwoom.domain.port.in.QueryInvestorChartUseCase;
 import com.stocktrading.kiwoom.dto.InstitutionTrendResponse;
 import com.stocktrading.kiwoom.dto.InvestorChartRequest;
 import com.stocktrading.kiwoom.dto.InvestorChartResponse;
+import com.stocktrading.kiwoom.service.CrossSectionRankService;
+import com.stocktrading.kiwoom.service.CrossSectionRankService.RankPage;
+import com.stocktrading.kiwoom.service.DataVersionRegistry;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,9 +50,15 @@ public class InvestorChartController {
 
         private final FetchInvestorChartUseCase fetchUseCase;
         private final QueryInvestorChartUseCase queryUseCase;
+        private final DataVersionRegistry dataVersionRegistry;
+        private final InvestorChartExportWriter exportWriter;
+        private final CrossSectionRankService crossSectionRankService;
 
         private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
 
+        // 일괄 조회 최대 종목 수
+        private static final int MAX_BATCH_STOCKS = 100;
+
         // ============================================
         // Fetch APIs (운영서버에서 데이터 수집)
         // ============================================
@@ -396,10 +415,101 @@ public class InvestorChartController {
         public ResponseEntity<InvestorChartResponse> getByStockAndPeriod(
                         @PathVariable String stockCode,
                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                        WebRequest webRequest) {
+
+                // 종료일이 오늘 이전인 구간은 변경 시에만 다시 받도록 장기 캐시
+                return dataVersionRegistry.conditional(webRequest, Dataset.INVESTOR_CHART, stockCode,
+                                startDate + "|" + endDate, endDate.isBefore(LocalDate.now()), () -> {
+                                        List<InvestorChart> charts = queryUseCase.queryByStockAndPeriod(stockCode, startDate, endDate);
+                                        return ResponseEntity.ok(InvestorChartResponse.from(stockCode, charts));
+                                });
+        }
+
+        /**
+         * 여러 종목+기간 일괄 조회 (관심종목 화면용, 종목별 요청 대신 1회 요청 / 1회 쿼리)
+         * GET
+         * /api/v1/investor-chart/batch?stockCodes=005930,000660&startDate=2024-10-01&endDate=2024-11-07
+         *
+         * @param stream true 면 종목별 응답을 완성되는 대로 한 줄씩 전송 (NDJSON)
+         * @return 종목코드 → 기간 조회 응답 (요청 순서, 데이터 없는 종목은 빈 목록)
+         */
+        @GetMapping("/batch")
+        public ResponseEntity<?> getByStocksAndPeriod(
+                        @RequestParam List<String> stockCodes,
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                        @RequestParam(defaultValue = "false") boolean stream) {
+
+                List<String> codes = normalizeStockCodes(stockCodes);
+                if (codes.isEmpty() || codes.size() > MAX_BATCH_STOCKS) {
+                        return ResponseEntity.badRequest().build();
+                }
+                log.info("투자자 차트 일괄 조회 - 종목: {}개, 기간: {} ~ {}, 스트리밍: {}",
+                                codes.size(), startDate, endDate, stream);
+
+                if (stream) {
+                        return exportWriter.<InvestorChartResponse>streamPerStock(consumer -> groupByStock(codes,
+                                        rows -> queryUseCase.exportByStocksAndPeriod(codes, startDate, endDate, rows),
+                                        consumer));
+                }
+
+                Map<String, InvestorChartResponse> result = new LinkedHashMap<>();
+                queryUseCase.queryByStocksAndPeriod(codes, startDate, endDate)
+                                .forEach((code, charts) -> result.put(code, InvestorChartResponse.from(code, charts)));
+                return ResponseEntity.ok(result);
+        }
+
+        /**
+         * 종목코드 순으로 들어오는 행을 종목별 응답으로 묶어 전달 (데이터 없는 종목은 마지막에 빈 응답)
+         */
+        private static void groupByStock(List<String> stockCodes, Consumer<Consumer<InvestorChart>> rows,
+                        Consumer<InvestorChartResponse> consumer) {
+                Set<String> remaining = new LinkedHashSet<>(stockCodes);
+                List<InvestorChart> current = new ArrayList<>();
+                rows.accept(chart -> {
+                        if (!current.isEmpty() && !current.get(0).getStockCode().equals(chart.getStockCode())) {
+                                String code = current.get(0).getStockCode();
+                                remaining.remove(code);
+                                consumer.accept(InvestorChartResponse.from(code, current));
+                                current.clear();
+                        }
+                        current.add(chart);
+                });
+                if (!current.isEmpty()) {
+                        String code = current.get(0).getStockCode();
+                        remaining.remove(code);
+                        consumer.accept(InvestorChartResponse.from(code, current));
+                }
+                remaining.forEach(code -> consumer.accept(InvestorChartResponse.from(code, List.of())));
+        }
+
+        private static List<String> normalizeStockCodes(List<String> stockCodes) {
+                return stockCodes.stream()
+                                .map(String::trim)
+                                .filter(code -> !code.isEmpty())
+                                .distinct()
+                                .toList();
+        }
+
+        /**
+         * 종목+기간 내보내기 (장기 이력용 스트리밍)
+         * GET
+         * /api/v1/investor-chart/{stockCode}/period/export?startDate=2000-01-01&endDate=2024-11-07&format=ndjson
+         *
+         * @param format ndjson (기본) | csv
+         */
+        @GetMapping("/{stockCode}/period/export")
+        public ResponseEntity<StreamingResponseBody> exportByStockAndPeriod(
+                        @PathVariable String stockCode,
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                        @RequestParam(defaultValue = "ndjson") String format) {
 
-                List<InvestorChart> charts = queryUseCase.queryByStockAndPeriod(stockCode, startDate, endDate);
-                return ResponseEntity.ok(InvestorChartResponse.from(stockCode, charts));
+                log.info("투자자 차트 내보내기 - 종목: {}, 기간: {} ~ {}, 형식: {}", stockCode, startDate, endDate, format);
+                return exportWriter.export(stockCode + "_" + startDate.format(DATE_FORMATTER) + "_"
+                                + endDate.format(DATE_FORMATTER), format,
+                                consumer -> queryUseCase.exportByStockAndPeriod(stockCode, startDate, endDate, consumer));
         }
 
         /**
@@ -432,6 +542,70 @@ public class InvestorChartController {
                 return ResponseEntity.ok(result);
         }
 
+        /**
+         * 특정 일자 투자자별 순매수 순위 조회 (미리 계산한 횡단면 순위, 페이지 단위)
+         * GET /api/v1/investor-chart/by-date/ranking?date=2024-11-07&investor=frgnr&sort=amount&order=desc&page=0&size=50
+         *
+         * @param date 거래일 (생략 시 최근 계산 일자)
+         * @param sort amount (순매수 거래대금) | norm (순매수량 / 20일 평균 |순매수량|)
+         * @param order desc (순매수 상위) | asc (순매도 상위)
+         */
+        @GetMapping("/by-date/ranking")
+        public ResponseEntity<RankPage> getRankingByDate(
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                        @RequestParam(defaultValue = "frgnr") String investor,
+                        @RequestParam(defaultValue = "amount") String sort,
+                        @RequestParam(defaultValue = "desc") String order,
+                        @RequestParam(defaultValue = "0") int page,
+                        @RequestParam(defaultValue = "50") int size) {
+
+                InvestorType investorType = InvestorType.fromKey(investor).orElse(null);
+                if (investorType == null) {
+                        return ResponseEntity.badRequest().build();
+                }
+                try {
+                        return ResponseEntity.ok(crossSectionRankService.getPage(date, investorType, sort, order, page, size));
+                } catch (IllegalArgumentException e) {
+                        log.warn("순위 조회 파라미터 오류: {}", e.getMessage());
+                        return ResponseEntity.badRequest().build();
+                }
+        }
+
+        /**
+         * 기간 횡단면 순위 재계산 (초기 적재용, 등록 후 백그라운드에서 계산)
+         * POST /api/v1/investor-chart/by-date/ranking/rebuild?startDate=2024-01-01&endDate=2024-11-07
+         */
+        @PostMapping("/by-date/ranking/rebuild")
+        public ResponseEntity<String> rebuildRanking(
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+                log.info("횡단면 순위 재계산 요청 - 기간: {} ~ {}", startDate, endDate);
+                try {
+                        int days = crossSectionRankService.rebuildRange(startDate, endDate);
+                        return ResponseEntity.accepted().body("횡단면 순위 계산 등록: " + startDate + " ~ " + endDate + " (" + days + " 거래일)");
+                } catch (Exception e) {
+                        log.error("횡단면 순위 재계산 실패 - 오류: {}", e.getMessage(), e);
+                        return ResponseEntity.status(500).body("횡단면 순위 계산 실패: " + e.getMessage());
+                }
+        }
+
+        /**
+         * 특정 일자의 모든 종목 내보내기 (스트리밍)
+         * GET /api/v1/investor-chart/by-date/export?date=2024-11-07&format=csv
+         *
+         * @param format ndjson (기본) | csv
+         */
+        @GetMapping("/by-date/export")
+        public ResponseEntity<StreamingResponseBody> exportByDate(
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                        @RequestParam(defaultValue = "ndjson") String format) {
+
+                log.info("일자별 투자자 차트 내보내기 - 일자: {}, 형식: {}", date, format);
+                return exportWriter.export("investor_chart_" + date.format(DATE_FORMATTER), format,
+                                consumer -> queryUseCase.exportByDate(date, consumer));
+        }
+
         /**
          * 종목의 최신 데이터 조회
          * GET /api/v1/investor-chart/{stockCode}/latest
@@ -0,0 +1,188 @@
+package com.stocktrading.kiwoom.controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.stocktrading.kiwoom.domain.model.InvestorChart;
+import com.stocktrading.kiwoom.dto.InvestorChartResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 투자자 차트 내보내기 응답 작성기 (NDJSON / CSV)
+ *
+ * DB 커서에서 한 건씩 받은 행을 바로 응답 스트림에 쓴다. 응답 스트림 쓰기가 막히면 커서 읽기도 멈추므로
+ * 조회 구간과 관계없이 메모리 사용량이 일정하다. 첫 행은 즉시 flush 하여 첫 바이트를 빨리 보낸다.
+ */
+@Slf4j
+@Component
+public class InvestorChartExportWriter {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private static final String CSV_HEADER = "stockCode,date,unitType,currentPrice,previousDayDifference,"
+            + "accumulatedTradeAmount,individual,foreigner,institution,nationalForeign,financialInvest,"
+            + "insurance,investment,etcFinancial,bank,pensionFund,privateFund,nation,etcCorporation\n";
+
+    private final ObjectWriter rowWriter;
+    private final ObjectWriter itemWriter;
+
+    public InvestorChartExportWriter(ObjectMapper objectMapper) {
+        // 행마다 flush 하지 않고 버퍼가 찰 때 내보냄
+        this.rowWriter = objectMapper.writerFor(InvestorChartResponse.ChartDataDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.itemWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * 내보내기 응답 생성
+     *
+     * @param fileName 확장자 제외 파일명
+     * @param format ndjson | csv
+     * @param source consumer 에 행을 한 건씩 전달하는 조회
+     */
+    public ResponseEntity<StreamingResponseBody> export(String fileName, String format,
+                                                        Consumer<Consumer<InvestorChart>> source) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                if (csv) {
+                    writeCsv(out, source);
+                } else {
+                    writeNdjson(out, source);
+                }
+            } catch (UncheckedIOException e) {
+                // 클라이언트 연결 종료 등
+                log.debug("내보내기 중단 - {}: {}", fileName, e.getMessage());
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(fileName + (csv ? ".csv" : ".ndjson"))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * 종목별 응답을 완성되는 대로 한 줄씩 전송 (NDJSON, 종목마다 flush)
+     *
+     * @param source consumer 에 종목별 응답을 하나씩 전달하는 조회
+     */
+    public <T> ResponseEntity<StreamingResponseBody> streamPerStock(Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = itemWriter.createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                source.accept(item -> {
+                    try {
+                        itemWriter.writeValue(generator, item);
+                        generator.writeRaw('\n');
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                log.debug("종목별 스트리밍 중단: {}", e.getMessage());
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+
+    private void writeNdjson(OutputStream out, Consumer<Consumer<InvestorChart>> source) throws IOException {
+        try (JsonGenerator generator = rowWriter.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            int[] count = { 0 };
+            source.accept(chart -> {
+                try {
+                    rowWriter.writeValue(generator, InvestorChartResponse.ChartDataDto.from(chart));
+                    generator.writeRaw('\n');
+                    if (count[0]++ == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(OutputStream out, Consumer<Consumer<InvestorChart>> source) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.flush();
+        source.accept(chart -> {
+            try {
+                writeCsvRow(writer, chart);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, InvestorChart chart) throws IOException {
+        InvestorChart.InvestorData investor = chart.getInvestorData();
+        InvestorChart.InstitutionBreakdown breakdown = chart.getInstitutionBreakdown();
+
+        writer.write(chart.getStockCode());
+        writer.write(',');
+        writer.write(chart.getDate().toString());
+        writer.write(',');
+        writer.write(chart.getUnitType().name());
+        writeCsvValue(writer, chart.getCurrentPrice());
+        writeCsvValue(writer, chart.getPreviousDayDifference());
+        writeCsvValue(writer, chart.getAccumulatedTradeAmount());
+        writeCsvValue(writer, investor.getIndividual());
+        writeCsvValue(writer, investor.getForeigner());
+        writeCsvValue(writer, investor.getInstitution());
+        writeCsvValue(writer, investor.getNationalForeign());
+        writeCsvValue(writer, breakdown.getFinancialInvest());
+        writeCsvValue(writer, breakdown.getInsurance());
+        writeCsvValue(writer, breakdown.getInvestment());
+        writeCsvValue(writer, breakdown.getEtcFinancial());
+        writeCsvValue(writer, breakdown.getBank());
+        writeCsvValue(writer, breakdown.getPensionFund());
+        writeCsvValue(writer, breakdown.getPrivateFund());
+        writeCsvValue(writer, breakdown.getNation());
+        writeCsvValue(writer, breakdown.getEtcCorporation());
+        writer.write('\n');
+    }
+
+    private static void writeCsvValue(Writer writer, Long value) throws IOException {
+        writer.write(',');
+        if (value != null) {
+            writer.write(Long.toString(value));
+        }
+    }
+}
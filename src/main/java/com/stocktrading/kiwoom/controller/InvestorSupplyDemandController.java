@@ -8,6 +8,8 @@ import org.springframework.web.bind.annotation.*;
 
 import lombok.RequiredArgsConstructor;
 import com.stocktrading.kiwoom.adapter.out.persistence.entity.StockInvestorInvestAccumulationEntity;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
+import com.stocktrading.kiwoom.service.AnalyticsResponseCache;
 import com.stocktrading.kiwoom.service.InvestorSupplyDemandService;
 
 @RestController
@@ -17,6 +19,7 @@ import com.stocktrading.kiwoom.service.InvestorSupplyDemandService;
 public class InvestorSupplyDemandController {
 
     private final InvestorSupplyDemandService service;
+    private final AnalyticsResponseCache analyticsResponseCache;
 
     /**
      * 투자자별 수급분석 조회 (누적 수량/금액)
@@ -27,6 +30,9 @@ public class InvestorSupplyDemandController {
             @RequestParam(value = "startDt", required = false) @DateTimeFormat(pattern = "yyyyMMdd") LocalDate startDt,
             @RequestParam(value = "endDt", required = false) @DateTimeFormat(pattern = "yyyyMMdd") LocalDate endDt) {
 
-        return service.getAnalysisData(stkCd, startDt, endDt);
+        // 종료일 미지정 시 오늘까지 조회하므로 날짜를 키에 포함
+        String params = startDt + "|" + (endDt != null ? endDt : "~" + LocalDate.now());
+        return analyticsResponseCache.getList(Dataset.SUPPLY_DEMAND, stkCd, params,
+                StockInvestorInvestAccumulationEntity.class, () -> service.getAnalysisData(stkCd, startDt, endDt));
     }
 }
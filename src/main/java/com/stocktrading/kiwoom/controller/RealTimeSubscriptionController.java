@@ -0,0 +1,110 @@
+package com.stocktrading.kiwoom.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.stocktrading.kiwoom.adapter.in.websocket.RealTimeStockPriceHandler;
+import com.stocktrading.kiwoom.adapter.in.websocket.RealTimeStockPriceHandler.ShardStatus;
+import com.stocktrading.kiwoom.adapter.in.websocket.RealTimeSubscriptionRegistry;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 실시간 시세 구독 API Controller
+ *
+ * 화면은 보고 있는 종목을 viewerId 로 등록하고 주기적으로 다시 호출해 임대를 연장한다.
+ * (만료/해제된 종목은 다른 구독이 없으면 다음 동기화 때 REMOVE)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/realtime/subscriptions")
+@RequiredArgsConstructor
+@CrossOrigin(origins = { "http://localhost:3000", "http://localhost:3001" })
+public class RealTimeSubscriptionController {
+
+    private final RealTimeSubscriptionRegistry subscriptionRegistry;
+    private final RealTimeStockPriceHandler realTimeStockPriceHandler;
+
+    /**
+     * 화면 구독 등록/연장
+     * PUT /api/realtime/subscriptions/{viewerId}
+     */
+    @PutMapping("/{viewerId}")
+    public ResponseEntity<SubscriptionResponse> lease(@PathVariable String viewerId,
+                                                      @RequestBody SubscriptionRequest request) {
+        try {
+            subscriptionRegistry.lease(viewerId, request.getStockCodes());
+            return ResponseEntity.ok(status("구독 등록 완료"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(SubscriptionResponse.builder()
+                .success(false)
+                .message(e.getMessage())
+                .build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(SubscriptionResponse.builder()
+                .success(false)
+                .message(e.getMessage())
+                .build());
+        }
+    }
+
+    /**
+     * 화면 구독 해제
+     * DELETE /api/realtime/subscriptions/{viewerId}
+     */
+    @DeleteMapping("/{viewerId}")
+    public ResponseEntity<SubscriptionResponse> release(@PathVariable String viewerId) {
+        subscriptionRegistry.release(viewerId);
+        return ResponseEntity.ok(status("구독 해제 완료"));
+    }
+
+    /**
+     * 구독/세션 현황
+     * GET /api/realtime/subscriptions
+     */
+    @GetMapping
+    public ResponseEntity<SubscriptionResponse> getStatus() {
+        try {
+            return ResponseEntity.ok(status("조회 성공"));
+        } catch (Exception e) {
+            log.error("실시간 구독 현황 조회 실패", e);
+            return ResponseEntity.internalServerError().body(SubscriptionResponse.builder()
+                .success(false)
+                .message("조회 실패: " + e.getMessage())
+                .build());
+        }
+    }
+
+    private SubscriptionResponse status(String message) {
+        return SubscriptionResponse.builder()
+            .success(true)
+            .desiredCount(subscriptionRegistry.desired().size())
+            .viewerCount(subscriptionRegistry.viewerCount())
+            .sessions(realTimeStockPriceHandler.status())
+            .message(message)
+            .build();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class SubscriptionRequest {
+        private List<String> stockCodes = List.of();
+    }
+
+    @Data
+    @Builder
+    public static class SubscriptionResponse {
+        private boolean success;
+        private String message;
+        private int desiredCount; // 구독 대상 종목 수 (관심종목 + KOSPI200 + 화면)
+        private int viewerCount;
+        private List<ShardStatus> sessions;
+    }
+}
@@ -0,0 +1,101 @@
+package com.stocktrading.kiwoom.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.stocktrading.kiwoom.service.InvestorScreenerService;
+import com.stocktrading.kiwoom.service.InvestorScreenerService.Condition;
+import com.stocktrading.kiwoom.service.InvestorScreenerService.Operand;
+import com.stocktrading.kiwoom.service.InvestorScreenerService.Query;
+import com.stocktrading.kiwoom.service.InvestorScreenerService.Result;
+import com.stocktrading.kiwoom.service.InvestorScreenerService.Row;
+import com.stocktrading.kiwoom.service.InvestorScreenerService.SortKey;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 투자자 수급 스크리너 API Controller
+ *
+ * 조건식과 정렬식을 받아 전 종목의 최근 거래일 기준 투자자 수급을 한 번에 걸러낸다.
+ * (식 형식은 {@link InvestorScreenerService} 참고)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/statistics/screener")
+@RequiredArgsConstructor
+@CrossOrigin(origins = { "http://localhost:3000", "http://localhost:3001" })
+public class ScreenerController {
+
+    private final InvestorScreenerService screenerService;
+
+    /**
+     * 스크리닝 실행
+     * POST /api/statistics/screener
+     */
+    @PostMapping
+    public ResponseEntity<ScreenerResponse> runScreener(@RequestBody ScreenerRequest request) {
+        log.info("스크리닝 요청 - 조건: {}, 정렬: {}, 최대: {}", request.getFilter(), request.getSort(), request.getLimit());
+
+        try {
+            Result result = screenerService.run(new Query(
+                request.getFilter(),
+                request.getSort(),
+                request.getColumns(),
+                request.getLimit(),
+                request.isIncludeStale()));
+
+            return ResponseEntity.ok(ScreenerResponse.builder()
+                .success(true)
+                .asOf(result.asOf())
+                .stockCount(result.stockCount())
+                .matched(result.matched())
+                .elapsedMs(result.elapsedMs())
+                .rows(result.rows())
+                .message("스크리닝 완료")
+                .build());
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ScreenerResponse.builder()
+                .success(false)
+                .message(e.getMessage())
+                .build());
+        } catch (Exception e) {
+            log.error("스크리닝 실패", e);
+            return ResponseEntity.internalServerError().body(ScreenerResponse.builder()
+                .success(false)
+                .message("스크리닝 실패: " + e.getMessage())
+                .build());
+        }
+    }
+
+    /**
+     * 스크리닝 요청 DTO
+     */
+    @Data
+    @NoArgsConstructor
+    public static class ScreenerRequest {
+        private Condition filter; // 없으면 전 종목
+        private List<SortKey> sort = List.of();
+        private List<Operand> columns = List.of(); // 결과에 함께 반환할 값
+        private int limit = 100;
+        private boolean includeStale = false; // 최근 거래일 데이터가 없는 종목 포함 여부
+    }
+
+    @Data
+    @Builder
+    public static class ScreenerResponse {
+        private boolean success;
+        private String message;
+        private String asOf; // 기준일 (yyyyMMdd)
+        private int stockCount;
+        private int matched;
+        private long elapsedMs;
+        private List<Row> rows;
+    }
+}
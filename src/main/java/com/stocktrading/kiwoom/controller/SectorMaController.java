@@ -10,9 +10,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.stocktrading.kiwoom.batch.SectorMaBatchService;
+import com.stocktrading.kiwoom.batch.SectorMembershipDeltaService;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
+import com.stocktrading.kiwoom.service.AnalyticsResponseCache;
+import com.stocktrading.kiwoom.service.DataVersionRegistry;
 import com.stocktrading.kiwoom.service.SectorMaService;
+import com.stocktrading.kiwoom.service.SingleFlight;
 import com.stocktrading.kiwoom.dto.SectorMaResponse;
 
 import lombok.RequiredArgsConstructor;
@@ -29,6 +35,10 @@ public class SectorMaController {
 
     private final SectorMaService sectorMaService;
     private final SectorMaBatchService batchService;
+    private final SectorMembershipDeltaService membershipDeltaService;
+    private final AnalyticsResponseCache analyticsResponseCache;
+    private final DataVersionRegistry dataVersionRegistry;
+    private final SingleFlight singleFlight;
 
     /**
      * 섹터별 이동평균 조회
@@ -118,7 +128,7 @@ public class SectorMaController {
      * @param sectorCd 섹터 코드 (예: ai_infra, semicon 등)
      * @param days 조회 일수 (기본: 120)
      * @param investors 투자자 유형 (쉼표 구분, 기본: "frgnr,orgn")
-     * @param period 이동평균 기간 (5, 10, 20, 30, 40, 50, 60, 90, 120, 140)
+     * @param period 이동평균 기간 (저장 기간: 5, 10, 20, 30, 40, 50, 60, 90, 120, 140 / 그 외는 누적합으로 계산)
      * @param beforeDate 무한 스크롤용 날짜 (YYYYMMDD, 옵션)
      * @return 섹터별 차트 데이터
      */
@@ -128,11 +138,22 @@ public class SectorMaController {
             @RequestParam(defaultValue = "120") int days,
             @RequestParam(defaultValue = "frgnr,orgn") String investors,
             @RequestParam(defaultValue = "5") int period,
-            @RequestParam(required = false) String beforeDate) {
+            @RequestParam(required = false) String beforeDate,
+            WebRequest webRequest) {
 
         log.info("섹터 차트 데이터 조회 요청 - 섹터: {}, 일수: {}, 투자자: {}, 기간: {}, 이전날짜: {}",
             sectorCd, days, investors, period, beforeDate);
 
+        String params = days + "|" + investors + "|" + period + "|" + beforeDate;
+        return dataVersionRegistry.conditional(webRequest, Dataset.SECTOR_MA, sectorCd, params,
+            DataVersionRegistry.endsBeforeToday(beforeDate),
+            () -> analyticsResponseCache.getResponse(Dataset.SECTOR_MA, sectorCd, params,
+                SectorMaResponse.SectorMaChartResponse.class,
+                () -> loadChartData(sectorCd, days, investors, period, beforeDate)));
+    }
+
+    private ResponseEntity<SectorMaResponse.SectorMaChartResponse> loadChartData(
+            String sectorCd, int days, String investors, int period, String beforeDate) {
         try {
             SectorMaResponse.SectorMaChartResponse response = sectorMaService.getChartData(
                 sectorCd, days, investors, period, beforeDate);
@@ -155,7 +176,7 @@ public class SectorMaController {
      *
      * @param days 조회 일수 (기본: 120)
      * @param investors 투자자 유형 (쉼표 구분, 기본: "frgnr,orgn")
-     * @param period 이동평균 기간 (5, 10, 20, 30, 40, 50, 60, 90, 120, 140)
+     * @param period 이동평균 기간 (저장 기간: 5, 10, 20, 30, 40, 50, 60, 90, 120, 140 / 그 외는 누적합으로 계산)
      * @param beforeDate 무한 스크롤용 날짜 (YYYYMMDD, 옵션)
      * @return 모든 섹터의 차트 데이터
      */
@@ -170,8 +191,10 @@ public class SectorMaController {
             days, investors, period, beforeDate);
 
         try {
-            SectorMaResponse.AllSectorMaChartResponse response = sectorMaService.getAllSectorsChartData(
-                days, investors, period, beforeDate);
+            // 장 시작 시 여러 화면의 동일 요청은 한 번만 계산
+            SectorMaResponse.AllSectorMaChartResponse response = singleFlight.execute(
+                SingleFlight.key("sector-ma:chart-all", days, investors, period, beforeDate),
+                () -> sectorMaService.getAllSectorsChartData(days, investors, period, beforeDate));
 
             return ResponseEntity.ok(response);
 
@@ -219,8 +242,9 @@ public class SectorMaController {
             String actualToDate = toDate.replace("-", "");
 
             // 섹터 이동평균 비중 계산 (Service에 위임)
-            StatisticsController.InvestorRatioMaResponse response =
-                sectorMaService.getSectorInvestorRatioMa(sectorCd, period, actualFromDate, actualToDate);
+            StatisticsController.InvestorRatioMaResponse response = singleFlight.execute(
+                SingleFlight.key("sector-ma:investor-ratio-ma", sectorCd, period, actualFromDate, actualToDate),
+                () -> sectorMaService.getSectorInvestorRatioMa(sectorCd, period, actualFromDate, actualToDate));
 
             return ResponseEntity.ok(response);
 
@@ -254,6 +278,8 @@ public class SectorMaController {
                 targetDate = LocalDate.now().minusDays(1);
             }
 
+            // 섹터 일별 거래대금 합계를 현재 구성종목 기준으로 맞춘 뒤 계산
+            membershipDeltaService.syncMembership();
             batchService.calculateAndSaveAllSectors(targetDate);
 
             return ResponseEntity.ok("배치 실행 완료: " + targetDate);
@@ -298,6 +324,8 @@ public class SectorMaController {
 
             log.info("기간 배치 시작 - 시작일: {}, 종료일: {}", start, end);
 
+            // 섹터 일별 거래대금 합계를 현재 구성종목 기준으로 맞춘 뒤 계산
+            membershipDeltaService.syncMembership();
             batchService.calculateAndSaveAllSectorsForPeriod(start, end);
 
             long totalDays = java.time.temporal.ChronoUnit.DAYS.between(start, end) + 1;
@@ -354,6 +382,8 @@ public class SectorMaController {
 
             log.info("특정 섹터 기간 배치 시작 - 섹터: {}, 시작일: {}, 종료일: {}", sectorCd, start, end);
 
+            // 섹터 일별 거래대금 합계를 현재 구성종목 기준으로 맞춘 뒤 계산
+            membershipDeltaService.syncMembership();
             batchService.calculateAndSaveSectorForPeriod(sectorCd, start, end);
 
             long totalDays = java.time.temporal.ChronoUnit.DAYS.between(start, end) + 1;
@@ -367,4 +397,25 @@ public class SectorMaController {
             return ResponseEntity.status(500).body("섹터 기간 배치 실행 실패: " + e.getMessage());
         }
     }
+
+    /**
+     * 섹터 구성종목 변경 반영
+     * tb_stock_list_meta 섹터 배정을 마지막 스냅샷과 비교하여 편입/편출 종목만 가감 후 이동평균 재계산
+     * POST /api/v1/sector-ma/batch/membership-sync
+     *
+     * @return 변경된 섹터별 처리 결과
+     */
+    @PostMapping("/batch/membership-sync")
+    public ResponseEntity<?> syncSectorMembership() {
+        log.info("섹터 구성종목 변경 반영 요청");
+
+        try {
+            List<SectorMembershipDeltaService.SectorDelta> result = membershipDeltaService.syncMembership();
+            return ResponseEntity.ok(result);
+
+        } catch (Exception e) {
+            log.error("섹터 구성종목 변경 반영 실패 - 오류: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("섹터 구성종목 변경 반영 실패: " + e.getMessage());
+        }
+    }
 }
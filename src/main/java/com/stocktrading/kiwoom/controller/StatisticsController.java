@@ -11,19 +11,33 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import com.stocktrading.kiwoom.adapter.out.persistence.entity.StockInvestorChart;
-import com.stocktrading.kiwoom.adapter.out.persistence.repository.StockInvestorChartRepository;
 
 import lombok.Builder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import com.stocktrading.kiwoom.adapter.out.persistence.entity.StockInvestorMaEntity;
 import com.stocktrading.kiwoom.adapter.out.persistence.repository.StockInvestorMaRepository;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+import com.stocktrading.kiwoom.dto.ColumnarFrame;
+import com.stocktrading.kiwoom.service.AnalyticsResponseCache;
+import com.stocktrading.kiwoom.service.DataVersionRegistry;
+import com.stocktrading.kiwoom.service.HotHistoryCache;
+import com.stocktrading.kiwoom.service.InvestorCorrelationService;
+import com.stocktrading.kiwoom.service.InvestorPrefixSumService;
+import com.stocktrading.kiwoom.service.InvestorRatioService;
+import com.stocktrading.kiwoom.service.InvestorRatioService.InvestorVolumes;
 import com.stocktrading.kiwoom.service.InvestorSupplyDemandService;
+import com.stocktrading.kiwoom.service.MaChartBatchService;
+import com.stocktrading.kiwoom.service.SingleFlight;
 
 /**
  * 통계 분석 API Controller
@@ -37,16 +51,27 @@ import com.stocktrading.kiwoom.service.InvestorSupplyDemandService;
 public class StatisticsController {
 
     private final StockInvestorMaRepository stockInvestorMaRepository;
-    private final StockInvestorChartRepository stockInvestorChartRepository;
     private final com.stocktrading.kiwoom.adapter.out.persistence.repository.StockInvestorCorrDailyRepository stockInvestorCorrDailyRepository;
     private final InvestorSupplyDemandService investorSupplyDemandService;
+    private final InvestorCorrelationService investorCorrelationService;
+    private final InvestorPrefixSumService investorPrefixSumService;
+    private final InvestorRatioService investorRatioService;
+    private final AnalyticsResponseCache analyticsResponseCache;
+    private final DataVersionRegistry dataVersionRegistry;
+    private final SingleFlight singleFlight;
+    private final MaChartBatchService maChartBatchService;
+    private final HotHistoryCache hotHistoryCache;
+    private final InvestorChartExportWriter exportWriter;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Python 스크립트 경로 (상대 경로로 프로젝트 루트 기준)
     private static final String PYTHON_SCRIPT_MA_PATH = "python-analysis/calculate_incremental_ma.py";
-    private static final String PYTHON_SCRIPT_CORR_PATH = "python-analysis/calculate_investor_correlation.py";
     private static final String PYTHON_COMMAND = "python3";
     private static final int TIMEOUT_MINUTES = 10;
 
+    // 일괄 조회 최대 종목 수
+    private static final int MAX_BATCH_STOCKS = 100;
+
     /**
      * 투자자 이동평균 계산 실행 (증분 업데이트 방식)
      * POST /api/statistics/moving-average/calculate
@@ -98,6 +123,7 @@ public class StatisticsController {
 
             Duration elapsed = Duration.between(startTime, LocalDateTime.now());
             log.info("이동평균 계산 완료 - 소요시간: {}초, 총 {}건", elapsed.getSeconds(), totalRows);
+            eventPublisher.publishEvent(AnalyticsDataChangedEvent.all(Dataset.STOCK_MA));
 
             return ResponseEntity.ok(
                     MovingAverageResponse.builder()
@@ -136,6 +162,8 @@ public class StatisticsController {
                     .build());
         }
 
+        eventPublisher.publishEvent(AnalyticsDataChangedEvent.of(Dataset.STOCK_MA, stkCd));
+
         // Reverting to original state
         return ResponseEntity.ok(MovingAverageResponse.builder()
                 .success(true)
@@ -145,30 +173,31 @@ public class StatisticsController {
     }
 
     /**
-     * 특정 종목 상관분석 계산 실행
+     * 특정 종목 상관분석 계산 실행 (전체 재계산)
      * POST /api/statistics/correlation/calculate/{stkCd}
      */
     @PostMapping("/correlation/calculate/{stkCd}")
     public ResponseEntity<MovingAverageResponse> calculateCorrelationByStock(@PathVariable String stkCd) {
         log.info("투자자 상관분석 계산 (단일 종목): {}", stkCd);
-        ResponseEntity<MovingAverageResponse> execRes = executePythonScript(PYTHON_SCRIPT_CORR_PATH, stkCd,
-                "상관분석 계산 완료");
+        long start = System.currentTimeMillis();
+        try {
+            int count = investorCorrelationService.recalculate(stkCd);
+            long elapsed = (System.currentTimeMillis() - start) / 1000;
 
-        if (!execRes.getStatusCode().is2xxSuccessful() || execRes.getBody() == null || !execRes.getBody().success()) {
-            String msg = execRes.getBody() != null ? execRes.getBody().message() : "상관분석 계산 실패";
-            return ResponseEntity.status(execRes.getStatusCode()).body(MovingAverageResponse.builder()
+            return ResponseEntity.ok(MovingAverageResponse.builder()
+                    .success(true)
+                    .message("상관분석 계산 완료")
+                    .rowCount(count)
+                    .elapsedSeconds(elapsed)
+                    .updatedMaxDate(stockInvestorCorrDailyRepository.findMaxDateByStkCd(stkCd))
+                    .build());
+        } catch (Exception e) {
+            log.error("상관분석 계산 실패: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(MovingAverageResponse.builder()
                     .success(false)
-                    .message(msg)
-                    .elapsedSeconds(execRes.getBody() != null ? execRes.getBody().elapsedSeconds() : null)
+                    .message("상관분석 계산 실패: " + e.getMessage())
                     .build());
         }
-
-        // Reverting to original state
-        return ResponseEntity.ok(MovingAverageResponse.builder()
-                .success(true)
-                .message("상관분석 계산 완료")
-                .elapsedSeconds(execRes.getBody().elapsedSeconds())
-                .build());
     }
 
     /**
@@ -178,7 +207,24 @@ public class StatisticsController {
     @PostMapping("/correlation/calculate")
     public ResponseEntity<MovingAverageResponse> calculateCorrelation() {
         log.info("투자자 상관분석 계산 API 호출 (전체 종목)");
-        return executePythonScript(PYTHON_SCRIPT_CORR_PATH, "", "상관분석 계산 완료 (전체)");
+        long start = System.currentTimeMillis();
+        try {
+            int count = investorCorrelationService.refreshAll();
+            long elapsed = (System.currentTimeMillis() - start) / 1000;
+
+            return ResponseEntity.ok(MovingAverageResponse.builder()
+                    .success(true)
+                    .message("상관분석 계산 완료 (전체)")
+                    .rowCount(count)
+                    .elapsedSeconds(elapsed)
+                    .build());
+        } catch (Exception e) {
+            log.error("상관분석 계산 실패: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(MovingAverageResponse.builder()
+                    .success(false)
+                    .message("상관분석 계산 실패: " + e.getMessage())
+                    .build());
+        }
     }
 
     /**
@@ -224,6 +270,32 @@ public class StatisticsController {
         }
     }
 
+    /**
+     * 투자자 누적합 증분 추가 (임의 기간 이동평균용)
+     * POST /api/statistics/prefix-sum/refresh
+     */
+    @PostMapping("/prefix-sum/refresh")
+    public ResponseEntity<MovingAverageResponse> refreshPrefixSum() {
+        log.info("투자자 누적합 증분 추가 요청");
+        long start = System.currentTimeMillis();
+        try {
+            investorPrefixSumService.refreshAll();
+            long elapsed = (System.currentTimeMillis() - start) / 1000;
+
+            return ResponseEntity.ok(MovingAverageResponse.builder()
+                    .success(true)
+                    .message("누적합 증분 추가 완료")
+                    .elapsedSeconds(elapsed)
+                    .build());
+        } catch (Exception e) {
+            log.error("누적합 증분 추가 실패: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(MovingAverageResponse.builder()
+                    .success(false)
+                    .message("누적합 증분 추가 실패: " + e.getMessage())
+                    .build());
+        }
+    }
+
     /**
      * Python 스크립트 실행 공통 메서드
      */
@@ -297,7 +369,7 @@ public class StatisticsController {
      * @param stkCd      종목코드
      * @param days       조회 일수 (기본값: 120일)
      * @param investors  조회할 투자자 유형 (쉼표 구분, 기본: frgnr,orgn)
-     * @param period     이동평균 기간 (5, 10, 20, 60 중 선택, 기본: 5)
+     * @param period     이동평균 기간 (기본: 5, 저장 컬럼 외 기간은 누적합으로 계산)
      * @param beforeDate 특정 날짜 이전 데이터 조회 (무한 스크롤용, 선택)
      */
     @GetMapping("/moving-average/chart/{stkCd}")
@@ -306,11 +378,70 @@ public class StatisticsController {
             @RequestParam(defaultValue = "120") int days,
             @RequestParam(defaultValue = "frgnr,orgn") String investors,
             @RequestParam(defaultValue = "5") int period,
-            @RequestParam(required = false) String beforeDate) {
+            @RequestParam(required = false) String beforeDate,
+            WebRequest webRequest) {
         log.info("이동평균 차트 데이터 조회 - 종목: {}, 일수: {}, 투자자: {}, 기간: {}일, beforeDate: {}",
                 stkCd, days, investors, period, beforeDate);
 
+        String params = days + "|" + investors + "|" + period + "|" + beforeDate;
+        return dataVersionRegistry.conditional(webRequest, Dataset.STOCK_MA, stkCd, params,
+                DataVersionRegistry.endsBeforeToday(beforeDate),
+                () -> analyticsResponseCache.getResponse(Dataset.STOCK_MA, stkCd, params, MaChartResponse.class,
+                        () -> loadChartData(stkCd, days, investors, period, beforeDate)));
+    }
+
+    /**
+     * 여러 종목 이동평균 차트 일괄 조회 (관심종목 화면용, 종목별 요청 대신 1회 요청 / 1회 쿼리)
+     * GET /api/statistics/moving-average/chart/batch?stkCds=005930,000660
+     *
+     * @param stkCds 종목코드 (쉼표 구분, 최대 100개)
+     * @param stream true 면 종목별 응답을 완성되는 대로 한 줄씩 전송 (NDJSON)
+     * @return 종목코드 → 단건 API 와 같은 차트 응답 (요청 순서)
+     */
+    @GetMapping("/moving-average/chart/batch")
+    public ResponseEntity<?> getChartDataBatch(
+            @RequestParam List<String> stkCds,
+            @RequestParam(defaultValue = "120") int days,
+            @RequestParam(defaultValue = "frgnr,orgn") String investors,
+            @RequestParam(defaultValue = "5") int period,
+            @RequestParam(required = false) String beforeDate,
+            @RequestParam(defaultValue = "false") boolean stream) {
+        List<String> codes = stkCds.stream().map(String::trim).filter(code -> !code.isEmpty()).distinct().toList();
+        if (codes.isEmpty() || codes.size() > MAX_BATCH_STOCKS || period < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("이동평균 차트 일괄 조회 - 종목: {}개, 일수: {}, 투자자: {}, 기간: {}일, beforeDate: {}, 스트리밍: {}",
+                codes.size(), days, investors, period, beforeDate, stream);
+
+        List<InvestorType> investorTypes = new ArrayList<>();
+        for (String investor : investors.split(",")) {
+            InvestorType.fromKey(investor.trim()).ifPresent(investorTypes::add);
+        }
+
+        if (stream) {
+            return exportWriter.<MaChartResponse>streamPerStock(consumer -> maChartBatchService.streamCharts(
+                    codes, investorTypes, period, days, beforeDate, consumer));
+        }
+
         try {
+            return ResponseEntity.ok(maChartBatchService.getCharts(codes, investorTypes, period, days, beforeDate));
+        } catch (Exception e) {
+            log.error("이동평균 차트 일괄 조회 실패: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(MaChartResponse.builder()
+                    .message("조회 실패: " + e.getMessage())
+                    .build());
+        }
+    }
+
+    private ResponseEntity<MaChartResponse> loadChartData(String stkCd, int days, String investors, int period,
+            String beforeDate) {
+        try {
+            // 저장 컬럼에 없는 기간은 누적합에서 계산 (캐시 종목은 off-heap 이력 사용)
+            if (!InvestorPrefixSumService.isStoredPeriod(period)) {
+                Optional<HotHistoryCache.History> hot = hotHistoryCache.get(stkCd);
+                return ResponseEntity.ok(getChartDataFromPrefixSum(stkCd, days, investors, period, beforeDate, hot));
+            }
+
             List<StockInvestorMaEntity> entities;
 
             // beforeDate가 있으면 해당 날짜 이전 데이터 조회
@@ -386,6 +517,78 @@ public class StatisticsController {
         }
     }
 
+    /**
+     * 누적합 기반 임의 기간 이동평균 차트 데이터 (캐시 종목은 off-heap 이력에서 계산)
+     */
+    private MaChartResponse getChartDataFromPrefixSum(String stkCd, int days, String investors, int period,
+            String beforeDate, Optional<HotHistoryCache.History> hot) {
+        List<InvestorType> investorTypes = new ArrayList<>();
+        for (String investor : investors.split(",")) {
+            InvestorType.fromKey(investor).ifPresent(investorTypes::add);
+        }
+
+        List<InvestorPrefixSumService.PrefixMaPoint> points = hot.isPresent()
+                ? hot.get().movingAverages(investorTypes, period, days, beforeDate)
+                : investorPrefixSumService.getMovingAverages(
+                        InvestorPrefixSumService.TargetType.STOCK, stkCd, investorTypes, period, days, beforeDate);
+
+        if (points.isEmpty()) {
+            return MaChartResponse.builder()
+                    .stkCd(stkCd)
+                    .data(Collections.emptyList())
+                    .message("데이터가 없습니다.")
+                    .build();
+        }
+
+        List<MaChartDataPoint> dataPoints = new ArrayList<>();
+        for (InvestorPrefixSumService.PrefixMaPoint point : points) {
+            MaChartDataPoint.MaChartDataPointBuilder pointBuilder = MaChartDataPoint.builder()
+                    .dt(point.dt())
+                    .curPrc(point.curPrc());
+            point.values().forEach((type, value) -> setMaValue(pointBuilder, type, value));
+            dataPoints.add(pointBuilder.build());
+        }
+
+        String sector = hot.map(HotHistoryCache.History::sector).orElseGet(() -> {
+            List<StockInvestorMaEntity> latest = stockInvestorMaRepository.findRecentByStkCd(stkCd, 1);
+            return latest.isEmpty() ? null : latest.get(0).getSector();
+        });
+
+        return MaChartResponse.builder()
+                .stkCd(stkCd)
+                .sector(sector)
+                .period(period)
+                .data(dataPoints)
+                .message("조회 성공")
+                .build();
+    }
+
+    /**
+     * 차트 데이터 포인트에 투자자별 MA 값 설정
+     */
+    private void setMaValue(MaChartDataPoint.MaChartDataPointBuilder builder, InvestorType type, BigDecimal value) {
+        if (value == null) {
+            return;
+        }
+        switch (type) {
+            case FRGNR -> builder.frgnr(value);
+            case ORGN -> builder.orgn(value);
+            case IND_INVSR -> builder.indInvsr(value);
+            case FNNC_INVT -> builder.fnncInvt(value);
+            case INSRNC -> builder.insrnc(value);
+            case INVTRT -> builder.invtrt(value);
+            case ETC_FNNC -> builder.etcFnnc(value);
+            case BANK -> builder.bank(value);
+            case PENFND_ETC -> builder.penfndEtc(value);
+            case SAMO_FUND -> builder.samoFund(value);
+            case NATN -> builder.natn(value);
+            case ETC_CORP -> builder.etcCorp(value);
+            case NATFOR -> builder.natfor(value);
+            default -> {
+            }
+        }
+    }
+
     /**
      * 엔티티에서 특정 투자자/기간의 MA 값 추출
      */
@@ -585,7 +788,32 @@ public class StatisticsController {
             String sector,
             Integer period,
             List<MaChartDataPoint> data,
-            String message) {
+            String message) implements ColumnarFrame.Source {
+
+        @Override
+        public ColumnarFrame toColumnarFrame() {
+            List<MaChartDataPoint> points = data != null ? data : List.of();
+            return ColumnarFrame.of(points.size())
+                    .meta("stkCd", stkCd)
+                    .meta("sector", sector)
+                    .meta("period", period)
+                    .meta("message", message)
+                    .dateColumn("dt", points, MaChartDataPoint::dt)
+                    .numberColumn("curPrc", points, MaChartDataPoint::curPrc)
+                    .numberColumn("frgnr", points, MaChartDataPoint::frgnr)
+                    .numberColumn("orgn", points, MaChartDataPoint::orgn)
+                    .numberColumn("fnncInvt", points, MaChartDataPoint::fnncInvt)
+                    .numberColumn("insrnc", points, MaChartDataPoint::insrnc)
+                    .numberColumn("invtrt", points, MaChartDataPoint::invtrt)
+                    .numberColumn("etcFnnc", points, MaChartDataPoint::etcFnnc)
+                    .numberColumn("bank", points, MaChartDataPoint::bank)
+                    .numberColumn("penfndEtc", points, MaChartDataPoint::penfndEtc)
+                    .numberColumn("samoFund", points, MaChartDataPoint::samoFund)
+                    .numberColumn("natn", points, MaChartDataPoint::natn)
+                    .numberColumn("etcCorp", points, MaChartDataPoint::etcCorp)
+                    .numberColumn("natfor", points, MaChartDataPoint::natfor)
+                    .numberColumn("indInvsr", points, MaChartDataPoint::indInvsr);
+        }
     }
 
     /**
@@ -623,16 +851,21 @@ public class StatisticsController {
     public ResponseEntity<InvestorRatioResponse> getInvestorRatio(@PathVariable String stkCd) {
         log.info("투자자별 거래 비중 조회 API 호출: 종목코드={}", stkCd);
 
+        // 조회 구간이 오늘 기준이므로 날짜를 키에 포함
+        LocalDate endDate = LocalDate.now();
+        return analyticsResponseCache.getResponse(Dataset.INVESTOR_CHART, stkCd, endDate.toString(),
+                InvestorRatioResponse.class, () -> loadInvestorRatio(stkCd, endDate));
+    }
+
+    private ResponseEntity<InvestorRatioResponse> loadInvestorRatio(String stkCd, LocalDate endDate) {
         try {
             // 1. 1년 범위 계산
-            LocalDate endDate = LocalDate.now();
             LocalDate startDate = endDate.minusYears(1);
 
-            // 2. 데이터 조회 (tb_stock_investor_chart)
-            List<StockInvestorChart> data = stockInvestorChartRepository
-                    .findByStkCdAndDtBetweenOrderByDtAsc(stkCd, startDate, endDate);
+            // 2. 투자자별 거래규모 합계: SUM(|curPrc * 순매수량|) (DB 집계)
+            InvestorVolumes volumes = investorRatioService.sumTradingAmounts(stkCd, startDate, endDate);
 
-            if (data.isEmpty()) {
+            if (volumes.dataCount() == 0) {
                 return ResponseEntity.ok(InvestorRatioResponse.builder()
                         .stkCd(stkCd)
                         .dataCount(0)
@@ -640,70 +873,13 @@ public class StatisticsController {
                         .build());
             }
 
-            // 3. 투자자별 거래규모 계산: SUM(|curPrc * 순매수량|)
-            Map<String, BigDecimal> volumeMap = new HashMap<>();
-            String[] investors = { "frgnr", "orgn", "ind", "fnncInvt", "insrnc", "invtrt", "bank",
-                    "etcFnnc", "penfndEtc", "samoFund", "etcCorp", "natn", "natfor" };
-
-            for (String inv : investors) {
-                volumeMap.put(inv, BigDecimal.ZERO);
-            }
-
-            for (StockInvestorChart row : data) {
-                BigDecimal curPrc = new BigDecimal(row.getCurPrc());
-
-                volumeMap.put("frgnr",
-                        volumeMap.get("frgnr").add(curPrc.multiply(BigDecimal.valueOf(row.getFrgnrInvsr())).abs()));
-                volumeMap.put("orgn",
-                        volumeMap.get("orgn").add(curPrc.multiply(BigDecimal.valueOf(row.getOrgn())).abs()));
-                volumeMap.put("ind",
-                        volumeMap.get("ind").add(curPrc.multiply(BigDecimal.valueOf(row.getIndInvsr())).abs()));
-                volumeMap.put("fnncInvt",
-                        volumeMap.get("fnncInvt").add(curPrc.multiply(BigDecimal.valueOf(row.getFnncInvt())).abs()));
-                volumeMap.put("insrnc",
-                        volumeMap.get("insrnc").add(curPrc.multiply(BigDecimal.valueOf(row.getInsrnc())).abs()));
-                volumeMap.put("invtrt",
-                        volumeMap.get("invtrt").add(curPrc.multiply(BigDecimal.valueOf(row.getInvtrt())).abs()));
-                volumeMap.put("bank",
-                        volumeMap.get("bank").add(curPrc.multiply(BigDecimal.valueOf(row.getBank())).abs()));
-                volumeMap.put("etcFnnc",
-                        volumeMap.get("etcFnnc").add(curPrc.multiply(BigDecimal.valueOf(row.getEtcFnnc())).abs()));
-                volumeMap.put("penfndEtc",
-                        volumeMap.get("penfndEtc").add(curPrc.multiply(BigDecimal.valueOf(row.getPenfndEtc())).abs()));
-                volumeMap.put("samoFund",
-                        volumeMap.get("samoFund").add(curPrc.multiply(BigDecimal.valueOf(row.getSamoFund())).abs()));
-                volumeMap.put("etcCorp",
-                        volumeMap.get("etcCorp").add(curPrc.multiply(BigDecimal.valueOf(row.getEtcCorp())).abs()));
-                volumeMap.put("natn",
-                        volumeMap.get("natn").add(curPrc.multiply(BigDecimal.valueOf(row.getNatn())).abs()));
-                volumeMap.put("natfor",
-                        volumeMap.get("natfor").add(curPrc.multiply(BigDecimal.valueOf(row.getNatfor())).abs()));
-            }
-
-            // 4. 전체 거래규모 합계
-            BigDecimal totalVolume = volumeMap.values().stream()
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            // 3. 비중 계산 (소수점 첫째자리)
+            Map<String, BigDecimal> ratioMap = toRatios(volumes);
 
-            // 5. 비중 계산 (소수점 첫째자리)
-            Map<String, BigDecimal> ratioMap = new HashMap<>();
-            if (totalVolume.compareTo(BigDecimal.ZERO) > 0) {
-                for (Map.Entry<String, BigDecimal> entry : volumeMap.entrySet()) {
-                    BigDecimal ratio = entry.getValue()
-                            .divide(totalVolume, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100))
-                            .setScale(1, RoundingMode.HALF_UP);
-                    ratioMap.put(entry.getKey(), ratio);
-                }
-            } else {
-                for (String inv : investors) {
-                    ratioMap.put(inv, BigDecimal.ZERO);
-                }
-            }
-
-            // 6. 응답 생성
+            // 4. 응답 생성
             return ResponseEntity.ok(InvestorRatioResponse.builder()
                     .stkCd(stkCd)
-                    .dataCount(data.size())
+                    .dataCount(volumes.dataCount())
                     .frgnr(ratioMap.get("frgnr"))
                     .orgn(ratioMap.get("orgn"))
                     .ind(ratioMap.get("ind"))
@@ -786,11 +962,12 @@ public class StatisticsController {
             String actualFromDate = fromDate.replace("-", "");
             String actualToDate = toDate.replace("-", "");
 
-            // 2. 데이터 조회 (tb_stock_investor_ma - 이동평균 테이블)
-            List<StockInvestorMaEntity> data = stockInvestorMaRepository
-                    .findByStkCdAndDtBetween(stkCd, actualFromDate, actualToDate);
+            // 2. 투자자별 이동평균 절대값 합계 (DB 집계)
+            InvestorVolumes volumes = singleFlight.execute(
+                    SingleFlight.key("statistics:investor-ratio-ma", stkCd, period, actualFromDate, actualToDate),
+                    () -> investorRatioService.sumMovingAverages(stkCd, period, actualFromDate, actualToDate));
 
-            if (data.isEmpty()) {
+            if (volumes.dataCount() == 0) {
                 return ResponseEntity.ok(InvestorRatioMaResponse.builder()
                         .stkCd(stkCd)
                         .period(period)
@@ -801,100 +978,11 @@ public class StatisticsController {
                         .build());
             }
 
-            // 3. 투자자별 이동평균값 abs 합계 계산
-            Map<String, BigDecimal> volumeMap = new HashMap<>();
-            String[] investors = { "frgnr", "orgn", "fnncInvt", "insrnc", "invtrt", "bank",
-                    "etcFnnc", "penfndEtc", "samoFund", "etcCorp", "natn", "natfor" };
-
-            for (String inv : investors) {
-                volumeMap.put(inv, BigDecimal.ZERO);
-            }
-
-            // 각 row에서 선택된 기간의 MA값 추출하여 누적
-            for (StockInvestorMaEntity row : data) {
-                BigDecimal frgnrMa = getMaValue(row, "frgnr", period);
-                if (frgnrMa != null) {
-                    volumeMap.put("frgnr", volumeMap.get("frgnr").add(frgnrMa.abs()));
-                }
-
-                BigDecimal orgnMa = getMaValue(row, "orgn", period);
-                if (orgnMa != null) {
-                    volumeMap.put("orgn", volumeMap.get("orgn").add(orgnMa.abs()));
-                }
-
-                BigDecimal fnncInvtMa = getMaValue(row, "fnnc_invt", period);
-                if (fnncInvtMa != null) {
-                    volumeMap.put("fnncInvt", volumeMap.get("fnncInvt").add(fnncInvtMa.abs()));
-                }
-
-                BigDecimal insrncMa = getMaValue(row, "insrnc", period);
-                if (insrncMa != null) {
-                    volumeMap.put("insrnc", volumeMap.get("insrnc").add(insrncMa.abs()));
-                }
-
-                BigDecimal invtrtMa = getMaValue(row, "invtrt", period);
-                if (invtrtMa != null) {
-                    volumeMap.put("invtrt", volumeMap.get("invtrt").add(invtrtMa.abs()));
-                }
-
-                BigDecimal bankMa = getMaValue(row, "bank", period);
-                if (bankMa != null) {
-                    volumeMap.put("bank", volumeMap.get("bank").add(bankMa.abs()));
-                }
-
-                BigDecimal etcFnncMa = getMaValue(row, "etc_fnnc", period);
-                if (etcFnncMa != null) {
-                    volumeMap.put("etcFnnc", volumeMap.get("etcFnnc").add(etcFnncMa.abs()));
-                }
-
-                BigDecimal penfndEtcMa = getMaValue(row, "penfnd_etc", period);
-                if (penfndEtcMa != null) {
-                    volumeMap.put("penfndEtc", volumeMap.get("penfndEtc").add(penfndEtcMa.abs()));
-                }
-
-                BigDecimal samoFundMa = getMaValue(row, "samo_fund", period);
-                if (samoFundMa != null) {
-                    volumeMap.put("samoFund", volumeMap.get("samoFund").add(samoFundMa.abs()));
-                }
-
-                BigDecimal etcCorpMa = getMaValue(row, "etc_corp", period);
-                if (etcCorpMa != null) {
-                    volumeMap.put("etcCorp", volumeMap.get("etcCorp").add(etcCorpMa.abs()));
-                }
-
-                BigDecimal natnMa = getMaValue(row, "natn", period);
-                if (natnMa != null) {
-                    volumeMap.put("natn", volumeMap.get("natn").add(natnMa.abs()));
-                }
-
-                BigDecimal natforMa = getMaValue(row, "natfor", period);
-                if (natforMa != null) {
-                    volumeMap.put("natfor", volumeMap.get("natfor").add(natforMa.abs()));
-                }
-            }
-
-            // 4. 전체 합계
-            BigDecimal totalVolume = volumeMap.values().stream()
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            // 5. 비중 계산 (소수점 첫째자리)
-            Map<String, BigDecimal> ratioMap = new HashMap<>();
-            if (totalVolume.compareTo(BigDecimal.ZERO) > 0) {
-                for (Map.Entry<String, BigDecimal> entry : volumeMap.entrySet()) {
-                    BigDecimal ratio = entry.getValue()
-                            .divide(totalVolume, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100))
-                            .setScale(1, RoundingMode.HALF_UP);
-                    ratioMap.put(entry.getKey(), ratio);
-                }
-            } else {
-                for (String inv : investors) {
-                    ratioMap.put(inv, BigDecimal.ZERO);
-                }
-            }
+            // 3. 비중 계산 (소수점 첫째자리)
+            Map<String, BigDecimal> ratioMap = toRatios(volumes);
 
             log.info("비중 계산 완료: 종목={}, MA{}, {}~{}, 데이터={}건, 외국인={}%",
-                    stkCd, period, actualFromDate, actualToDate, data.size(), ratioMap.get("frgnr"));
+                    stkCd, period, actualFromDate, actualToDate, volumes.dataCount(), ratioMap.get("frgnr"));
 
             // 6. 응답 생성
             return ResponseEntity.ok(InvestorRatioMaResponse.builder()
@@ -902,7 +990,7 @@ public class StatisticsController {
                     .period(period)
                     .fromDate(actualFromDate)
                     .toDate(actualToDate)
-                    .dataCount(data.size())
+                    .dataCount(volumes.dataCount())
                     .frgnr(ratioMap.get("frgnr"))
                     .orgn(ratioMap.get("orgn"))
                     .fnncInvt(ratioMap.get("fnncInvt"))
@@ -928,6 +1016,25 @@ public class StatisticsController {
         }
     }
 
+    /**
+     * 투자자별 합계 → 비중(%) 변환 (소수점 첫째자리, 전체 합계가 0 이면 모두 0)
+     */
+    private static Map<String, BigDecimal> toRatios(InvestorVolumes volumes) {
+        BigDecimal totalVolume = volumes.total();
+        Map<String, BigDecimal> ratioMap = new HashMap<>();
+        for (Map.Entry<String, BigDecimal> entry : volumes.volumes().entrySet()) {
+            BigDecimal ratio = BigDecimal.ZERO;
+            if (totalVolume.compareTo(BigDecimal.ZERO) > 0) {
+                ratio = entry.getValue()
+                        .divide(totalVolume, 4, RoundingMode.HALF_UP)
+                        .multiply(BigDecimal.valueOf(100))
+                        .setScale(1, RoundingMode.HALF_UP);
+            }
+            ratioMap.put(entry.getKey(), ratio);
+        }
+        return ratioMap;
+    }
+
     /**
      * 날짜에서 N일 전 날짜 계산
      */
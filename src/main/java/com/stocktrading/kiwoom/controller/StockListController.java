@@ -2,8 +2,9 @@ package com.stocktrading.kiwoom.controller;
 
 import com.stocktrading.kiwoom.domain.model.StockInfo;
 import com.stocktrading.kiwoom.domain.port.in.FetchStockListUseCase;
-import com.stocktrading.kiwoom.domain.port.out.StockListPort;
 import com.stocktrading.kiwoom.dto.StockListResponse;
+import com.stocktrading.kiwoom.service.StockMetaRegistry;
+import com.stocktrading.kiwoom.service.StockSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -23,7 +24,8 @@ import java.util.stream.Collectors;
 public class StockListController {
 
     private final FetchStockListUseCase fetchStockListUseCase;
-    private final StockListPort stockListPort;
+    private final StockSearchIndex stockSearchIndex;
+    private final StockMetaRegistry stockMetaRegistry;
 
     /**
      * 전체 시장 종목 리스트 갱신
@@ -77,7 +79,7 @@ public class StockListController {
     }
 
     /**
-     * 종목명으로 검색 (LIKE 검색)
+     * 종목 검색 (종목명 부분 일치, 초성, 종목코드 앞부분 - 인메모리 인덱스)
      * GET /api/v1/stock-list/search?keyword={name}
      */
     @GetMapping("/search")
@@ -90,8 +92,8 @@ public class StockListController {
             return ResponseEntity.badRequest().build();
         }
 
-        List<StockInfo> stocks = stockListPort.searchByName(keyword.trim());
-        // 이미 Adapter에서 시장명 우선 정렬 적용됨. 여기서는 그대로 전달.
+        List<StockInfo> stocks = stockSearchIndex.search(keyword.trim());
+        // 이미 인덱스에서 시장명 우선 정렬 적용됨. 여기서는 그대로 전달.
         List<StockSearchDto> result = stocks.stream()
             .map(stock -> new StockSearchDto(
                 stock.getCode(),
@@ -113,13 +115,12 @@ public class StockListController {
     public ResponseEntity<List<StockSearchDto>> getKospi200Stocks() {
         log.info("KOSPI200 종목 리스트 조회 API 호출");
 
-        List<StockInfo> stocks = stockListPort.findAllKospi200Stocks();
-        List<StockSearchDto> result = stocks.stream()
+        List<StockSearchDto> result = stockMetaRegistry.kospi200().stream()
             .map(stock -> new StockSearchDto(
-                stock.getCode(),
-                stock.getName(),
+                stock.code(),
+                stock.name(),
                 "KOSPI200",  // tb_stock_list_meta에는 marketName이 없으므로 고정값 사용
-                stock.getSector()
+                stock.sector()
             ))
             .collect(Collectors.toList());
 
@@ -0,0 +1,57 @@
+package com.stocktrading.kiwoom.domain.event;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 분석 데이터(이동평균, 상관계수, 수급분석 등) 변경 이벤트
+ *
+ * 원천 테이블을 쓰는 배치/서비스가 커밋 단위로 발행하며, 조회 응답 캐시 무효화에 사용한다.
+ *
+ * @param dataset 변경된 데이터셋
+ * @param keys 변경된 종목/섹터 코드 (비어 있으면 데이터셋 전체)
+ */
+public record AnalyticsDataChangedEvent(Dataset dataset, Set<String> keys) {
+
+    /**
+     * 데이터셋 구분 (키 단위)
+     */
+    public enum Dataset {
+        /** 투자자 차트 원천 (tb_stock_investor_chart, 종목코드) */
+        INVESTOR_CHART,
+        /** 종목 이동평균 (tb_stock_investor_ma, 종목 누적합, 종목코드) */
+        STOCK_MA,
+        /** 섹터 이동평균 (tb_stock_investor_sector_ma, 섹터 일별 합계/누적합, 섹터코드) */
+        SECTOR_MA,
+        /** 투자자 상관계수 (tb_stock_investor_corr_daily, 종목코드) */
+        CORRELATION,
+        /** 투자자 수급분석 (tb_stock_investor_invest_accumulation, 종목코드) */
+        SUPPLY_DEMAND
+    }
+
+    public AnalyticsDataChangedEvent {
+        keys = Set.copyOf(keys);
+    }
+
+    /**
+     * 데이터셋 전체 변경 이벤트
+     */
+    public static AnalyticsDataChangedEvent all(Dataset dataset) {
+        return new AnalyticsDataChangedEvent(dataset, Set.of());
+    }
+
+    /**
+     * 지정 코드 변경 이벤트
+     */
+    public static AnalyticsDataChangedEvent of(Dataset dataset, Collection<String> keys) {
+        return new AnalyticsDataChangedEvent(dataset, Set.copyOf(keys));
+    }
+
+    public static AnalyticsDataChangedEvent of(Dataset dataset, String key) {
+        return new AnalyticsDataChangedEvent(dataset, Set.of(key));
+    }
+
+    public boolean isAll() {
+        return keys.isEmpty();
+    }
+}
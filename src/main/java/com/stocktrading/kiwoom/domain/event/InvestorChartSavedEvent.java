@@ -0,0 +1,35 @@
+package com.stocktrading.kiwoom.domain.event;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 투자자 차트 데이터 저장/삭제 이벤트
+ *
+ * 저장 트랜잭션 1건에서 변경된 종목별 일자 목록을 담는다.
+ * (섹터 일별 거래대금, 누적합 등 파생 데이터의 증분 갱신용)
+ *
+ * @param datesByStock 종목코드 → 변경된 일자 (오름차순)
+ */
+public record InvestorChartSavedEvent(Map<String, SortedSet<LocalDate>> datesByStock) {
+
+    public InvestorChartSavedEvent {
+        datesByStock = Collections.unmodifiableMap(new TreeMap<>(datesByStock));
+    }
+
+    /**
+     * 종목 1개, 일자 1개 변경 이벤트
+     */
+    public static InvestorChartSavedEvent of(String stockCode, LocalDate date) {
+        return new InvestorChartSavedEvent(Map.of(stockCode, new TreeSet<>(Set.of(date))));
+    }
+
+    public boolean isEmpty() {
+        return datesByStock.isEmpty();
+    }
+}
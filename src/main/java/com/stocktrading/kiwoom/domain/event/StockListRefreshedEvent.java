@@ -0,0 +1,11 @@
+package com.stocktrading.kiwoom.domain.event;
+
+/**
+ * 종목 리스트(tb_stock_list) 전체 갱신 이벤트
+ *
+ * 종목 리스트를 저장/삭제한 트랜잭션 단위로 발행한다. (종목 검색 인덱스 재구성용)
+ *
+ * @param count 갱신 후 종목 수
+ */
+public record StockListRefreshedEvent(int count) {
+}
@@ -0,0 +1,72 @@
+package com.stocktrading.kiwoom.domain.model;
+
+import java.util.Optional;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 투자자 유형
+ *
+ * 차트 API 파라미터(key), DB 컬럼명(column), 응답 필드명(fieldName) 사이의 매핑을 한곳에서 관리
+ */
+@Getter
+@RequiredArgsConstructor
+public enum InvestorType {
+
+    FRGNR("frgnr", "frgnr_invsr", "frgnr", "외국인"),
+    ORGN("orgn", "orgn", "orgn", "기관계"),
+    FRGNR_ORGN("frgnr_orgn", "frgnr_orgn", "frgnrOrgn", "외국인+기관"),
+    IND_INVSR("ind_invsr", "ind_invsr", "indInvsr", "개인"),
+    FNNC_INVT("fnnc_invt", "fnnc_invt", "fnncInvt", "금융투자"),
+    INSRNC("insrnc", "insrnc", "insrnc", "보험"),
+    INVTRT("invtrt", "invtrt", "invtrt", "투신"),
+    ETC_FNNC("etc_fnnc", "etc_fnnc", "etcFnnc", "기타금융"),
+    BANK("bank", "bank", "bank", "은행"),
+    PENFND_ETC("penfnd_etc", "penfnd_etc", "penfndEtc", "연기금등"),
+    SAMO_FUND("samo_fund", "samo_fund", "samoFund", "사모펀드"),
+    NATN("natn", "natn", "natn", "국가"),
+    ETC_CORP("etc_corp", "etc_corp", "etcCorp", "기타법인"),
+    NATFOR("natfor", "natfor", "natfor", "내외국인");
+
+    /** 차트 API 투자자 파라미터 값 */
+    private final String key;
+
+    /** DB 컬럼명 (tb_stock_investor_chart / 이동평균 테이블 접두어) */
+    private final String column;
+
+    /** 응답 DTO 필드명 (camelCase) */
+    private final String fieldName;
+
+    /** 표시명 */
+    private final String displayName;
+
+    /**
+     * tb_stock_investor_chart 기준 값 SQL 식
+     * (외국인+기관은 차트 테이블에 컬럼이 없으므로 합산, 누적합과 같이 한쪽 결측은 0 으로 보고 더함)
+     *
+     * @param alias 테이블 별칭
+     */
+    public String chartExpression(String alias) {
+        if (this == FRGNR_ORGN) {
+            return "(COALESCE(" + alias + ".frgnr_invsr, 0) + COALESCE(" + alias + ".orgn, 0))";
+        }
+        return alias + "." + column;
+    }
+
+    /**
+     * API 파라미터 값, 컬럼명, 필드명 중 하나로 조회
+     */
+    public static Optional<InvestorType> fromKey(String key) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        String trimmed = key.trim();
+        for (InvestorType type : values()) {
+            if (type.key.equals(trimmed) || type.column.equals(trimmed) || type.fieldName.equals(trimmed)) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.empty();
+    }
+}
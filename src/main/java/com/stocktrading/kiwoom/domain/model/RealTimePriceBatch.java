@@ -0,0 +1,156 @@
+package com.stocktrading.kiwoom.domain.model;
+
+import java.util.Arrays;
+
+/**
+ * 실시간 체결 묶음 (재사용 버퍼)
+ *
+ * 수신 순서의 체결을 primitive 배열에 쌓고, 종목별 마지막 체결은 별도 슬롯에 기록하여
+ * 현재가 캐시는 종목당 1건으로 합친다(conflation). 종목 슬롯은 체결 이력 한도와 무관하게 항상 갱신된다.
+ * 체결마다 객체를 만들지 않으며, 기록 측과 전송 측이 두 버퍼를 번갈아 쓰고 {@link #clear()} 로 재사용한다.
+ * 스레드 안전하지 않음 (호출 측에서 동기화).
+ */
+public final class RealTimePriceBatch {
+
+    private final int capacity;
+    private final String[] stockCodes;
+    private final long[] prices;
+    private final long[] volumes;
+    private final long[] timestamps;
+    private int size;
+
+    // 종목 ID → 종목 슬롯 (-1 없음), 슬롯별 종목 ID 와 마지막 체결
+    private int[] latestSlotByStock = new int[0];
+    private int[] latestStocks = new int[64];
+    private String[] latestCodes = new String[64];
+    private long[] latestPrices = new long[64];
+    private long[] latestVolumes = new long[64];
+    private long[] latestTimestamps = new long[64];
+    private int latestCount;
+
+    // capacity 초과로 버린 체결 수 (현재가 캐시는 계속 갱신)
+    private long dropped;
+
+    public RealTimePriceBatch(int capacity) {
+        this.capacity = capacity;
+        this.stockCodes = new String[capacity];
+        this.prices = new long[capacity];
+        this.volumes = new long[capacity];
+        this.timestamps = new long[capacity];
+    }
+
+    /**
+     * 체결 추가
+     *
+     * @param stockId 종목 ID (0 이상, 종목코드와 1:1)
+     * @param stockCode 종목코드 (공유 String, 복사하지 않음)
+     * @param timestamp epoch millis
+     */
+    public void add(int stockId, String stockCode, long price, long volume, long timestamp) {
+        if (stockId >= latestSlotByStock.length) {
+            int from = latestSlotByStock.length;
+            latestSlotByStock = Arrays.copyOf(latestSlotByStock, Math.max(stockId + 1, from * 2));
+            Arrays.fill(latestSlotByStock, from, latestSlotByStock.length, -1);
+        }
+
+        // 1. 종목 마지막 체결 (항상 기록)
+        int slot = latestSlotByStock[stockId];
+        if (slot < 0) {
+            if (latestCount == latestStocks.length) {
+                growLatest();
+            }
+            slot = latestCount++;
+            latestSlotByStock[stockId] = slot;
+            latestStocks[slot] = stockId;
+            latestCodes[slot] = stockCode;
+        }
+        latestPrices[slot] = price;
+        latestVolumes[slot] = volume;
+        latestTimestamps[slot] = timestamp;
+
+        // 2. 체결 이력 (가득 차면 버림)
+        if (size == capacity) {
+            dropped++;
+            return;
+        }
+        stockCodes[size] = stockCode;
+        prices[size] = price;
+        volumes[size] = volume;
+        timestamps[size] = timestamp;
+        size++;
+    }
+
+    public boolean isEmpty() {
+        return latestCount == 0;
+    }
+
+    /**
+     * 체결 수 (수신 순서, 0 ~ size - 1)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 종목 수 (현재가 캐시 대상, 0 ~ latestCount - 1)
+     */
+    public int latestCount() {
+        return latestCount;
+    }
+
+    public String latestStockCode(int k) {
+        return latestCodes[k];
+    }
+
+    public long latestPrice(int k) {
+        return latestPrices[k];
+    }
+
+    public long latestVolume(int k) {
+        return latestVolumes[k];
+    }
+
+    public long latestTimestamp(int k) {
+        return latestTimestamps[k];
+    }
+
+    public String stockCode(int index) {
+        return stockCodes[index];
+    }
+
+    public long price(int index) {
+        return prices[index];
+    }
+
+    public long volume(int index) {
+        return volumes[index];
+    }
+
+    public long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    public long dropped() {
+        return dropped;
+    }
+
+    public void clear() {
+        for (int k = 0; k < latestCount; k++) {
+            latestSlotByStock[latestStocks[k]] = -1;
+        }
+        Arrays.fill(latestCodes, 0, latestCount, null);
+        Arrays.fill(stockCodes, 0, size, null);
+        latestCount = 0;
+        size = 0;
+        dropped = 0;
+    }
+
+    private void growLatest() {
+        int length = latestStocks.length * 2;
+        latestStocks = Arrays.copyOf(latestStocks, length);
+        latestCodes = Arrays.copyOf(latestCodes, length);
+        latestPrices = Arrays.copyOf(latestPrices, length);
+        latestVolumes = Arrays.copyOf(latestVolumes, length);
+        latestTimestamps = Arrays.copyOf(latestTimestamps, length);
+    }
+}
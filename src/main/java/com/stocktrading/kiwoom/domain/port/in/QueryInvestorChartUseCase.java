@@ -4,6 +4,8 @@ import com.stocktrading.kiwoom.domain.model.InvestorChart;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * 투자자 기관별 차트 데이터 조회 UseCase (ka10060)
@@ -20,11 +22,34 @@ public interface QueryInvestorChartUseCase {
      */
     List<InvestorChart> queryByStockAndPeriod(String stockCode, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * 여러 종목+기간 일괄 조회 (관심종목 화면용, 요청 종목 순서 유지, 데이터 없는 종목은 빈 목록)
+     */
+    Map<String, List<InvestorChart>> queryByStocksAndPeriod(List<String> stockCodes, LocalDate startDate,
+                                                            LocalDate endDate);
+
+    /**
+     * 여러 종목+기간 순차 조회 (종목코드 → 일자 오름차순으로 한 건씩 전달)
+     */
+    void exportByStocksAndPeriod(List<String> stockCodes, LocalDate startDate, LocalDate endDate,
+                                 Consumer<InvestorChart> consumer);
+
     /**
      * 특정 일자의 모든 종목 조회
      */
     List<InvestorChart> queryByDate(LocalDate date);
 
+    /**
+     * 종목+기간 내보내기 (한 건씩 전달, 메모리에 모으지 않음)
+     */
+    void exportByStockAndPeriod(String stockCode, LocalDate startDate, LocalDate endDate,
+                                Consumer<InvestorChart> consumer);
+
+    /**
+     * 특정 일자의 모든 종목 내보내기 (한 건씩 전달, 메모리에 모으지 않음)
+     */
+    void exportByDate(LocalDate date, Consumer<InvestorChart> consumer);
+
     /**
      * 종목의 최신 데이터 조회
      */
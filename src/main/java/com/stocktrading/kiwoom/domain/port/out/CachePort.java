@@ -1,5 +1,6 @@
 package com.stocktrading.kiwoom.domain.port.out;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
@@ -60,6 +61,11 @@ public interface CachePort {
      */
     Mono<Long> publish(String channel, String message);
 
+    /**
+     * Pub/Sub 구독
+     */
+    Flux<String> subscribe(String channel);
+
     /**
      * 증가
      */
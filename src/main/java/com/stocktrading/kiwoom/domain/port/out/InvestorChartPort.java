@@ -5,6 +5,7 @@ import com.stocktrading.kiwoom.domain.model.InvestorChart;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 투자자 기관별 차트 저장소 Port (ka10060)
@@ -36,6 +37,24 @@ public interface InvestorChartPort {
      */
     List<InvestorChart> findByDate(LocalDate date);
 
+    /**
+     * 종목+기간 순차 조회 (전방 커서, 일자 오름차순)
+     * 행을 모아두지 않고 한 건씩 consumer 로 전달한다.
+     */
+    void streamByStockAndPeriod(String stockCode, LocalDate startDate, LocalDate endDate,
+                                Consumer<InvestorChart> consumer);
+
+    /**
+     * 여러 종목+기간 순차 조회 (단일 쿼리, 전방 커서, 종목코드 → 일자 오름차순)
+     */
+    void streamByStocksAndPeriod(List<String> stockCodes, LocalDate startDate, LocalDate endDate,
+                                 Consumer<InvestorChart> consumer);
+
+    /**
+     * 특정 일자 전체 순차 조회 (전방 커서, 종목코드 오름차순)
+     */
+    void streamByDate(LocalDate date, Consumer<InvestorChart> consumer);
+
     /**
      * 종목의 최신 데이터 조회
      */
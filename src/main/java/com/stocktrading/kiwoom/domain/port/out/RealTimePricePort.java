@@ -0,0 +1,19 @@
+package com.stocktrading.kiwoom.domain.port.out;
+
+import com.stocktrading.kiwoom.domain.model.RealTimePriceBatch;
+
+import java.time.Duration;
+
+/**
+ * 실시간 시세 저장소 Port (Redis)
+ */
+public interface RealTimePricePort {
+
+    /**
+     * 체결 묶음을 한 번의 왕복으로 기록 (blocking, 전송 전용 스레드에서 호출)
+     *
+     * - 종목별 마지막 체결: 현재가 캐시 (priceTtl)
+     * - 전체 체결: Pub/Sub 발행, 배치 집계 큐
+     */
+    void write(RealTimePriceBatch batch, Duration priceTtl);
+}
@@ -25,6 +25,13 @@ public interface StockListPort {
      */
     int deleteAll();
 
+    /**
+     * 전체 종목 조회
+     *
+     * @return 전체 종목 리스트
+     */
+    List<StockInfo> findAll();
+
     /**
      * 종목코드로 조회
      *
@@ -0,0 +1,165 @@
+package com.stocktrading.kiwoom.dto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 시계열 차트 응답의 컬럼형(columnar) 바이너리 프레임
+ *
+ * 일자별 객체 배열(JSON) 대신 날짜와 투자자별 시계열을 각각 연속된 타입 배열로 보낸다.
+ * 프론트엔드는 컬럼 데이터를 복사 없이 Int32Array / Float64Array 로 바로 매핑할 수 있다.
+ *
+ * 레이아웃 (little-endian, 길이는 모두 uint32):
+ * <pre>
+ * "KWC1"
+ * 메타데이터 개수, (키 길이, 키 UTF-8, 값 길이, 값 UTF-8) * 개수
+ * 행 수, 컬럼 수
+ * 컬럼 * 개수: 이름 길이, 이름 UTF-8, 타입(uint8: 1=int32, 2=float64), 0 패딩(8바이트 정렬), 값 * 행 수
+ * </pre>
+ * 날짜 컬럼은 yyyyMMdd 정수(int32), 수치 컬럼은 float64 이며 값이 없으면 NaN 이다.
+ * 모든 행이 비어 있는 컬럼(요청하지 않은 투자자)은 보내지 않는다.
+ */
+public final class ColumnarFrame {
+
+    private static final byte[] MAGIC = { 'K', 'W', 'C', '1' };
+
+    /**
+     * 컬럼형 프레임으로 변환 가능한 응답
+     */
+    public interface Source {
+        ColumnarFrame toColumnarFrame();
+    }
+
+    private enum ColumnType {
+        INT32(1, Integer.BYTES),
+        FLOAT64(2, Double.BYTES);
+
+        private final byte code;
+        private final int width;
+
+        ColumnType(int code, int width) {
+            this.code = (byte) code;
+            this.width = width;
+        }
+    }
+
+    private record Column(byte[] name, ColumnType type, int[] ints, double[] doubles) {
+    }
+
+    private final int rowCount;
+    private final Map<String, String> metadata = new LinkedHashMap<>();
+    private final List<Column> columns = new ArrayList<>();
+
+    private ColumnarFrame(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public static ColumnarFrame of(int rowCount) {
+        return new ColumnarFrame(rowCount);
+    }
+
+    /**
+     * 메타데이터 추가 (null 은 생략)
+     */
+    public ColumnarFrame meta(String key, Object value) {
+        if (value != null) {
+            metadata.put(key, String.valueOf(value));
+        }
+        return this;
+    }
+
+    /**
+     * 날짜 컬럼 추가 (yyyyMMdd 또는 yyyy-MM-dd 문자열 → int32)
+     */
+    public <T> ColumnarFrame dateColumn(String name, List<T> rows, Function<T, String> getter) {
+        int[] values = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            values[i] = toDateInt(getter.apply(rows.get(i)));
+        }
+        columns.add(new Column(name.getBytes(StandardCharsets.UTF_8), ColumnType.INT32, values, null));
+        return this;
+    }
+
+    /**
+     * 수치 컬럼 추가 (float64, 값이 없으면 NaN, 전부 비어 있으면 생략)
+     */
+    public <T> ColumnarFrame numberColumn(String name, List<T> rows, Function<T, ? extends Number> getter) {
+        double[] values = new double[rowCount];
+        boolean present = false;
+        for (int i = 0; i < rowCount; i++) {
+            Number value = getter.apply(rows.get(i));
+            if (value != null) {
+                values[i] = value.doubleValue();
+                present = true;
+            } else {
+                values[i] = Double.NaN;
+            }
+        }
+        if (present) {
+            columns.add(new Column(name.getBytes(StandardCharsets.UTF_8), ColumnType.FLOAT64, null, values));
+        }
+        return this;
+    }
+
+    /**
+     * 바이너리 인코딩
+     */
+    public byte[] toBytes() {
+        List<byte[][]> encodedMetadata = new ArrayList<>(metadata.size());
+        int capacity = MAGIC.length + Integer.BYTES * 3;
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] value = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            encodedMetadata.add(new byte[][] { key, value });
+            capacity += Integer.BYTES * 2 + key.length + value.length;
+        }
+        for (Column column : columns) {
+            // 이름 길이 + 이름 + 타입 + 최대 패딩 + 데이터
+            capacity += Integer.BYTES + column.name().length + 1 + 7 + column.type().width * rowCount;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.putInt(encodedMetadata.size());
+        for (byte[][] entry : encodedMetadata) {
+            buffer.putInt(entry[0].length).put(entry[0]);
+            buffer.putInt(entry[1].length).put(entry[1]);
+        }
+        buffer.putInt(rowCount);
+        buffer.putInt(columns.size());
+
+        for (Column column : columns) {
+            buffer.putInt(column.name().length).put(column.name());
+            buffer.put(column.type().code);
+            while (buffer.position() % 8 != 0) {
+                buffer.put((byte) 0);
+            }
+            if (column.type() == ColumnType.INT32) {
+                buffer.asIntBuffer().put(column.ints());
+            } else {
+                buffer.asDoubleBuffer().put(column.doubles());
+            }
+            buffer.position(buffer.position() + column.type().width * rowCount);
+        }
+
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static int toDateInt(String dt) {
+        if (dt == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(dt.replace("-", ""));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -359,12 +359,36 @@ public class SectorMaResponse {
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
-    public static class SectorMaChartResponse {
+    public static class SectorMaChartResponse implements ColumnarFrame.Source {
         private String sectorCd;
         private String sectorNm;
         private Integer period;
         private List<SectorMaChartDataPoint> data;
         private String message;
+
+        @Override
+        public ColumnarFrame toColumnarFrame() {
+            List<SectorMaChartDataPoint> points = data != null ? data : List.of();
+            return ColumnarFrame.of(points.size())
+                .meta("sectorCd", sectorCd)
+                .meta("sectorNm", sectorNm)
+                .meta("period", period)
+                .meta("message", message)
+                .dateColumn("dt", points, SectorMaChartDataPoint::getDt)
+                .numberColumn("frgnr", points, SectorMaChartDataPoint::getFrgnr)
+                .numberColumn("orgn", points, SectorMaChartDataPoint::getOrgn)
+                .numberColumn("fnncInvt", points, SectorMaChartDataPoint::getFnncInvt)
+                .numberColumn("insrnc", points, SectorMaChartDataPoint::getInsrnc)
+                .numberColumn("invtrt", points, SectorMaChartDataPoint::getInvtrt)
+                .numberColumn("etcFnnc", points, SectorMaChartDataPoint::getEtcFnnc)
+                .numberColumn("bank", points, SectorMaChartDataPoint::getBank)
+                .numberColumn("penfndEtc", points, SectorMaChartDataPoint::getPenfndEtc)
+                .numberColumn("samoFund", points, SectorMaChartDataPoint::getSamoFund)
+                .numberColumn("natn", points, SectorMaChartDataPoint::getNatn)
+                .numberColumn("etcCorp", points, SectorMaChartDataPoint::getEtcCorp)
+                .numberColumn("natfor", points, SectorMaChartDataPoint::getNatfor)
+                .numberColumn("indInvsr", points, SectorMaChartDataPoint::getIndInvsr);
+        }
     }
 
     /**
@@ -0,0 +1,354 @@
+package com.stocktrading.kiwoom.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
+import com.stocktrading.kiwoom.domain.event.InvestorChartSavedEvent;
+import com.stocktrading.kiwoom.domain.port.out.CachePort;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * 차트/분석 조회 응답 2단 캐시 (L1: Caffeine, L2: Redis)
+ *
+ * 키는 데이터셋(엔드포인트) + 대상 코드(종목/섹터) + 요청 파라미터이며, 만료 시간이 아니라
+ * 원천 테이블 쓰기 후 발행되는 {@link AnalyticsDataChangedEvent}, {@link InvestorChartSavedEvent}
+ * 로 변경된 대상만 무효화한다.
+ * - L1: 인스턴스 내 Caffeine (반복 조회 시 DB/Redis 접근 없음)
+ * - L2: Redis JSON. 키에 데이터셋/대상별 세대 번호를 넣고 무효화 시 세대만 증가시킨다
+ * - 다른 인스턴스의 L1 은 Redis Pub/Sub 무효화 메시지로 제거
+ * 무효화 시 {@link DataVersionRegistry} 의 데이터 버전(변경 시각)도 함께 갱신한다.
+ * 애플리케이션 밖의 쓰기는 이벤트가 없으므로, L1 항목에 적재 당시 데이터 버전을 두고 L2 키에도 버전을 넣어
+ * 트리거로 버전이 올라가면 이전 값을 읽지 않는다.
+ * Redis 장애 시에는 L1 + DB 조회로 동작한다.
+ * L1 을 놓친 동시 요청은 {@link SingleFlight} 로 병합하여 L2 조회/계산을 한 번만 수행한다.
+ */
+@Slf4j
+@Service
+public class AnalyticsResponseCache {
+
+    private static final String KEY_PREFIX = "kiwoom:analytics:";
+    private static final String INVALIDATE_CHANNEL = KEY_PREFIX + "invalidate";
+    private static final String ALL_SCOPES = "*";
+
+    private final CachePort cachePort;
+    private final DataVersionRegistry dataVersionRegistry;
+    private final SingleFlight singleFlight;
+    private final ObjectMapper objectMapper;
+    private final Cache<CacheKey, Weighted> localCache;
+    private final Duration redisTimeout;
+    private final Duration redisTtl;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // 무효화 횟수 (조회 중 무효화가 일어난 결과는 L1 에 남기지 않음)
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private Disposable subscription;
+
+    /**
+     * L1 캐시 키
+     *
+     * @param dataset 데이터셋 (엔드포인트 구분)
+     * @param scope 종목/섹터 코드 (무효화 단위)
+     * @param params 나머지 요청 파라미터
+     */
+    record CacheKey(Dataset dataset, String scope, String params) {
+    }
+
+    /**
+     * L1 값과 무게 (JSON 직렬화 길이, 응답 크기가 종목/기간마다 크게 달라 건수 대신 크기로 제한)
+     *
+     * @param version 적재 당시 데이터 버전 (현재 버전보다 작으면 사용하지 않음)
+     */
+    record Weighted(Object value, int weight, long version) {
+    }
+
+    public AnalyticsResponseCache(
+            CachePort cachePort,
+            DataVersionRegistry dataVersionRegistry,
+            SingleFlight singleFlight,
+            ObjectMapper objectMapper,
+            @Value("${analytics.cache.max-weight-mb:128}") long maxWeightMb,
+            @Value("${analytics.cache.redis-timeout-ms:200}") long redisTimeoutMs,
+            @Value("${analytics.cache.redis-ttl-hours:48}") long redisTtlHours) {
+        this.cachePort = cachePort;
+        this.dataVersionRegistry = dataVersionRegistry;
+        this.singleFlight = singleFlight;
+        this.objectMapper = objectMapper.copy().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.localCache = Caffeine.newBuilder()
+            .maximumWeight(maxWeightMb * 1024 * 1024)
+            .weigher((CacheKey key, Weighted entry) -> entry.weight())
+            .build();
+        this.redisTimeout = Duration.ofMillis(redisTimeoutMs);
+        this.redisTtl = Duration.ofHours(redisTtlHours);
+    }
+
+    /**
+     * 다른 인스턴스의 무효화 메시지 구독
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribeInvalidations() {
+        subscription = cachePort.subscribe(INVALIDATE_CHANNEL)
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe(this::onRemoteInvalidation,
+                error -> log.warn("분석 캐시 무효화 구독 종료: {}", error.getMessage()));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * 응답 조회 (2xx 응답 본문만 캐시)
+     */
+    public <T> ResponseEntity<T> getResponse(Dataset dataset, String scope, String params, Class<T> type,
+                                             Supplier<ResponseEntity<T>> loader) {
+        CacheKey key = new CacheKey(dataset, scope, params);
+        T local = getLocal(key);
+        if (local != null) {
+            return ResponseEntity.ok(local);
+        }
+
+        // 동시에 같은 키를 놓친 요청은 L2 조회/계산을 한 번만 수행
+        return singleFlight.execute(flightKey(key), () -> {
+            long seen = invalidations.get();
+            long version = dataVersionRegistry.currentVersion(dataset, scope);
+            String redisKey = redisKey(key, version);
+            T remote = getRemote(key, redisKey, objectMapper.constructType(type), seen, version);
+            if (remote != null) {
+                return ResponseEntity.ok(remote);
+            }
+
+            ResponseEntity<T> response = loader.get();
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                store(key, redisKey, response.getBody(), seen, version);
+            }
+            return response;
+        });
+    }
+
+    /**
+     * 목록 조회
+     */
+    public <T> List<T> getList(Dataset dataset, String scope, String params, Class<T> elementType,
+                               Supplier<List<T>> loader) {
+        CacheKey key = new CacheKey(dataset, scope, params);
+        List<T> local = getLocal(key);
+        if (local != null) {
+            return local;
+        }
+
+        return singleFlight.execute(flightKey(key), () -> {
+            long seen = invalidations.get();
+            long version = dataVersionRegistry.currentVersion(dataset, scope);
+            String redisKey = redisKey(key, version);
+            List<T> remote = getRemote(key, redisKey,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, elementType), seen, version);
+            if (remote != null) {
+                return remote;
+            }
+
+            List<T> result = loader.get();
+            if (result != null) {
+                store(key, redisKey, result, seen, version);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 분석 데이터 변경 시 해당 대상 무효화 (커밋 후)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnalyticsDataChanged(AnalyticsDataChangedEvent event) {
+        invalidate(event.dataset(), event.keys());
+    }
+
+    /**
+     * 차트 원천 저장 시 원천을 직접 읽는 응답(투자자 비중, 수급분석) 무효화
+     * (이동평균/섹터 응답은 누적합 갱신 후 발행되는 {@link AnalyticsDataChangedEvent} 로 무효화)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvestorChartSaved(InvestorChartSavedEvent event) {
+        if (event.isEmpty()) {
+            return;
+        }
+        invalidate(Dataset.INVESTOR_CHART, event.datesByStock().keySet());
+        invalidate(Dataset.SUPPLY_DEMAND, event.datesByStock().keySet());
+    }
+
+    /**
+     * 데이터셋 무효화
+     *
+     * @param scopes 종목/섹터 코드 (비어 있으면 데이터셋 전체)
+     */
+    public void invalidate(Dataset dataset, Collection<String> scopes) {
+        Set<String> targets = Set.copyOf(scopes);
+        long changedAt = System.currentTimeMillis();
+        dataVersionRegistry.recordChanged(dataset, targets, changedAt);
+        evictLocal(dataset, targets);
+
+        // L2 세대 증가 후 다른 인스턴스에 통지 (요청 스레드를 막지 않음)
+        // 세대 증가 전에 이전 세대 L2 값이 L1 에 다시 올라왔을 수 있으므로 증가 후 한 번 더 제거
+        List<String> genKeys = targets.isEmpty()
+            ? List.of(generationKey(dataset, null))
+            : targets.stream().map(scope -> generationKey(dataset, scope)).toList();
+        String message = instanceId + "|" + dataset.name() + "|" + changedAt + "|"
+            + (targets.isEmpty() ? ALL_SCOPES : String.join(",", targets));
+
+        Flux.fromIterable(genKeys)
+            .flatMap(cachePort::increment)
+            .then(Mono.fromRunnable(() -> evictLocal(dataset, targets)))
+            .then(cachePort.publish(INVALIDATE_CHANNEL, message))
+            .subscribe(null, error -> log.warn("분석 캐시 L2 무효화 실패: dataset={}, 대상={} 개, {}",
+                dataset, targets.size(), error.getMessage()));
+
+        log.debug("분석 캐시 무효화: dataset={}, 대상={}", dataset, targets.isEmpty() ? ALL_SCOPES : targets);
+    }
+
+    private void onRemoteInvalidation(String message) {
+        String[] parts = message.split("\\|", 4);
+        if (parts.length != 4 || instanceId.equals(parts[0])) {
+            return;
+        }
+        try {
+            Dataset dataset = Dataset.valueOf(parts[1]);
+            long changedAt = Long.parseLong(parts[2]);
+            Set<String> targets = ALL_SCOPES.equals(parts[3]) ? Set.of() : Set.of(parts[3].split(","));
+            dataVersionRegistry.markChanged(dataset, targets, changedAt);
+            evictLocal(dataset, targets);
+        } catch (IllegalArgumentException e) {
+            log.warn("알 수 없는 분석 캐시 무효화 메시지: {}", message);
+        }
+    }
+
+    private void evictLocal(Dataset dataset, Set<String> scopes) {
+        invalidations.incrementAndGet();
+        localCache.asMap().keySet().removeIf(key ->
+            key.dataset() == dataset && (scopes.isEmpty() || scopes.contains(key.scope())));
+    }
+
+    /**
+     * L1 조회 (적재 후 데이터 버전이 올라간 항목은 제거하고 미적중 처리)
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T getLocal(CacheKey key) {
+        Weighted entry = localCache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.version() < dataVersionRegistry.currentVersion(key.dataset(), key.scope())) {
+            localCache.asMap().remove(key, entry);
+            return null;
+        }
+        return (T) entry.value();
+    }
+
+    /**
+     * L2 조회 (적중 시 L1 적재)
+     */
+    private <T> T getRemote(CacheKey key, String redisKey, JavaType type, long seen, long version) {
+        if (redisKey == null) {
+            return null;
+        }
+        try {
+            Optional<String> json = cachePort.get(redisKey, String.class).block(redisTimeout);
+            if (json == null || json.isEmpty()) {
+                return null;
+            }
+            T value = objectMapper.readValue(json.get(), type);
+            putLocal(key, value, json.get().length(), seen, version);
+            return value;
+        } catch (Exception e) {
+            log.debug("분석 캐시 L2 조회 실패: key={}, {}", redisKey, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 조회 결과를 L1/L2 에 저장
+     * (L2 키는 조회 전 세대 번호 기준이므로 조회 중 무효화되었다면 다시 읽히지 않음)
+     */
+    private void store(CacheKey key, String redisKey, Object value, long seen, long version) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            // 크기를 알 수 없는 값은 캐시하지 않음
+            log.debug("분석 캐시 직렬화 실패: key={}, {}", key, e.getMessage());
+            return;
+        }
+        putLocal(key, value, json.length(), seen, version);
+        if (redisKey == null) {
+            return;
+        }
+        cachePort.set(redisKey, json, redisTtl)
+            .subscribe(null, error -> log.debug("분석 캐시 L2 저장 실패: key={}, {}", redisKey, error.getMessage()));
+    }
+
+    private void putLocal(CacheKey key, Object value, int weight, long seen, long version) {
+        localCache.put(key, new Weighted(value, weight, version));
+        // 조회 중 무효화가 있었다면 이전 데이터일 수 있으므로 제거
+        if (invalidations.get() != seen) {
+            localCache.invalidate(key);
+        }
+    }
+
+    /**
+     * 현재 세대 번호와 데이터 버전을 포함한 L2 키 (Redis 조회 실패 시 null)
+     */
+    private String redisKey(CacheKey key, long version) {
+        try {
+            long[] generations = Mono.zip(
+                    cachePort.get(generationKey(key.dataset(), null), Long.class),
+                    cachePort.get(generationKey(key.dataset(), key.scope()), Long.class))
+                .map(tuple -> new long[] { tuple.getT1().orElse(0L), tuple.getT2().orElse(0L) })
+                .block(redisTimeout);
+            if (generations == null) {
+                return null;
+            }
+            return KEY_PREFIX + key.dataset().name().toLowerCase() + ":" + key.scope()
+                + ":g" + generations[0] + "." + generations[1] + ":v" + Long.toHexString(version) + ":" + key.params();
+        } catch (Exception e) {
+            log.debug("분석 캐시 세대 조회 실패: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String flightKey(CacheKey key) {
+        return SingleFlight.key("analytics", key.dataset().name(), key.scope(), key.params());
+    }
+
+    private static String generationKey(Dataset dataset, String scope) {
+        String base = KEY_PREFIX + "gen:" + dataset.name().toLowerCase();
+        return scope == null ? base : base + ":" + scope;
+    }
+}
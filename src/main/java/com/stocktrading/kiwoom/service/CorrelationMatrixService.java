@@ -0,0 +1,283 @@
+package com.stocktrading.kiwoom.service;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stocktrading.kiwoom.analytics.CorrelationMatrix;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
+import com.stocktrading.kiwoom.domain.event.InvestorChartSavedEvent;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 횡단면 상관계수 행렬 서비스
+ *
+ * 종목(또는 섹터) 집합의 투자자별 일별 순매수 거래대금(cur_prc × 순매수량)을
+ * 공통 거래일 축에 맞춰 정렬한 뒤 N×N 상관계수 행렬을 계산한다.
+ * 결과는 (유니버스, 투자자, 기간, 기준일) 단위로 캐시하며, 차트 데이터가 저장되면 변경 종목/일자가
+ * 행렬의 종목과 거래일 구간에 걸리는 결과만 비운다. (섹터 간 행렬은 섹터 합계 갱신 이벤트 기준)
+ *
+ * 유니버스 표기
+ * - KOSPI200 : tb_stock_list_meta 전체 종목
+ * - SECTOR:{섹터코드} : 해당 섹터 구성종목
+ * - SECTORS : 섹터 일별 합계(tb_sector_daily_amount) 간 상관
+ * - 그 외 : 쉼표로 구분한 종목코드 목록
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CorrelationMatrixService {
+
+    public static final String UNIVERSE_KOSPI200 = "KOSPI200";
+    public static final String UNIVERSE_SECTORS = "SECTORS";
+    public static final String UNIVERSE_SECTOR_PREFIX = "SECTOR:";
+
+    // 최소/최대 상관 기간 (거래일)
+    private static final int MIN_WINDOW = 5;
+    private static final int MAX_WINDOW = 500;
+
+    // 종목별 최소 유효 관측치 비율 (구간 대비)
+    private static final double MIN_OBSERVATION_RATIO = 0.8;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockMetaRegistry stockMetaRegistry;
+
+    private final Cache<MatrixKey, MatrixResult> cache = Caffeine.newBuilder()
+        .maximumSize(64)
+        .expireAfterWrite(Duration.ofMinutes(30))
+        .build();
+
+    /**
+     * 캐시 키
+     */
+    public record MatrixKey(String universe, InvestorType investor, int window, LocalDate asOf) {
+    }
+
+    /**
+     * 상관계수 행렬 결과
+     *
+     * @param codes 행/열 순서의 종목(섹터) 코드
+     * @param names 행/열 순서의 이름
+     * @param dates 공통 거래일 축 (오름차순)
+     */
+    public record MatrixResult(MatrixKey key, List<String> codes, List<String> names,
+                               List<LocalDate> dates, CorrelationMatrix matrix) {
+
+        public int indexOf(String code) {
+            return codes.indexOf(code);
+        }
+    }
+
+    /**
+     * 상관계수가 높은 이웃 종목
+     */
+    public record Neighbor(String code, String name, double correlation) {
+    }
+
+    /**
+     * 상관계수 행렬 조회 (캐시)
+     *
+     * @param asOf 기준일 (null 이면 유니버스의 최근 거래일)
+     */
+    public MatrixResult getMatrix(String universe, InvestorType investor, int window, LocalDate asOf) {
+        if (window < MIN_WINDOW || window > MAX_WINDOW) {
+            throw new IllegalArgumentException(
+                "상관 기간은 " + MIN_WINDOW + " ~ " + MAX_WINDOW + " 사이여야 합니다: " + window);
+        }
+        String normalized = normalizeUniverse(universe);
+        boolean sectors = UNIVERSE_SECTORS.equals(normalized);
+
+        Map<String, String> members = sectors ? loadSectors() : resolveMembers(normalized);
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("유니버스에 해당하는 종목이 없습니다: " + universe);
+        }
+
+        LocalDate resolvedAsOf = asOf != null ? asOf : latestDate(sectors, members.keySet());
+        if (resolvedAsOf == null) {
+            throw new IllegalArgumentException("유니버스의 차트 데이터가 없습니다: " + universe);
+        }
+
+        MatrixKey key = new MatrixKey(normalized, investor, window, resolvedAsOf);
+        return cache.get(key, k -> compute(k, members, sectors));
+    }
+
+    /**
+     * 종목(섹터)별 상관계수 상위 K 개 이웃
+     *
+     * @param absolute true 면 절대값 기준 (음의 상관 포함)
+     */
+    public List<Neighbor> getNeighbors(String code, String universe, InvestorType investor,
+                                       int window, LocalDate asOf, int k, boolean absolute) {
+        MatrixResult result = getMatrix(universe, investor, window, asOf);
+        int index = result.indexOf(code);
+        if (index < 0) {
+            throw new IllegalArgumentException("유니버스에 포함되지 않은 코드입니다: " + code);
+        }
+
+        List<Neighbor> neighbors = new ArrayList<>(k);
+        for (int j : result.matrix().topNeighbors(index, k, absolute)) {
+            neighbors.add(new Neighbor(result.codes().get(j), result.names().get(j), result.matrix().get(index, j)));
+        }
+        return neighbors;
+    }
+
+    /**
+     * 변경 종목이 포함되고 변경 일자가 행렬 거래일 구간(첫 거래일 ~ 기준일)에 있는 종목 행렬만 무효화
+     * (기준일 이후 일자는 새 기준일 키로 계산되므로 기존 행렬과 무관)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvestorChartSaved(InvestorChartSavedEvent event) {
+        if (event.isEmpty()) {
+            return;
+        }
+        Map<String, SortedSet<LocalDate>> datesByStock = event.datesByStock();
+        cache.asMap().values().removeIf(result -> !UNIVERSE_SECTORS.equals(result.key().universe())
+            && result.codes().stream().anyMatch(code -> overlaps(datesByStock.get(code), result)));
+    }
+
+    /**
+     * 섹터 일별 합계가 갱신되면 해당 섹터가 포함된 섹터 간 행렬 무효화
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnalyticsDataChanged(AnalyticsDataChangedEvent event) {
+        if (event.dataset() != Dataset.SECTOR_MA) {
+            return;
+        }
+        cache.asMap().values().removeIf(result -> UNIVERSE_SECTORS.equals(result.key().universe())
+            && (event.isAll() || result.codes().stream().anyMatch(event.keys()::contains)));
+    }
+
+    private static boolean overlaps(SortedSet<LocalDate> changed, MatrixResult result) {
+        if (changed == null) {
+            return false;
+        }
+        LocalDate asOf = result.key().asOf();
+        // 거래일 축이 비었거나 구간 안에 없던 일자가 추가된 경우도 포함
+        LocalDate first = result.dates().isEmpty() ? LocalDate.MIN : result.dates().get(0);
+        return !changed.subSet(first, asOf.plusDays(1)).isEmpty();
+    }
+
+    private MatrixResult compute(MatrixKey key, Map<String, String> members, boolean sectors) {
+        long startTime = System.currentTimeMillis();
+        String[] codes = members.keySet().toArray(new String[0]);
+
+        // 1. 공통 거래일 축: 기준일 이전 최근 window 거래일
+        List<LocalDate> dates = sectors
+            ? jdbcTemplate.queryForList(
+                "SELECT DISTINCT dt FROM tb_sector_daily_amount " +
+                "WHERE sector_cd = ANY(?) AND dt <= ? ORDER BY dt DESC LIMIT ?",
+                LocalDate.class, codes, Date.valueOf(key.asOf()), key.window())
+            : jdbcTemplate.queryForList(
+                "SELECT DISTINCT dt FROM tb_stock_investor_chart " +
+                "WHERE stk_cd = ANY(?) AND dt <= ? ORDER BY dt DESC LIMIT ?",
+                LocalDate.class, codes, Date.valueOf(key.asOf()), key.window());
+        Collections.reverse(dates);
+
+        Map<LocalDate, Integer> dateIndex = new HashMap<>(dates.size() * 2);
+        for (int t = 0; t < dates.size(); t++) {
+            dateIndex.put(dates.get(t), t);
+        }
+        Map<String, Integer> codeIndex = new HashMap<>(codes.length * 2);
+        for (int i = 0; i < codes.length; i++) {
+            codeIndex.put(codes[i], i);
+        }
+
+        // 2. [종목][거래일] 정렬 (결측은 NaN)
+        double[][] series = new double[codes.length][dates.size()];
+        for (double[] row : series) {
+            Arrays.fill(row, Double.NaN);
+        }
+        if (!dates.isEmpty()) {
+            String sql = sectors
+                ? "SELECT sector_cd AS cd, dt, " + key.investor().getColumn() + " AS v " +
+                  "FROM tb_sector_daily_amount " +
+                  "WHERE sector_cd = ANY(?) AND dt BETWEEN ? AND ?"
+                : "SELECT c.stk_cd AS cd, c.dt, c.cur_prc * " + key.investor().chartExpression("c") + " AS v " +
+                  "FROM tb_stock_investor_chart c " +
+                  "WHERE c.stk_cd = ANY(?) AND c.dt BETWEEN ? AND ?";
+            jdbcTemplate.query(sql, rs -> {
+                Integer i = codeIndex.get(rs.getString("cd"));
+                Integer t = dateIndex.get(rs.getDate("dt").toLocalDate());
+                long value = rs.getLong("v");
+                if (i != null && t != null && !rs.wasNull()) {
+                    series[i][t] = value;
+                }
+            }, codes, Date.valueOf(dates.get(0)), Date.valueOf(dates.get(dates.size() - 1)));
+        }
+
+        // 3. 상관계수 행렬
+        int minObservations = (int) Math.ceil(dates.size() * MIN_OBSERVATION_RATIO);
+        CorrelationMatrix matrix = CorrelationMatrix.compute(series, minObservations);
+
+        log.info("상관계수 행렬 계산: universe={}, investor={}, window={}, asOf={}, {}×{} / {}일, {}ms",
+            key.universe(), key.investor().getKey(), key.window(), key.asOf(),
+            codes.length, codes.length, dates.size(), System.currentTimeMillis() - startTime);
+
+        return new MatrixResult(key, List.of(codes), new ArrayList<>(members.values()), dates, matrix);
+    }
+
+    /**
+     * 유니버스 구성 종목 (코드 → 이름, 코드 순)
+     */
+    private Map<String, String> resolveMembers(String universe) {
+        Map<String, String> members = new LinkedHashMap<>();
+        if (UNIVERSE_KOSPI200.equals(universe)) {
+            stockMetaRegistry.kospi200().forEach(stock -> members.put(stock.code(), stock.name()));
+        } else if (universe.startsWith(UNIVERSE_SECTOR_PREFIX)) {
+            stockMetaRegistry.sectorMembers(universe.substring(UNIVERSE_SECTOR_PREFIX.length()))
+                .forEach(stock -> members.put(stock.code(), stock.name()));
+        } else {
+            for (String code : universe.split(",")) {
+                members.put(code, stockMetaRegistry.nameOf(code));
+            }
+        }
+        return members;
+    }
+
+    /**
+     * 섹터 목록 (섹터코드 → 섹터명)
+     */
+    private Map<String, String> loadSectors() {
+        return new LinkedHashMap<>(stockMetaRegistry.snapshot().metaSectors());
+    }
+
+    private LocalDate latestDate(boolean sectors, Set<String> codes) {
+        String sql = sectors
+            ? "SELECT MAX(dt) FROM tb_sector_daily_amount WHERE sector_cd = ANY(?)"
+            : "SELECT MAX(dt) FROM tb_stock_investor_chart WHERE stk_cd = ANY(?)";
+        return jdbcTemplate.queryForObject(sql, LocalDate.class, (Object) codes.toArray(new String[0]));
+    }
+
+    private static String normalizeUniverse(String universe) {
+        if (universe == null || universe.isBlank()) {
+            return UNIVERSE_KOSPI200;
+        }
+        String trimmed = universe.trim();
+        String upper = trimmed.toUpperCase();
+        if (UNIVERSE_KOSPI200.equals(upper) || UNIVERSE_SECTORS.equals(upper)) {
+            return upper;
+        }
+        if (upper.startsWith(UNIVERSE_SECTOR_PREFIX)) {
+            return UNIVERSE_SECTOR_PREFIX + trimmed.substring(UNIVERSE_SECTOR_PREFIX.length()).trim();
+        }
+        // 종목코드 목록은 정렬하여 같은 집합이 같은 캐시 키를 갖도록 함
+        return Arrays.stream(trimmed.split(","))
+            .map(String::trim)
+            .filter(code -> !code.isEmpty())
+            .distinct()
+            .sorted()
+            .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,322 @@
+package com.stocktrading.kiwoom.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.stocktrading.kiwoom.domain.event.InvestorChartSavedEvent;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 일별 투자자 순매수 횡단면 순위 서비스 (tb_investor_cross_section)
+ *
+ * 거래일마다 전 종목 × 투자자별 순매수 거래대금과 MA 대비 순매수 배수(순매수량 / 20일 평균 |순매수량|)의
+ * 순위/백분위를 미리 계산해 둔다. 조회는 (dt, investor, 순위) 인덱스로 한 페이지만 읽는다.
+ *
+ * 차트 저장 이벤트마다 계산하면 수집 중 같은 일자를 종목 수만큼 다시 계산하므로,
+ * 변경 일자를 모아 두었다가 주기적으로 일자당 한 번만 계산한다.
+ * 변경 일자는 메모리에만 있으므로, 기동 시 차트 행의 등록/수정 시각이 순위 행보다 늦은(또는 순위가 없는) 거래일을 다시 등록한다.
+ * 계산에 실패한 거래일은 다시 등록하여 다음 주기에 재시도한다. (최대 MAX_FLUSH_ATTEMPTS 회, 이후는 다음 기동 시 복구)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CrossSectionRankService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final StockMetaRegistry stockMetaRegistry;
+
+    // MA 대비 배수 기간 (거래일)
+    private static final int NORM_PERIOD = 20;
+
+    // NORM_PERIOD 거래일을 덮는 달력일 (연휴 포함)
+    private static final int NORM_LOOKBACK_DAYS = 45;
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // flush 한 번에 계산할 최대 거래일 수 (나머지는 다음 주기, 스케줄러 스레드 점유 제한)
+    private static final int MAX_FLUSH_DATES = 60;
+
+    // 거래일당 연속 계산 실패 허용 횟수 (초과 시 대기 목록에서 제외, 기동 시 재등록)
+    private static final int MAX_FLUSH_ATTEMPTS = 5;
+
+    private static final String REBUILD_SQL = buildRebuildSql();
+
+    // 차트 행이 순위 행보다 늦게 저장/수정되었거나 순위가 없는 거래일 (첫 계산 일자 이후)
+    private static final String STALE_DATES_SQL =
+        "SELECT c.dt FROM tb_stock_investor_chart c " +
+        "LEFT JOIN (SELECT dt, MIN(reg_dt) AS reg_dt FROM tb_investor_cross_section GROUP BY dt) s ON s.dt = c.dt " +
+        "WHERE c.dt >= (SELECT MIN(dt) FROM tb_investor_cross_section) " +
+        "GROUP BY c.dt " +
+        "HAVING MIN(s.reg_dt) IS NULL OR MAX(COALESCE(c.upd_dt, c.reg_dt)) > MIN(s.reg_dt)";
+
+    // 다시 계산할 거래일
+    private final ConcurrentSkipListSet<LocalDate> pendingDates = new ConcurrentSkipListSet<>();
+
+    // 거래일 → 연속 계산 실패 횟수
+    private final Map<LocalDate, Integer> failureCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 순위 행
+     *
+     * @param amtPct 순매수 거래대금 백분위 (100 = 최상위)
+     * @param maNorm 순매수량 / 20일 평균 |순매수량| (20일 미만이면 null)
+     */
+    public record RankRow(int rank, String stkCd, String stkNm, Long curPrc, Long netQty, BigDecimal netAmt,
+                          int amtRank, BigDecimal amtPct, BigDecimal maNorm, Integer normRank,
+                          BigDecimal normPct) {
+    }
+
+    /**
+     * 순위 페이지
+     *
+     * @param investor 투자자 API 키
+     * @param total 해당 일자/투자자 전체 종목 수
+     */
+    public record RankPage(LocalDate dt, String investor, String investorName, String sort, String order,
+                           int page, int size, int total, List<RankRow> rows) {
+    }
+
+    /**
+     * 차트 저장 커밋 후 변경 일자 등록 (계산은 {@link #flushPending()})
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvestorChartSaved(InvestorChartSavedEvent event) {
+        event.datesByStock().values().forEach(pendingDates::addAll);
+    }
+
+    /**
+     * 기동 시 순위가 원천보다 오래되었거나 빠진 거래일 등록 (이전 프로세스 종료/재시도 포기로 잃어버린 변경 일자 복구)
+     * 순위를 한 번도 계산하지 않은 경우(초기 적재 전)는 {@link #rebuildRange} 로 적재한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void enqueueStaleDates() {
+        try {
+            List<LocalDate> stale = jdbcTemplate.queryForList(STALE_DATES_SQL, LocalDate.class);
+            pendingDates.addAll(stale);
+            if (!stale.isEmpty()) {
+                log.info("횡단면 순위 미반영 거래일 등록: {} 거래일", stale.size());
+            }
+        } catch (Exception e) {
+            log.error("횡단면 순위 미반영 거래일 조회 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 모아 둔 변경 일자 재계산
+     * 과거 일자가 수정되면 그 일자를 20일 평균 구간에 포함하는 이후 거래일도 다시 계산한다.
+     * (아직 대기 중인 이후 거래일은 다음 주기에 일자 순으로 계산되므로 제외)
+     */
+    @Scheduled(fixedDelayString = "${batch.cross-section.flush-delay-ms:30000}")
+    public void flushPending() {
+        if (pendingDates.isEmpty()) {
+            return;
+        }
+        NavigableSet<LocalDate> dates = new TreeSet<>();
+        LocalDate date;
+        while (dates.size() < MAX_FLUSH_DATES && (date = pendingDates.pollFirst()) != null) {
+            dates.add(date);
+        }
+        if (dates.isEmpty()) {
+            return;
+        }
+        try {
+            dates.addAll(jdbcTemplate.queryForList(
+                "SELECT DISTINCT dt FROM tb_investor_cross_section WHERE dt > ? AND dt <= ?",
+                LocalDate.class, Date.valueOf(dates.first()), Date.valueOf(dates.last().plusDays(NORM_LOOKBACK_DAYS)))
+                .stream()
+                .filter(dt -> isAffected(dt, dates) && !pendingDates.contains(dt))
+                .toList());
+        } catch (Exception e) {
+            // 꺼낸 일자를 그대로 되돌려 다음 주기에 재시도
+            retryLater(dates, e);
+            return;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (LocalDate dt : dates) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebuild(dt));
+                failureCounts.remove(dt);
+            } catch (Exception e) {
+                retryLater(List.of(dt), e);
+            }
+        }
+    }
+
+    /**
+     * 실패한 거래일 재등록 (연속 MAX_FLUSH_ATTEMPTS 회 실패하면 포기, 기동 시 {@link #enqueueStaleDates()} 로 복구)
+     */
+    private void retryLater(Collection<LocalDate> dates, Exception cause) {
+        for (LocalDate dt : dates) {
+            int attempts = failureCounts.merge(dt, 1, Integer::sum);
+            if (attempts < MAX_FLUSH_ATTEMPTS) {
+                pendingDates.add(dt);
+            } else {
+                failureCounts.remove(dt);
+                log.error("횡단면 순위 계산 재시도 포기: dt={}, {} 회 실패", dt, attempts);
+            }
+        }
+        log.error("횡단면 순위 계산 실패 - 다음 주기에 재시도: {}", dates, cause);
+    }
+
+    /**
+     * 기간 내 전체 거래일 재계산 등록 (초기 적재용)
+     * 요청 스레드에서 계산하지 않고 변경 일자로 등록해 {@link #flushPending()} 에서 계산한다.
+     *
+     * @return 등록한 거래일 수
+     */
+    public int rebuildRange(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> dates = jdbcTemplate.queryForList(
+            "SELECT DISTINCT dt FROM tb_stock_investor_chart WHERE dt BETWEEN ? AND ? ORDER BY dt",
+            LocalDate.class, Date.valueOf(startDate), Date.valueOf(endDate));
+        pendingDates.addAll(dates);
+        log.info("횡단면 순위 기간 계산 등록: {} ~ {}, {} 거래일", startDate, endDate, dates.size());
+        return dates.size();
+    }
+
+    /**
+     * 거래일 횡단면 순위 재계산 (해당 일자 전체 교체)
+     *
+     * @return 저장한 행 수
+     */
+    @Transactional
+    public int rebuild(LocalDate dt) {
+        long startTime = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM tb_investor_cross_section WHERE dt = ?", Date.valueOf(dt));
+        int rows = jdbcTemplate.update(REBUILD_SQL,
+            Date.valueOf(dt.minusDays(NORM_LOOKBACK_DAYS)), Date.valueOf(dt), Date.valueOf(dt));
+        log.info("횡단면 순위 계산: dt={}, {} 행, {}ms", dt, rows, System.currentTimeMillis() - startTime);
+        return rows;
+    }
+
+    /**
+     * 순위 페이지 조회
+     *
+     * @param dt 거래일 (null 이면 최근 계산 일자)
+     * @param sort amount (순매수 거래대금) | norm (MA 대비 배수)
+     * @param order desc (순매수 상위) | asc (순매도 상위)
+     */
+    @Transactional(readOnly = true)
+    public RankPage getPage(LocalDate dt, InvestorType investor, String sort, String order, int page, int size) {
+        boolean byNorm = "norm".equalsIgnoreCase(sort);
+        if (!byNorm && !"amount".equalsIgnoreCase(sort)) {
+            throw new IllegalArgumentException("sort 는 amount 또는 norm 이어야 합니다: " + sort);
+        }
+        boolean ascending = "asc".equalsIgnoreCase(order);
+        if (!ascending && !"desc".equalsIgnoreCase(order)) {
+            throw new IllegalArgumentException("order 는 desc 또는 asc 이어야 합니다: " + order);
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page 는 0 이상, size 는 1 ~ " + MAX_PAGE_SIZE + " 이어야 합니다");
+        }
+
+        LocalDate targetDt = dt != null ? dt
+            : jdbcTemplate.queryForObject("SELECT MAX(dt) FROM tb_investor_cross_section", LocalDate.class);
+        if (targetDt == null) {
+            return new RankPage(null, investor.getKey(), investor.getDisplayName(), sort, order, page, size, 0,
+                List.of());
+        }
+
+        String rankColumn = byNorm ? "norm_rank" : "amt_rank";
+        Integer total = jdbcTemplate.queryForObject(
+            "SELECT COUNT(" + rankColumn + ") FROM tb_investor_cross_section WHERE dt = ? AND investor = ?",
+            Integer.class, Date.valueOf(targetDt), investor.getColumn());
+
+        // 순위 인덱스 순서 그대로 한 페이지만 읽음 (오름차순 = 순매도 상위는 역방향 스캔)
+        List<RankRow> rows = new ArrayList<>(size);
+        int[] position = { page * size };
+        jdbcTemplate.query(
+            "SELECT * FROM tb_investor_cross_section " +
+            "WHERE dt = ? AND investor = ? AND " + rankColumn + " IS NOT NULL " +
+            "ORDER BY " + rankColumn + (ascending ? " DESC" : "") + " LIMIT ? OFFSET ?",
+            rs -> {
+                String stkCd = rs.getString("stk_cd");
+                rows.add(new RankRow(
+                    ++position[0],
+                    stkCd,
+                    stockMetaRegistry.nameOf(stkCd),
+                    rs.getObject("cur_prc", Long.class),
+                    rs.getObject("net_qty", Long.class),
+                    rs.getBigDecimal("net_amt"),
+                    rs.getInt("amt_rank"),
+                    rs.getBigDecimal("amt_pct"),
+                    rs.getBigDecimal("ma_norm"),
+                    rs.getObject("norm_rank", Integer.class),
+                    rs.getBigDecimal("norm_pct")));
+            },
+            Date.valueOf(targetDt), investor.getColumn(), size, page * size);
+
+        return new RankPage(targetDt, investor.getKey(), investor.getDisplayName(), sort, order, page, size,
+            total != null ? total : 0, rows);
+    }
+
+    /**
+     * 변경 일자 이후 NORM_LOOKBACK_DAYS 안에 있는 거래일인지
+     */
+    private static boolean isAffected(LocalDate dt, NavigableSet<LocalDate> changed) {
+        LocalDate before = changed.lower(dt);
+        return before != null && !dt.isAfter(before.plusDays(NORM_LOOKBACK_DAYS));
+    }
+
+    /**
+     * 투자자별 값을 행으로 펼친 뒤(LATERAL VALUES) 종목별 20일 평균 |순매수량| 을 window 로 계산하고,
+     * 대상 일자만 남겨 투자자별 순위/백분위를 매긴다.
+     * 파라미터: 조회 시작일(대상일 - 45일), 대상일, 대상일
+     */
+    private static String buildRebuildSql() {
+        StringBuilder values = new StringBuilder();
+        for (InvestorType investor : InvestorType.values()) {
+            if (values.length() > 0) {
+                values.append(", ");
+            }
+            values.append("('").append(investor.getColumn()).append("', ")
+                .append(investor.chartExpression("c")).append(")");
+        }
+
+        return "INSERT INTO tb_investor_cross_section " +
+            "(dt, investor, stk_cd, cur_prc, net_qty, net_amt, amt_rank, amt_pct, ma_norm, norm_rank, norm_pct) " +
+            "SELECT dt, investor, stk_cd, cur_prc, net_qty, net_amt, " +
+            "RANK() OVER (PARTITION BY investor ORDER BY net_amt DESC), " +
+            "ROUND((PERCENT_RANK() OVER (PARTITION BY investor ORDER BY net_amt) * 100)::numeric, 2), " +
+            "ma_norm, " +
+            "CASE WHEN ma_norm IS NOT NULL THEN RANK() OVER (PARTITION BY investor ORDER BY ma_norm DESC NULLS LAST) END, " +
+            "CASE WHEN ma_norm IS NOT NULL THEN ROUND((PERCENT_RANK() OVER " +
+            "(PARTITION BY investor, ma_norm IS NULL ORDER BY ma_norm) * 100)::numeric, 2) END " +
+            "FROM (" +
+            "SELECT c.dt, v.investor, c.stk_cd, c.cur_prc, v.qty AS net_qty, " +
+            "COALESCE(c.cur_prc, 0)::numeric * v.qty AS net_amt, " +
+            "CASE WHEN COUNT(v.qty) OVER w = " + NORM_PERIOD + " " +
+            "THEN ROUND(v.qty / NULLIF(AVG(ABS(v.qty)) OVER w, 0), 4) END AS ma_norm " +
+            "FROM tb_stock_investor_chart c " +
+            "CROSS JOIN LATERAL (VALUES " + values + ") AS v(investor, qty) " +
+            "WHERE c.dt BETWEEN ? AND ? " +
+            "WINDOW w AS (PARTITION BY c.stk_cd, v.investor ORDER BY c.dt " +
+            "ROWS BETWEEN " + (NORM_PERIOD - 1) + " PRECEDING AND CURRENT ROW)" +
+            ") s WHERE dt = ? AND net_qty IS NOT NULL";
+    }
+}
@@ -0,0 +1,552 @@
+package com.stocktrading.kiwoom.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.stocktrading.kiwoom.adapter.out.persistence.entity.CustomBasketEntity;
+import com.stocktrading.kiwoom.adapter.out.persistence.entity.CustomBasketItemEntity;
+import com.stocktrading.kiwoom.adapter.out.persistence.repository.CustomBasketItemRepository;
+import com.stocktrading.kiwoom.adapter.out.persistence.repository.CustomBasketRepository;
+import com.stocktrading.kiwoom.analytics.RollingKernel;
+import com.stocktrading.kiwoom.analytics.RollingKernels;
+import com.stocktrading.kiwoom.controller.StatisticsController;
+import com.stocktrading.kiwoom.domain.event.InvestorChartSavedEvent;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+import com.stocktrading.kiwoom.dto.SectorMaResponse;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 사용자 정의 바스켓 서비스
+ *
+ * 종목코드와 가중치로 구성한 바스켓을 저장하고, 섹터와 같은 투자자별 거래대금(cur_prc × 순매수량)
+ * 이동평균/비중을 배치 없이 요청 시 계산한다.
+ * 종목별 일별 거래대금 배열과 바스켓 합계 누적합을 캐시하며, 차트 데이터 저장 시 해당 종목과 바스켓 캐시를 비운다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CustomBasketService {
+
+    private final CustomBasketRepository basketRepository;
+    private final CustomBasketItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // 바스켓당 최대 종목 수
+    private static final int MAX_ITEMS = 300;
+
+    private static final InvestorType[] INVESTORS = InvestorType.values();
+
+    // 비중 계산 대상 투자자 (섹터 비중과 동일)
+    private static final InvestorType[] RATIO_INVESTORS = {
+        InvestorType.FRGNR, InvestorType.ORGN, InvestorType.FNNC_INVT, InvestorType.INSRNC,
+        InvestorType.INVTRT, InvestorType.BANK, InvestorType.ETC_FNNC, InvestorType.PENFND_ETC,
+        InvestorType.SAMO_FUND, InvestorType.ETC_CORP, InvestorType.NATN, InvestorType.NATFOR
+    };
+
+    private static final String STOCK_AMOUNT_SQL = buildStockAmountSql();
+
+    // 종목코드 → 일별 투자자 거래대금
+    private final Cache<String, StockAmounts> stockCache = CacheBuilder.newBuilder()
+        .maximumSize(2_000)
+        .expireAfterAccess(1, TimeUnit.HOURS)
+        .build();
+
+    // 바스켓 ID → 가중 합계 누적합
+    private final Cache<Long, BasketAmounts> basketCache = CacheBuilder.newBuilder()
+        .maximumSize(200)
+        .expireAfterAccess(1, TimeUnit.HOURS)
+        .build();
+
+    /**
+     * 바스켓 구성종목
+     */
+    public record BasketItem(String stkCd, String stkNm, BigDecimal weight) {
+    }
+
+    /**
+     * 바스켓
+     */
+    public record Basket(Long basketId, String basketNm, String description, List<BasketItem> items,
+                         LocalDateTime regDt, LocalDateTime updDt) {
+    }
+
+    // ===== 바스켓 관리 =====
+
+    @Transactional(readOnly = true)
+    public List<Basket> getBaskets() {
+        List<CustomBasketEntity> baskets = basketRepository.findAllByOrderByBasketIdAsc();
+        Map<Long, List<CustomBasketItemEntity>> itemsByBasket = new HashMap<>();
+        for (CustomBasketItemEntity item : itemRepository.findByBasketIdIn(
+                baskets.stream().map(CustomBasketEntity::getBasketId).toList())) {
+            itemsByBasket.computeIfAbsent(item.getBasketId(), k -> new ArrayList<>()).add(item);
+        }
+
+        Map<String, String> names = stockNames(itemsByBasket.values().stream()
+            .flatMap(List::stream).map(CustomBasketItemEntity::getStkCd).distinct().toList());
+
+        List<Basket> result = new ArrayList<>(baskets.size());
+        for (CustomBasketEntity basket : baskets) {
+            List<CustomBasketItemEntity> items = itemsByBasket.getOrDefault(basket.getBasketId(), List.of());
+            result.add(toBasket(basket, items.stream()
+                .sorted(Comparator.comparing(CustomBasketItemEntity::getStkCd)).toList(), names));
+        }
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public Basket getBasket(Long basketId) {
+        CustomBasketEntity basket = findBasket(basketId);
+        List<CustomBasketItemEntity> items = itemRepository.findByBasketIdOrderByStkCdAsc(basketId);
+        return toBasket(basket, items, stockNames(items.stream().map(CustomBasketItemEntity::getStkCd).toList()));
+    }
+
+    /**
+     * 바스켓 생성
+     *
+     * @param weights 종목코드 → 가중치 (null 이면 1)
+     */
+    @Transactional
+    public Basket createBasket(String basketNm, String description, Map<String, BigDecimal> weights) {
+        validate(basketNm, weights);
+        CustomBasketEntity basket = basketRepository.save(CustomBasketEntity.builder()
+            .basketNm(basketNm.trim())
+            .description(description)
+            .regDt(LocalDateTime.now())
+            .updDt(LocalDateTime.now())
+            .build());
+        saveItems(basket.getBasketId(), weights);
+        log.info("바스켓 생성: id={}, name={}, 종목 {} 개", basket.getBasketId(), basket.getBasketNm(), weights.size());
+        return getBasket(basket.getBasketId());
+    }
+
+    /**
+     * 바스켓 수정 (구성종목 전체 교체)
+     */
+    @Transactional
+    public Basket updateBasket(Long basketId, String basketNm, String description, Map<String, BigDecimal> weights) {
+        validate(basketNm, weights);
+        CustomBasketEntity basket = findBasket(basketId);
+        basket.setBasketNm(basketNm.trim());
+        basket.setDescription(description);
+        basket.setUpdDt(LocalDateTime.now());
+        basketRepository.save(basket);
+
+        itemRepository.deleteByBasketId(basketId);
+        saveItems(basketId, weights);
+        invalidateAfterCommit(basketId);
+        log.info("바스켓 수정: id={}, name={}, 종목 {} 개", basketId, basketNm, weights.size());
+        return getBasket(basketId);
+    }
+
+    @Transactional
+    public void deleteBasket(Long basketId) {
+        findBasket(basketId);
+        itemRepository.deleteByBasketId(basketId);
+        basketRepository.deleteById(basketId);
+        invalidateAfterCommit(basketId);
+        log.info("바스켓 삭제: id={}", basketId);
+    }
+
+    // ===== 분석 =====
+
+    /**
+     * 바스켓 투자자별 거래대금 이동평균 차트 (섹터 차트와 같은 응답 형식)
+     *
+     * @param investors 투자자 유형 (쉼표 구분)
+     * @param beforeDate 무한 스크롤용 날짜 (YYYYMMDD, 옵션)
+     */
+    @Transactional(readOnly = true)
+    public SectorMaResponse.SectorMaChartResponse getChartData(
+            Long basketId, int days, String investors, int period, String beforeDate) {
+
+        CustomBasketEntity basket = findBasket(basketId);
+        if (period < 1) {
+            throw new IllegalArgumentException("이동평균 기간은 1 이상이어야 합니다: " + period);
+        }
+        BasketAmounts amounts = basketAmounts(basketId);
+
+        int end = amounts.dates.length;
+        if (beforeDate != null && !beforeDate.isEmpty()) {
+            end = lowerBound(amounts.dates, Integer.parseInt(beforeDate.replace("-", "")));
+        }
+        int start = Math.max(0, end - days);
+
+        if (start >= end) {
+            return SectorMaResponse.SectorMaChartResponse.builder()
+                .sectorCd(basketCode(basketId))
+                .sectorNm(basket.getBasketNm())
+                .period(period)
+                .data(Collections.emptyList())
+                .message("데이터가 없습니다.")
+                .build();
+        }
+
+        List<InvestorType> investorTypes = new ArrayList<>();
+        for (String investor : investors.split(",")) {
+            InvestorType.fromKey(investor).ifPresent(investorTypes::add);
+        }
+
+        List<SectorMaResponse.SectorMaChartDataPoint> dataPoints = new ArrayList<>(end - start);
+        for (int t = start; t < end; t++) {
+            SectorMaResponse.SectorMaChartDataPoint.SectorMaChartDataPointBuilder builder =
+                SectorMaResponse.SectorMaChartDataPoint.builder().dt(String.valueOf(amounts.dates[t]));
+            for (InvestorType investor : investorTypes) {
+                long[] prefix = amounts.prefix[investor.ordinal()];
+                BigDecimal value = t + 1 < period ? null
+                    : BigDecimal.valueOf(prefix[t + 1] - prefix[t + 1 - period])
+                        .divide(BigDecimal.valueOf(period), 0, RoundingMode.HALF_UP);
+                SectorMaService.setInvestorValue(builder, investor.getKey(), value);
+            }
+            dataPoints.add(builder.build());
+        }
+
+        return SectorMaResponse.SectorMaChartResponse.builder()
+            .sectorCd(basketCode(basketId))
+            .sectorNm(basket.getBasketNm())
+            .period(period)
+            .data(dataPoints)
+            .build();
+    }
+
+    /**
+     * 바스켓 투자자별 이동평균 비중 (섹터 비중과 같은 계산: 기간 내 |MA| 합계 비율)
+     *
+     * @param fromDate 시작일 (yyyyMMdd)
+     * @param toDate 종료일 (yyyyMMdd)
+     */
+    @Transactional(readOnly = true)
+    public StatisticsController.InvestorRatioMaResponse getInvestorRatioMa(
+            Long basketId, int period, String fromDate, String toDate) {
+
+        findBasket(basketId);
+        if (period < 1) {
+            throw new IllegalArgumentException("이동평균 기간은 1 이상이어야 합니다: " + period);
+        }
+        BasketAmounts amounts = basketAmounts(basketId);
+        int from = lowerBound(amounts.dates, Integer.parseInt(fromDate));
+        int to = upperBound(amounts.dates, Integer.parseInt(toDate));
+        int n = Math.max(0, to - from);
+
+        if (n == 0) {
+            return StatisticsController.InvestorRatioMaResponse.builder()
+                .stkCd(basketCode(basketId))
+                .period(period)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .dataCount(0)
+                .message("데이터가 없습니다.")
+                .build();
+        }
+
+        // 기간 내 투자자별 MA 배열 (기간 부족 위치는 NaN) → |MA| 합계
+        RollingKernel kernel = RollingKernels.get();
+        double[] ma = new double[amounts.dates.length];
+        Map<InvestorType, BigDecimal> volumeMap = new EnumMap<>(InvestorType.class);
+        BigDecimal totalVolume = BigDecimal.ZERO;
+        for (InvestorType investor : RATIO_INVESTORS) {
+            kernel.windowAverages(amounts.prefix[investor.ordinal()], period, ma);
+            BigDecimal volume = BigDecimal.valueOf(kernel.sumAbs(ma, from, to));
+            volumeMap.put(investor, volume);
+            totalVolume = totalVolume.add(volume);
+        }
+
+        if (totalVolume.compareTo(BigDecimal.ZERO) == 0) {
+            return StatisticsController.InvestorRatioMaResponse.builder()
+                .stkCd(basketCode(basketId))
+                .period(period)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .dataCount(n)
+                .message("거래량 합계가 0입니다.")
+                .build();
+        }
+
+        Map<InvestorType, BigDecimal> ratioMap = new EnumMap<>(InvestorType.class);
+        for (InvestorType investor : RATIO_INVESTORS) {
+            ratioMap.put(investor, volumeMap.get(investor)
+                .divide(totalVolume, 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100)));
+        }
+
+        return StatisticsController.InvestorRatioMaResponse.builder()
+            .stkCd(basketCode(basketId))
+            .period(period)
+            .fromDate(fromDate)
+            .toDate(toDate)
+            .dataCount(n)
+            .frgnr(ratioMap.get(InvestorType.FRGNR))
+            .orgn(ratioMap.get(InvestorType.ORGN))
+            .fnncInvt(ratioMap.get(InvestorType.FNNC_INVT))
+            .insrnc(ratioMap.get(InvestorType.INSRNC))
+            .invtrt(ratioMap.get(InvestorType.INVTRT))
+            .bank(ratioMap.get(InvestorType.BANK))
+            .etcFnnc(ratioMap.get(InvestorType.ETC_FNNC))
+            .penfndEtc(ratioMap.get(InvestorType.PENFND_ETC))
+            .samoFund(ratioMap.get(InvestorType.SAMO_FUND))
+            .etcCorp(ratioMap.get(InvestorType.ETC_CORP))
+            .natn(ratioMap.get(InvestorType.NATN))
+            .natfor(ratioMap.get(InvestorType.NATFOR))
+            .message("조회 성공")
+            .build();
+    }
+
+    /**
+     * 차트 데이터가 바뀌면 해당 종목과 바스켓 합계 캐시 무효화
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvestorChartSaved(InvestorChartSavedEvent event) {
+        if (event.isEmpty()) {
+            return;
+        }
+        stockCache.invalidateAll(event.datesByStock().keySet());
+        basketCache.invalidateAll();
+    }
+
+    // ===== 내부 =====
+
+    /**
+     * 커밋 후 바스켓 캐시 무효화 (커밋 전에 비우면 동시 조회가 이전 구성종목으로 다시 채울 수 있음)
+     */
+    private void invalidateAfterCommit(Long basketId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            basketCache.invalidate(basketId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                basketCache.invalidate(basketId);
+            }
+        });
+    }
+
+    /**
+     * 바스켓 가중 합계 누적합 (캐시)
+     */
+    private BasketAmounts basketAmounts(Long basketId) {
+        try {
+            return basketCache.get(basketId, () -> buildBasketAmounts(basketId));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("바스켓 데이터 계산 실패: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private BasketAmounts buildBasketAmounts(Long basketId) {
+        long startTime = System.currentTimeMillis();
+        List<CustomBasketItemEntity> items = itemRepository.findByBasketIdOrderByStkCdAsc(basketId);
+        Map<String, StockAmounts> stocks = stockAmounts(items.stream().map(CustomBasketItemEntity::getStkCd).toList());
+
+        // 1. 구성종목 일자 합집합
+        int[] dates = stocks.values().stream()
+            .flatMapToInt(stock -> Arrays.stream(stock.dates))
+            .distinct()
+            .sorted()
+            .toArray();
+
+        // 2. 투자자별 가중 합계 (종목 데이터가 없는 날은 0)
+        long[][] sums = new long[INVESTORS.length][dates.length];
+        for (CustomBasketItemEntity item : items) {
+            StockAmounts stock = stocks.get(item.getStkCd());
+            if (stock == null) {
+                continue;
+            }
+            double weight = item.getWeight().doubleValue();
+            int t = 0;
+            for (int s = 0; s < stock.dates.length; s++) {
+                while (dates[t] < stock.dates[s]) {
+                    t++;
+                }
+                for (int i = 0; i < INVESTORS.length; i++) {
+                    sums[i][t] += weight == 1.0 ? stock.amounts[i][s] : Math.round(weight * stock.amounts[i][s]);
+                }
+            }
+        }
+
+        // 3. 투자자별 누적합
+        long[][] prefix = new long[INVESTORS.length][];
+        for (int i = 0; i < INVESTORS.length; i++) {
+            prefix[i] = RollingKernels.prefixSums(sums[i]);
+        }
+
+        log.debug("바스켓 합계 계산: id={}, 종목 {} 개, {} 일, {}ms",
+            basketId, items.size(), dates.length, System.currentTimeMillis() - startTime);
+        return new BasketAmounts(dates, prefix);
+    }
+
+    /**
+     * 종목별 일별 투자자 거래대금 (캐시에 없는 종목만 한 번에 조회)
+     */
+    private Map<String, StockAmounts> stockAmounts(List<String> stkCds) {
+        Map<String, StockAmounts> result = new HashMap<>(stockCache.getAllPresent(stkCds));
+        String[] missing = stkCds.stream().filter(code -> !result.containsKey(code)).toArray(String[]::new);
+        if (missing.length == 0) {
+            return result;
+        }
+
+        Map<String, StockAmountsBuilder> builders = new HashMap<>();
+        jdbcTemplate.query(STOCK_AMOUNT_SQL, rs -> {
+            StockAmountsBuilder builder = builders.computeIfAbsent(rs.getString("stk_cd"), k -> new StockAmountsBuilder());
+            long[] values = new long[INVESTORS.length];
+            for (int i = 0; i < INVESTORS.length; i++) {
+                values[i] = rs.getLong(INVESTORS[i].getColumn());
+            }
+            builder.add(Integer.parseInt(rs.getString("dt")), values);
+        }, (Object) missing);
+
+        for (Map.Entry<String, StockAmountsBuilder> entry : builders.entrySet()) {
+            StockAmounts amounts = entry.getValue().build();
+            stockCache.put(entry.getKey(), amounts);
+            result.put(entry.getKey(), amounts);
+        }
+        return result;
+    }
+
+    private void validate(String basketNm, Map<String, BigDecimal> weights) {
+        if (basketNm == null || basketNm.isBlank()) {
+            throw new IllegalArgumentException("바스켓명은 필수입니다.");
+        }
+        if (weights == null || weights.isEmpty()) {
+            throw new IllegalArgumentException("구성종목을 하나 이상 지정해야 합니다.");
+        }
+        if (weights.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("구성종목은 최대 " + MAX_ITEMS + " 개입니다: " + weights.size());
+        }
+        for (Map.Entry<String, BigDecimal> entry : weights.entrySet()) {
+            if (entry.getValue() != null && entry.getValue().signum() <= 0) {
+                throw new IllegalArgumentException("가중치는 0보다 커야 합니다: " + entry.getKey());
+            }
+        }
+
+        Set<String> known = stockNames(new ArrayList<>(weights.keySet())).keySet();
+        List<String> unknown = weights.keySet().stream().filter(code -> !known.contains(code)).toList();
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("존재하지 않는 종목코드: " + unknown);
+        }
+    }
+
+    private void saveItems(Long basketId, Map<String, BigDecimal> weights) {
+        List<CustomBasketItemEntity> items = new ArrayList<>(weights.size());
+        for (Map.Entry<String, BigDecimal> entry : weights.entrySet()) {
+            items.add(CustomBasketItemEntity.builder()
+                .basketId(basketId)
+                .stkCd(entry.getKey())
+                .weight(entry.getValue() != null ? entry.getValue() : BigDecimal.ONE)
+                .build());
+        }
+        itemRepository.saveAll(items);
+    }
+
+    private CustomBasketEntity findBasket(Long basketId) {
+        return basketRepository.findById(basketId)
+            .orElseThrow(() -> new NoSuchElementException("바스켓이 존재하지 않습니다: " + basketId));
+    }
+
+    private Map<String, String> stockNames(List<String> stkCds) {
+        Map<String, String> names = new HashMap<>();
+        if (stkCds.isEmpty()) {
+            return names;
+        }
+        jdbcTemplate.query("SELECT code, name FROM tb_stock_list WHERE code = ANY(?)",
+            rs -> { names.put(rs.getString("code"), rs.getString("name")); },
+            (Object) stkCds.toArray(new String[0]));
+        return names;
+    }
+
+    private static Basket toBasket(CustomBasketEntity basket, List<CustomBasketItemEntity> items,
+                                   Map<String, String> names) {
+        return new Basket(
+            basket.getBasketId(),
+            basket.getBasketNm(),
+            basket.getDescription(),
+            items.stream()
+                .map(item -> new BasketItem(item.getStkCd(), names.get(item.getStkCd()), item.getWeight()))
+                .toList(),
+            basket.getRegDt(),
+            basket.getUpdDt());
+    }
+
+    private static String basketCode(Long basketId) {
+        return "basket-" + basketId;
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int index = Arrays.binarySearch(values, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int upperBound(int[] values, int key) {
+        int index = Arrays.binarySearch(values, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * 종목 일별 투자자 거래대금 조회 SQL
+     */
+    private static String buildStockAmountSql() {
+        StringBuilder select = new StringBuilder("SELECT c.stk_cd, TO_CHAR(c.dt, 'YYYYMMDD') AS dt");
+        for (InvestorType investor : INVESTORS) {
+            select.append(", COALESCE(c.cur_prc * ").append(investor.chartExpression("c")).append(", 0) AS ")
+                .append(investor.getColumn());
+        }
+        return select + " FROM tb_stock_investor_chart c WHERE c.stk_cd = ANY(?) ORDER BY c.stk_cd, c.dt";
+    }
+
+    /**
+     * 종목 일별 투자자 거래대금 [투자자 ordinal][일자]
+     */
+    private record StockAmounts(int[] dates, long[][] amounts) {
+    }
+
+    /**
+     * 바스켓 가중 합계 누적합 [투자자 ordinal][일자 + 1]
+     */
+    private record BasketAmounts(int[] dates, long[][] prefix) {
+    }
+
+    /**
+     * 조회용 가변 primitive 버퍼
+     */
+    private static final class StockAmountsBuilder {
+
+        private int[] dates = new int[512];
+        private long[][] amounts = new long[INVESTORS.length][512];
+        private int size;
+
+        void add(int date, long[] values) {
+            if (size == dates.length) {
+                dates = Arrays.copyOf(dates, size * 2);
+                for (int i = 0; i < INVESTORS.length; i++) {
+                    amounts[i] = Arrays.copyOf(amounts[i], size * 2);
+                }
+            }
+            dates[size] = date;
+            for (int i = 0; i < INVESTORS.length; i++) {
+                amounts[i][size] = values[i];
+            }
+            size++;
+        }
+
+        StockAmounts build() {
+            long[][] trimmed = new long[INVESTORS.length][];
+            for (int i = 0; i < INVESTORS.length; i++) {
+                trimmed[i] = Arrays.copyOf(amounts[i], size);
+            }
+            return new StockAmounts(Arrays.copyOf(dates, size), trimmed);
+        }
+    }
+}
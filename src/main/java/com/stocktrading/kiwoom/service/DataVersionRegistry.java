@@ -0,0 +1,243 @@
+package com.stocktrading.kiwoom.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.WebRequest;
+
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 데이터셋/대상 코드별 데이터 버전(마지막 변경 시각) 레지스트리
+ *
+ * 조회 응답의 ETag, Last-Modified 기준 버전을 tb_data_version 에 저장하여 모든 인스턴스가 같은 값을 쓴다.
+ * (인스턴스 기동 시각과 무관, 변경 기록이 없는 대상은 0)
+ * 원천 테이블 트리거(V20)가 쓰기마다 버전을 올리므로 애플리케이션 밖의 쓰기(python 스크립트, 직접 수정)도 반영된다.
+ * 애플리케이션 변경은 {@link AnalyticsResponseCache} 무효화 경로에서도 기록한다.
+ *
+ * 조회 요청마다 DB 를 읽지 않도록 전체 버전을 메모리에 두고, 주기적으로 upd_dt 이후 변경분만 한 번에 읽어 합친다.
+ * 다른 인스턴스의 변경은 Pub/Sub 메시지의 변경 시각으로 바로 반영한다.
+ */
+@Slf4j
+@Component
+public class DataVersionRegistry {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // 데이터셋 전체 변경 scope
+    private static final String ALL_SCOPES = "*";
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO tb_data_version (dataset, scope, version) VALUES (?, ?, ?) " +
+        "ON CONFLICT (dataset, scope) DO UPDATE SET " +
+        "version = GREATEST(tb_data_version.version, EXCLUDED.version), upd_dt = NOW()";
+
+    private static final String SELECT_ALL_SQL = "SELECT dataset, scope, version FROM tb_data_version";
+
+    private static final String SELECT_CHANGED_SQL =
+        "SELECT dataset, scope, version FROM tb_data_version WHERE upd_dt >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTemplate;
+
+    // 데이터셋:대상 → 버전 (값은 커지기만 함)
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    // 변경분 조회 시 이전 조회 시각에서 겹쳐 읽는 구간 (조회 후에 커밋된 긴 트랜잭션의 변경 포함)
+    private final long pollOverlapMs;
+
+    // 마지막 조회 성공 후 이 시간이 지나면 버전을 믿지 않음 (DB 장애 시 잘못된 304 방지)
+    private final long staleAfterMs;
+
+    // 마지막 변경분 조회 DB 시각 (null 이면 전체 조회)
+    private volatile Timestamp pollCursor;
+
+    // 마지막 조회 성공 시각 (0 이면 아직 읽지 않음)
+    private volatile long lastPolledAt;
+
+    private final CacheControl historyCacheControl;
+
+    public DataVersionRegistry(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${http.cache.version-refresh-ms:10000}") long versionRefreshMs,
+                               @Value("${http.cache.version-poll-overlap-ms:300000}") long pollOverlapMs,
+                               @Value("${http.cache.history-max-age-seconds:60}") long historyMaxAgeSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        // 커밋 후 이벤트에서 호출되므로 별도 트랜잭션으로 저장
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pollOverlapMs = pollOverlapMs;
+        this.staleAfterMs = versionRefreshMs * 3;
+        this.historyCacheControl = CacheControl.maxAge(Duration.ofSeconds(historyMaxAgeSeconds)).cachePrivate();
+    }
+
+    /**
+     * 기동 시 전체 버전 적재
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadVersions() {
+        refreshVersions();
+    }
+
+    /**
+     * 마지막 조회 이후 변경된 버전만 읽어 메모리 값에 합침 (트리거로 기록된 외부 변경, 다른 인스턴스 변경 포함)
+     */
+    @Scheduled(fixedDelayString = "${http.cache.version-refresh-ms:10000}")
+    public synchronized void refreshVersions() {
+        try {
+            Timestamp now = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", Timestamp.class);
+            Timestamp cursor = pollCursor;
+            int[] rows = { 0 };
+            if (cursor == null) {
+                jdbcTemplate.query(SELECT_ALL_SQL, rs -> {
+                    merge(rs.getString("dataset"), rs.getString("scope"), rs.getLong("version"));
+                    rows[0]++;
+                });
+            } else {
+                jdbcTemplate.query(SELECT_CHANGED_SQL, rs -> {
+                    merge(rs.getString("dataset"), rs.getString("scope"), rs.getLong("version"));
+                    rows[0]++;
+                }, new Timestamp(cursor.getTime() - pollOverlapMs));
+            }
+            pollCursor = now;
+            lastPolledAt = System.currentTimeMillis();
+            log.debug("데이터 버전 조회: {} 행 ({})", rows[0], cursor == null ? "전체" : "변경분");
+        } catch (Exception e) {
+            log.warn("데이터 버전 조회 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 마지막 변경 시각 (epoch millis, 데이터셋 전체 변경 포함, 메모리 값만 사용)
+     * 버전을 한동안 읽지 못했으면(DB 장애, 기동 직후) 현재 시각을 사용하여 잘못된 304 가 나가지 않도록 한다.
+     */
+    public long lastModified(Dataset dataset, String scope) {
+        if (System.currentTimeMillis() - lastPolledAt > staleAfterMs) {
+            return System.currentTimeMillis();
+        }
+        return currentVersion(dataset, scope);
+    }
+
+    /**
+     * 메모리에 있는 현재 버전 (응답 캐시 항목 비교용, 장애 시에도 현재 시각으로 바꾸지 않음)
+     */
+    public long currentVersion(Dataset dataset, String scope) {
+        return Math.max(versions.getOrDefault(scopeKey(dataset, scope), 0L),
+            versions.getOrDefault(scopeKey(dataset, ALL_SCOPES), 0L));
+    }
+
+    /**
+     * 이 인스턴스에서 발생한 변경 기록 (DB 저장 후 메모리 값 반영)
+     *
+     * @param scopes 종목/섹터 코드 (비어 있으면 데이터셋 전체)
+     * @param changedAt 변경 시각 (epoch millis)
+     */
+    public void recordChanged(Dataset dataset, Collection<String> scopes, long changedAt) {
+        List<Object[]> rows = new ArrayList<>();
+        if (scopes.isEmpty()) {
+            rows.add(new Object[] {dataset.name(), ALL_SCOPES, changedAt});
+        } else {
+            for (String scope : scopes) {
+                rows.add(new Object[] {dataset.name(), scope, changedAt});
+            }
+        }
+        try {
+            writeTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+        } catch (Exception e) {
+            log.warn("데이터 버전 저장 실패: dataset={}, 대상={} 개, {}", dataset, rows.size(), e.getMessage());
+        }
+        markChanged(dataset, scopes, changedAt);
+    }
+
+    /**
+     * 변경 시각을 메모리 값에 반영 (다른 인스턴스 변경 메시지 수신 시, DB 값은 다음 변경분 조회 때 합쳐짐)
+     *
+     * @param scopes 종목/섹터 코드 (비어 있으면 데이터셋 전체)
+     * @param changedAt 변경 시각 (epoch millis)
+     */
+    public void markChanged(Dataset dataset, Collection<String> scopes, long changedAt) {
+        if (scopes.isEmpty()) {
+            merge(dataset.name(), ALL_SCOPES, changedAt);
+            return;
+        }
+        for (String scope : scopes) {
+            merge(dataset.name(), scope, changedAt);
+        }
+    }
+
+    /**
+     * 조건부 GET 처리
+     *
+     * If-None-Match / If-Modified-Since 가 현재 버전과 같으면 loader 를 호출하지 않고 304 로 응답한다.
+     * 그 외에는 ETag, Last-Modified 와 함께 응답하며, 조회 구간이 오늘 이전에 끝나면 짧은 max-age
+     * (http.cache.history-max-age-seconds), 아니면 매번 재검증(no-cache)을 지정한다.
+     * 과거 구간도 수정/재계산될 수 있으므로 장기 캐시는 지정하지 않는다.
+     *
+     * @param params 대상 코드 외 요청 파라미터 (ETag 구분용)
+     * @param closedWindow 조회 구간이 오늘 이전에 끝나는지 여부
+     * @return 304 이면 null (이미 응답 처리됨)
+     */
+    public <T> ResponseEntity<T> conditional(WebRequest request, Dataset dataset, String scope, String params,
+                                             boolean closedWindow, Supplier<ResponseEntity<T>> loader) {
+        long lastModified = lastModified(dataset, scope);
+        // JSON / 컬럼형 바이너리 표현이 같은 ETag 를 공유하지 않도록 Accept 포함
+        String variant = params + "|" + request.getHeader(HttpHeaders.ACCEPT);
+        String etag = "\"" + dataset.name().toLowerCase() + "-" + scope + "-" + Long.toHexString(lastModified)
+            + "-" + Integer.toHexString(variant.hashCode()) + "\"";
+
+        if (request.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+
+        ResponseEntity<T> response = loader.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+            .headers(response.getHeaders())
+            .varyBy(HttpHeaders.ACCEPT)
+            .cacheControl(closedWindow ? historyCacheControl : CacheControl.noCache().cachePrivate())
+            .body(response.getBody());
+    }
+
+    /**
+     * beforeDate (이 날짜 미만 조회) 구간이 오늘 이전에 끝나는지 여부
+     *
+     * @param beforeDate yyyyMMdd 또는 yyyy-MM-dd (없으면 최근 구간)
+     */
+    public static boolean endsBeforeToday(String beforeDate) {
+        if (beforeDate == null || beforeDate.isEmpty()) {
+            return false;
+        }
+        return beforeDate.replace("-", "").compareTo(LocalDate.now().format(DATE_FORMATTER)) <= 0;
+    }
+
+    private void merge(String dataset, String scope, long version) {
+        versions.merge(dataset + ":" + scope, version, Math::max);
+    }
+
+    private static String scopeKey(Dataset dataset, String scope) {
+        return dataset.name() + ":" + scope;
+    }
+}
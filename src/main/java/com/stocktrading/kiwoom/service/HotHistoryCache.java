@@ -0,0 +1,567 @@
+package com.stocktrading.kiwoom.service;
+
+import java.lang.ref.Cleaner;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.stocktrading.kiwoom.domain.event.InvestorChartSavedEvent;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 조회가 많은 종목의 전체 투자자 차트 이력 off-heap 캐시
+ *
+ * 종목마다 일자/현재가/투자자별 순매수량/누적합 컬럼을 direct ByteBuffer 한 덩어리에 두고,
+ * 이동평균 차트, 투자자 비중, 스크리너가 DB 와 Entity/BigDecimal 변환 없이 구간을 바로 읽는다.
+ * (이동평균은 누적합 차이로 계산하므로 임의 기간 지원)
+ *
+ * - 대상: 설정 종목(hot-history.stocks) + 최근 조회 상위 종목(hot-history.auto-size)
+ *   설정이 없으면 기동 시 최근 거래대금 상위 종목으로 시작
+ * - 차트 저장 이벤트는 종목별로 모아 두었다가 주기적으로 반영 (반영 전까지 해당 종목은 DB 조회)
+ *   새 거래일만 늘었으면 기존 버퍼의 여유 행에 이어 쓰고, 기존 행이 바뀌었거나 여유 행이 부족하면
+ *   바뀌지 않은 행을 복사한 새 버퍼로 교체한다. (읽는 중인 버퍼는 덮어쓰지 않음)
+ * - 적재/교체/제거는 한 번에 하나씩 실행
+ * - 전체 크기는 hot-history.max-mb 를 넘지 않음 (넘으면 해당 종목은 DB 조회)
+ *   교체/제거된 버퍼는 GC 로 실제 해제될 때까지 사용량에 포함한다.
+ */
+@Slf4j
+@Service
+public class HotHistoryCache {
+
+    private static final InvestorType[] INVESTORS = InvestorType.values();
+
+    // 이어 쓰기용 여유 행 (약 3개월)
+    private static final int HEADROOM_ROWS = 64;
+
+    // 버퍼 해제 시 사용량 차감
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final List<String> pinnedStocks;
+    private final int autoSize;
+    private final long maxBytes;
+
+    private final Map<String, History> histories = new ConcurrentHashMap<>();
+    // 반영 대기 종목코드 → 가장 이른 변경 일자 (seq 는 등록마다 증가, 반영 중 들어온 변경 구분용)
+    private final Map<String, Pending> pendingFromByStock = new ConcurrentHashMap<>();
+    private final AtomicLong pendingSeq = new AtomicLong();
+    private final Map<String, LongAdder> accessCounts = new ConcurrentHashMap<>();
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    public HotHistoryCache(JdbcTemplate jdbcTemplate,
+                           @Value("${hot-history.enabled:true}") boolean enabled,
+                           @Value("${hot-history.stocks:}") List<String> pinnedStocks,
+                           @Value("${hot-history.auto-size:30}") int autoSize,
+                           @Value("${hot-history.max-mb:256}") long maxMb) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.pinnedStocks = pinnedStocks.stream().map(String::trim).filter(code -> !code.isEmpty()).toList();
+        this.autoSize = autoSize;
+        this.maxBytes = maxMb * 1024 * 1024;
+    }
+
+    /**
+     * 캐시된 종목 이력 (조회 횟수 기록, 캐시에 없거나 변경 반영 전이면 empty → DB 조회)
+     */
+    public Optional<History> get(String stkCd) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        accessCounts.computeIfAbsent(stkCd, k -> new LongAdder()).increment();
+        if (pendingFromByStock.containsKey(stkCd)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(histories.get(stkCd));
+    }
+
+    /**
+     * 현재 캐시된 종목 이력 (스크리너 등 전 종목 순회용, 조회 횟수 기록 안 함, 변경 반영 전 종목 제외)
+     */
+    public Map<String, History> loaded() {
+        Map<String, History> loaded = new HashMap<>(histories);
+        loaded.keySet().removeAll(pendingFromByStock.keySet());
+        return Map.copyOf(loaded);
+    }
+
+    /**
+     * 캐시된 종목 코드 목록 (코드 순)
+     */
+    public List<String> loadedCodes() {
+        List<String> codes = new ArrayList<>(histories.keySet());
+        codes.sort(null);
+        return codes;
+    }
+
+    public long reservedBytes() {
+        return reservedBytes.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Set<String> targets = new LinkedHashSet<>(pinnedStocks);
+            if (targets.isEmpty()) {
+                targets.addAll(jdbcTemplate.queryForList(
+                    "SELECT stk_cd FROM tb_stock_investor_chart WHERE dt >= CURRENT_DATE - 10 " +
+                    "GROUP BY stk_cd ORDER BY MAX(acc_trde_prica) DESC NULLS LAST LIMIT ?",
+                    String.class, autoSize));
+            }
+            targets.forEach(this::load);
+            log.info("종목 이력 캐시 적재 완료 - {}종목, {}MB, {}ms", histories.size(),
+                reservedBytes.get() / (1024 * 1024), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("종목 이력 캐시 적재 실패 (DB 조회로 동작): {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 설정 종목 + 최근 조회 상위 종목으로 대상 교체 (조회 횟수는 절반씩 감쇠)
+     */
+    @Scheduled(fixedDelayString = "${hot-history.rebalance-ms:600000}")
+    public void rebalance() {
+        if (!enabled || accessCounts.isEmpty()) {
+            return;
+        }
+        Set<String> targets = new LinkedHashSet<>(pinnedStocks);
+        accessCounts.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+            .limit(autoSize)
+            .forEach(e -> targets.add(e.getKey()));
+
+        // 빠지는 종목부터 비워서 새 종목 공간 확보
+        for (String stkCd : List.copyOf(histories.keySet())) {
+            if (!targets.contains(stkCd)) {
+                evict(stkCd);
+            }
+        }
+        for (String stkCd : targets) {
+            if (!histories.containsKey(stkCd)) {
+                load(stkCd);
+            }
+        }
+
+        accessCounts.values().forEach(count -> {
+            long half = count.sumThenReset() / 2;
+            count.add(half);
+        });
+        accessCounts.values().removeIf(count -> count.sum() == 0);
+    }
+
+    /**
+     * 캐시 종목의 차트 저장 커밋 후 변경 일자 등록 (반영은 {@link #flushPending()})
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvestorChartSaved(InvestorChartSavedEvent event) {
+        for (Map.Entry<String, SortedSet<LocalDate>> entry : event.datesByStock().entrySet()) {
+            if (histories.containsKey(entry.getKey())) {
+                pendingFromByStock.merge(entry.getKey(),
+                    new Pending(entry.getValue().first(), pendingSeq.incrementAndGet()),
+                    (a, b) -> new Pending(a.from().isBefore(b.from()) ? a.from() : b.from(), b.seq()));
+            }
+        }
+    }
+
+    /**
+     * 모아 둔 변경 일자 반영
+     */
+    @Scheduled(fixedDelayString = "${hot-history.flush-delay-ms:5000}")
+    public void flushPending() {
+        for (String stkCd : List.copyOf(pendingFromByStock.keySet())) {
+            Pending pending = pendingFromByStock.get(stkCd);
+            if (pending != null) {
+                refresh(stkCd, pending.from());
+                // 반영 중 새로 들어온 변경은 남겨 둠 (다음 주기에 반영)
+                pendingFromByStock.remove(stkCd, pending);
+            }
+        }
+    }
+
+    /**
+     * 변경 일자부터 다시 읽어 반영
+     * 새 거래일만 늘었으면 여유 행에 이어 쓰고, 그 외에는 새 버퍼로 교체한다.
+     */
+    private synchronized void refresh(String stkCd, LocalDate changedFrom) {
+        History history = histories.get(stkCd);
+        if (history == null) {
+            return;
+        }
+        try {
+            Rows rows = new Rows();
+            jdbcTemplate.query(History.SELECT_SQL + "AND dt >= ? ORDER BY dt", (RowCallbackHandler) rows::add,
+                stkCd, Date.valueOf(changedFrom));
+            int start = history.lowerBound(Integer.parseInt(changedFrom.toString().replace("-", "")));
+            if (start == history.size() && start + rows.size <= history.capacity) {
+                history.append(rows);
+                return;
+            }
+            if (!replace(history, start, rows)) {
+                // 교체하지 못하면 오래된 이력을 보여주지 않도록 제거
+                evict(stkCd);
+            }
+        } catch (Exception e) {
+            log.warn("종목 이력 캐시 갱신 실패 - {} (캐시에서 제거): {}", stkCd, e.getMessage());
+            evict(stkCd);
+        }
+    }
+
+    /**
+     * 종목 전체 이력을 읽어 새 버퍼로 교체
+     *
+     * @return false 면 데이터 없음 또는 메모리 한도 초과로 적재하지 않음
+     */
+    private synchronized boolean load(String stkCd) {
+        Rows rows = new Rows();
+        jdbcTemplate.query(History.SELECT_SQL + "ORDER BY dt", (RowCallbackHandler) rows::add, stkCd);
+        if (rows.size == 0) {
+            return false;
+        }
+
+        List<String> sectors = jdbcTemplate.queryForList(
+            "SELECT sector FROM tb_stock_investor_ma WHERE stk_cd = ? ORDER BY dt DESC LIMIT 1", String.class, stkCd);
+        History history = allocate(stkCd, sectors.isEmpty() ? null : sectors.get(0), rows.size);
+        if (history == null) {
+            return false;
+        }
+        for (int row = 0; row < rows.size; row++) {
+            history.write(row, rows.dates[row], rows.prices[row], rows.qty[row]);
+        }
+        history.publish(rows.size);
+        histories.put(stkCd, history);
+        log.debug("종목 이력 캐시 적재 - {}: {}행, {}KB", stkCd, rows.size, History.bytesFor(history.capacity) / 1024);
+        return true;
+    }
+
+    /**
+     * 앞쪽 [0, keep) 행은 기존 버퍼에서 복사하고 그 뒤는 다시 읽은 행으로 채운 새 버퍼로 교체
+     * (기존 버퍼는 읽는 중인 스레드가 끝까지 일관되게 볼 수 있도록 수정하지 않음)
+     */
+    private boolean replace(History old, int keep, Rows rows) {
+        History history = allocate(old.stkCd, old.sector, keep + rows.size);
+        if (history == null) {
+            return false;
+        }
+        long[] qty = new long[INVESTORS.length];
+        for (int row = 0; row < keep; row++) {
+            for (int i = 0; i < INVESTORS.length; i++) {
+                qty[i] = old.qty(INVESTORS[i], row);
+            }
+            history.write(row, old.date(row), old.rawPrice(row), qty);
+        }
+        for (int k = 0; k < rows.size; k++) {
+            history.write(keep + k, rows.dates[k], rows.prices[k], rows.qty[k]);
+        }
+        history.publish(keep + rows.size);
+        histories.put(old.stkCd, history);
+        return true;
+    }
+
+    /**
+     * rows 행 + 여유 행 크기의 버퍼 할당 (한도 초과면 null)
+     * 사용량은 버퍼 할당 시 더하고 GC 로 해제될 때 빼므로, 교체 대상 버퍼도 아직 사용 중으로 계산
+     */
+    private History allocate(String stkCd, String sector, int rows) {
+        int capacity = rows + HEADROOM_ROWS;
+        long bytes = History.bytesFor(capacity);
+        if (reservedBytes.get() + bytes > maxBytes) {
+            log.warn("종목 이력 캐시 한도 초과로 제외 - {} ({}KB, 사용 {}MB / {}MB)", stkCd, bytes / 1024,
+                reservedBytes.get() / (1024 * 1024), maxBytes / (1024 * 1024));
+            return null;
+        }
+        History history = new History(stkCd, sector, capacity);
+        reservedBytes.addAndGet(bytes);
+        CLEANER.register(history, () -> reservedBytes.addAndGet(-bytes));
+        return history;
+    }
+
+    /**
+     * 캐시에서 제거 (direct 버퍼 메모리와 사용량은 참조가 없어지면 GC 시 해제)
+     */
+    private synchronized void evict(String stkCd) {
+        histories.remove(stkCd);
+        pendingFromByStock.remove(stkCd);
+    }
+
+    private record Pending(LocalDate from, long seq) {
+    }
+
+    /**
+     * 적재용 임시 행 (on-heap, 적재 후 버림)
+     */
+    private static final class Rows {
+
+        private int[] dates = new int[1024];
+        private long[] prices = new long[1024];
+        private long[][] qty = new long[1024][];
+        private int size;
+
+        void add(ResultSet rs) throws SQLException {
+            if (size == dates.length) {
+                dates = Arrays.copyOf(dates, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+                qty = Arrays.copyOf(qty, size * 2);
+            }
+            dates[size] = History.readDate(rs);
+            prices[size] = History.readPrice(rs);
+            qty[size] = History.readQty(rs);
+            size++;
+        }
+    }
+
+    /**
+     * 종목 1개의 off-heap 컬럼형 이력 (일자 오름차순)
+     *
+     * 레이아웃 (capacity 행, native byte order):
+     * int 일자(yyyyMMdd) | long 현재가 | 투자자별 long 순매수량 | 투자자별 long 누적합 (capacity + 1)
+     * 쓰기는 한 스레드만 하고, size 는 행을 모두 쓴 뒤 공개하므로 읽기는 락 없이 size() 이전 행만 본다.
+     * 공개된 행은 다시 쓰지 않는다. (이어 쓰기만 허용, 기존 행 변경은 새 History 로 교체)
+     */
+    public static final class History {
+
+        // 현재가 없음
+        private static final long NO_PRICE = Long.MIN_VALUE;
+
+        private static final String SELECT_SQL = buildSelectSql();
+
+        private final String stkCd;
+        private final String sector;
+        private final int capacity;
+        private final ByteBuffer buffer;
+        private final int priceOffset;
+        private final int qtyOffset;
+        private final int prefixOffset;
+        private volatile int size;
+
+        private History(String stkCd, String sector, int capacity) {
+            this.stkCd = stkCd;
+            this.sector = sector;
+            this.capacity = capacity;
+            this.buffer = ByteBuffer.allocateDirect((int) bytesFor(capacity)).order(ByteOrder.nativeOrder());
+            this.priceOffset = align8(4 * capacity);
+            this.qtyOffset = priceOffset + 8 * capacity;
+            this.prefixOffset = qtyOffset + 8 * capacity * INVESTORS.length;
+        }
+
+        static long bytesFor(int capacity) {
+            return align8(4L * capacity) + 8L * capacity + 8L * capacity * INVESTORS.length
+                + 8L * (capacity + 1) * INVESTORS.length;
+        }
+
+        public String stkCd() {
+            return stkCd;
+        }
+
+        /**
+         * 이동평균 테이블 최근 행의 섹터
+         */
+        public String sector() {
+            return sector;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * 일자 (yyyyMMdd)
+         */
+        public int date(int row) {
+            return buffer.getInt(4 * row);
+        }
+
+        /**
+         * 현재가 (없으면 null)
+         */
+        public Long price(int row) {
+            long price = buffer.getLong(priceOffset + 8 * row);
+            return price == NO_PRICE ? null : price;
+        }
+
+        /**
+         * 현재가 (없으면 0)
+         */
+        public long priceOrZero(int row) {
+            long price = buffer.getLong(priceOffset + 8 * row);
+            return price == NO_PRICE ? 0 : price;
+        }
+
+        /**
+         * 순매수량 (없으면 0)
+         */
+        public long qty(InvestorType investor, int row) {
+            return buffer.getLong(qtyOffset + 8 * (investor.ordinal() * capacity + row));
+        }
+
+        /**
+         * [0, row) 순매수량 합
+         */
+        public long prefix(InvestorType investor, int row) {
+            return buffer.getLong(prefixOffset + 8 * (investor.ordinal() * (capacity + 1) + row));
+        }
+
+        /**
+         * [from, to) 순매수량 합
+         */
+        public long sum(InvestorType investor, int from, int to) {
+            return prefix(investor, to) - prefix(investor, from);
+        }
+
+        /**
+         * 일자가 date 이상인 첫 행 (없으면 size)
+         */
+        public int lowerBound(int date) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (date(mid) < date) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * 일자가 date 보다 큰 첫 행 (없으면 size)
+         */
+        public int upperBound(int date) {
+            return lowerBound(date + 1);
+        }
+
+        /**
+         * 임의 기간 이동평균 (누적합 경로와 같은 규칙: 기간 부족 행은 null, 소수점 2자리)
+         *
+         * @param days 최근 N일
+         * @param beforeDate 이 날짜 이전 데이터만 (yyyyMMdd 또는 yyyy-MM-dd, 선택)
+         */
+        public List<InvestorPrefixSumService.PrefixMaPoint> movingAverages(List<InvestorType> investors, int period,
+                                                                          int days, String beforeDate) {
+            if (period < 1) {
+                throw new IllegalArgumentException("이동평균 기간은 1 이상이어야 합니다: " + period);
+            }
+            int end = beforeDate == null || beforeDate.isEmpty()
+                ? size
+                : lowerBound(Integer.parseInt(beforeDate.replace("-", "")));
+            int first = Math.max(0, end - days);
+            BigDecimal divisor = BigDecimal.valueOf(period);
+
+            List<InvestorPrefixSumService.PrefixMaPoint> result = new ArrayList<>(end - first);
+            for (int row = first; row < end; row++) {
+                Map<InvestorType, BigDecimal> values = new EnumMap<>(InvestorType.class);
+                for (InvestorType investor : investors) {
+                    BigDecimal value = null;
+                    if (row + 1 >= period) {
+                        value = BigDecimal.valueOf(sum(investor, row + 1 - period, row + 1))
+                            .divide(divisor, 2, RoundingMode.HALF_UP);
+                    }
+                    values.put(investor, value);
+                }
+                result.add(new InvestorPrefixSumService.PrefixMaPoint(String.valueOf(date(row)), price(row), values));
+            }
+            return result;
+        }
+
+        private void write(int row, int date, long price, long[] qty) {
+            buffer.putInt(4 * row, date);
+            buffer.putLong(priceOffset + 8 * row, price);
+            for (int i = 0; i < INVESTORS.length; i++) {
+                buffer.putLong(qtyOffset + 8 * (i * capacity + row), qty[i]);
+                int prefixBase = prefixOffset + 8 * (i * (capacity + 1));
+                long previous = buffer.getLong(prefixBase + 8 * row);
+                buffer.putLong(prefixBase + 8 * (row + 1), previous + qty[i]);
+            }
+        }
+
+        private void publish(int newSize) {
+            size = newSize;
+        }
+
+        /**
+         * size 뒤 여유 행에 이어 쓴 뒤 공개 (공개된 행과 누적합은 건드리지 않음)
+         */
+        private void append(Rows rows) {
+            int start = size;
+            for (int k = 0; k < rows.size; k++) {
+                write(start + k, rows.dates[k], rows.prices[k], rows.qty[k]);
+            }
+            publish(start + rows.size);
+        }
+
+        /**
+         * 저장된 현재가 그대로 (없음 표시 포함, 버퍼 복사용)
+         */
+        private long rawPrice(int row) {
+            return buffer.getLong(priceOffset + 8 * row);
+        }
+
+        private static int readDate(ResultSet rs) throws SQLException {
+            return Integer.parseInt(rs.getString("dt"));
+        }
+
+        private static long readPrice(ResultSet rs) throws SQLException {
+            long price = rs.getLong("cur_prc");
+            return rs.wasNull() ? NO_PRICE : price;
+        }
+
+        private static long[] readQty(ResultSet rs) throws SQLException {
+            long[] qty = new long[INVESTORS.length];
+            for (int i = 0; i < INVESTORS.length; i++) {
+                qty[i] = rs.getLong(4 + i);
+            }
+            return qty;
+        }
+
+        private static String buildSelectSql() {
+            StringBuilder columns = new StringBuilder();
+            for (InvestorType investor : INVESTORS) {
+                columns.append(", COALESCE(").append(investor.chartExpression("c")).append(", 0)");
+            }
+            return "SELECT c.stk_cd, TO_CHAR(c.dt, 'YYYYMMDD') AS dt, c.cur_prc" + columns + " " +
+                "FROM tb_stock_investor_chart c WHERE c.stk_cd = ? ";
+        }
+
+        private static int align8(int bytes) {
+            return (bytes + 7) & ~7;
+        }
+
+        private static long align8(long bytes) {
+            return (bytes + 7) & ~7L;
+        }
+    }
+}
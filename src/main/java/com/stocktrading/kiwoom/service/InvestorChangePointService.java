@@ -0,0 +1,349 @@
+package com.stocktrading.kiwoom.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.stocktrading.kiwoom.analytics.PageHinkleyDetector;
+import com.stocktrading.kiwoom.analytics.PageHinkleyDetector.Direction;
+import com.stocktrading.kiwoom.domain.event.InvestorChartSavedEvent;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 투자자 순매수 변화점 탐지 서비스 (tb_investor_changepoint)
+ *
+ * 종목 × 투자자별 일별 순매수량에 Page-Hinkley 탐지기를 적용하여 수급 국면 전환 일자를 저장한다.
+ * 탐지기 상태(tb_investor_changepoint_state)를 이어서 새 거래일만 계산하며,
+ * 이미 반영한 과거 일자가 수정되면 해당 종목만 처음부터 다시 계산한다.
+ * 차트 저장 이벤트(값이 바뀐 일자만 포함)는 종목별로 모아 두었다가 주기적으로 종목당 한 번 계산한다.
+ * (python-analysis/analyze_skhynix_samo_changepoints.py 의 일회성 분석 대체)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvestorChangePointService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    // EWMA 가중치 (유효 기간 약 40 거래일)
+    private static final double EWMA_ALPHA = 0.05;
+
+    // 허용 드리프트 / 탐지 임계값 (표준편차 단위)
+    private static final double DRIFT = 0.5;
+    private static final double THRESHOLD = 8.0;
+
+    // 탐지 전 최소 관측치 수
+    private static final int WARMUP = 20;
+
+    private static final InvestorType[] INVESTORS = InvestorType.values();
+
+    // 다시 계산할 종목코드 → 가장 이른 변경 일자
+    private final Map<String, LocalDate> pendingFromByStock = new ConcurrentHashMap<>();
+
+    private static final String SOURCE_ALL_SQL = buildSourceSql(false);
+    private static final String SOURCE_AFTER_SQL = buildSourceSql(true);
+
+    private static final String UPSERT_CHANGEPOINT_SQL =
+        "INSERT INTO tb_investor_changepoint " +
+        "(stk_cd, investor, dt, direction, score, z_score, net_qty, prev_mean, cur_prc) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (stk_cd, investor, dt) DO UPDATE SET " +
+        "direction = EXCLUDED.direction, score = EXCLUDED.score, z_score = EXCLUDED.z_score, " +
+        "net_qty = EXCLUDED.net_qty, prev_mean = EXCLUDED.prev_mean, cur_prc = EXCLUDED.cur_prc, reg_dt = NOW()";
+
+    private static final String UPSERT_STATE_SQL =
+        "INSERT INTO tb_investor_changepoint_state " +
+        "(stk_cd, investor, last_dt, obs_cnt, ewma_mean, ewma_var, g_pos, g_neg) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (stk_cd, investor) DO UPDATE SET " +
+        "last_dt = EXCLUDED.last_dt, obs_cnt = EXCLUDED.obs_cnt, ewma_mean = EXCLUDED.ewma_mean, " +
+        "ewma_var = EXCLUDED.ewma_var, g_pos = EXCLUDED.g_pos, g_neg = EXCLUDED.g_neg, upd_dt = NOW()";
+
+    /**
+     * 변화점
+     *
+     * @param investor 투자자 API 키 (frgnr, orgn, ...)
+     */
+    public record ChangePoint(String stkCd, String stkNm, String investor, String investorName, LocalDate dt,
+                              String direction, BigDecimal score, BigDecimal zScore, Long netQty,
+                              BigDecimal prevMean, Long curPrc) {
+    }
+
+    /**
+     * 차트 저장 커밋 후 변경 종목 등록 (계산은 {@link #flushPending()})
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvestorChartSaved(InvestorChartSavedEvent event) {
+        event.datesByStock().forEach((stkCd, dates) -> enqueue(stkCd, dates.first()));
+    }
+
+    /**
+     * 모아 둔 변경 종목 변화점 갱신 (종목별 별도 트랜잭션, 실패한 종목은 다음 주기에 다시 시도)
+     */
+    @Scheduled(fixedDelayString = "${batch.changepoint.flush-delay-ms:30000}")
+    public void flushPending() {
+        if (pendingFromByStock.isEmpty()) {
+            return;
+        }
+        TransactionTemplate transactionTemplate = newTransactionTemplate();
+        int failed = 0;
+        for (String stkCd : new ArrayList<>(pendingFromByStock.keySet())) {
+            LocalDate changedFrom = pendingFromByStock.remove(stkCd);
+            if (changedFrom == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> refresh(stkCd, changedFrom));
+            } catch (Exception e) {
+                enqueue(stkCd, changedFrom);
+                failed++;
+                log.error("투자자 변화점 증분 갱신 실패: stkCd={}, 오류: {}", stkCd, e.getMessage());
+            }
+        }
+        if (failed > 0) {
+            log.warn("투자자 변화점 증분 갱신 실패 종목 {} 개 - 다음 주기에 다시 시도", failed);
+        }
+    }
+
+    /**
+     * 전체 종목 변화점 증분 계산 (종목별 별도 트랜잭션)
+     *
+     * @return 새로 탐지한 변화점 수
+     */
+    @Scheduled(cron = "${batch.changepoint.cron:0 50 18 * * MON-FRI}")
+    public int refreshAll() {
+        log.info("=== 투자자 변화점 증분 계산 시작 ===");
+        long startTime = System.currentTimeMillis();
+
+        List<String> stocks = jdbcTemplate.queryForList(
+            "SELECT DISTINCT stk_cd FROM tb_stock_investor_chart ORDER BY stk_cd", String.class);
+
+        TransactionTemplate transactionTemplate = newTransactionTemplate();
+        int detected = 0;
+        for (String stkCd : stocks) {
+            try {
+                Integer count = transactionTemplate.execute(status -> refresh(stkCd, null));
+                detected += count != null ? count : 0;
+            } catch (Exception e) {
+                log.error("투자자 변화점 계산 실패: stkCd={}, 오류: {}", stkCd, e.getMessage());
+            }
+        }
+
+        log.info("=== 투자자 변화점 증분 계산 완료: 종목 {} 개, 변화점 {} 건, {}ms ===",
+            stocks.size(), detected, System.currentTimeMillis() - startTime);
+        return detected;
+    }
+
+    /**
+     * 종목 변화점 계산
+     *
+     * @param changedFrom 변경된 가장 이른 일자 (마지막 반영 일자 이전이면 전체 재계산, null 이면 증분)
+     * @return 새로 탐지한 변화점 수
+     */
+    @Transactional
+    public int refresh(String stkCd, LocalDate changedFrom) {
+        PageHinkleyDetector[] detectors = new PageHinkleyDetector[INVESTORS.length];
+        for (int i = 0; i < INVESTORS.length; i++) {
+            detectors[i] = new PageHinkleyDetector(EWMA_ALPHA, DRIFT, THRESHOLD, WARMUP);
+        }
+
+        LocalDate lastDt = restoreStates(stkCd, detectors);
+        if (lastDt == null || (changedFrom != null && !changedFrom.isAfter(lastDt))) {
+            // 상태 없음 또는 반영한 과거 일자 수정: 해당 종목만 처음부터 재계산
+            jdbcTemplate.update("DELETE FROM tb_investor_changepoint WHERE stk_cd = ?", stkCd);
+            jdbcTemplate.update("DELETE FROM tb_investor_changepoint_state WHERE stk_cd = ?", stkCd);
+            for (int i = 0; i < INVESTORS.length; i++) {
+                detectors[i] = new PageHinkleyDetector(EWMA_ALPHA, DRIFT, THRESHOLD, WARMUP);
+            }
+            lastDt = null;
+        }
+
+        List<Object[]> changePoints = new ArrayList<>();
+        LocalDate[] processedDt = {null};
+        jdbcTemplate.query(lastDt == null ? SOURCE_ALL_SQL : SOURCE_AFTER_SQL, rs -> {
+            LocalDate dt = rs.getDate("dt").toLocalDate();
+            long price = rs.getLong("cur_prc");
+            Long curPrc = rs.wasNull() ? null : price;
+
+            for (int i = 0; i < INVESTORS.length; i++) {
+                long qty = rs.getLong(INVESTORS[i].getColumn());
+                if (rs.wasNull()) {
+                    continue;
+                }
+                PageHinkleyDetector detector = detectors[i];
+                Direction direction = detector.push(qty);
+                if (direction != null) {
+                    changePoints.add(new Object[] {
+                        stkCd, INVESTORS[i].getColumn(), Date.valueOf(dt), direction.name(),
+                        scaled(detector.lastScore(), 4), scaled(detector.lastZ(), 4), qty,
+                        scaled(detector.lastMean(), 2), curPrc
+                    });
+                }
+            }
+            processedDt[0] = dt;
+        }, lastDt == null ? new Object[] {stkCd} : new Object[] {stkCd, Date.valueOf(lastDt)});
+
+        if (processedDt[0] == null) {
+            return 0;
+        }
+
+        if (!changePoints.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_CHANGEPOINT_SQL, changePoints);
+        }
+
+        List<Object[]> states = new ArrayList<>(INVESTORS.length);
+        for (int i = 0; i < INVESTORS.length; i++) {
+            PageHinkleyDetector detector = detectors[i];
+            states.add(new Object[] {
+                stkCd, INVESTORS[i].getColumn(), Date.valueOf(processedDt[0]),
+                detector.count(), detector.mean(), detector.variance(), detector.gPos(), detector.gNeg()
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_STATE_SQL, states);
+
+        log.debug("투자자 변화점 계산: stkCd={}, ~{}, 변화점 {} 건", stkCd, processedDt[0], changePoints.size());
+        return changePoints.size();
+    }
+
+    /**
+     * 전체 시장 최근 변화점 조회
+     *
+     * @param days 최근 변화점 일자 기준 조회 기간 (달력일)
+     * @param investor 투자자 필터 (null 이면 전체)
+     * @param direction UP / DOWN 필터 (null 이면 전체)
+     */
+    @Transactional(readOnly = true)
+    public List<ChangePoint> getRecent(int days, InvestorType investor, String direction, int limit) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT p.*, m.name AS stk_nm FROM tb_investor_changepoint p " +
+            "LEFT JOIN tb_stock_list_meta m ON m.code = p.stk_cd " +
+            "WHERE p.dt >= (SELECT MAX(dt) FROM tb_investor_changepoint) - ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Math.max(0, days - 1));
+        if (investor != null) {
+            sql.append(" AND p.investor = ?");
+            args.add(investor.getColumn());
+        }
+        if (direction != null) {
+            sql.append(" AND p.direction = ?");
+            args.add(direction);
+        }
+        sql.append(" ORDER BY p.dt DESC, p.score DESC LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> mapChangePoint(rs), args.toArray());
+    }
+
+    /**
+     * 종목 변화점 이력 조회 (최근 순)
+     */
+    @Transactional(readOnly = true)
+    public List<ChangePoint> getByStock(String stkCd, int limit) {
+        return jdbcTemplate.query(
+            "SELECT p.*, m.name AS stk_nm FROM tb_investor_changepoint p " +
+            "LEFT JOIN tb_stock_list_meta m ON m.code = p.stk_cd " +
+            "WHERE p.stk_cd = ? ORDER BY p.dt DESC, p.score DESC LIMIT ?",
+            (rs, rowNum) -> mapChangePoint(rs), stkCd, limit);
+    }
+
+    private void enqueue(String stkCd, LocalDate changedFrom) {
+        pendingFromByStock.merge(stkCd, changedFrom, (a, b) -> a.isBefore(b) ? a : b);
+    }
+
+    private TransactionTemplate newTransactionTemplate() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
+
+    /**
+     * 저장된 탐지기 상태 복원
+     *
+     * @return 마지막 반영 일자 (투자자 상태가 하나라도 없으면 null → 전체 계산)
+     */
+    private LocalDate restoreStates(String stkCd, PageHinkleyDetector[] detectors) {
+        Map<String, Integer> indexByColumn = new HashMap<>();
+        for (int i = 0; i < INVESTORS.length; i++) {
+            indexByColumn.put(INVESTORS[i].getColumn(), i);
+        }
+
+        int[] restored = {0};
+        LocalDate[] lastDt = {null};
+        jdbcTemplate.query(
+            "SELECT * FROM tb_investor_changepoint_state WHERE stk_cd = ?",
+            rs -> {
+                Integer i = indexByColumn.get(rs.getString("investor"));
+                if (i == null) {
+                    return;
+                }
+                detectors[i].restore(rs.getLong("obs_cnt"), rs.getDouble("ewma_mean"), rs.getDouble("ewma_var"),
+                    rs.getDouble("g_pos"), rs.getDouble("g_neg"));
+                LocalDate dt = rs.getDate("last_dt").toLocalDate();
+                if (lastDt[0] == null || dt.isBefore(lastDt[0])) {
+                    lastDt[0] = dt;
+                }
+                restored[0]++;
+            },
+            stkCd);
+
+        return restored[0] < INVESTORS.length ? null : lastDt[0];
+    }
+
+    private static ChangePoint mapChangePoint(ResultSet rs) throws SQLException {
+        InvestorType investor = InvestorType.fromKey(rs.getString("investor")).orElse(null);
+        long netQty = rs.getLong("net_qty");
+        Long netQtyValue = rs.wasNull() ? null : netQty;
+        long curPrc = rs.getLong("cur_prc");
+        Long curPrcValue = rs.wasNull() ? null : curPrc;
+        return new ChangePoint(
+            rs.getString("stk_cd"),
+            rs.getString("stk_nm"),
+            investor != null ? investor.getKey() : rs.getString("investor"),
+            investor != null ? investor.getDisplayName() : null,
+            rs.getDate("dt").toLocalDate(),
+            rs.getString("direction"),
+            rs.getBigDecimal("score"),
+            rs.getBigDecimal("z_score"),
+            netQtyValue,
+            rs.getBigDecimal("prev_mean"),
+            curPrcValue);
+    }
+
+    private static BigDecimal scaled(double value, int scale) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return null;
+        }
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 종목 원천 데이터 조회 SQL (일자 오름차순)
+     */
+    private static String buildSourceSql(boolean afterLastDt) {
+        StringBuilder select = new StringBuilder("SELECT c.dt, c.cur_prc");
+        for (InvestorType investor : INVESTORS) {
+            select.append(", ").append(investor.chartExpression("c")).append(" AS ").append(investor.getColumn());
+        }
+        return select + " FROM tb_stock_investor_chart c " +
+            "WHERE c.stk_cd = ?" + (afterLastDt ? " AND c.dt > ?" : "") + " " +
+            "ORDER BY c.dt";
+    }
+}
@@ -0,0 +1,302 @@
+package com.stocktrading.kiwoom.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.stocktrading.kiwoom.analytics.RollingCorrelation;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 투자자 순매수 - 주가 수익률 이동 상관계수 서비스 (tb_stock_investor_corr_daily)
+ *
+ * 종목별로 일별 수익률(pct_change)과 투자자별 순매수량의 Pearson 상관계수를
+ * 5/10/20/60일 구간으로 계산한다. 종목별 마지막 계산일 이전 61 거래일로 구간을 채운 뒤
+ * 새 거래일만 O(1) 누적합으로 계산하여 일괄 저장한다.
+ * 전체 계산은 원천 데이터를 커서로 나눠 읽고, 종목 단위 묶음마다 별도 트랜잭션으로 커밋한다.
+ * (python-analysis/calculate_investor_correlation.py 대체)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvestorCorrelationService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    // 상관계수 기간
+    private static final int[] CORR_PERIODS = {5, 10, 20, 60};
+
+    // 구간 채우기용 이전 거래일 수 (최대 기간 + 수익률 계산용 1일)
+    private static final int WARMUP_ROWS = 61;
+
+    // 구간 채우기용 이전 데이터 조회 범위 (달력일, 61 거래일 이상)
+    private static final int WARMUP_CALENDAR_DAYS = 120;
+
+    // 상관계수 대상 투자자 컬럼 (tb_stock_investor_chart, 결과 컬럼은 {컬럼}_corr)
+    private static final String[] INVESTOR_COLUMNS = {
+        "frgnr_invsr", "orgn", "ind_invsr", "fnnc_invt", "insrnc", "invtrt", "etc_fnnc",
+        "bank", "penfnd_etc", "samo_fund", "natn", "etc_corp", "natfor"
+    };
+
+    private static final int BATCH_SIZE = 10_000;
+
+    // 한 종목 안에서도 이 행 수를 넘으면 저장 (메모리 상한)
+    private static final int MAX_PENDING_ROWS = BATCH_SIZE * 5;
+
+    private static final int SOURCE_FETCH_SIZE = 2_000;
+
+    private static final String SOURCE_SQL = buildSourceSql(false);
+    private static final String SOURCE_BY_STOCK_SQL = buildSourceSql(true);
+    private static final String UPSERT_SQL = buildUpsertSql();
+
+    /**
+     * 전체 종목 상관계수 증분 계산 (마지막 계산일 이후 거래일만)
+     *
+     * @return 저장한 행 수
+     */
+    @Scheduled(cron = "${batch.correlation.cron:0 40 18 * * MON-FRI}")
+    public int refreshAll() {
+        log.info("=== 투자자 상관계수 증분 계산 시작 ===");
+        long startTime = System.currentTimeMillis();
+
+        // 저장: 종목 묶음마다 별도 트랜잭션 커밋 (중단되어도 다음 실행은 마지막 계산일 이후부터)
+        TransactionTemplate writeTemplate = new TransactionTemplate(transactionManager);
+        writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        CorrelationWriter writer = new CorrelationWriter(writeTemplate);
+
+        // 조회: 커서 유지를 위해 읽기 전용 트랜잭션 안에서 fetch size 단위로 읽음
+        TransactionTemplate readTemplate = new TransactionTemplate(transactionManager);
+        readTemplate.setReadOnly(true);
+        readTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SOURCE_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(SOURCE_FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) writer::accept));
+        int saved = writer.finish();
+        eventPublisher.publishEvent(AnalyticsDataChangedEvent.all(Dataset.CORRELATION));
+
+        log.info("=== 투자자 상관계수 증분 계산 완료: 종목 {} 개, 저장 {} 행, {}ms ===",
+            writer.stockCount, saved, System.currentTimeMillis() - startTime);
+        return saved;
+    }
+
+    /**
+     * 특정 종목 상관계수 증분 계산
+     *
+     * @return 저장한 행 수
+     */
+    @Transactional
+    public int refresh(String stkCd) {
+        CorrelationWriter writer = new CorrelationWriter(null);
+        jdbcTemplate.query(SOURCE_BY_STOCK_SQL, writer::accept, stkCd);
+        int saved = writer.finish();
+        eventPublisher.publishEvent(AnalyticsDataChangedEvent.of(Dataset.CORRELATION, stkCd));
+        return saved;
+    }
+
+    /**
+     * 특정 종목 상관계수 전체 재계산
+     *
+     * @return 저장한 행 수
+     */
+    @Transactional
+    public int recalculate(String stkCd) {
+        jdbcTemplate.update("DELETE FROM tb_stock_investor_corr_daily WHERE stk_cd = ?", stkCd);
+        int saved = refresh(stkCd);
+        log.info("투자자 상관계수 재계산: stkCd={}, 저장 {} 행", stkCd, saved);
+        return saved;
+    }
+
+    /**
+     * 종목/일자 순으로 정렬된 원천 행을 받아 종목 단위로 상관계수를 계산하고 일괄 저장
+     * (BATCH_SIZE 이상 모이면 종목이 바뀔 때 저장하므로 한 종목의 행은 가능한 한 같은 묶음에 저장)
+     */
+    private class CorrelationWriter {
+
+        private final List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        private final RollingCorrelation[][] engines = new RollingCorrelation[CORR_PERIODS.length][INVESTOR_COLUMNS.length];
+
+        // 묶음별 커밋용 (null 이면 호출 측 트랜잭션에서 저장)
+        private final TransactionTemplate writeTemplate;
+
+        private String currentStock;
+        private long rowCount;
+        private long previousPrice;
+        private int stockCount;
+        private int saved;
+
+        CorrelationWriter(TransactionTemplate writeTemplate) {
+            this.writeTemplate = writeTemplate;
+            for (int p = 0; p < CORR_PERIODS.length; p++) {
+                for (int i = 0; i < INVESTOR_COLUMNS.length; i++) {
+                    engines[p][i] = new RollingCorrelation(CORR_PERIODS[p]);
+                }
+            }
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            String stkCd = rs.getString("stk_cd");
+            if (!stkCd.equals(currentStock)) {
+                startStock(stkCd);
+            }
+
+            // 일별 수익률: 첫 행, 가격 없음, 이전 가격 0 이면 0 (pandas pct_change + fillna(0))
+            long price = rs.getLong("cur_prc");
+            boolean hasPrice = !rs.wasNull();
+            double ret = 0.0;
+            if (hasPrice && rowCount > 0 && previousPrice != 0) {
+                ret = (double) (price - previousPrice) / previousPrice;
+            }
+            if (hasPrice) {
+                previousPrice = price;
+            }
+            rowCount++;
+
+            double[] values = new double[INVESTOR_COLUMNS.length];
+            for (int i = 0; i < INVESTOR_COLUMNS.length; i++) {
+                long value = rs.getLong(INVESTOR_COLUMNS[i]);
+                values[i] = rs.wasNull() ? Double.NaN : value;
+            }
+
+            boolean target = rs.getBoolean("is_target");
+            long totalRows = rs.getLong("total_rows");
+
+            for (int p = 0; p < CORR_PERIODS.length; p++) {
+                Object[] args = null;
+                // 전체 데이터가 기간보다 짧은 종목은 해당 기간 미저장
+                if (target && totalRows >= CORR_PERIODS[p]) {
+                    args = new Object[8 + INVESTOR_COLUMNS.length];
+                    args[0] = stkCd;
+                    args[1] = rs.getString("dt");
+                    args[2] = CORR_PERIODS[p];
+                    args[3] = hasPrice ? price : null;
+                    args[4] = rs.getString("sector");
+                    args[5] = rs.getString("main");
+                    args[6] = rs.getString("sub");
+                    args[7] = rs.getString("detail");
+                }
+                for (int i = 0; i < INVESTOR_COLUMNS.length; i++) {
+                    double r = engines[p][i].push(ret, values[i]);
+                    if (args != null) {
+                        args[8 + i] = Double.isNaN(r) ? null : BigDecimal.valueOf(r).setScale(3, RoundingMode.HALF_UP);
+                    }
+                }
+                if (args != null) {
+                    batch.add(args);
+                }
+            }
+
+            if (batch.size() >= MAX_PENDING_ROWS) {
+                flush();
+            }
+        }
+
+        int finish() {
+            flush();
+            return saved;
+        }
+
+        private void startStock(String stkCd) {
+            if (batch.size() >= BATCH_SIZE) {
+                flush();
+            }
+            currentStock = stkCd;
+            rowCount = 0;
+            previousPrice = 0;
+            stockCount++;
+            for (RollingCorrelation[] row : engines) {
+                for (RollingCorrelation engine : row) {
+                    engine.reset();
+                }
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (writeTemplate == null) {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+            } else {
+                writeTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, batch));
+            }
+            saved += batch.size();
+            batch.clear();
+        }
+    }
+
+    /**
+     * 계산 대상 원천 데이터 조회 SQL
+     * - 상관계수가 없는 종목: 전체 거래일
+     * - 있는 종목: 마지막 계산일 이후 거래일 + 구간 채우기용 이전 61 거래일
+     */
+    private static String buildSourceSql(boolean singleStock) {
+        return "WITH last AS ( " +
+            "  SELECT s.stk_cd, ( " +
+            "    SELECT TO_DATE(MAX(d.dt), 'YYYYMMDD') FROM tb_stock_investor_corr_daily d WHERE d.stk_cd = s.stk_cd " +
+            "  ) AS last_dt " +
+            "  FROM (SELECT DISTINCT stk_cd FROM tb_stock_investor_chart" +
+            (singleStock ? " WHERE stk_cd = ?" : "") + ") s " +
+            "), source AS ( " +
+            "  SELECT c.stk_cd, c.dt, c.cur_prc, " + String.join(", ", prefixed("c.")) + ", " +
+            "    l.last_dt IS NULL OR c.dt > l.last_dt AS is_target, " +
+            "    COUNT(*) FILTER (WHERE c.dt <= l.last_dt) " +
+            "      OVER (PARTITION BY c.stk_cd ORDER BY c.dt DESC) AS warmup_rank, " +
+            "    COUNT(*) OVER (PARTITION BY c.stk_cd) AS total_rows " +
+            "  FROM last l " +
+            "  INNER JOIN tb_stock_investor_chart c ON c.stk_cd = l.stk_cd " +
+            "    AND (l.last_dt IS NULL OR c.dt > l.last_dt - " + WARMUP_CALENDAR_DAYS + ") " +
+            ") " +
+            "SELECT s.stk_cd, TO_CHAR(s.dt, 'YYYYMMDD') AS dt, s.cur_prc, " + String.join(", ", prefixed("s.")) + ", " +
+            "  s.is_target, s.total_rows, m.sector, m.main, m.sub, m.detail " +
+            "FROM source s " +
+            "LEFT JOIN tb_stock_list_meta m ON m.code = s.stk_cd " +
+            "WHERE s.is_target OR s.warmup_rank <= " + WARMUP_ROWS + " " +
+            "ORDER BY s.stk_cd, s.dt";
+    }
+
+    /**
+     * 상관계수 upsert SQL
+     */
+    private static String buildUpsertSql() {
+        StringBuilder columns = new StringBuilder("stk_cd, dt, corr_days, cur_prc, sector, category1, category2, category3");
+        StringBuilder update = new StringBuilder(
+            "cur_prc = EXCLUDED.cur_prc, sector = EXCLUDED.sector, category1 = EXCLUDED.category1, " +
+            "category2 = EXCLUDED.category2, category3 = EXCLUDED.category3");
+        for (String column : INVESTOR_COLUMNS) {
+            columns.append(", ").append(column).append("_corr");
+            update.append(", ").append(column).append("_corr = EXCLUDED.").append(column).append("_corr");
+        }
+        return "INSERT INTO tb_stock_investor_corr_daily (" + columns + ") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?" + ", ?".repeat(INVESTOR_COLUMNS.length) + ") " +
+            "ON CONFLICT (stk_cd, dt, corr_days) DO UPDATE SET " + update + ", reg_dt = NOW()";
+    }
+
+    private static List<String> prefixed(String alias) {
+        List<String> columns = new ArrayList<>(INVESTOR_COLUMNS.length);
+        for (String column : INVESTOR_COLUMNS) {
+            columns.add(alias + column);
+        }
+        return columns;
+    }
+}
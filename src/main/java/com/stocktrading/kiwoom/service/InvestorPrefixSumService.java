@@ -0,0 +1,372 @@
+package com.stocktrading.kiwoom.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 투자자별 누적합(prefix sum) 서비스
+ *
+ * 대상(종목/섹터)별로 거래일 순번(seq)에 따른 누적합 S 를 tb_investor_prefix_sum 에 저장하고,
+ * 임의 기간 N 의 이동평균을 (S[t] - S[t-N]) / N 으로 계산한다.
+ * 고정 기간(5~140일) 외의 이동평균 조회에 사용
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvestorPrefixSumService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // 이동평균 테이블에 컬럼으로 저장된 기간
+    private static final Set<Integer> STORED_MA_PERIODS = Set.of(5, 10, 20, 30, 40, 50, 60, 90, 120, 140);
+
+    private static final InvestorType[] INVESTORS = InvestorType.values();
+
+    private static final String INVESTOR_COLUMNS = Arrays.stream(INVESTORS)
+        .map(InvestorType::getColumn)
+        .collect(Collectors.joining(", "));
+
+    private static final String STOCK_APPEND_SQL = buildAppendSql(TargetType.STOCK);
+    private static final String SECTOR_APPEND_SQL = buildAppendSql(TargetType.SECTOR);
+
+    /**
+     * 누적합 대상 구분
+     */
+    public enum TargetType {
+        /** 종목: 순매수량 누적 */
+        STOCK,
+        /** 섹터: 거래대금 누적 */
+        SECTOR
+    }
+
+    /**
+     * 이동평균 조회 결과
+     *
+     * @param dt 일자 (yyyyMMdd)
+     * @param curPrc 현재가 (섹터는 null)
+     * @param values 투자자별 이동평균 (기간 부족 시 null)
+     */
+    public record PrefixMaPoint(
+        String dt,
+        Long curPrc,
+        Map<InvestorType, BigDecimal> values
+    ) {}
+
+    /**
+     * 이동평균 테이블 컬럼으로 저장된 기간인지 여부
+     */
+    public static boolean isStoredPeriod(int period) {
+        return STORED_MA_PERIODS.contains(period);
+    }
+
+    /**
+     * 누적합으로 임의 기간 이동평균 조회
+     *
+     * @param targetType 대상 구분
+     * @param targetCd 종목코드 또는 섹터코드
+     * @param investors 조회할 투자자
+     * @param period 이동평균 기간 (1 이상)
+     * @param days 조회 일수
+     * @param beforeDate 이 날짜 이전 데이터만 조회 (yyyyMMdd, 무한 스크롤용, 선택)
+     * @return 날짜 오름차순 이동평균
+     */
+    @Transactional(readOnly = true)
+    public List<PrefixMaPoint> getMovingAverages(
+            TargetType targetType,
+            String targetCd,
+            List<InvestorType> investors,
+            int period,
+            int days,
+            String beforeDate) {
+
+        validatePeriod(period);
+
+        List<Object> params = new ArrayList<>(List.of(targetType.name(), targetCd));
+        String dateCondition = beforeDateCondition(beforeDate, params);
+        params.add(days + period);
+
+        // 조회 구간 + 이동평균 계산용 이전 period 행을 한 번에 조회
+        String sql =
+            "SELECT seq, dt, cur_prc" + investorColumns(investors) + " " +
+            "FROM tb_investor_prefix_sum " +
+            "WHERE target_tp = ? AND target_cd = ? " + dateCondition +
+            "ORDER BY seq DESC LIMIT ?";
+
+        PrefixRows rows = new PrefixRows();
+        jdbcTemplate.query(sql, rs -> {
+            rows.add(rs, 1, investors.size());
+        }, params.toArray());
+        rows.reverse();
+
+        return toMovingAverages(rows, investors, period, days, scaleOf(targetType));
+    }
+
+    /**
+     * 누적합으로 여러 대상의 임의 기간 이동평균을 한 번에 조회
+     * (대상별 최근 days + period 행을 window 함수로 잘라 단일 쿼리로 가져온다)
+     *
+     * @return 대상 코드 → 날짜 오름차순 이동평균 (데이터 없는 대상은 제외)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, List<PrefixMaPoint>> getMovingAverages(
+            TargetType targetType,
+            Collection<String> targetCds,
+            List<InvestorType> investors,
+            int period,
+            int days,
+            String beforeDate) {
+
+        validatePeriod(period);
+        if (targetCds.isEmpty()) {
+            return Map.of();
+        }
+
+        String columns = investorColumns(investors);
+        List<Object> params = new ArrayList<>();
+        params.add(targetType.name());
+        params.add(targetCds.toArray(new String[0]));
+        String dateCondition = beforeDateCondition(beforeDate, params);
+        params.add(days + period);
+
+        String sql =
+            "SELECT target_cd, seq, dt, cur_prc" + columns + " FROM (" +
+            "SELECT target_cd, seq, dt, cur_prc" + columns + ", " +
+            "ROW_NUMBER() OVER (PARTITION BY target_cd ORDER BY seq DESC) AS rn " +
+            "FROM tb_investor_prefix_sum " +
+            "WHERE target_tp = ? AND target_cd = ANY(?) " + dateCondition +
+            ") t WHERE rn <= ? " +
+            "ORDER BY target_cd, seq";
+
+        Map<String, PrefixRows> rowsByTarget = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            rowsByTarget.computeIfAbsent(rs.getString("target_cd"), k -> new PrefixRows())
+                .add(rs, 2, investors.size());
+        }, params.toArray());
+
+        int scale = scaleOf(targetType);
+        Map<String, List<PrefixMaPoint>> result = new LinkedHashMap<>();
+        rowsByTarget.forEach((targetCd, rows) ->
+            result.put(targetCd, toMovingAverages(rows, investors, period, days, scale)));
+        return result;
+    }
+
+    private static void validatePeriod(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("이동평균 기간은 1 이상이어야 합니다: " + period);
+        }
+    }
+
+    private static String investorColumns(List<InvestorType> investors) {
+        return investors.stream()
+            .map(investor -> ", " + investor.getColumn())
+            .collect(Collectors.joining());
+    }
+
+    private static String beforeDateCondition(String beforeDate, List<Object> params) {
+        if (beforeDate == null || beforeDate.isEmpty()) {
+            return "";
+        }
+        params.add(Date.valueOf(LocalDate.parse(beforeDate.replace("-", ""), DATE_FORMATTER)));
+        return "AND dt < ? ";
+    }
+
+    private static int scaleOf(TargetType targetType) {
+        return targetType == TargetType.STOCK ? 2 : 0;
+    }
+
+    /**
+     * 누적합 조회 행 (seq, dt, cur_prc, 투자자 컬럼 순)
+     */
+    private static final class PrefixRows {
+        private final List<Integer> seqs = new ArrayList<>();
+        private final List<String> dates = new ArrayList<>();
+        private final List<Long> prices = new ArrayList<>();
+        private final List<long[]> sums = new ArrayList<>();
+
+        void add(ResultSet rs, int firstColumn, int investorCount) throws SQLException {
+            seqs.add(rs.getInt(firstColumn));
+            dates.add(rs.getObject(firstColumn + 1, LocalDate.class).format(DATE_FORMATTER));
+            long curPrc = rs.getLong(firstColumn + 2);
+            prices.add(rs.wasNull() ? null : curPrc);
+            long[] row = new long[investorCount];
+            for (int i = 0; i < investorCount; i++) {
+                row[i] = rs.getLong(firstColumn + 3 + i);
+            }
+            sums.add(row);
+        }
+
+        void reverse() {
+            Collections.reverse(seqs);
+            Collections.reverse(dates);
+            Collections.reverse(prices);
+            Collections.reverse(sums);
+        }
+    }
+
+    /**
+     * 날짜 오름차순 누적합 행에서 최근 days 개 이동평균 계산
+     */
+    private static List<PrefixMaPoint> toMovingAverages(
+            PrefixRows rows, List<InvestorType> investors, int period, int days, int scale) {
+
+        int size = rows.seqs.size();
+        int first = Math.max(0, size - days);
+        BigDecimal divisor = BigDecimal.valueOf(period);
+
+        List<PrefixMaPoint> result = new ArrayList<>(size - first);
+        for (int k = first; k < size; k++) {
+            int seq = rows.seqs.get(k);
+            long[] current = rows.sums.get(k);
+            // seq == period 이면 S[0] = 0, 그보다 작으면 기간 부족
+            long[] base = seq > period && k >= period ? rows.sums.get(k - period) : null;
+
+            Map<InvestorType, BigDecimal> values = new EnumMap<>(InvestorType.class);
+            for (int i = 0; i < investors.size(); i++) {
+                BigDecimal value = null;
+                if (seq >= period && (base != null || seq == period)) {
+                    long diff = current[i] - (base != null ? base[i] : 0L);
+                    value = BigDecimal.valueOf(diff).divide(divisor, scale, RoundingMode.HALF_UP);
+                }
+                values.put(investors.get(i), value);
+            }
+            result.add(new PrefixMaPoint(rows.dates.get(k), rows.prices.get(k), values));
+        }
+
+        return result;
+    }
+
+    /**
+     * 종목 누적합 증분 추가 (마지막 누적일 이후 차트 데이터)
+     *
+     * @return 추가된 행 수
+     */
+    @Transactional
+    public int appendStock(String stkCd) {
+        return jdbcTemplate.update(STOCK_APPEND_SQL,
+            TargetType.STOCK.name(), stkCd, TargetType.STOCK.name(), stkCd, stkCd);
+    }
+
+    /**
+     * 섹터 누적합 증분 추가 (마지막 누적일 이후 섹터 일별 거래대금)
+     *
+     * @return 추가된 행 수
+     */
+    @Transactional
+    public int appendSector(String sectorCd) {
+        return jdbcTemplate.update(SECTOR_APPEND_SQL,
+            TargetType.SECTOR.name(), sectorCd, TargetType.SECTOR.name(), sectorCd, sectorCd);
+    }
+
+    /**
+     * fromDate 이후 누적합 재구성
+     * (원천 데이터가 과거 날짜부터 바뀐 경우: 섹터 구성종목 변경, 차트 데이터 재수집 등)
+     *
+     * @return 다시 추가된 행 수
+     */
+    @Transactional
+    public int rebuildFrom(TargetType targetType, String targetCd, LocalDate fromDate) {
+        jdbcTemplate.update(
+            "DELETE FROM tb_investor_prefix_sum WHERE target_tp = ? AND target_cd = ? AND dt >= ?",
+            targetType.name(), targetCd, Date.valueOf(fromDate));
+
+        return targetType == TargetType.STOCK ? appendStock(targetCd) : appendSector(targetCd);
+    }
+
+    /**
+     * 전체 종목/섹터 누적합 증분 추가 (장 마감 후)
+     */
+    @Scheduled(cron = "${batch.prefix-sum.cron:0 30 18 * * MON-FRI}")
+    public void refreshAll() {
+        log.info("=== 투자자 누적합 증분 추가 시작 ===");
+        long startTime = System.currentTimeMillis();
+
+        List<String> stockCodes = jdbcTemplate.queryForList(
+            "SELECT DISTINCT stk_cd FROM tb_stock_investor_chart", String.class);
+        List<String> sectorCodes = jdbcTemplate.queryForList(
+            "SELECT DISTINCT sector_cd FROM tb_sector_daily_amount", String.class);
+
+        long appended = 0;
+        int failCount = 0;
+
+        for (String stkCd : stockCodes) {
+            try {
+                appended += appendStock(stkCd);
+            } catch (Exception e) {
+                log.error("종목 누적합 추가 실패: stkCd={}", stkCd, e);
+                failCount++;
+            }
+        }
+        for (String sectorCd : sectorCodes) {
+            try {
+                appended += appendSector(sectorCd);
+            } catch (Exception e) {
+                log.error("섹터 누적합 추가 실패: sectorCd={}", sectorCd, e);
+                failCount++;
+            }
+        }
+
+        eventPublisher.publishEvent(AnalyticsDataChangedEvent.all(Dataset.STOCK_MA));
+        eventPublisher.publishEvent(AnalyticsDataChangedEvent.all(Dataset.SECTOR_MA));
+
+        log.info("=== 투자자 누적합 증분 추가 완료: 종목 {} 개, 섹터 {} 개, 추가 {} 행, 실패 {} 건, {}ms ===",
+            stockCodes.size(), sectorCodes.size(), appended, failCount, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 마지막 누적 행에 이어 window SUM 으로 누적합을 추가하는 SQL
+     */
+    private static String buildAppendSql(TargetType targetType) {
+        boolean stock = targetType == TargetType.STOCK;
+        String source = stock ? "tb_stock_investor_chart s" : "tb_sector_daily_amount s";
+        String codeColumn = stock ? "s.stk_cd" : "s.sector_cd";
+
+        StringBuilder select = new StringBuilder();
+        for (InvestorType investor : INVESTORS) {
+            String value;
+            if (!stock) {
+                value = "s." + investor.getColumn();
+            } else if (investor == InvestorType.FRGNR_ORGN) {
+                value = "COALESCE(s.frgnr_invsr, 0) + COALESCE(s.orgn, 0)";
+            } else {
+                value = "COALESCE(s." + investor.getColumn() + ", 0)";
+            }
+            select.append(", COALESCE(l.").append(investor.getColumn()).append(", 0) + SUM(")
+                .append(value).append(") OVER w");
+        }
+
+        return "WITH last AS ( " +
+            "  SELECT * FROM tb_investor_prefix_sum " +
+            "  WHERE target_tp = ? AND target_cd = ? " +
+            "  ORDER BY seq DESC LIMIT 1 " +
+            ") " +
+            "INSERT INTO tb_investor_prefix_sum (target_tp, target_cd, seq, dt, cur_prc, " + INVESTOR_COLUMNS + ") " +
+            "SELECT ?, ?, COALESCE(l.seq, 0) + ROW_NUMBER() OVER w, s.dt, " +
+            (stock ? "s.cur_prc" : "NULL") + select + " " +
+            "FROM " + source + " LEFT JOIN last l ON TRUE " +
+            "WHERE " + codeColumn + " = ? AND s.dt > COALESCE(l.dt, DATE '1900-01-01') " +
+            "WINDOW w AS (ORDER BY s.dt ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW)";
+    }
+}
@@ -0,0 +1,236 @@
+package com.stocktrading.kiwoom.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 투자자별 거래 비중 집계 Service
+ *
+ * 기간 내 투자자별 절대값 합계를 DB 에서 SUM(ABS(...)) 로 집계하여 1행만 가져온다.
+ * (원천 행을 Entity 로 읽어 Java 에서 합산하지 않음)
+ * 조회가 많은 종목은 {@link HotHistoryCache} 의 off-heap 이력 구간을 바로 합산한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvestorRatioService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HotHistoryCache hotHistoryCache;
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // 거래 비중 응답 키 → 차트 컬럼 (tb_stock_investor_chart)
+    private static final Map<String, String> TRADING_COLUMNS = orderedMap(
+        "frgnr", "frgnr_invsr",
+        "orgn", "orgn",
+        "ind", "ind_invsr",
+        "fnncInvt", "fnnc_invt",
+        "insrnc", "insrnc",
+        "invtrt", "invtrt",
+        "bank", "bank",
+        "etcFnnc", "etc_fnnc",
+        "penfndEtc", "penfnd_etc",
+        "samoFund", "samo_fund",
+        "etcCorp", "etc_corp",
+        "natn", "natn",
+        "natfor", "natfor");
+
+    // 이동평균 비중 응답 키 → 투자자 컬럼 접두어 (개인 제외)
+    private static final Map<String, String> MA_COLUMNS = orderedMap(
+        "frgnr", "frgnr_invsr",
+        "orgn", "orgn",
+        "fnncInvt", "fnnc_invt",
+        "insrnc", "insrnc",
+        "invtrt", "invtrt",
+        "bank", "bank",
+        "etcFnnc", "etc_fnnc",
+        "penfndEtc", "penfnd_etc",
+        "samoFund", "samo_fund",
+        "etcCorp", "etc_corp",
+        "natn", "natn",
+        "natfor", "natfor");
+
+    private static final String TRADING_AMOUNT_SQL = buildTradingAmountSql();
+
+    /**
+     * 투자자별 기간 합계
+     *
+     * @param dataCount 집계 대상 일수
+     * @param volumes 응답 키 → 절대값 합계 (키 순서 고정)
+     */
+    public record InvestorVolumes(int dataCount, Map<String, BigDecimal> volumes) {
+
+        public BigDecimal total() {
+            return volumes.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+    }
+
+    /**
+     * 투자자별 거래규모 합계: SUM(|현재가 × 순매수량|)
+     */
+    @Transactional(readOnly = true)
+    public InvestorVolumes sumTradingAmounts(String stkCd, LocalDate startDate, LocalDate endDate) {
+        Optional<HotHistoryCache.History> hot = hotHistoryCache.get(stkCd);
+        if (hot.isPresent()) {
+            return sumTradingAmounts(hot.get(), toInt(startDate), toInt(endDate));
+        }
+        return jdbcTemplate.query(TRADING_AMOUNT_SQL,
+            rs -> {
+                rs.next();
+                return toVolumes(rs, TRADING_COLUMNS);
+            },
+            stkCd, Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    /**
+     * 투자자별 순매수 이동평균 절대값 합계
+     *
+     * 저장 기간은 이동평균 테이블 컬럼을 합산하고, 그 외 기간은 차트 원천에서 window 함수로
+     * 이동평균을 계산하여 합산한다 (기간 부족 행은 제외).
+     *
+     * @param fromDate 시작일 (yyyyMMdd)
+     * @param toDate 종료일 (yyyyMMdd)
+     */
+    @Transactional(readOnly = true)
+    public InvestorVolumes sumMovingAverages(String stkCd, int period, String fromDate, String toDate) {
+        if (period < 1) {
+            throw new IllegalArgumentException("이동평균 기간은 1 이상이어야 합니다: " + period);
+        }
+
+        Optional<HotHistoryCache.History> hot = hotHistoryCache.get(stkCd);
+        if (hot.isPresent()) {
+            return sumMovingAverages(hot.get(), period, Integer.parseInt(fromDate), Integer.parseInt(toDate));
+        }
+
+        if (InvestorPrefixSumService.isStoredPeriod(period)) {
+            return jdbcTemplate.query(buildStoredMaSql(period),
+                rs -> {
+                    rs.next();
+                    return toVolumes(rs, MA_COLUMNS);
+                },
+                stkCd, fromDate, toDate);
+        }
+
+        Date from = Date.valueOf(LocalDate.parse(fromDate, DATE_FORMATTER));
+        Date to = Date.valueOf(LocalDate.parse(toDate, DATE_FORMATTER));
+        return jdbcTemplate.query(buildWindowMaSql(period),
+            rs -> {
+                rs.next();
+                return toVolumes(rs, MA_COLUMNS);
+            },
+            stkCd, to, from, to);
+    }
+
+    /**
+     * 캐시 이력 구간 거래규모 합계 (SQL 경로와 같이 현재가/순매수량 없는 행은 0)
+     */
+    private static InvestorVolumes sumTradingAmounts(HotHistoryCache.History history, int from, int to) {
+        int start = history.lowerBound(from);
+        int end = history.upperBound(to);
+        Map<String, BigDecimal> volumes = new LinkedHashMap<>();
+        TRADING_COLUMNS.forEach((key, column) -> {
+            InvestorType investor = InvestorType.fromKey(column).orElseThrow();
+            long sum = 0;
+            for (int row = start; row < end; row++) {
+                sum += Math.abs(history.priceOrZero(row) * history.qty(investor, row));
+            }
+            volumes.put(key, BigDecimal.valueOf(sum));
+        });
+        return new InvestorVolumes(Math.max(0, end - start), Collections.unmodifiableMap(volumes));
+    }
+
+    /**
+     * 캐시 이력 구간 이동평균 절대값 합계 (window 경로와 같이 기간 부족 행은 제외, 누적합 차이로 계산)
+     */
+    private static InvestorVolumes sumMovingAverages(HotHistoryCache.History history, int period, int from, int to) {
+        int start = Math.max(history.lowerBound(from), period - 1);
+        int end = history.upperBound(to);
+        BigDecimal divisor = BigDecimal.valueOf(period);
+        Map<String, BigDecimal> volumes = new LinkedHashMap<>();
+        MA_COLUMNS.forEach((key, column) -> {
+            InvestorType investor = InvestorType.fromKey(column).orElseThrow();
+            long sum = 0;
+            for (int row = start; row < end; row++) {
+                sum += Math.abs(history.sum(investor, row + 1 - period, row + 1));
+            }
+            volumes.put(key, BigDecimal.valueOf(sum).divide(divisor, 2, RoundingMode.HALF_UP));
+        });
+        int count = Math.max(0, end - history.lowerBound(from));
+        return new InvestorVolumes(count, Collections.unmodifiableMap(volumes));
+    }
+
+    private static int toInt(LocalDate date) {
+        return Integer.parseInt(date.format(DATE_FORMATTER));
+    }
+
+    private static InvestorVolumes toVolumes(ResultSet rs, Map<String, String> columns) throws SQLException {
+        Map<String, BigDecimal> volumes = new LinkedHashMap<>();
+        for (String key : columns.keySet()) {
+            BigDecimal value = rs.getBigDecimal(key);
+            volumes.put(key, value != null ? value : BigDecimal.ZERO);
+        }
+        return new InvestorVolumes(rs.getInt("cnt"), Collections.unmodifiableMap(volumes));
+    }
+
+    private static String buildTradingAmountSql() {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) AS cnt");
+        TRADING_COLUMNS.forEach((key, column) ->
+            sql.append(", SUM(ABS(cur_prc * ").append(column).append(")) AS \"").append(key).append("\""));
+        return sql.append(" FROM tb_stock_investor_chart WHERE stk_cd = ? AND dt BETWEEN ? AND ?").toString();
+    }
+
+    private static String buildStoredMaSql(int period) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) AS cnt");
+        MA_COLUMNS.forEach((key, column) ->
+            sql.append(", SUM(ABS(").append(column).append("_ma").append(period)
+                .append(")) AS \"").append(key).append("\""));
+        return sql.append(" FROM tb_stock_investor_ma WHERE stk_cd = ? AND dt BETWEEN ? AND ?").toString();
+    }
+
+    /**
+     * 차트 원천에서 N일 이동평균 (window AVG) 을 계산한 뒤 구간 절대값 합계
+     * (종료일까지 전체 이력을 DB 안에서 계산하고 집계 1행만 반환, 프레임 크기는 상수여야 하므로 인라인)
+     * 결측 수량은 누적합 경로와 같이 0 으로 보고 평균한다.
+     */
+    private static String buildWindowMaSql(int period) {
+        StringBuilder averages = new StringBuilder();
+        StringBuilder sums = new StringBuilder();
+        MA_COLUMNS.forEach((key, column) -> {
+            averages.append(", CASE WHEN COUNT(*) OVER w = ").append(period)
+                .append(" THEN AVG(COALESCE(").append(column).append(", 0)) OVER w END AS ").append(column);
+            sums.append(", SUM(ABS(").append(column).append(")) AS \"").append(key).append("\"");
+        });
+        return "SELECT COUNT(*) AS cnt" + sums + " FROM (" +
+            "SELECT dt" + averages + " " +
+            "FROM tb_stock_investor_chart WHERE stk_cd = ? AND dt <= ? " +
+            "WINDOW w AS (ORDER BY dt ROWS BETWEEN " + (period - 1) + " PRECEDING AND CURRENT ROW)" +
+            ") m WHERE dt BETWEEN ? AND ?";
+    }
+
+    private static Map<String, String> orderedMap(String... keyValues) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+}
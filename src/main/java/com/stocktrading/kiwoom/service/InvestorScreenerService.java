@@ -0,0 +1,617 @@
+package com.stocktrading.kiwoom.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.stocktrading.kiwoom.domain.event.InvestorChartSavedEvent;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 시장 전체 투자자 수급 스크리너
+ *
+ * 전 종목의 최근 N 거래일 종가와 투자자별 순매수량을 종목별 primitive 배열(누적합 포함)로 메모리에 올려두고,
+ * 조건식(all / any / not, 비교, 상향/하향 돌파)과 정렬식을 한 번의 순회로 평가한다.
+ * 이동평균은 누적합으로 임의 기간을 계산한다. 메모리 데이터는 차트 데이터 저장 시 변경 표시만 해 두고
+ * 주기적으로 한 번 다시 로드하여 교체한다. (수집 중 종목마다 다시 로드하지 않음, 교체 전까지는 이전 데이터로 응답)
+ *
+ * 예) 연기금 20일 연속 순매수 + 외국인 5일 이동평균이 20일 이동평균을 상향 돌파
+ * <pre>
+ * {"filter": {"all": [
+ *   {"left": {"metric": "buyStreak", "investor": "penfnd_etc"}, "op": "gte", "value": 20},
+ *   {"left": {"metric": "ma", "investor": "frgnr", "period": 5}, "op": "crossAbove",
+ *    "right": {"metric": "ma", "investor": "frgnr", "period": 20}}
+ * ]}}
+ * </pre>
+ */
+@Slf4j
+@Service
+public class InvestorScreenerService {
+
+    private static final String SNAPSHOT_KEY = "LATEST";
+
+    // 요청당 최대 반환 종목 수
+    private static final int MAX_LIMIT = 1000;
+
+    private static final InvestorType[] INVESTORS = InvestorType.values();
+
+    private static final int LOAD_FETCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final StockMetaRegistry stockMetaRegistry;
+    private final HotHistoryCache hotHistoryCache;
+    private final int windowDays;
+
+    private final Cache<String, Snapshot> snapshotCache = CacheBuilder.newBuilder()
+        .maximumSize(1)
+        .expireAfterAccess(30, TimeUnit.MINUTES)
+        .build();
+
+    // 마지막 로드 이후 차트 데이터 변경 여부 ({@link #reloadIfChanged()} 에서 처리)
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    public InvestorScreenerService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   StockMetaRegistry stockMetaRegistry, HotHistoryCache hotHistoryCache,
+                                   @Value("${screener.window-days:250}") int windowDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.stockMetaRegistry = stockMetaRegistry;
+        this.hotHistoryCache = hotHistoryCache;
+        this.windowDays = windowDays;
+    }
+
+    /**
+     * 값 식
+     *
+     * @param metric price, net(순매수량), amount(순매수 거래대금), ma(순매수량 이동평균), sum(기간 합계),
+     *               buyStreak / sellStreak(연속 순매수/순매도 일수), return(기간 수익률 %)
+     * @param investor 투자자 키 (price, return 외 필수)
+     * @param period 기간 (ma, sum, return 필수)
+     * @param offset 최근일 기준 며칠 전 값인지 (기본 0)
+     */
+    public record Operand(String metric, String investor, Integer period, Integer offset) {
+
+        String label() {
+            StringBuilder sb = new StringBuilder(metric);
+            if (period != null) {
+                sb.append(period);
+            }
+            if (investor != null) {
+                sb.append(':').append(investor);
+            }
+            if (offset != null && offset != 0) {
+                sb.append('@').append(offset);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * 조건식 (all / any / not 중 하나, 또는 left op right|value 비교)
+     *
+     * @param op gt, gte, lt, lte, eq, crossAbove, crossBelow
+     * @param within 돌파 조건을 확인할 최근 일수 (기본 1 = 최근일에 돌파)
+     */
+    public record Condition(List<Condition> all, List<Condition> any, Condition not,
+                            Operand left, String op, Operand right, Double value, Integer within) {
+    }
+
+    /**
+     * 정렬식 (order: desc 기본, asc)
+     */
+    public record SortKey(Operand by, String order) {
+    }
+
+    /**
+     * 스크리닝 요청
+     *
+     * @param columns 결과에 함께 반환할 값 식
+     * @param includeStale 최근일 데이터가 없는 종목(거래정지 등)도 포함할지 여부
+     */
+    public record Query(Condition filter, List<SortKey> sort, List<Operand> columns, Integer limit,
+                        Boolean includeStale) {
+    }
+
+    /**
+     * 종목별 결과 (values: 정렬식 + columns 값, 계산 불가 시 null)
+     */
+    public record Row(String stkCd, String stkNm, String dt, long curPrc, Map<String, Double> values) {
+    }
+
+    public record Result(String asOf, int stockCount, int matched, long elapsedMs, List<Row> rows) {
+    }
+
+    /**
+     * 스크리닝 실행
+     */
+    public Result run(Query query) {
+        long startTime = System.currentTimeMillis();
+        Snapshot snapshot = snapshot();
+
+        Predicate filter = query.filter() != null ? compile(query.filter(), snapshot) : (d, s) -> true;
+        List<SortKey> sortKeys = query.sort() != null ? query.sort() : List.of();
+        List<Operand> columns = query.columns() != null ? query.columns() : List.of();
+        int limit = Math.min(query.limit() != null ? query.limit() : 100, MAX_LIMIT);
+        boolean includeStale = Boolean.TRUE.equals(query.includeStale());
+
+        Metric[] sortMetrics = new Metric[sortKeys.size()];
+        for (int i = 0; i < sortMetrics.length; i++) {
+            sortMetrics[i] = compile(sortKeys.get(i).by(), snapshot);
+        }
+        Metric[] columnMetrics = new Metric[columns.size()];
+        for (int i = 0; i < columnMetrics.length; i++) {
+            columnMetrics[i] = compile(columns.get(i), snapshot);
+        }
+
+        // 전 종목 1회 순회 (조건 평가 + 정렬 값 계산)
+        List<Integer> matched = new ArrayList<>();
+        List<double[]> sortValues = new ArrayList<>();
+        for (int s = 0; s < snapshot.size(); s++) {
+            if (!includeStale && snapshot.lastDate(s) != snapshot.asOf) {
+                continue;
+            }
+            if (!filter.test(snapshot, s)) {
+                continue;
+            }
+            double[] values = new double[sortMetrics.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = sortMetrics[i].value(snapshot, s, 0);
+            }
+            matched.add(s);
+            sortValues.add(values);
+        }
+
+        Integer[] order = new Integer[matched.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, sortComparator(sortKeys, sortValues));
+
+        List<Row> rows = new ArrayList<>(Math.min(limit, order.length));
+        for (int i = 0; i < order.length && rows.size() < limit; i++) {
+            int s = matched.get(order[i]);
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (int k = 0; k < sortMetrics.length; k++) {
+                values.put(sortKeys.get(k).by().label(), finite(sortValues.get(order[i])[k]));
+            }
+            for (int k = 0; k < columnMetrics.length; k++) {
+                values.put(columns.get(k).label(), finite(columnMetrics[k].value(snapshot, s, 0)));
+            }
+            int last = snapshot.dates[s].length - 1;
+            rows.add(new Row(snapshot.codes[s], stockMetaRegistry.nameOf(snapshot.codes[s]),
+                String.valueOf(snapshot.dates[s][last]), snapshot.prices[s][last], values));
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        log.info("스크리닝 완료: 종목 {} 개 중 {} 개 일치, {}ms", snapshot.size(), matched.size(), elapsed);
+        return new Result(String.valueOf(snapshot.asOf), snapshot.size(), matched.size(), elapsed, rows);
+    }
+
+    /**
+     * 차트 데이터가 바뀌면 변경 표시 (다시 로드는 {@link #reloadIfChanged()})
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvestorChartSaved(InvestorChartSavedEvent event) {
+        if (!event.isEmpty()) {
+            changed.set(true);
+        }
+    }
+
+    /**
+     * 변경 표시가 있으면 메모리 데이터를 다시 로드하여 교체
+     * (로드된 데이터가 없으면 다음 요청 시 로드)
+     */
+    @Scheduled(fixedDelayString = "${screener.reload-delay-ms:60000}")
+    public void reloadIfChanged() {
+        if (!changed.getAndSet(false) || snapshotCache.getIfPresent(SNAPSHOT_KEY) == null) {
+            return;
+        }
+        try {
+            snapshotCache.put(SNAPSHOT_KEY, loadSnapshot());
+        } catch (Exception e) {
+            changed.set(true);
+            log.error("스크리너 데이터 다시 로드 실패: {}", e.getMessage(), e);
+        }
+    }
+
+    // ============================================
+    // 식 컴파일
+    // ============================================
+
+    /**
+     * 종목 s 의 값 (shift: 최근일 기준 추가로 며칠 전인지, 계산 불가 시 NaN)
+     */
+    @FunctionalInterface
+    private interface Metric {
+        double value(Snapshot d, int s, int shift);
+    }
+
+    @FunctionalInterface
+    private interface Predicate {
+        boolean test(Snapshot d, int s);
+    }
+
+    private Predicate compile(Condition condition, Snapshot snapshot) {
+        if (condition.all() != null) {
+            Predicate[] parts = compileAll(condition.all(), snapshot);
+            return (d, s) -> {
+                for (Predicate part : parts) {
+                    if (!part.test(d, s)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+        if (condition.any() != null) {
+            Predicate[] parts = compileAll(condition.any(), snapshot);
+            return (d, s) -> {
+                for (Predicate part : parts) {
+                    if (part.test(d, s)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+        if (condition.not() != null) {
+            Predicate inner = compile(condition.not(), snapshot);
+            return (d, s) -> !inner.test(d, s);
+        }
+
+        if (condition.left() == null || condition.op() == null) {
+            throw new IllegalArgumentException("조건식에는 all/any/not 또는 left, op 가 필요합니다");
+        }
+        Metric left = compile(condition.left(), snapshot);
+        Metric right;
+        if (condition.right() != null) {
+            right = compile(condition.right(), snapshot);
+        } else if (condition.value() != null) {
+            double constant = condition.value();
+            right = (d, s, shift) -> constant;
+        } else {
+            throw new IllegalArgumentException("비교 대상(right 또는 value)이 필요합니다: " + condition.left().label());
+        }
+
+        return switch (condition.op()) {
+            case "gt", ">" -> (d, s) -> left.value(d, s, 0) > right.value(d, s, 0);
+            case "gte", ">=" -> (d, s) -> left.value(d, s, 0) >= right.value(d, s, 0);
+            case "lt", "<" -> (d, s) -> left.value(d, s, 0) < right.value(d, s, 0);
+            case "lte", "<=" -> (d, s) -> left.value(d, s, 0) <= right.value(d, s, 0);
+            case "eq", "==" -> (d, s) -> left.value(d, s, 0) == right.value(d, s, 0);
+            case "crossAbove" -> crossing(left, right, within(condition), true);
+            case "crossBelow" -> crossing(left, right, within(condition), false);
+            default -> throw new IllegalArgumentException("알 수 없는 연산자: " + condition.op());
+        };
+    }
+
+    private Predicate[] compileAll(List<Condition> conditions, Snapshot snapshot) {
+        Predicate[] parts = new Predicate[conditions.size()];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = compile(conditions.get(i), snapshot);
+        }
+        return parts;
+    }
+
+    /**
+     * 최근 within 일 안에 left 가 right 를 상향(하향) 돌파했는지
+     * (k 일 전: 돌파 후 관계, k+1 일 전: 돌파 전 관계)
+     */
+    private static Predicate crossing(Metric left, Metric right, int within, boolean above) {
+        return (d, s) -> {
+            for (int k = 0; k < within; k++) {
+                double l0 = left.value(d, s, k);
+                double r0 = right.value(d, s, k);
+                double l1 = left.value(d, s, k + 1);
+                double r1 = right.value(d, s, k + 1);
+                if (above ? (l0 > r0 && l1 <= r1) : (l0 < r0 && l1 >= r1)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private int within(Condition condition) {
+        int within = condition.within() != null ? condition.within() : 1;
+        if (within < 1 || within >= windowDays) {
+            throw new IllegalArgumentException("within 은 1 ~ " + (windowDays - 1) + " 이어야 합니다: " + within);
+        }
+        return within;
+    }
+
+    private Metric compile(Operand operand, Snapshot snapshot) {
+        if (operand == null || operand.metric() == null) {
+            throw new IllegalArgumentException("metric 이 필요합니다");
+        }
+        int offset = operand.offset() != null ? operand.offset() : 0;
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset 은 0 이상이어야 합니다: " + offset);
+        }
+
+        switch (operand.metric()) {
+            case "price":
+                return (d, s, shift) -> {
+                    int t = d.index(s, offset + shift);
+                    return t < 0 ? Double.NaN : d.prices[s][t];
+                };
+            case "return": {
+                int period = period(operand);
+                return (d, s, shift) -> {
+                    int t = d.index(s, offset + shift);
+                    if (t - period < 0 || d.prices[s][t - period] == 0) {
+                        return Double.NaN;
+                    }
+                    return (d.prices[s][t] / (double) d.prices[s][t - period] - 1) * 100;
+                };
+            }
+            default:
+                break;
+        }
+
+        int investor = investor(operand).ordinal();
+        return switch (operand.metric()) {
+            case "net" -> (d, s, shift) -> {
+                int t = d.index(s, offset + shift);
+                return t < 0 ? Double.NaN : d.net[investor][s][t];
+            };
+            case "amount" -> (d, s, shift) -> {
+                int t = d.index(s, offset + shift);
+                return t < 0 ? Double.NaN : (double) d.prices[s][t] * d.net[investor][s][t];
+            };
+            case "sum", "ma" -> {
+                int period = period(operand);
+                boolean average = "ma".equals(operand.metric());
+                yield (d, s, shift) -> {
+                    int t = d.index(s, offset + shift);
+                    if (t + 1 - period < 0) {
+                        return Double.NaN;
+                    }
+                    long[] prefix = d.prefix[investor][s];
+                    double sum = prefix[t + 1] - prefix[t + 1 - period];
+                    return average ? sum / period : sum;
+                };
+            }
+            case "buyStreak", "sellStreak" -> {
+                boolean buy = "buyStreak".equals(operand.metric());
+                yield (d, s, shift) -> {
+                    int t = d.index(s, offset + shift);
+                    if (t < 0) {
+                        return Double.NaN;
+                    }
+                    long[] net = d.net[investor][s];
+                    int streak = 0;
+                    while (t - streak >= 0 && (buy ? net[t - streak] > 0 : net[t - streak] < 0)) {
+                        streak++;
+                    }
+                    return streak;
+                };
+            }
+            default -> throw new IllegalArgumentException("알 수 없는 metric: " + operand.metric());
+        };
+    }
+
+    private int period(Operand operand) {
+        Integer period = operand.period();
+        if (period == null || period < 1 || period >= windowDays) {
+            throw new IllegalArgumentException(
+                operand.metric() + " 의 period 는 1 ~ " + (windowDays - 1) + " 이어야 합니다: " + period);
+        }
+        return period;
+    }
+
+    private static InvestorType investor(Operand operand) {
+        return InvestorType.fromKey(operand.investor())
+            .orElseThrow(() -> new IllegalArgumentException(
+                operand.metric() + " 의 investor 가 올바르지 않습니다: " + operand.investor()));
+    }
+
+    private static Comparator<Integer> sortComparator(List<SortKey> sortKeys, List<double[]> sortValues) {
+        // NaN(계산 불가)은 항상 뒤로
+        return (a, b) -> {
+            double[] va = sortValues.get(a);
+            double[] vb = sortValues.get(b);
+            for (int i = 0; i < sortKeys.size(); i++) {
+                boolean nanA = Double.isNaN(va[i]);
+                boolean nanB = Double.isNaN(vb[i]);
+                if (nanA || nanB) {
+                    if (nanA != nanB) {
+                        return nanA ? 1 : -1;
+                    }
+                    continue;
+                }
+                int compared = Double.compare(va[i], vb[i]);
+                if (compared != 0) {
+                    return "asc".equalsIgnoreCase(sortKeys.get(i).order()) ? compared : -compared;
+                }
+            }
+            return Integer.compare(a, b);
+        };
+    }
+
+    private static Double finite(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? null : value;
+    }
+
+    // ============================================
+    // 스냅샷
+    // ============================================
+
+    private Snapshot snapshot() {
+        try {
+            return snapshotCache.get(SNAPSHOT_KEY, this::loadSnapshot);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("스크리너 데이터 로드 실패: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * 종목별 최근 windowDays 거래일 로드 (일자 오름차순)
+     * 이력 캐시 종목은 off-heap 구간을 복사하고 DB 조회에서 제외
+     * DB 조회는 전체 최근일 기준 달력일 범위로 제한하고, 커서로 나눠 읽는다.
+     */
+    private Snapshot loadSnapshot() {
+        long startTime = System.currentTimeMillis();
+
+        Map<String, Buffer> byStock = new TreeMap<>();
+        hotHistoryCache.loaded().forEach((stkCd, history) -> {
+            int end = history.size();
+            Buffer buffer = new Buffer(windowDays);
+            for (int row = Math.max(0, end - windowDays); row < end; row++) {
+                int t = buffer.size++;
+                buffer.dates[t] = history.date(row);
+                buffer.prices[t] = history.priceOrZero(row);
+                for (int i = 0; i < INVESTORS.length; i++) {
+                    buffer.net[i][t] = history.qty(INVESTORS[i], row);
+                }
+            }
+            byStock.put(stkCd, buffer);
+        });
+        int cached = byStock.size();
+
+        StringBuilder columns = new StringBuilder();
+        for (InvestorType investor : INVESTORS) {
+            columns.append(", COALESCE(").append(investor.chartExpression("t")).append(", 0)");
+        }
+        String sql =
+            "SELECT t.stk_cd, TO_CHAR(t.dt, 'YYYYMMDD'), COALESCE(t.cur_prc, 0)" + columns + " " +
+            "FROM (" +
+            "SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.stk_cd ORDER BY c.dt DESC) AS rn " +
+            "FROM tb_stock_investor_chart c " +
+            "WHERE c.stk_cd <> ALL(?) " +
+            "AND c.dt >= (SELECT MAX(dt) FROM tb_stock_investor_chart) - CAST(? AS INTEGER)" +
+            ") t WHERE t.rn <= ? ORDER BY t.stk_cd, t.dt";
+        String[] excluded = byStock.keySet().toArray(new String[0]);
+
+        RowCallbackHandler handler = rs -> {
+            String stkCd = rs.getString(1);
+            Buffer buffer = byStock.computeIfAbsent(stkCd, k -> new Buffer(windowDays));
+            int t = buffer.size++;
+            buffer.dates[t] = Integer.parseInt(rs.getString(2));
+            buffer.prices[t] = rs.getLong(3);
+            for (int i = 0; i < INVESTORS.length; i++) {
+                buffer.net[i][t] = rs.getLong(4 + i);
+            }
+        };
+
+        // fetch size 는 트랜잭션 안에서만 적용 (PostgreSQL 커서)
+        TransactionTemplate readTemplate = new TransactionTemplate(transactionManager);
+        readTemplate.setReadOnly(true);
+        readTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(LOAD_FETCH_SIZE);
+            ps.setArray(1, con.createArrayOf("varchar", excluded));
+            ps.setInt(2, lookbackCalendarDays());
+            ps.setInt(3, windowDays);
+            return ps;
+        }, handler));
+
+        Snapshot snapshot = new Snapshot(byStock);
+        log.info("스크리너 데이터 로드: 종목 {} 개 (이력 캐시 {} 개), 최근 {} 거래일, 기준일 {}, {}ms",
+            snapshot.size(), cached, windowDays, snapshot.asOf,
+            System.currentTimeMillis() - startTime);
+        return snapshot;
+    }
+
+    /**
+     * windowDays 거래일을 덮는 달력일 (주말 + 연휴 여유)
+     */
+    private int lookbackCalendarDays() {
+        return windowDays * 7 / 5 + 30;
+    }
+
+    /**
+     * 로드용 종목별 버퍼
+     */
+    private static final class Buffer {
+
+        private final int[] dates;
+        private final long[] prices;
+        private final long[][] net;
+        private int size;
+
+        Buffer(int capacity) {
+            dates = new int[capacity];
+            prices = new long[capacity];
+            net = new long[INVESTORS.length][capacity];
+        }
+    }
+
+    /**
+     * 종목별 primitive 시계열 (일자 yyyyMMdd 정수, 종가, 투자자별 순매수량과 누적합)
+     */
+    private static final class Snapshot {
+
+        private final String[] codes;
+        private final int[][] dates;
+        private final long[][] prices;
+        // [투자자][종목][일자]
+        private final long[][][] net;
+        // [투자자][종목][일자 + 1]
+        private final long[][][] prefix;
+        // 전 종목 최근일
+        private final int asOf;
+
+        Snapshot(Map<String, Buffer> byStock) {
+            int n = byStock.size();
+            codes = byStock.keySet().toArray(new String[0]);
+            dates = new int[n][];
+            prices = new long[n][];
+            net = new long[INVESTORS.length][n][];
+            prefix = new long[INVESTORS.length][n][];
+
+            int latest = 0;
+            for (int s = 0; s < n; s++) {
+                Buffer buffer = byStock.get(codes[s]);
+                dates[s] = Arrays.copyOf(buffer.dates, buffer.size);
+                prices[s] = Arrays.copyOf(buffer.prices, buffer.size);
+                for (int i = 0; i < INVESTORS.length; i++) {
+                    long[] values = Arrays.copyOf(buffer.net[i], buffer.size);
+                    long[] sums = new long[values.length + 1];
+                    for (int t = 0; t < values.length; t++) {
+                        sums[t + 1] = sums[t] + values[t];
+                    }
+                    net[i][s] = values;
+                    prefix[i][s] = sums;
+                }
+                if (buffer.size > 0) {
+                    latest = Math.max(latest, dates[s][buffer.size - 1]);
+                }
+            }
+            asOf = latest;
+        }
+
+        int size() {
+            return codes.length;
+        }
+
+        int lastDate(int s) {
+            return dates[s].length == 0 ? 0 : dates[s][dates[s].length - 1];
+        }
+
+        /**
+         * 최근일 기준 back 일 전 인덱스 (범위 밖이면 -1)
+         */
+        int index(int s, int back) {
+            int t = dates[s].length - 1 - back;
+            return t >= 0 ? t : -1;
+        }
+    }
+}
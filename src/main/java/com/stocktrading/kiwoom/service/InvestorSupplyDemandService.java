@@ -4,11 +4,14 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.stocktrading.kiwoom.adapter.out.persistence.entity.StockInvestorChart;
 import com.stocktrading.kiwoom.adapter.out.persistence.repository.StockInvestorChartRepository;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent;
+import com.stocktrading.kiwoom.domain.event.AnalyticsDataChangedEvent.Dataset;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +25,7 @@ public class InvestorSupplyDemandService {
 
     private final StockInvestorChartRepository chartRepository;
     private final StockInvestorInvestAccumulationRepository accumulationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 기간별 투자자 분석 데이터 조회 (On-Demand Update 포함)
@@ -47,6 +51,7 @@ public class InvestorSupplyDemandService {
     @Transactional
     public void calculate(String stkCd) {
         syncAccumulationData(stkCd);
+        eventPublisher.publishEvent(AnalyticsDataChangedEvent.of(Dataset.SUPPLY_DEMAND, stkCd));
     }
 
     /**
@@ -63,6 +68,7 @@ public class InvestorSupplyDemandService {
                 log.error("Failed to sync supply/demand for {}", stkCd, e);
             }
         }
+        eventPublisher.publishEvent(AnalyticsDataChangedEvent.all(Dataset.SUPPLY_DEMAND));
         return count;
     }
 
@@ -0,0 +1,200 @@
+package com.stocktrading.kiwoom.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.stocktrading.kiwoom.controller.StatisticsController.MaChartDataPoint;
+import com.stocktrading.kiwoom.controller.StatisticsController.MaChartResponse;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 여러 종목 이동평균 차트 일괄 조회 Service (관심종목 화면용)
+ *
+ * 종목별 차트 API 와 같은 결과를 stk_cd = ANY(?) 단일 쿼리로 만든다.
+ * 저장 기간은 tb_stock_investor_ma 컬럼을, 그 외 기간은 tb_stock_investor_chart 에서 종목별 window AVG 로 계산한다.
+ * 행이 종목코드 → 일자 순으로 오므로 종목 하나가 끝날 때마다 응답을 전달할 수 있다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MaChartBatchService {
+
+    // 종목 이동평균 소수 자릿수 (누적합 경로와 동일)
+    private static final int STOCK_MA_SCALE = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 종목별 이동평균 차트 (요청 종목 순서)
+     */
+    public Map<String, MaChartResponse> getCharts(List<String> stkCds, List<InvestorType> investors, int period,
+                                                  int days, String beforeDate) {
+        Map<String, MaChartResponse> result = new LinkedHashMap<>();
+        stkCds.forEach(stkCd -> result.put(stkCd, null));
+        streamCharts(stkCds, investors, period, days, beforeDate, response -> result.put(response.stkCd(), response));
+        return result;
+    }
+
+    /**
+     * 종목별 이동평균 차트를 완성되는 대로 전달 (종목코드 순, 데이터 없는 종목은 마지막에 빈 응답)
+     *
+     * @param days 종목별 최근 N일
+     * @param beforeDate 이 날짜 이전 데이터만 조회 (yyyyMMdd 또는 yyyy-MM-dd, 무한 스크롤용, 선택)
+     */
+    @Transactional(readOnly = true)
+    public void streamCharts(List<String> stkCds, List<InvestorType> investors, int period, int days,
+                             String beforeDate, Consumer<MaChartResponse> consumer) {
+        if (period < 1) {
+            throw new IllegalArgumentException("이동평균 기간은 1 이상이어야 합니다: " + period);
+        }
+        // 외국인+기관은 종목 차트 응답 필드가 없으므로 제외 (단건 API 와 동일)
+        List<InvestorType> types = investors.stream()
+            .filter(type -> type != InvestorType.FRGNR_ORGN)
+            .distinct()
+            .toList();
+        boolean stored = InvestorPrefixSumService.isStoredPeriod(period);
+        boolean hasBeforeDate = beforeDate != null && !beforeDate.isEmpty();
+
+        List<Object> params = new ArrayList<>();
+        params.add(stkCds.toArray(new String[0]));
+        if (hasBeforeDate) {
+            // 이동평균 테이블 dt 는 문자열(yyyyMMdd), 차트 테이블 dt 는 DATE
+            String before = beforeDate.replace("-", "");
+            params.add(stored ? before : Date.valueOf(LocalDate.parse(before, DateTimeFormatter.BASIC_ISO_DATE)));
+        }
+        params.add(days);
+
+        Map<String, String> sectors = stored ? Map.of() : latestSectors(stkCds);
+        Set<String> remaining = new LinkedHashSet<>(stkCds);
+        List<MaChartDataPoint> points = new ArrayList<>();
+        String[] current = { null, null };
+
+        jdbcTemplate.query(stored ? storedSql(types, period, hasBeforeDate) : windowSql(types, period, hasBeforeDate),
+            (RowCallbackHandler) rs -> {
+                String stkCd = rs.getString("stk_cd");
+                if (current[0] != null && !current[0].equals(stkCd)) {
+                    remaining.remove(current[0]);
+                    consumer.accept(toResponse(current[0], current[1], period, points));
+                    points.clear();
+                }
+                current[0] = stkCd;
+                current[1] = stored ? rs.getString("sector") : sectors.get(stkCd);
+                points.add(toPoint(rs, types));
+            },
+            params.toArray());
+
+        if (current[0] != null) {
+            remaining.remove(current[0]);
+            consumer.accept(toResponse(current[0], current[1], period, points));
+        }
+        for (String stkCd : remaining) {
+            consumer.accept(MaChartResponse.builder()
+                .stkCd(stkCd)
+                .data(List.of())
+                .message("데이터가 없습니다.")
+                .build());
+        }
+    }
+
+    private static MaChartResponse toResponse(String stkCd, String sector, int period, List<MaChartDataPoint> points) {
+        return MaChartResponse.builder()
+            .stkCd(stkCd)
+            .sector(sector)
+            .period(period)
+            .data(List.copyOf(points))
+            .message("조회 성공")
+            .build();
+    }
+
+    private static MaChartDataPoint toPoint(ResultSet rs, List<InvestorType> types) throws SQLException {
+        Map<InvestorType, BigDecimal> values = new HashMap<>();
+        for (InvestorType type : types) {
+            values.put(type, rs.getBigDecimal(type.getColumn()));
+        }
+        return new MaChartDataPoint(
+            rs.getString("dt"),
+            rs.getObject("cur_prc", Long.class),
+            values.get(InvestorType.FRGNR),
+            values.get(InvestorType.ORGN),
+            values.get(InvestorType.FNNC_INVT),
+            values.get(InvestorType.INSRNC),
+            values.get(InvestorType.INVTRT),
+            values.get(InvestorType.ETC_FNNC),
+            values.get(InvestorType.BANK),
+            values.get(InvestorType.PENFND_ETC),
+            values.get(InvestorType.SAMO_FUND),
+            values.get(InvestorType.NATN),
+            values.get(InvestorType.ETC_CORP),
+            values.get(InvestorType.NATFOR),
+            values.get(InvestorType.IND_INVSR));
+    }
+
+    /**
+     * 누적합 경로의 섹터 (이동평균 테이블 최근 행 기준, 단건 API 와 동일)
+     */
+    private Map<String, String> latestSectors(List<String> stkCds) {
+        Map<String, String> sectors = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT DISTINCT ON (stk_cd) stk_cd, sector FROM tb_stock_investor_ma " +
+            "WHERE stk_cd = ANY(?) ORDER BY stk_cd, dt DESC",
+            (RowCallbackHandler) rs -> sectors.put(rs.getString("stk_cd"), rs.getString("sector")),
+            (Object) stkCds.toArray(new String[0]));
+        return sectors;
+    }
+
+    /**
+     * 저장 기간: 이동평균 테이블에서 종목별 최근 N행
+     */
+    private static String storedSql(List<InvestorType> types, int period, boolean hasBeforeDate) {
+        StringBuilder columns = new StringBuilder();
+        for (InvestorType type : types) {
+            columns.append(", ").append(type.getColumn()).append("_ma").append(period)
+                .append(" AS ").append(type.getColumn());
+        }
+        return "SELECT stk_cd, dt, cur_prc, sector" + columns + " FROM (" +
+            "SELECT m.*, ROW_NUMBER() OVER (PARTITION BY stk_cd ORDER BY dt DESC) AS rn " +
+            "FROM tb_stock_investor_ma m WHERE stk_cd = ANY(?)" + (hasBeforeDate ? " AND dt < ?" : "") +
+            ") t WHERE rn <= ? ORDER BY stk_cd, dt";
+    }
+
+    /**
+     * 그 외 기간: 차트 원천에서 종목별 window AVG (기간 부족 행은 null, 프레임 크기는 상수여야 하므로 인라인)
+     * 누적합 경로와 같이 결측 수량은 0 으로 보고 평균하며, 같은 자릿수로 반올림한다.
+     */
+    private static String windowSql(List<InvestorType> types, int period, boolean hasBeforeDate) {
+        StringBuilder averages = new StringBuilder();
+        StringBuilder columns = new StringBuilder();
+        for (InvestorType type : types) {
+            averages.append(", CASE WHEN COUNT(*) OVER w = ").append(period)
+                .append(" THEN ROUND(AVG(COALESCE(").append(type.getColumn()).append(", 0)) OVER w, ").append(STOCK_MA_SCALE)
+                .append(") END AS ").append(type.getColumn());
+            columns.append(", ").append(type.getColumn());
+        }
+        return "SELECT stk_cd, TO_CHAR(dt, 'YYYYMMDD') AS dt, cur_prc" + columns + " FROM (" +
+            "SELECT stk_cd, dt, cur_prc" + averages + ", " +
+            "ROW_NUMBER() OVER (PARTITION BY stk_cd ORDER BY dt DESC) AS rn " +
+            "FROM tb_stock_investor_chart WHERE stk_cd = ANY(?)" + (hasBeforeDate ? " AND dt < ?" : "") + " " +
+            "WINDOW w AS (PARTITION BY stk_cd ORDER BY dt ROWS BETWEEN " + (period - 1) + " PRECEDING AND CURRENT ROW)" +
+            ") t WHERE rn <= ? ORDER BY stk_cd, dt";
+    }
+}
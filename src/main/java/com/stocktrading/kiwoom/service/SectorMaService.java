@@ -3,13 +3,15 @@ package com.stocktrading.kiwoom.service;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.stocktrading.kiwoom.adapter.out.persistence.entity.StockInvestorSectorMaEntity;
-import com.stocktrading.kiwoom.adapter.out.persistence.entity.StockListMetaEntity;
 import com.stocktrading.kiwoom.adapter.out.persistence.repository.StockInvestorSectorMaRepository;
-import com.stocktrading.kiwoom.adapter.out.persistence.repository.StockListMetaRepository;
+import com.stocktrading.kiwoom.analytics.RollingKernel;
+import com.stocktrading.kiwoom.analytics.RollingKernels;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
 import com.stocktrading.kiwoom.dto.SectorMaResponse;
 
 import lombok.RequiredArgsConstructor;
@@ -24,7 +26,9 @@ import lombok.extern.slf4j.Slf4j;
 public class SectorMaService {
 
     private final StockInvestorSectorMaRepository sectorMaRepository;
-    private final StockListMetaRepository stockListMetaRepository;
+    private final StockMetaRegistry stockMetaRegistry;
+    private final InvestorPrefixSumService investorPrefixSumService;
+    private final JdbcTemplate jdbcTemplate;
 
     /**
      * 섹터별 이동평균 조회 (날짜 범위)
@@ -57,11 +61,10 @@ public class SectorMaService {
     /**
      * 전체 섹터 목록 조회
      */
-    @Transactional(readOnly = true)
     public List<SectorMaResponse.SectorInfo> getAllSectors() {
         log.info("전체 섹터 목록 조회");
 
-        Map<String, String> sectorMap = getSectorNameMap();
+        Map<String, String> sectorMap = stockMetaRegistry.sectorNames();
 
         return sectorMap.entrySet().stream()
             .map(entry -> new SectorMaResponse.SectorInfo(entry.getKey(), entry.getValue()))
@@ -72,19 +75,15 @@ public class SectorMaService {
     /**
      * 섹터에 속한 종목 목록 조회 (REQ-004-1)
      */
-    @Transactional(readOnly = true)
     public List<SectorMaResponse.StockInfo> getStocksBySector(String sectorCd) {
         log.info("섹터별 종목 목록 조회: sectorCd={}", sectorCd);
 
         // 섹터 코드를 한글 섹터명으로 변환
-        Map<String, String> sectorMap = getSectorNameMap();
-        String sectorName = sectorMap.getOrDefault(sectorCd, sectorCd);
+        String sectorName = stockMetaRegistry.sectorName(sectorCd);
         log.info("섹터 코드 {} -> 섹터명: {}", sectorCd, sectorName);
 
-        List<StockListMetaEntity> stocks = stockListMetaRepository.findBySector(sectorName);
-
-        return stocks.stream()
-            .map(stock -> new SectorMaResponse.StockInfo(stock.getCode(), stock.getName()))
+        return stockMetaRegistry.stocksBySectorName(sectorName).stream()
+            .map(stock -> new SectorMaResponse.StockInfo(stock.code(), stock.name()))
             .collect(Collectors.toList());
     }
 
@@ -103,6 +102,11 @@ public class SectorMaService {
             sectorCd, days, investors, period, beforeDate);
 
         try {
+            // 저장 컬럼에 없는 기간은 누적합에서 계산
+            if (!InvestorPrefixSumService.isStoredPeriod(period)) {
+                return getChartDataFromPrefixSum(sectorCd, days, investors, period, beforeDate);
+            }
+
             // 1. 데이터 조회
             List<StockInvestorSectorMaEntity> entities;
             if (beforeDate != null && !beforeDate.isEmpty()) {
@@ -162,6 +166,45 @@ public class SectorMaService {
         }
     }
 
+    /**
+     * 누적합 기반 임의 기간 섹터 차트 데이터
+     */
+    private SectorMaResponse.SectorMaChartResponse getChartDataFromPrefixSum(
+            String sectorCd, int days, String investors, int period, String beforeDate) {
+
+        List<InvestorType> investorTypes = new ArrayList<>();
+        for (String investor : investors.split(",")) {
+            InvestorType.fromKey(investor).ifPresent(investorTypes::add);
+        }
+
+        List<InvestorPrefixSumService.PrefixMaPoint> points = investorPrefixSumService.getMovingAverages(
+            InvestorPrefixSumService.TargetType.SECTOR, sectorCd, investorTypes, period, days, beforeDate);
+
+        if (points.isEmpty()) {
+            return SectorMaResponse.SectorMaChartResponse.builder()
+                .sectorCd(sectorCd)
+                .data(Collections.emptyList())
+                .message("데이터가 없습니다.")
+                .build();
+        }
+
+        List<SectorMaResponse.SectorMaChartDataPoint> dataPoints = points.stream()
+            .map(point -> {
+                SectorMaResponse.SectorMaChartDataPoint.SectorMaChartDataPointBuilder builder =
+                    SectorMaResponse.SectorMaChartDataPoint.builder().dt(point.dt());
+                point.values().forEach((type, value) -> setInvestorValue(builder, type.getKey(), value));
+                return builder.build();
+            })
+            .collect(Collectors.toList());
+
+        return SectorMaResponse.SectorMaChartResponse.builder()
+            .sectorCd(sectorCd)
+            .sectorNm(stockMetaRegistry.sectorName(sectorCd))
+            .period(period)
+            .data(dataPoints)
+            .build();
+    }
+
     /**
      * Entity에서 투자자별, 기간별 MA 값 추출
      */
@@ -341,9 +384,9 @@ public class SectorMaService {
     }
 
     /**
-     * Builder에 투자자별 값 설정
+     * Builder에 투자자별 값 설정 (바스켓 차트에서도 사용)
      */
-    private void setInvestorValue(
+    static void setInvestorValue(
             SectorMaResponse.SectorMaChartDataPoint.SectorMaChartDataPointBuilder builder,
             String investor,
             java.math.BigDecimal value
@@ -365,26 +408,9 @@ public class SectorMaService {
         }
     }
 
-    /**
-     * 섹터 코드-이름 매핑
-     */
-    private Map<String, String> getSectorNameMap() {
-        Map<String, String> map = new HashMap<>();
-        map.put("semicon", "반도체");
-        map.put("heavyind", "철강/조선");
-        map.put("auto", "자동차");
-        map.put("battery", "이차전지");
-        map.put("ai_infra", "AI (전력/SMR/에너지)");
-        map.put("petro", "석유화학/정유");
-        map.put("defense", "방위산업");
-        map.put("culture", "뷰티/엔터/게임");
-        map.put("robot", "첨단로봇");
-        map.put("bio", "바이오/제약");
-        return map;
-    }
-
     /**
      * 모든 섹터 차트 데이터 조회 (REQ-005)
+     * 저장 기간은 섹터 이동평균 테이블, 그 외 기간은 누적합 테이블에서 전체 섹터를 쿼리 한 번으로 조회한다.
      */
     @Transactional(readOnly = true)
     public SectorMaResponse.AllSectorMaChartResponse getAllSectorsChartData(
@@ -394,22 +420,20 @@ public class SectorMaService {
             days, investors, period, beforeDate);
 
         try {
-            // 모든 섹터 목록 조회
-            List<SectorMaResponse.SectorInfo> sectors = getAllSectors();
-            Map<String, SectorMaResponse.SectorMaChartResponse> sectorDataMap = new HashMap<>();
-
-            // 각 섹터별로 데이터 조회
-            for (SectorMaResponse.SectorInfo sectorInfo : sectors) {
-                try {
-                    SectorMaResponse.SectorMaChartResponse sectorData =
-                        getChartData(sectorInfo.getSectorCd(), days, investors, period, beforeDate);
-                    sectorDataMap.put(sectorInfo.getSectorCd(), sectorData);
-                } catch (Exception e) {
-                    log.warn("섹터 {} 데이터 조회 실패: {}", sectorInfo.getSectorCd(), e.getMessage());
-                    // 실패한 섹터는 건너뛰고 계속 진행
-                }
+            List<String> sectorCodes = getAllSectors().stream()
+                .map(SectorMaResponse.SectorInfo::getSectorCd)
+                .collect(Collectors.toList());
+
+            List<InvestorType> investorTypes = new ArrayList<>();
+            for (String investor : investors.split(",")) {
+                InvestorType.fromKey(investor.trim()).ifPresent(investorTypes::add);
             }
 
+            Map<String, SectorMaResponse.SectorMaChartResponse> sectorDataMap =
+                InvestorPrefixSumService.isStoredPeriod(period)
+                    ? getAllSectorsChartDataFromMa(sectorCodes, investorTypes, days, period, beforeDate)
+                    : getAllSectorsChartDataFromPrefixSum(sectorCodes, investorTypes, days, period, beforeDate);
+
             if (sectorDataMap.isEmpty()) {
                 return SectorMaResponse.AllSectorMaChartResponse.error("모든 섹터 데이터 조회 실패");
             }
@@ -422,6 +446,111 @@ public class SectorMaService {
         }
     }
 
+    /**
+     * 저장 기간 이동평균: 섹터별 최근 days 행을 window 함수로 잘라 필요한 컬럼만 조회
+     * (sector_cd, dt 순으로 정렬되어 한 번의 순회로 섹터별 시계열 구성)
+     */
+    private Map<String, SectorMaResponse.SectorMaChartResponse> getAllSectorsChartDataFromMa(
+            List<String> sectorCodes, List<InvestorType> investorTypes, int days, int period, String beforeDate) {
+
+        String columns = investorTypes.stream()
+            .map(investor -> ", " + investor.getColumn() + "_ma" + period)
+            .collect(Collectors.joining());
+
+        List<Object> params = new ArrayList<>();
+        params.add(sectorCodes.toArray(new String[0]));
+        String dateCondition = "";
+        if (beforeDate != null && !beforeDate.isEmpty()) {
+            dateCondition = "AND dt < ? ";
+            params.add(beforeDate);
+        }
+        params.add(days);
+
+        String sql =
+            "SELECT sector_cd, sector_nm, dt" + columns + " FROM (" +
+            "SELECT sector_cd, sector_nm, dt" + columns + ", " +
+            "ROW_NUMBER() OVER (PARTITION BY sector_cd ORDER BY dt DESC) AS rn " +
+            "FROM tb_stock_investor_sector_ma " +
+            "WHERE sector_cd = ANY(?) " + dateCondition +
+            ") t WHERE rn <= ? " +
+            "ORDER BY sector_cd, dt";
+
+        Map<String, String> sectorNames = new HashMap<>();
+        Map<String, List<SectorMaResponse.SectorMaChartDataPoint>> pointsBySector = new HashMap<>();
+
+        jdbcTemplate.query(sql, rs -> {
+            String sectorCd = rs.getString("sector_cd");
+            sectorNames.putIfAbsent(sectorCd, rs.getString("sector_nm"));
+
+            SectorMaResponse.SectorMaChartDataPoint.SectorMaChartDataPointBuilder builder =
+                SectorMaResponse.SectorMaChartDataPoint.builder().dt(rs.getString("dt"));
+            for (int i = 0; i < investorTypes.size(); i++) {
+                setInvestorValue(builder, investorTypes.get(i).getKey(), rs.getBigDecimal(4 + i));
+            }
+            pointsBySector.computeIfAbsent(sectorCd, k -> new ArrayList<>()).add(builder.build());
+        }, params.toArray());
+
+        Map<String, SectorMaResponse.SectorMaChartResponse> sectorDataMap = new LinkedHashMap<>();
+        for (String sectorCd : sectorCodes) {
+            List<SectorMaResponse.SectorMaChartDataPoint> dataPoints = pointsBySector.get(sectorCd);
+            sectorDataMap.put(sectorCd, dataPoints == null
+                ? emptyChartResponse(sectorCd)
+                : SectorMaResponse.SectorMaChartResponse.builder()
+                    .sectorCd(sectorCd)
+                    .sectorNm(sectorNames.get(sectorCd))
+                    .period(period)
+                    .data(dataPoints)
+                    .build());
+        }
+        return sectorDataMap;
+    }
+
+    /**
+     * 임의 기간 이동평균: 전체 섹터 누적합을 한 번에 조회하여 계산
+     */
+    private Map<String, SectorMaResponse.SectorMaChartResponse> getAllSectorsChartDataFromPrefixSum(
+            List<String> sectorCodes, List<InvestorType> investorTypes, int days, int period, String beforeDate) {
+
+        Map<String, List<InvestorPrefixSumService.PrefixMaPoint>> pointsBySector =
+            investorPrefixSumService.getMovingAverages(InvestorPrefixSumService.TargetType.SECTOR,
+                sectorCodes, investorTypes, period, days, beforeDate);
+
+        Map<String, String> sectorNames = stockMetaRegistry.sectorNames();
+        Map<String, SectorMaResponse.SectorMaChartResponse> sectorDataMap = new LinkedHashMap<>();
+        for (String sectorCd : sectorCodes) {
+            List<InvestorPrefixSumService.PrefixMaPoint> points = pointsBySector.get(sectorCd);
+            if (points == null || points.isEmpty()) {
+                sectorDataMap.put(sectorCd, emptyChartResponse(sectorCd));
+                continue;
+            }
+
+            List<SectorMaResponse.SectorMaChartDataPoint> dataPoints = points.stream()
+                .map(point -> {
+                    SectorMaResponse.SectorMaChartDataPoint.SectorMaChartDataPointBuilder builder =
+                        SectorMaResponse.SectorMaChartDataPoint.builder().dt(point.dt());
+                    point.values().forEach((type, value) -> setInvestorValue(builder, type.getKey(), value));
+                    return builder.build();
+                })
+                .collect(Collectors.toList());
+
+            sectorDataMap.put(sectorCd, SectorMaResponse.SectorMaChartResponse.builder()
+                .sectorCd(sectorCd)
+                .sectorNm(sectorNames.getOrDefault(sectorCd, sectorCd))
+                .period(period)
+                .data(dataPoints)
+                .build());
+        }
+        return sectorDataMap;
+    }
+
+    private static SectorMaResponse.SectorMaChartResponse emptyChartResponse(String sectorCd) {
+        return SectorMaResponse.SectorMaChartResponse.builder()
+            .sectorCd(sectorCd)
+            .data(Collections.emptyList())
+            .message("데이터가 없습니다.")
+            .build();
+    }
+
     /**
      * 섹터 투자자별 이동평균 비중 계산
      */
@@ -455,43 +584,20 @@ public class SectorMaService {
             volumeMap.put(inv, java.math.BigDecimal.ZERO);
         }
 
-        // 각 row에서 선택된 기간의 MA값 추출하여 누적
-        for (StockInvestorSectorMaEntity row : data) {
-            java.math.BigDecimal frgnrMa = getSectorMaValue(row, "frgnr", period);
-            if (frgnrMa != null) volumeMap.put("frgnr", volumeMap.get("frgnr").add(frgnrMa.abs()));
-
-            java.math.BigDecimal orgnMa = getSectorMaValue(row, "orgn", period);
-            if (orgnMa != null) volumeMap.put("orgn", volumeMap.get("orgn").add(orgnMa.abs()));
-
-            java.math.BigDecimal fnncInvtMa = getSectorMaValue(row, "fnncInvt", period);
-            if (fnncInvtMa != null) volumeMap.put("fnncInvt", volumeMap.get("fnncInvt").add(fnncInvtMa.abs()));
-
-            java.math.BigDecimal insrncMa = getSectorMaValue(row, "insrnc", period);
-            if (insrncMa != null) volumeMap.put("insrnc", volumeMap.get("insrnc").add(insrncMa.abs()));
-
-            java.math.BigDecimal invtrtMa = getSectorMaValue(row, "invtrt", period);
-            if (invtrtMa != null) volumeMap.put("invtrt", volumeMap.get("invtrt").add(invtrtMa.abs()));
-
-            java.math.BigDecimal bankMa = getSectorMaValue(row, "bank", period);
-            if (bankMa != null) volumeMap.put("bank", volumeMap.get("bank").add(bankMa.abs()));
-
-            java.math.BigDecimal etcFnncMa = getSectorMaValue(row, "etcFnnc", period);
-            if (etcFnncMa != null) volumeMap.put("etcFnnc", volumeMap.get("etcFnnc").add(etcFnncMa.abs()));
-
-            java.math.BigDecimal penfndEtcMa = getSectorMaValue(row, "penfndEtc", period);
-            if (penfndEtcMa != null) volumeMap.put("penfndEtc", volumeMap.get("penfndEtc").add(penfndEtcMa.abs()));
-
-            java.math.BigDecimal samoFundMa = getSectorMaValue(row, "samoFund", period);
-            if (samoFundMa != null) volumeMap.put("samoFund", volumeMap.get("samoFund").add(samoFundMa.abs()));
-
-            java.math.BigDecimal etcCorpMa = getSectorMaValue(row, "etcCorp", period);
-            if (etcCorpMa != null) volumeMap.put("etcCorp", volumeMap.get("etcCorp").add(etcCorpMa.abs()));
-
-            java.math.BigDecimal natnMa = getSectorMaValue(row, "natn", period);
-            if (natnMa != null) volumeMap.put("natn", volumeMap.get("natn").add(natnMa.abs()));
+        // 각 row에서 선택된 기간의 MA값을 컬럼 배열로 추출 (기간 부족 값은 NaN) 후 커널로 합산
+        int n = data.size();
+        double[][] maValues = new double[investors.length][n];
+        for (int i = 0; i < n; i++) {
+            StockInvestorSectorMaEntity row = data.get(i);
+            for (int k = 0; k < investors.length; k++) {
+                java.math.BigDecimal ma = getSectorMaValue(row, investors[k], period);
+                maValues[k][i] = ma != null ? ma.doubleValue() : Double.NaN;
+            }
+        }
 
-            java.math.BigDecimal natforMa = getSectorMaValue(row, "natfor", period);
-            if (natforMa != null) volumeMap.put("natfor", volumeMap.get("natfor").add(natforMa.abs()));
+        RollingKernel kernel = RollingKernels.get();
+        for (int k = 0; k < investors.length; k++) {
+            volumeMap.put(investors[k], java.math.BigDecimal.valueOf(kernel.sumAbs(maValues[k], 0, n)));
         }
 
         // 전체 합계 계산
@@ -0,0 +1,369 @@
+package com.stocktrading.kiwoom.service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stocktrading.kiwoom.analytics.RollingKernel;
+import com.stocktrading.kiwoom.analytics.RollingKernels;
+import com.stocktrading.kiwoom.analytics.SignalBacktest;
+import com.stocktrading.kiwoom.domain.event.InvestorChartSavedEvent;
+import com.stocktrading.kiwoom.domain.model.InvestorType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 투자자 수급 신호 백테스트 서비스
+ *
+ * KOSPI200(tb_stock_list_meta) 종목의 종가와 투자자별 순매수 거래대금(cur_prc × 순매수량)을
+ * 종목별 primitive 배열로 메모리에 올려두고, 투자자 × 이동평균 기간 × 임계값(억원) × 보유일수
+ * 조합을 종목 단위로 병렬 평가한다. 이동평균은 누적합 커널로 임의 기간을 계산한다.
+ * 메모리 데이터는 종목 단위로 캐시하며, 차트 데이터 저장 시 변경된 종목만 무효화하고 다음 요청에서 그 종목만 다시 읽는다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SignalBacktestService {
+
+    // 임계값 단위 (억원)
+    private static final double THRESHOLD_UNIT = 100_000_000d;
+
+    // 요청당 최대 조합 수
+    private static final int MAX_COMBINATIONS = 50_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 종목코드 → 일자/종가/투자자 거래대금 시계열
+    private final Cache<String, StockSeries> seriesCache = Caffeine.newBuilder()
+        .maximumSize(5_000)
+        .expireAfterAccess(Duration.ofMinutes(30))
+        .build();
+
+    /**
+     * 백테스트 조건
+     *
+     * @param thresholds 이동평균 진입 임계값 (억원)
+     * @param holdDays 보유 거래일 수 (0 은 신호 이탈 시 청산)
+     * @param startDate 평가 시작일 (yyyyMMdd, null 이면 전체)
+     * @param endDate 평가 종료일 (yyyyMMdd, null 이면 전체)
+     * @param costBps 왕복 거래비용 (bp)
+     */
+    public record Grid(List<InvestorType> investors, int[] periods, double[] thresholds, int[] holdDays,
+                       String startDate, String endDate, double costBps) {
+
+        public int size() {
+            return investors.size() * periods.length * thresholds.length * holdDays.length;
+        }
+    }
+
+    /**
+     * 조합별 결과 (거래가 없으면 비율 값은 null)
+     */
+    public record ComboResult(String investor, String investorName, int period, double threshold, int holdDays,
+                              long trades, Double hitRate, Double avgReturnPct, Double stdReturnPct,
+                              Double geoMeanReturnPct, Double avgHoldingDays) {
+    }
+
+    /**
+     * 백테스트 결과
+     */
+    public record Result(int stockCount, int combinations, long elapsedMs, boolean vectorized,
+                         List<ComboResult> results) {
+    }
+
+    /**
+     * 조합 그리드 백테스트
+     *
+     * @param sortBy 정렬 기준 (avgReturn, hitRate, geoMeanReturn, trades)
+     * @param top 반환할 상위 조합 수
+     */
+    public Result run(Grid grid, String sortBy, int top) {
+        if (grid.size() == 0) {
+            throw new IllegalArgumentException("투자자, 기간, 임계값, 보유일수를 하나 이상 지정해야 합니다");
+        }
+        if (grid.size() > MAX_COMBINATIONS) {
+            throw new IllegalArgumentException("조합 수가 너무 많습니다: " + grid.size() + " (최대 " + MAX_COMBINATIONS + ")");
+        }
+        for (int period : grid.periods()) {
+            if (period < 1) {
+                throw new IllegalArgumentException("이동평균 기간은 1 이상이어야 합니다: " + period);
+            }
+        }
+
+        long startTime = System.currentTimeMillis();
+        Dataset dataset = dataset();
+        for (InvestorType investor : grid.investors()) {
+            loadAmounts(dataset, investor);
+        }
+
+        int startKey = grid.startDate() != null ? Integer.parseInt(grid.startDate()) : Integer.MIN_VALUE;
+        int endKey = grid.endDate() != null ? Integer.parseInt(grid.endDate()) : Integer.MAX_VALUE;
+        double cost = grid.costBps() / 10_000d;
+
+        // 종목 단위 병렬 평가 후 조합별 통계 합산
+        SignalBacktest.Stats[] stats = IntStream.range(0, dataset.size()).parallel()
+            .collect(
+                () -> newStats(grid.size()),
+                (acc, s) -> evaluateStock(dataset, s, grid, startKey, endKey, cost, acc),
+                SignalBacktestService::merge);
+
+        List<ComboResult> results = new ArrayList<>(grid.size());
+        int c = 0;
+        for (InvestorType investor : grid.investors()) {
+            for (int period : grid.periods()) {
+                for (double threshold : grid.thresholds()) {
+                    for (int hold : grid.holdDays()) {
+                        results.add(toResult(investor, period, threshold, hold, stats[c++]));
+                    }
+                }
+            }
+        }
+        results.sort(comparator(sortBy));
+        if (results.size() > top) {
+            results = new ArrayList<>(results.subList(0, top));
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        log.info("백테스트 완료: 종목 {} 개, 조합 {} 개, {}ms", dataset.size(), grid.size(), elapsed);
+        return new Result(dataset.size(), grid.size(), elapsed, RollingKernels.isVectorized(), results);
+    }
+
+    /**
+     * 차트 데이터가 바뀐 종목만 메모리 데이터 무효화
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvestorChartSaved(InvestorChartSavedEvent event) {
+        if (!event.isEmpty()) {
+            seriesCache.invalidateAll(event.datesByStock().keySet());
+        }
+    }
+
+    /**
+     * 종목 1개에 대해 모든 조합 평가 (기간별 신호는 한 번만 계산)
+     */
+    private static void evaluateStock(Dataset dataset, int s, Grid grid, int startKey, int endKey,
+                                      double cost, SignalBacktest.Stats[] acc) {
+        StockSeries series = dataset.series()[s];
+        int[] dates = series.dates;
+        long[] prices = series.prices;
+        int from = lowerBound(dates, startKey);
+        int to = upperBound(dates, endKey);
+        if (to - from < 2) {
+            return;
+        }
+
+        RollingKernel kernel = RollingKernels.get();
+        double[] signal = new double[dates.length];
+        int c = 0;
+        for (InvestorType investor : grid.investors()) {
+            long[] prefix = RollingKernels.prefixSums(series.amounts.get(investor));
+            for (int period : grid.periods()) {
+                kernel.windowAverages(prefix, period, signal);
+                for (double threshold : grid.thresholds()) {
+                    double scaled = threshold * THRESHOLD_UNIT;
+                    for (int hold : grid.holdDays()) {
+                        SignalBacktest.run(prices, signal, from, to, scaled, hold, cost, acc[c++]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * KOSPI200 종목 시계열 (캐시에 없는 종목만 한 번에 로드, 차트 데이터 없는 종목 제외)
+     */
+    private Dataset dataset() {
+        List<String> codes = jdbcTemplate.queryForList(
+            "SELECT DISTINCT code FROM tb_stock_list_meta ORDER BY code", String.class);
+        Map<String, StockSeries> loaded = seriesCache.getAll(codes, this::loadSeries);
+
+        List<String> present = new ArrayList<>(codes.size());
+        List<StockSeries> series = new ArrayList<>(codes.size());
+        for (String code : codes) {
+            StockSeries stock = loaded.get(code);
+            if (stock != null && stock.dates.length > 0) {
+                present.add(code);
+                series.add(stock);
+            }
+        }
+        return new Dataset(present.toArray(new String[0]), series.toArray(new StockSeries[0]));
+    }
+
+    /**
+     * 종목별 일자/종가 로드 (투자자 거래대금은 요청 시 투자자별로 로드, 데이터 없는 종목은 빈 시계열)
+     */
+    private Map<String, StockSeries> loadSeries(Set<? extends String> codes) {
+        long startTime = System.currentTimeMillis();
+        Map<String, Series> byStock = new HashMap<>(codes.size() * 2);
+
+        jdbcTemplate.query(
+            "SELECT c.stk_cd, TO_CHAR(c.dt, 'YYYYMMDD') AS dt, COALESCE(c.cur_prc, 0) AS cur_prc " +
+            "FROM tb_stock_investor_chart c " +
+            "WHERE c.stk_cd = ANY(?) " +
+            "ORDER BY c.stk_cd, c.dt",
+            rs -> {
+                byStock.computeIfAbsent(rs.getString("stk_cd"), k -> new Series())
+                    .add(Integer.parseInt(rs.getString("dt")), rs.getLong("cur_prc"));
+            },
+            (Object) codes.toArray(new String[0]));
+
+        Map<String, StockSeries> result = new HashMap<>(codes.size() * 2);
+        long rows = 0;
+        for (String code : codes) {
+            Series series = byStock.get(code);
+            int size = series != null ? series.size : 0;
+            result.put(code, new StockSeries(
+                series != null ? Arrays.copyOf(series.dates, size) : new int[0],
+                series != null ? Arrays.copyOf(series.prices, size) : new long[0]));
+            rows += size;
+        }
+
+        log.info("백테스트 데이터 로드: 종목 {} 개, {} 행, {}ms", codes.size(), rows, System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    /**
+     * 투자자 순매수 거래대금이 아직 없는 종목만 로드 (일자 축은 종가와 동일)
+     */
+    private void loadAmounts(Dataset dataset, InvestorType investor) {
+        Map<String, StockSeries> missing = new HashMap<>();
+        for (int s = 0; s < dataset.size(); s++) {
+            if (!dataset.series()[s].amounts.containsKey(investor)) {
+                missing.put(dataset.codes()[s], dataset.series()[s]);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Map<String, long[]> values = new HashMap<>(missing.size() * 2);
+        missing.forEach((code, series) -> values.put(code, new long[series.dates.length]));
+        jdbcTemplate.query(
+            "SELECT c.stk_cd, TO_CHAR(c.dt, 'YYYYMMDD') AS dt, " +
+            "COALESCE(c.cur_prc * " + investor.chartExpression("c") + ", 0) AS amount " +
+            "FROM tb_stock_investor_chart c " +
+            "WHERE c.stk_cd = ANY(?)",
+            rs -> {
+                String code = rs.getString("stk_cd");
+                StockSeries series = missing.get(code);
+                if (series == null) {
+                    return;
+                }
+                int t = Arrays.binarySearch(series.dates, Integer.parseInt(rs.getString("dt")));
+                if (t >= 0) {
+                    values.get(code)[t] = rs.getLong("amount");
+                }
+            },
+            (Object) missing.keySet().toArray(new String[0]));
+        missing.forEach((code, series) -> series.amounts.put(investor, values.get(code)));
+    }
+
+    /**
+     * 요청 시점의 종목 목록과 시계열 (배열 번호가 같은 종목)
+     */
+    private record Dataset(String[] codes, StockSeries[] series) {
+
+        int size() {
+            return codes.length;
+        }
+    }
+
+    /**
+     * 종목 primitive 시계열 (일자 yyyyMMdd 정수, 종가, 투자자별 순매수 거래대금)
+     */
+    private static final class StockSeries {
+
+        private final int[] dates;
+        private final long[] prices;
+        // 투자자 → 순매수 거래대금 (최초 요청 시 로드)
+        private final Map<InvestorType, long[]> amounts = new ConcurrentHashMap<>();
+
+        StockSeries(int[] dates, long[] prices) {
+            this.dates = dates;
+            this.prices = prices;
+        }
+    }
+
+    /**
+     * 로드용 가변 primitive 버퍼
+     */
+    private static final class Series {
+
+        private int[] dates = new int[256];
+        private long[] prices = new long[256];
+        private int size;
+
+        void add(int date, long price) {
+            if (size == dates.length) {
+                dates = Arrays.copyOf(dates, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+            }
+            dates[size] = date;
+            prices[size] = price;
+            size++;
+        }
+    }
+
+    private static ComboResult toResult(InvestorType investor, int period, double threshold, int hold,
+                                        SignalBacktest.Stats stats) {
+        return new ComboResult(
+            investor.getKey(), investor.getDisplayName(), period, threshold, hold,
+            stats.trades(),
+            round(stats.hitRate(), 4),
+            round(stats.averageReturn() * 100, 4),
+            round(stats.returnStdDev() * 100, 4),
+            round(Math.expm1(stats.totalLogReturn() / stats.trades()) * 100, 4),
+            round(stats.averageHoldingDays(), 2));
+    }
+
+    private static Comparator<ComboResult> comparator(String sortBy) {
+        // 내림차순, 거래 없는 조합(null)은 뒤로
+        Comparator<Double> descending = Comparator.nullsLast(Comparator.reverseOrder());
+        return switch (sortBy == null ? "" : sortBy) {
+            case "hitRate" -> Comparator.comparing(ComboResult::hitRate, descending);
+            case "geoMeanReturn" -> Comparator.comparing(ComboResult::geoMeanReturnPct, descending);
+            case "trades" -> Comparator.comparingLong(ComboResult::trades).reversed();
+            default -> Comparator.comparing(ComboResult::avgReturnPct, descending);
+        };
+    }
+
+    private static SignalBacktest.Stats[] newStats(int size) {
+        SignalBacktest.Stats[] stats = new SignalBacktest.Stats[size];
+        for (int i = 0; i < size; i++) {
+            stats[i] = new SignalBacktest.Stats();
+        }
+        return stats;
+    }
+
+    private static void merge(SignalBacktest.Stats[] target, SignalBacktest.Stats[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i].merge(source[i]);
+        }
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int index = Arrays.binarySearch(values, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int upperBound(int[] values, int key) {
+        int index = Arrays.binarySearch(values, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static Double round(double value, int scale) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return null;
+        }
+        double factor = Math.pow(10, scale);
+        return Math.round(value * factor) / factor;
+    }
+}
@@ -0,0 +1,88 @@
+package com.stocktrading.kiwoom.service;
+
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * 동일 요청 병합 (single-flight)
+ *
+ * 같은 키로 동시에 들어온 조회는 먼저 들어온 요청 하나만 계산하고 나머지는 그 결과(또는 예외)를 함께 받는다.
+ * 계산이 끝나면 키를 제거하므로 결과를 보관하지 않는다. (보관은 {@link AnalyticsResponseCache} 담당)
+ * 결과 객체를 여러 요청이 공유하므로 호출 측에서 수정하면 안 된다.
+ */
+@Slf4j
+@Component
+public class SingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Mono<?>> inFlightMonos = new ConcurrentHashMap<>();
+
+    /**
+     * 요청 키 (null 은 빈 문자열, 날짜의 '-' 는 제거하지 않으므로 호출 측에서 정규화)
+     */
+    public static String key(String name, Object... params) {
+        StringJoiner joiner = new StringJoiner("|", name + "|", "");
+        for (Object param : params) {
+            joiner.add(param == null ? "" : param.toString());
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * 동기 조회 병합 (MVC 컨트롤러용)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            log.debug("진행 중인 조회에 합류: {}", key);
+            return (T) await(existing);
+        }
+
+        try {
+            T result = loader.get();
+            created.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * 비동기 조회 병합 (WebFlux 컨트롤러용)
+     *
+     * 구독 시점에 진행 중인 조회가 있으면 같은 결과를 받고, 없으면 loader 를 한 번 구독한다.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> executeMono(String key, Supplier<Mono<T>> loader) {
+        return Mono.defer(() -> (Mono<T>) inFlightMonos.computeIfAbsent(key, k -> Mono.defer(loader)
+            .doFinally(signal -> inFlightMonos.remove(k))
+            .cache()));
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.stocktrading.kiwoom.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.stocktrading.kiwoom.domain.event.StockListRefreshedEvent;
+import com.stocktrading.kiwoom.domain.model.StockInfo;
+import com.stocktrading.kiwoom.domain.port.out.StockListPort;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 종목 메타정보 레지스트리
+ *
+ * 종목코드 → 종목명/시장/섹터/KOSPI200 여부를 불변 스냅샷으로 메모리에 두고, 조회 시 DB 를 읽지 않는다.
+ * 원천: tb_stock_list (전체 종목), tb_stock_list_meta (KOSPI200 및 섹터 배정)
+ * 기동 시, 종목 리스트 갱신 후, 섹터 구성종목 반영 시, 매일 장 시작 전에 새 스냅샷을 만들어 한 번에 교체한다.
+ * (조회는 락 없이 현재 스냅샷 사용, 스냅샷마다 버전 증가)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockMetaRegistry {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockListPort stockListPort;
+
+    // 섹터 코드 → 섹터명 (화면 표시 및 tb_stock_list_meta.sector 조회용, 코드 순)
+    private static final Map<String, String> SECTOR_NAMES = Collections.unmodifiableMap(new TreeMap<>(Map.of(
+        "semicon", "반도체",
+        "heavyind", "철강/조선",
+        "auto", "자동차",
+        "battery", "이차전지",
+        "ai_infra", "AI (전력/SMR/에너지)",
+        "petro", "석유화학/정유",
+        "defense", "방위산업",
+        "culture", "뷰티/엔터/게임",
+        "robot", "첨단로봇",
+        "bio", "바이오/제약"
+    )));
+
+    private final AtomicLong versions = new AtomicLong();
+
+    // null 이면 아직 로드 전 (첫 조회 시 로드)
+    private volatile Snapshot snapshot;
+
+    /**
+     * 종목 메타정보
+     *
+     * @param kospi200 tb_stock_list_meta 등록 여부
+     * @param sector tb_stock_list_meta.sector (섹터명)
+     * @param sectorCd 섹터 구성종목이면 섹터 코드 (main = 'SECTOR' 의 detail)
+     */
+    public record StockMeta(
+        String code,
+        String name,
+        String marketCode,
+        String marketName,
+        boolean kospi200,
+        String sector,
+        String sectorCd
+    ) {}
+
+    /**
+     * 불변 스냅샷
+     *
+     * @param metaSectors 섹터 코드 → tb_stock_list_meta 섹터명 (구성종목이 있는 섹터, 코드 순)
+     */
+    public record Snapshot(
+        long version,
+        LocalDateTime loadedAt,
+        Map<String, StockMeta> byCode,
+        List<StockMeta> kospi200,
+        Map<String, List<StockMeta>> bySectorName,
+        Map<String, List<StockMeta>> bySectorCd,
+        Map<String, String> metaSectors
+    ) {}
+
+    /**
+     * 현재 스냅샷
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : loadIfAbsent();
+    }
+
+    public Optional<StockMeta> find(String code) {
+        return Optional.ofNullable(snapshot().byCode().get(code));
+    }
+
+    /**
+     * 종목명 (모르는 코드는 코드 그대로)
+     */
+    public String nameOf(String code) {
+        StockMeta meta = snapshot().byCode().get(code);
+        return meta != null && meta.name() != null ? meta.name() : code;
+    }
+
+    /**
+     * KOSPI200 종목 (tb_stock_list_meta 전체, 코드 순)
+     */
+    public List<StockMeta> kospi200() {
+        return snapshot().kospi200();
+    }
+
+    /**
+     * 섹터명(tb_stock_list_meta.sector)으로 종목 조회 (코드 순)
+     */
+    public List<StockMeta> stocksBySectorName(String sectorName) {
+        return snapshot().bySectorName().getOrDefault(sectorName, List.of());
+    }
+
+    /**
+     * 섹터 구성종목 (main = 'SECTOR' AND detail = sectorCd, 코드 순)
+     */
+    public List<StockMeta> sectorMembers(String sectorCd) {
+        return snapshot().bySectorCd().getOrDefault(sectorCd, List.of());
+    }
+
+    /**
+     * 섹터 코드 → 섹터명 (코드 순)
+     */
+    public Map<String, String> sectorNames() {
+        return SECTOR_NAMES;
+    }
+
+    public String sectorName(String sectorCd) {
+        return SECTOR_NAMES.getOrDefault(sectorCd, sectorCd);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockListRefreshed(StockListRefreshedEvent event) {
+        refresh();
+    }
+
+    /**
+     * tb_stock_list_meta 는 외부 스크립트로도 수정되므로 매일 장 시작 전 재로드
+     */
+    @Scheduled(cron = "${batch.stock-meta.cron:0 0 8 * * MON-FRI}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * 원천 테이블에서 새 스냅샷을 만들어 교체 (실패 시 이전 스냅샷 유지)
+     */
+    public synchronized void refresh() {
+        try {
+            long start = System.currentTimeMillis();
+            Snapshot built = build();
+            snapshot = built;
+            log.info("종목 메타 레지스트리 로드 완료 - v{}, 종목 {}개, KOSPI200 {}개, {}ms",
+                built.version(), built.byCode().size(), built.kospi200().size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("종목 메타 레지스트리 로드 실패 (이전 스냅샷 유지): {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized Snapshot loadIfAbsent() {
+        if (snapshot == null) {
+            snapshot = build();
+        }
+        return snapshot;
+    }
+
+    private Snapshot build() {
+        Map<String, StockInfo> listed = new HashMap<>();
+        for (StockInfo stock : stockListPort.findAll()) {
+            listed.put(stock.getCode(), stock);
+        }
+
+        // tb_stock_list_meta (KOSPI200 / 섹터 배정)
+        Map<String, StockMeta> metaByCode = new TreeMap<>();
+        jdbcTemplate.query("SELECT code, name, main, detail, sector FROM tb_stock_list_meta ORDER BY code", rs -> {
+            String code = rs.getString("code").intern();
+            StockInfo stock = listed.get(code);
+            String sectorCd = "SECTOR".equals(rs.getString("main")) ? rs.getString("detail") : null;
+            metaByCode.put(code, new StockMeta(
+                code,
+                rs.getString("name"),
+                stock != null ? stock.getMarketCode() : null,
+                stock != null ? stock.getMarketName() : null,
+                true,
+                rs.getString("sector"),
+                sectorCd));
+        });
+
+        Map<String, StockMeta> byCode = new HashMap<>(listed.size() + metaByCode.size());
+        for (StockInfo stock : listed.values()) {
+            String code = stock.getCode().intern();
+            byCode.put(code, new StockMeta(code, stock.getName(), stock.getMarketCode(), stock.getMarketName(),
+                false, null, null));
+        }
+        byCode.putAll(metaByCode);
+
+        List<StockMeta> kospi200 = new ArrayList<>(metaByCode.values());
+        Map<String, List<StockMeta>> bySectorName = new HashMap<>();
+        Map<String, List<StockMeta>> bySectorCd = new HashMap<>();
+        Map<String, String> metaSectors = new TreeMap<>();
+        for (StockMeta meta : kospi200) {
+            if (meta.sector() != null) {
+                bySectorName.computeIfAbsent(meta.sector(), k -> new ArrayList<>()).add(meta);
+            }
+            if (meta.sectorCd() != null) {
+                bySectorCd.computeIfAbsent(meta.sectorCd(), k -> new ArrayList<>()).add(meta);
+                // 섹터명은 구성종목 중 가장 큰 값 (기존 MAX(sector) 와 동일)
+                if (meta.sector() != null) {
+                    metaSectors.merge(meta.sectorCd(), meta.sector(), (a, b) -> a.compareTo(b) >= 0 ? a : b);
+                }
+            }
+        }
+        bySectorCd.keySet().forEach(sectorCd -> metaSectors.putIfAbsent(sectorCd, sectorCd));
+
+        return new Snapshot(
+            versions.incrementAndGet(),
+            LocalDateTime.now(),
+            Collections.unmodifiableMap(byCode),
+            List.copyOf(kospi200),
+            freeze(bySectorName),
+            freeze(bySectorCd),
+            Collections.unmodifiableMap(metaSectors));
+    }
+
+    private static Map<String, List<StockMeta>> freeze(Map<String, List<StockMeta>> groups) {
+        Map<String, List<StockMeta>> frozen = new LinkedHashMap<>();
+        groups.forEach((key, list) -> frozen.put(key, List.copyOf(list)));
+        return Collections.unmodifiableMap(frozen);
+    }
+}
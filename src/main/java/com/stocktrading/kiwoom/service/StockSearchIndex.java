@@ -0,0 +1,366 @@
+package com.stocktrading.kiwoom.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.stocktrading.kiwoom.domain.event.StockListRefreshedEvent;
+import com.stocktrading.kiwoom.domain.model.StockInfo;
+import com.stocktrading.kiwoom.domain.port.out.StockListPort;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 종목 검색 인메모리 인덱스 (자동완성용)
+ *
+ * 종목명 n-gram(1/2글자), 초성 n-gram, 종목코드 정렬 배열을 미리 만들어 두고 검색 시 DB 를 조회하지 않는다.
+ * 종목은 시장 우선순위(KOSPI, KOSDAQ, KONEX, ELW, 기타) → 종목명 순으로 번호를 매겨 두므로
+ * 번호 오름차순 posting 목록을 교집합/병합하면 기존 검색과 같은 순서가 된다. (전체 종목 순회 없음)
+ * 종목 리스트 갱신 후 새 스냅샷을 만들어 한 번에 교체한다. (조회는 락 없이 현재 스냅샷 사용)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockSearchIndex {
+
+    private static final char[] CHOSUNG = {
+        'ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ',
+        'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'
+    };
+
+    private static final int[] EMPTY = new int[0];
+
+    private final StockListPort stockListPort;
+
+    // null 이면 아직 인덱스가 없음 (DB 검색으로 대체)
+    private volatile Snapshot snapshot;
+
+    /**
+     * 종목 검색
+     *
+     * 종목명 부분 일치, 초성 부분 일치("ㅅㅅㅈㅈ" → 삼성전자), 음절/초성 혼합 부분 일치("삼성ㅈㅈ" → 삼성전자),
+     * 종목코드 앞부분 일치를 지원한다.
+     * 대소문자와 공백은 구분하지 않는다.
+     *
+     * @param keyword 검색어
+     * @return 시장 우선순위 → 종목명 순 결과
+     */
+    public List<StockInfo> search(String keyword) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return stockListPort.searchByName(keyword);
+        }
+        return current.search(keyword);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockListRefreshed(StockListRefreshedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * 전체 종목으로 인덱스 재구성 후 교체
+     */
+    public void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            Snapshot built = Snapshot.build(stockListPort.findAll());
+            snapshot = built;
+            log.info("종목 검색 인덱스 구성 완료 - {}종목, {}ms", built.stocks.length, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("종목 검색 인덱스 구성 실패 (이전 인덱스 유지): {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 한글 음절의 초성 문자열 (한글 외 문자는 그대로)
+     */
+    static String toChosung(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0xAC00 && c <= 0xD7A3) {
+                sb.append(CHOSUNG[(c - 0xAC00) / 588]);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isChosung(char c) {
+        return c >= 'ㄱ' && c <= 'ㅎ';
+    }
+
+    private static boolean isChosungOnly(String query) {
+        for (int i = 0; i < query.length(); i++) {
+            if (!isChosung(query.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasChosung(String query) {
+        for (int i = 0; i < query.length(); i++) {
+            if (isChosung(query.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 오름차순 목록 교집합 (작은 목록 기준으로 큰 목록을 이분 탐색, 탐색 시작 위치는 앞으로만 이동)
+     */
+    static int[] intersect(int[] small, int[] large) {
+        int[] result = new int[small.length];
+        int count = 0;
+        int from = 0;
+        for (int id : small) {
+            int found = Arrays.binarySearch(large, from, large.length, id);
+            if (found >= 0) {
+                result[count++] = id;
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+            if (from == large.length) {
+                break;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static int marketRank(String marketName) {
+        if (marketName == null) {
+            return 5;
+        }
+        return switch (marketName) {
+            case "KOSPI" -> 1;
+            case "KOSDAQ" -> 2;
+            case "KONEX" -> 3;
+            case "ELW" -> 4;
+            default -> 5;
+        };
+    }
+
+    /**
+     * 불변 인덱스 스냅샷
+     */
+    private static final class Snapshot {
+
+        // 순위 순 종목 (배열 번호 = 순위)
+        private final StockInfo[] stocks;
+        private final String[] names;
+        private final String[] chosungs;
+        // 종목코드 오름차순 정렬 및 해당 종목 번호
+        private final String[] sortedCodes;
+        private final int[] codeIds;
+        // n-gram → 종목 번호 (오름차순)
+        private final Map<String, int[]> nameGrams;
+        private final Map<String, int[]> chosungGrams;
+
+        private Snapshot(StockInfo[] stocks, String[] names, String[] chosungs, String[] sortedCodes,
+                         int[] codeIds, Map<String, int[]> nameGrams, Map<String, int[]> chosungGrams) {
+            this.stocks = stocks;
+            this.names = names;
+            this.chosungs = chosungs;
+            this.sortedCodes = sortedCodes;
+            this.codeIds = codeIds;
+            this.nameGrams = nameGrams;
+            this.chosungGrams = chosungGrams;
+        }
+
+        static Snapshot build(List<StockInfo> source) {
+            StockInfo[] stocks = source.stream()
+                .filter(stock -> stock.getCode() != null && stock.getName() != null)
+                .sorted(Comparator.comparingInt((StockInfo stock) -> marketRank(stock.getMarketName()))
+                    .thenComparing(StockInfo::getName))
+                .toArray(StockInfo[]::new);
+
+            int n = stocks.length;
+            String[] names = new String[n];
+            String[] chosungs = new String[n];
+            Map<String, List<Integer>> nameGrams = new HashMap<>();
+            Map<String, List<Integer>> chosungGrams = new HashMap<>();
+            Integer[] byCode = new Integer[n];
+
+            for (int id = 0; id < n; id++) {
+                names[id] = normalize(stocks[id].getName());
+                chosungs[id] = toChosung(names[id]);
+                addGrams(nameGrams, names[id], id);
+                addGrams(chosungGrams, chosungs[id], id);
+                byCode[id] = id;
+            }
+
+            Arrays.sort(byCode, Comparator.comparing(id -> stocks[id].getCode()));
+            String[] sortedCodes = new String[n];
+            int[] codeIds = new int[n];
+            for (int i = 0; i < n; i++) {
+                codeIds[i] = byCode[i];
+                sortedCodes[i] = stocks[byCode[i]].getCode().toLowerCase(Locale.ROOT);
+            }
+
+            return new Snapshot(stocks, names, chosungs, sortedCodes, codeIds,
+                toPostings(nameGrams), toPostings(chosungGrams));
+        }
+
+        List<StockInfo> search(String keyword) {
+            String query = normalize(keyword);
+            if (query.isEmpty()) {
+                return List.of();
+            }
+
+            boolean chosungQuery = isChosungOnly(query);
+            // 음절과 초성이 섞인 검색어는 초성 n-gram 으로 후보를 찾고 글자별로 확인
+            boolean mixedQuery = !chosungQuery && hasChosung(query);
+            int[] candidates = chosungQuery || mixedQuery
+                ? candidates(chosungGrams, toChosung(query))
+                : candidates(nameGrams, query);
+
+            // 후보(번호 오름차순) 중 실제 일치하는 종목만 남김
+            int[] matched = new int[candidates.length];
+            int count = 0;
+            for (int id : candidates) {
+                boolean match = chosungQuery ? chosungs[id].contains(query)
+                    : mixedQuery ? containsMixed(id, query)
+                    : names[id].contains(query);
+                if (match) {
+                    matched[count++] = id;
+                }
+            }
+
+            // 이름(초성) 일치 + 종목코드 앞부분 일치를 순위 순으로 병합
+            int[] codeMatched = chosungQuery || mixedQuery ? EMPTY : codePrefix(query);
+            List<StockInfo> result = new ArrayList<>(count + codeMatched.length);
+            int i = 0;
+            int j = 0;
+            while (i < count || j < codeMatched.length) {
+                int id;
+                if (j == codeMatched.length || (i < count && matched[i] < codeMatched[j])) {
+                    id = matched[i++];
+                } else if (i == count || codeMatched[j] < matched[i]) {
+                    id = codeMatched[j++];
+                } else {
+                    id = matched[i++];
+                    j++;
+                }
+                result.add(stocks[id]);
+            }
+            return result;
+        }
+
+        /**
+         * 검색어의 모든 2글자 n-gram posting 교집합 (작은 목록부터, 이후 contains 로 순서 확인)
+         */
+        private static int[] candidates(Map<String, int[]> grams, String query) {
+            if (query.length() == 1) {
+                return grams.getOrDefault(query, EMPTY);
+            }
+            int[][] lists = new int[query.length() - 1][];
+            for (int i = 0; i + 2 <= query.length(); i++) {
+                lists[i] = grams.getOrDefault(query.substring(i, i + 2), EMPTY);
+                if (lists[i].length == 0) {
+                    return EMPTY;
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+
+            int[] result = lists[0];
+            for (int k = 1; k < lists.length && result.length > 0; k++) {
+                result = intersect(result, lists[k]);
+            }
+            return result;
+        }
+
+        /**
+         * 음절은 종목명 글자와, 초성은 종목명 글자의 초성과 비교하는 부분 일치
+         */
+        private boolean containsMixed(int id, String query) {
+            String name = names[id];
+            String chosung = chosungs[id];
+            for (int start = 0; start + query.length() <= name.length(); start++) {
+                int k = 0;
+                while (k < query.length()) {
+                    char q = query.charAt(k);
+                    char c = isChosung(q) ? chosung.charAt(start + k) : name.charAt(start + k);
+                    if (c != q) {
+                        break;
+                    }
+                    k++;
+                }
+                if (k == query.length()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 종목코드 앞부분 일치 종목 번호 (오름차순)
+         */
+        private int[] codePrefix(String query) {
+            int from = Arrays.binarySearch(sortedCodes, query);
+            if (from < 0) {
+                from = -from - 1;
+            }
+            int to = from;
+            while (to < sortedCodes.length && sortedCodes[to].startsWith(query)) {
+                to++;
+            }
+            int[] ids = Arrays.copyOfRange(codeIds, from, to);
+            Arrays.sort(ids);
+            return ids;
+        }
+
+        private static void addGrams(Map<String, List<Integer>> grams, String text, int id) {
+            for (int i = 0; i < text.length(); i++) {
+                addPosting(grams, text.substring(i, i + 1), id);
+                if (i + 2 <= text.length()) {
+                    addPosting(grams, text.substring(i, i + 2), id);
+                }
+            }
+        }
+
+        private static void addPosting(Map<String, List<Integer>> grams, String gram, int id) {
+            List<Integer> postings = grams.computeIfAbsent(gram, k -> new ArrayList<>());
+            // 같은 종목명 안에서 반복되는 n-gram 은 한 번만
+            if (postings.isEmpty() || postings.get(postings.size() - 1) != id) {
+                postings.add(id);
+            }
+        }
+
+        private static Map<String, int[]> toPostings(Map<String, List<Integer>> grams) {
+            Map<String, int[]> postings = new HashMap<>(grams.size() * 2);
+            grams.forEach((gram, ids) -> postings.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+            return postings;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+-- =====================================================
+-- 섹터별 일별 거래대금 합계 / 섹터 구성종목 스냅샷 테이블
+-- 섹터 편입/편출 시 전체 재계산 대신 해당 종목 시계열만 가감하기 위한 저장소
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS tb_sector_daily_amount (
+    sector_cd       VARCHAR(50) NOT NULL,    -- 섹터 코드 (tb_stock_list_meta.detail)
+    dt              DATE        NOT NULL,    -- 일자
+
+    stk_cnt         INTEGER     NOT NULL DEFAULT 0,  -- 합계에 포함된 종목 수
+
+    -- 투자자별 거래대금 합계 (cur_prc × 순매수량)
+    frgnr_invsr     BIGINT DEFAULT 0,        -- 외국인투자자
+    orgn            BIGINT DEFAULT 0,        -- 기관계
+    frgnr_orgn      BIGINT DEFAULT 0,        -- 외국인+기관
+    ind_invsr       BIGINT DEFAULT 0,        -- 개인투자자
+    fnnc_invt       BIGINT DEFAULT 0,        -- 금융투자
+    insrnc          BIGINT DEFAULT 0,        -- 보험
+    invtrt          BIGINT DEFAULT 0,        -- 투신
+    etc_fnnc        BIGINT DEFAULT 0,        -- 기타금융
+    bank            BIGINT DEFAULT 0,        -- 은행
+    penfnd_etc      BIGINT DEFAULT 0,        -- 연기금등
+    samo_fund       BIGINT DEFAULT 0,        -- 사모펀드
+    natn            BIGINT DEFAULT 0,        -- 국가
+    etc_corp        BIGINT DEFAULT 0,        -- 기타법인
+    natfor          BIGINT DEFAULT 0,        -- 내외국인
+
+    reg_dt          TIMESTAMP DEFAULT NOW(),
+    upd_dt          TIMESTAMP,
+
+    CONSTRAINT tb_sector_daily_amount_pkey
+        PRIMARY KEY (sector_cd, dt)
+);
+
+CREATE TABLE IF NOT EXISTS tb_sector_member_snapshot (
+    sector_cd       VARCHAR(50) NOT NULL,    -- 섹터 코드
+    stk_cd          VARCHAR(20) NOT NULL,    -- 종목코드
+    reg_dt          TIMESTAMP DEFAULT NOW(),
+
+    CONSTRAINT tb_sector_member_snapshot_pkey
+        PRIMARY KEY (sector_cd, stk_cd)
+);
+
+COMMENT ON TABLE tb_sector_daily_amount IS '섹터별 투자자 일별 거래대금 합계 (섹터 이동평균 원천 데이터)';
+COMMENT ON COLUMN tb_sector_daily_amount.stk_cnt IS '해당 일자 합계에 포함된 종목 수';
+COMMENT ON TABLE tb_sector_member_snapshot IS '섹터 이동평균 계산에 반영된 마지막 섹터 구성종목';
@@ -0,0 +1,41 @@
+-- =====================================================
+-- 투자자별 누적합(prefix sum) 테이블
+-- 거래일 순번(seq) 기준 누적합으로 임의 기간 N 의 이동평균을 (S[t] - S[t-N]) / N 으로 계산
+--   STOCK : 종목별 순매수량 누적합 (tb_stock_investor_chart)
+--   SECTOR: 섹터별 거래대금 누적합 (tb_sector_daily_amount)
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS tb_investor_prefix_sum (
+    target_tp       VARCHAR(10) NOT NULL,    -- 대상 구분 (STOCK / SECTOR)
+    target_cd       VARCHAR(50) NOT NULL,    -- 종목코드 또는 섹터코드
+    seq             INTEGER     NOT NULL,    -- 거래일 순번 (1부터)
+    dt              DATE        NOT NULL,    -- 일자
+
+    cur_prc         BIGINT,                  -- 현재가 (STOCK 만)
+
+    -- 투자자별 누적합
+    frgnr_invsr     BIGINT NOT NULL DEFAULT 0,
+    orgn            BIGINT NOT NULL DEFAULT 0,
+    frgnr_orgn      BIGINT NOT NULL DEFAULT 0,
+    ind_invsr       BIGINT NOT NULL DEFAULT 0,
+    fnnc_invt       BIGINT NOT NULL DEFAULT 0,
+    insrnc          BIGINT NOT NULL DEFAULT 0,
+    invtrt          BIGINT NOT NULL DEFAULT 0,
+    etc_fnnc        BIGINT NOT NULL DEFAULT 0,
+    bank            BIGINT NOT NULL DEFAULT 0,
+    penfnd_etc      BIGINT NOT NULL DEFAULT 0,
+    samo_fund       BIGINT NOT NULL DEFAULT 0,
+    natn            BIGINT NOT NULL DEFAULT 0,
+    etc_corp        BIGINT NOT NULL DEFAULT 0,
+    natfor          BIGINT NOT NULL DEFAULT 0,
+
+    reg_dt          TIMESTAMP DEFAULT NOW(),
+
+    CONSTRAINT tb_investor_prefix_sum_pkey
+        PRIMARY KEY (target_tp, target_cd, seq)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_prefix_sum_target_dt ON tb_investor_prefix_sum (target_tp, target_cd, dt);
+
+COMMENT ON TABLE tb_investor_prefix_sum IS '투자자별 누적합 (임의 기간 이동평균 계산용)';
+COMMENT ON COLUMN tb_investor_prefix_sum.seq IS '대상별 거래일 순번 (1부터 연속)';
@@ -0,0 +1,39 @@
+-- =====================================================
+-- 투자자별 순매수 - 주가 수익률 이동 상관계수 테이블
+-- (기존 python-analysis/calculate_investor_correlation.py 가 생성하던 스키마와 동일)
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS tb_stock_investor_corr_daily (
+    stk_cd              VARCHAR(20) NOT NULL,    -- 종목코드
+    dt                  VARCHAR(8)  NOT NULL,    -- 일자 (yyyyMMdd)
+    corr_days           INT         NOT NULL,    -- 상관계수 기간 (5, 10, 20, 60)
+
+    cur_prc             BIGINT,                  -- 현재가
+    sector              VARCHAR(50),             -- 섹터 (tb_stock_list_meta.sector)
+    category1           VARCHAR(50),             -- tb_stock_list_meta.main
+    category2           VARCHAR(50),             -- tb_stock_list_meta.sub
+    category3           VARCHAR(50),             -- tb_stock_list_meta.detail
+
+    -- 투자자별 상관계수 (구간 부족 또는 분산 0 이면 NULL)
+    frgnr_invsr_corr    DECIMAL(5,3),
+    orgn_corr           DECIMAL(5,3),
+    ind_invsr_corr      DECIMAL(5,3),
+    fnnc_invt_corr      DECIMAL(5,3),
+    insrnc_corr         DECIMAL(5,3),
+    invtrt_corr         DECIMAL(5,3),
+    etc_fnnc_corr       DECIMAL(5,3),
+    bank_corr           DECIMAL(5,3),
+    penfnd_etc_corr     DECIMAL(5,3),
+    samo_fund_corr      DECIMAL(5,3),
+    natn_corr           DECIMAL(5,3),
+    etc_corp_corr       DECIMAL(5,3),
+    natfor_corr         DECIMAL(5,3),
+
+    reg_dt              TIMESTAMP DEFAULT NOW(),
+
+    PRIMARY KEY (stk_cd, dt, corr_days)
+);
+
+CREATE INDEX IF NOT EXISTS idx_corr_stk_dt ON tb_stock_investor_corr_daily(stk_cd, dt);
+
+COMMENT ON TABLE tb_stock_investor_corr_daily IS '투자자별 순매수 - 주가 수익률 이동 상관계수 (종목별 증분 계산)';
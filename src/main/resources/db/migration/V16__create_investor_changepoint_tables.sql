@@ -0,0 +1,44 @@
+-- =====================================================
+-- 투자자 순매수 변화점(Page-Hinkley) 탐지 결과 / 탐지기 상태 테이블
+-- 거래일이 추가될 때마다 종목 × 투자자별 탐지기 상태를 이어서 계산
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS tb_investor_changepoint (
+    stk_cd          VARCHAR(20) NOT NULL,    -- 종목코드
+    investor        VARCHAR(20) NOT NULL,    -- 투자자 컬럼명 (frgnr_invsr, orgn, ...)
+    dt              DATE        NOT NULL,    -- 변화점 일자
+
+    direction       VARCHAR(4)  NOT NULL,    -- UP / DOWN
+    score           NUMERIC(12, 4),          -- 임계값 초과 시 누적합
+    z_score         NUMERIC(12, 4),          -- 변화점 당일 표준화 값
+    net_qty         BIGINT,                  -- 변화점 당일 순매수량
+    prev_mean       NUMERIC(20, 2),          -- 변화 이전 EWMA 평균 순매수량
+    cur_prc         BIGINT,                  -- 변화점 당일 현재가
+
+    reg_dt          TIMESTAMP DEFAULT NOW(),
+
+    CONSTRAINT tb_investor_changepoint_pkey
+        PRIMARY KEY (stk_cd, investor, dt)
+);
+
+CREATE INDEX IF NOT EXISTS idx_investor_changepoint_dt ON tb_investor_changepoint (dt DESC);
+
+CREATE TABLE IF NOT EXISTS tb_investor_changepoint_state (
+    stk_cd          VARCHAR(20) NOT NULL,    -- 종목코드
+    investor        VARCHAR(20) NOT NULL,    -- 투자자 컬럼명
+    last_dt         DATE        NOT NULL,    -- 마지막 반영 일자
+
+    obs_cnt         BIGINT           NOT NULL DEFAULT 0,  -- 관측치 수
+    ewma_mean       DOUBLE PRECISION NOT NULL DEFAULT 0,  -- EWMA 평균
+    ewma_var        DOUBLE PRECISION NOT NULL DEFAULT 0,  -- EWMA 분산
+    g_pos           DOUBLE PRECISION NOT NULL DEFAULT 0,  -- 상승 누적합
+    g_neg           DOUBLE PRECISION NOT NULL DEFAULT 0,  -- 하락 누적합
+
+    upd_dt          TIMESTAMP DEFAULT NOW(),
+
+    CONSTRAINT tb_investor_changepoint_state_pkey
+        PRIMARY KEY (stk_cd, investor)
+);
+
+COMMENT ON TABLE tb_investor_changepoint IS '투자자 순매수 변화점 (Page-Hinkley)';
+COMMENT ON TABLE tb_investor_changepoint_state IS '투자자 순매수 변화점 탐지기 상태 (증분 계산용)';
@@ -0,0 +1,26 @@
+-- =====================================================
+-- 사용자 정의 바스켓 (종목 묶음) 테이블
+-- 섹터와 같은 투자자 거래대금 이동평균/비중을 배치 없이 요청 시 계산
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS tb_custom_basket (
+    basket_id       BIGSERIAL    PRIMARY KEY,
+    basket_nm       VARCHAR(100) NOT NULL,   -- 바스켓명
+    description     VARCHAR(500),            -- 설명
+    reg_dt          TIMESTAMP DEFAULT NOW(),
+    upd_dt          TIMESTAMP DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS tb_custom_basket_item (
+    basket_id       BIGINT         NOT NULL REFERENCES tb_custom_basket (basket_id) ON DELETE CASCADE,
+    stk_cd          VARCHAR(20)    NOT NULL, -- 종목코드
+    weight          NUMERIC(12, 6) NOT NULL DEFAULT 1,  -- 가중치 (거래대금 합산 시 곱함)
+
+    CONSTRAINT tb_custom_basket_item_pkey
+        PRIMARY KEY (basket_id, stk_cd)
+);
+
+CREATE INDEX IF NOT EXISTS idx_custom_basket_item_stk ON tb_custom_basket_item (stk_cd);
+
+COMMENT ON TABLE tb_custom_basket IS '사용자 정의 바스켓';
+COMMENT ON TABLE tb_custom_basket_item IS '사용자 정의 바스켓 구성종목';
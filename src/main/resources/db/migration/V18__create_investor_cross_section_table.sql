@@ -0,0 +1,33 @@
+-- =====================================================
+-- 일별 투자자 순매수 횡단면 순위 테이블
+-- 거래일 데이터가 저장되면 해당 일자의 전 종목 × 투자자별 순위/백분위를 미리 계산
+-- (시장 개요 화면은 (dt, investor, 순위) 인덱스로 한 페이지만 읽음)
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS tb_investor_cross_section (
+    dt              DATE        NOT NULL,    -- 거래일
+    investor        VARCHAR(20) NOT NULL,    -- 투자자 컬럼명 (frgnr_invsr, orgn, frgnr_orgn, ...)
+    stk_cd          VARCHAR(20) NOT NULL,    -- 종목코드
+
+    cur_prc         BIGINT,                  -- 현재가
+    net_qty         BIGINT,                  -- 순매수량
+    net_amt         NUMERIC(24, 0),          -- 순매수 거래대금 (현재가 × 순매수량)
+    amt_rank        INTEGER     NOT NULL,    -- 순매수 거래대금 순위 (1 = 최대 순매수)
+    amt_pct         NUMERIC(5, 2) NOT NULL,  -- 순매수 거래대금 백분위 (100 = 최상위)
+    ma_norm         NUMERIC(12, 4),          -- 순매수량 / 20일 평균 |순매수량| (20일 미만이면 NULL)
+    norm_rank       INTEGER,                 -- ma_norm 순위 (NULL 제외)
+    norm_pct        NUMERIC(5, 2),           -- ma_norm 백분위
+
+    reg_dt          TIMESTAMP DEFAULT NOW(),
+
+    CONSTRAINT tb_investor_cross_section_pkey
+        PRIMARY KEY (dt, investor, stk_cd)
+);
+
+CREATE INDEX IF NOT EXISTS idx_investor_cross_section_amt_rank
+    ON tb_investor_cross_section (dt, investor, amt_rank);
+
+CREATE INDEX IF NOT EXISTS idx_investor_cross_section_norm_rank
+    ON tb_investor_cross_section (dt, investor, norm_rank);
+
+COMMENT ON TABLE tb_investor_cross_section IS '일별 투자자 순매수 횡단면 순위/백분위';
@@ -0,0 +1,17 @@
+-- =====================================================
+-- 데이터셋/대상별 데이터 버전 테이블
+-- 조회 응답 ETag / Last-Modified 를 인스턴스와 무관하게 같은 값으로 만들기 위해
+-- 분석 데이터 변경(캐시 무효화) 시각을 저장
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS tb_data_version (
+    dataset         VARCHAR(30) NOT NULL,    -- 데이터셋 (INVESTOR_CHART, STOCK_MA, ...)
+    scope           VARCHAR(50) NOT NULL,    -- 종목/섹터 코드 ('*' = 데이터셋 전체)
+    version         BIGINT      NOT NULL,    -- 마지막 변경 시각 (epoch millis)
+    upd_dt          TIMESTAMP DEFAULT NOW(),
+
+    CONSTRAINT tb_data_version_pkey
+        PRIMARY KEY (dataset, scope)
+);
+
+COMMENT ON TABLE tb_data_version IS '데이터셋/대상별 데이터 버전 (응답 ETag 기준)';
@@ -0,0 +1,68 @@
+-- =====================================================
+-- 원천 테이블 쓰기 시 데이터 버전 갱신 트리거
+-- 애플리케이션 밖에서 쓰는 경우(python 이동평균/상관계수 스크립트, 직접 DB 수정)에도
+-- tb_data_version 이 갱신되어 응답 ETag / 캐시가 오래된 데이터를 가리키지 않도록 한다.
+-- (문장 단위 트리거, 변경 행의 대상 코드별로 한 번만 갱신)
+-- =====================================================
+
+-- TG_ARGV[0]: 데이터셋 (쉼표 구분), TG_ARGV[1]: 대상 코드 컬럼
+CREATE OR REPLACE FUNCTION fn_bump_data_version() RETURNS TRIGGER AS $$
+DECLARE
+    changed_at BIGINT := (EXTRACT(EPOCH FROM clock_timestamp()) * 1000)::BIGINT;
+    dataset_name TEXT;
+BEGIN
+    FOREACH dataset_name IN ARRAY string_to_array(TG_ARGV[0], ',') LOOP
+        -- 이전 버전보다 항상 커지도록 GREATEST(이전 + 1, 현재 시각), 잠금 순서 고정을 위해 정렬
+        EXECUTE format(
+            'INSERT INTO tb_data_version (dataset, scope, version, upd_dt) ' ||
+            'SELECT %L, scope, $1, clock_timestamp() FROM (' ||
+            'SELECT DISTINCT %I::VARCHAR AS scope FROM changed_rows WHERE %I IS NOT NULL) s ORDER BY scope ' ||
+            'ON CONFLICT (dataset, scope) DO UPDATE SET ' ||
+            'version = GREATEST(tb_data_version.version + 1, EXCLUDED.version), upd_dt = clock_timestamp()',
+            dataset_name, TG_ARGV[1], TG_ARGV[1])
+        USING changed_at;
+    END LOOP;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 외부 스크립트가 만드는 테이블은 아직 없을 수 있으므로 존재하는 테이블에만 생성
+DO $$
+DECLARE
+    target RECORD;
+BEGIN
+    FOR target IN
+        SELECT * FROM (VALUES
+            ('tb_stock_investor_chart', 'INVESTOR_CHART,SUPPLY_DEMAND', 'stk_cd'),
+            ('tb_stock_investor_ma', 'STOCK_MA', 'stk_cd'),
+            ('tb_stock_investor_sector_ma', 'SECTOR_MA', 'sector_cd'),
+            ('tb_stock_investor_corr_daily', 'CORRELATION', 'stk_cd'),
+            ('tb_stock_investor_invest_accumulation', 'SUPPLY_DEMAND', 'stk_cd')
+        ) AS t(table_name, datasets, scope_column)
+    LOOP
+        IF to_regclass(target.table_name) IS NULL THEN
+            RAISE NOTICE '데이터 버전 트리거 생략 (테이블 없음): %', target.table_name;
+            CONTINUE;
+        END IF;
+
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', 'trg_' || target.table_name || '_ver_ins', target.table_name);
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', 'trg_' || target.table_name || '_ver_upd', target.table_name);
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', 'trg_' || target.table_name || '_ver_del', target.table_name);
+
+        EXECUTE format(
+            'CREATE TRIGGER %I AFTER INSERT ON %I REFERENCING NEW TABLE AS changed_rows ' ||
+            'FOR EACH STATEMENT EXECUTE FUNCTION fn_bump_data_version(%L, %L)',
+            'trg_' || target.table_name || '_ver_ins', target.table_name, target.datasets, target.scope_column);
+        EXECUTE format(
+            'CREATE TRIGGER %I AFTER UPDATE ON %I REFERENCING NEW TABLE AS changed_rows ' ||
+            'FOR EACH STATEMENT EXECUTE FUNCTION fn_bump_data_version(%L, %L)',
+            'trg_' || target.table_name || '_ver_upd', target.table_name, target.datasets, target.scope_column);
+        EXECUTE format(
+            'CREATE TRIGGER %I AFTER DELETE ON %I REFERENCING OLD TABLE AS changed_rows ' ||
+            'FOR EACH STATEMENT EXECUTE FUNCTION fn_bump_data_version(%L, %L)',
+            'trg_' || target.table_name || '_ver_del', target.table_name, target.datasets, target.scope_column);
+    END LOOP;
+END $$;
+
+-- 변경분 조회 (upd_dt 이후 변경된 버전만 주기적으로 읽음)
+CREATE INDEX IF NOT EXISTS idx_data_version_upd_dt ON tb_data_version (upd_dt);
@@ -0,0 +1,164 @@
+package com.stocktrading.kiwoom.adapter.in.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+/**
+ * 키움 실시간 프레임 디코더 검증 (수신 프레임 샘플 기준)
+ */
+class KiwoomRealFrameDecoderTest {
+
+	private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+	// 주식체결(0B) 2건이 한 프레임으로 온 경우
+	private static final String REAL_0B = "{\"trnm\":\"REAL\",\"data\":["
+			+ "{\"type\":\"0B\",\"name\":\"주식체결\",\"item\":\"005930\",\"values\":{"
+			+ "\"20\":\"093001\",\"10\":\"+71000\",\"11\":\"+500\",\"12\":\"+0.71\",\"15\":\"+120\","
+			+ "\"13\":\"1234567\",\"27\":\"+71100\",\"28\":\"+71000\"}},"
+			+ "{\"type\":\"0B\",\"name\":\"주식체결\",\"item\":\"000660\",\"values\":{"
+			+ "\"20\":\"093002\",\"10\":\"-185500\",\"11\":\"-1500\",\"12\":\"-0.80\",\"15\":\"-35\","
+			+ "\"13\":\"456789\",\"27\":\"-185600\",\"28\":\"-185500\"}}]}";
+
+	// 키 순서 변경 + 알 수 없는 중첩 키 (문자열 안의 괄호 포함)
+	private static final String REORDERED = "{ \"data\" : [ { \"values\" : { \"15\" : \"-7\", \"10\" : \"-70900\", "
+			+ "\"extra\" : {\"a\":[1,2,{\"b\":\"}\"}]} }, \"meta\" : {\"seq\": 3, \"tags\": [\"x\", \"]\"]}, "
+			+ "\"item\" : \"005930\", \"type\" : \"0B\" } ], \"trnm\" : \"REAL\" }";
+
+	private StockCodeInterner interner;
+	private KiwoomRealFrameDecoder decoder;
+	private RealTimeTick tick;
+	private List<long[]> ticks;
+
+	@BeforeEach
+	void setUp() {
+		interner = new StockCodeInterner();
+		decoder = new KiwoomRealFrameDecoder(interner);
+		tick = new RealTimeTick();
+		ticks = new ArrayList<>();
+	}
+
+	@Test
+	void decodesStockExecutionFrame() {
+		assertEquals(2, decode(REAL_0B));
+
+		long[] samsung = ticks.get(0);
+		assertEquals("005930", interner.code((int) samsung[0]));
+		assertEquals(RealTimeTick.type("0B"), samsung[1]);
+		assertEquals(71000L, samsung[2]);
+		assertEquals(500L, samsung[3]);
+		assertEquals(120L, samsung[4]);
+		assertEquals(1234567L, samsung[6]);
+		assertEquals(71100L, samsung[7]);
+		assertEquals(71000L, samsung[8]);
+
+		long[] hynix = ticks.get(1);
+		assertEquals("000660", interner.code((int) hynix[0]));
+		assertEquals(185500L, hynix[2]);
+		assertEquals(-1500L, hynix[3]);
+		assertEquals(456789L, hynix[6]);
+		assertEquals(185600L, hynix[7]);
+		assertEquals(185500L, hynix[8]);
+	}
+
+	@Test
+	void signedVolumeSetsSide() {
+		decode(REAL_0B);
+
+		assertEquals(120L, ticks.get(0)[4]);
+		assertEquals(1L, ticks.get(0)[5]);
+		assertEquals(35L, ticks.get(1)[4]);
+		assertEquals(-1L, ticks.get(1)[5]);
+	}
+
+	@Test
+	void executionTimeIsKstEpochNanos() {
+		LocalDate today = LocalDate.now(KST);
+		decode(REAL_0B);
+
+		long expected = today.atTime(LocalTime.of(9, 30, 1)).atZone(KST).toInstant().toEpochMilli() * 1_000_000L;
+		assertEquals(expected, ticks.get(0)[9]);
+		assertEquals(expected + 1_000_000_000L, ticks.get(1)[9]);
+	}
+
+	@Test
+	void keyOrderAndNestedValuesDoNotMatter() {
+		assertEquals(1, decode(REORDERED));
+
+		long[] reordered = ticks.get(0);
+		assertEquals("005930", interner.code((int) reordered[0]));
+		assertEquals(RealTimeTick.type("0B"), reordered[1]);
+		assertEquals(70900L, reordered[2]);
+		assertEquals(7L, reordered[4]);
+		assertEquals(-1L, reordered[5]);
+	}
+
+	@Test
+	void controlFramesAreNotReal() {
+		assertEquals(KiwoomRealFrameDecoder.NOT_REAL, decode("{\"trnm\":\"PING\"}"));
+		assertEquals(KiwoomRealFrameDecoder.NOT_REAL,
+				decode("{\"trnm\":\"LOGIN\",\"return_code\":0,\"return_msg\":\"\"}"));
+		assertEquals(KiwoomRealFrameDecoder.NOT_REAL,
+				decode("{\"trnm\":\"REG\",\"return_code\":0,\"return_msg\":\"\",\"data\":[]}"));
+		assertEquals(0, ticks.size());
+	}
+
+	@Test
+	void emptyDataArrayHasNoTicks() {
+		assertEquals(0, decode("{\"trnm\":\"REAL\",\"data\":[]}"));
+		assertEquals(0, decode("{\"trnm\":\"REAL\"}"));
+		assertEquals(0, ticks.size());
+	}
+
+	@Test
+	void truncatedFrameIsRejected() {
+		String truncated = REAL_0B.substring(0, REAL_0B.indexOf("\"13\""));
+
+		assertThrows(IllegalArgumentException.class, () -> decode(truncated));
+		assertThrows(IllegalArgumentException.class, () -> decode("{\"trnm\":\"REAL\",\"data\":[{\"item\":\"0059"));
+		assertThrows(IllegalArgumentException.class, () -> decode(""));
+	}
+
+	@Test
+	void internedIdsAreStable() {
+		decode(REAL_0B);
+		int samsung = (int) ticks.get(0)[0];
+		int hynix = (int) ticks.get(1)[0];
+
+		// 테이블 확장 후에도 기존 ID 와 코드가 유지되어야 함
+		for (int i = 0; i < 5000; i++) {
+			interner.intern(String.format("%06d", 100000 + i));
+		}
+		ticks.clear();
+		decode(REAL_0B);
+
+		assertEquals(samsung, ticks.get(0)[0]);
+		assertEquals(hynix, ticks.get(1)[0]);
+		assertEquals(samsung, interner.intern("005930"));
+		assertEquals("005930", interner.code(samsung));
+		assertEquals("000660", interner.code(hynix));
+		assertEquals(5002, interner.size());
+	}
+
+	/**
+	 * 콜백 안에서 tick 값을 복사 (tick 은 재사용 객체)
+	 * [stockId, type, price, change, volume, side, accVolume, bestAsk, bestBid, timestampNanos]
+	 */
+	private int decode(String frame) {
+		DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(frame.getBytes(StandardCharsets.UTF_8));
+		return decoder.decode(buffer, tick, t -> ticks.add(new long[] {
+				t.getStockId(), t.getType(), t.getPrice(), t.getChange(), t.getVolume(), t.getSide(),
+				t.getAccVolume(), t.getBestAsk(), t.getBestBid(), t.getTimestampNanos()}));
+	}
+}
@@ -0,0 +1,139 @@
+package com.stocktrading.kiwoom.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 블록 상관계수 행렬과 종목 쌍별 재계산 결과 비교
+ */
+class CorrelationMatrixTest {
+
+	private static final int DAYS = 120;
+
+	private final Random random = new Random(20240716L);
+
+	@Test
+	void matchesPairwisePearsonWithoutMissing() {
+		// 블록 경계(64)를 넘는 종목 수
+		double[][] series = randomSeries(150, 0);
+		CorrelationMatrix matrix = CorrelationMatrix.compute(series, 20);
+
+		assertEquals(150, matrix.size());
+		for (int i = 0; i < series.length; i++) {
+			assertEquals(1.0, matrix.get(i, i));
+			for (int j = i + 1; j < series.length; j++) {
+				double expected = pearson(series[i], series[j]);
+				assertEquals(expected, matrix.get(i, j), 1e-12, "i=" + i + ", j=" + j);
+				assertEquals(matrix.get(i, j), matrix.get(j, i));
+			}
+		}
+	}
+
+	@Test
+	void missingDaysContributeNothing() {
+		double[][] series = randomSeries(70, 10);
+		CorrelationMatrix matrix = CorrelationMatrix.compute(series, 20);
+
+		for (int i = 0; i < series.length; i++) {
+			double[] zi = standardized(series[i]);
+			for (int j = 0; j < series.length; j++) {
+				double expected = i == j ? 1.0 : dot(zi, standardized(series[j])) / (DAYS - 1);
+				assertEquals(expected, matrix.get(i, j), 1e-12, "i=" + i + ", j=" + j);
+			}
+		}
+	}
+
+	@Test
+	void insufficientOrConstantSeriesAreNaN() {
+		double[][] series = randomSeries(4, 0);
+		Arrays.fill(series[1], 5.0);
+		Arrays.fill(series[2], 0, DAYS - 10, Double.NaN);
+		CorrelationMatrix matrix = CorrelationMatrix.compute(series, 20);
+
+		for (int j = 0; j < 4; j++) {
+			assertTrue(Double.isNaN(matrix.get(1, j)));
+			assertTrue(Double.isNaN(matrix.get(j, 2)));
+		}
+		assertEquals(pearson(series[0], series[3]), matrix.get(0, 3), 1e-12);
+		assertArrayEquals(new int[] {3}, matrix.topNeighbors(0, 5, false));
+	}
+
+	@Test
+	void topNeighborsOrderedByScore() {
+		double[][] series = randomSeries(40, 0);
+		CorrelationMatrix matrix = CorrelationMatrix.compute(series, 20);
+
+		for (boolean absolute : new boolean[] {false, true}) {
+			int[] expected = IntStream.range(0, series.length)
+				.filter(j -> j != 7)
+				.boxed()
+				.sorted(Comparator.comparingDouble((Integer j) -> absolute
+					? Math.abs(matrix.get(7, j)) : matrix.get(7, j)).reversed())
+				.limit(5)
+				.mapToInt(Integer::intValue)
+				.toArray();
+			assertArrayEquals(expected, matrix.topNeighbors(7, 5, absolute), "absolute=" + absolute);
+		}
+	}
+
+	/**
+	 * 공통 요인 + 개별 잡음 시계열 (종목마다 missingDays 일 결측)
+	 */
+	private double[][] randomSeries(int n, int missingDays) {
+		double[] market = new double[DAYS];
+		for (int t = 0; t < DAYS; t++) {
+			market[t] = random.nextGaussian();
+		}
+		double[][] series = new double[n][DAYS];
+		for (int i = 0; i < n; i++) {
+			double beta = random.nextDouble() * 2 - 1;
+			for (int t = 0; t < DAYS; t++) {
+				series[i][t] = beta * market[t] + random.nextGaussian();
+			}
+			for (int m = 0; m < missingDays; m++) {
+				series[i][random.nextInt(DAYS)] = Double.NaN;
+			}
+		}
+		return series;
+	}
+
+	private static double pearson(double[] a, double[] b) {
+		double meanA = Arrays.stream(a).average().orElseThrow();
+		double meanB = Arrays.stream(b).average().orElseThrow();
+		double covariance = 0;
+		double varianceA = 0;
+		double varianceB = 0;
+		for (int t = 0; t < a.length; t++) {
+			covariance += (a[t] - meanA) * (b[t] - meanB);
+			varianceA += (a[t] - meanA) * (a[t] - meanA);
+			varianceB += (b[t] - meanB) * (b[t] - meanB);
+		}
+		return covariance / Math.sqrt(varianceA * varianceB);
+	}
+
+	/**
+	 * 유효값 평균/편차제곱합으로 표준화, 전체 거래일 수 - 1 로 정규화, 결측은 0
+	 */
+	private static double[] standardized(double[] values) {
+		double mean = Arrays.stream(values).filter(v -> !Double.isNaN(v)).average().orElseThrow();
+		double squares = Arrays.stream(values).filter(v -> !Double.isNaN(v)).map(v -> (v - mean) * (v - mean)).sum();
+		double norm = Math.sqrt(squares / (values.length - 1));
+		return Arrays.stream(values).map(v -> Double.isNaN(v) ? 0.0 : (v - mean) / norm).toArray();
+	}
+
+	private static double dot(double[] a, double[] b) {
+		double sum = 0;
+		for (int t = 0; t < a.length; t++) {
+			sum += a[t] * b[t];
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,182 @@
+package com.stocktrading.kiwoom.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.stocktrading.kiwoom.analytics.PageHinkleyDetector.Direction;
+
+/**
+ * Page-Hinkley 변화점 탐지기 임계값 판정, 탐지 후 초기화, 저장 상태 이어서 계산 검증
+ */
+class PageHinkleyDetectorTest {
+
+	private static final double ALPHA = 0.05;
+	private static final double DELTA = 0.5;
+	private static final double LAMBDA = 8.0;
+	private static final int WARMUP = 20;
+
+	private final Random random = new Random(20240718L);
+
+	@Test
+	void detectsExactlyWhenCumulativeSumCrossesThreshold() {
+		PageHinkleyDetector detector = detector();
+		double[] series = stepSeries(200, 60, 3.0);
+		int detections = 0;
+
+		for (double x : series) {
+			// 관측 전 상태로 누적합을 따로 계산
+			long count = detector.count();
+			double sd = Math.sqrt(detector.variance());
+			double z = count > 0 ? (x - detector.mean()) / sd : 0;
+			boolean active = count > 0 && count >= WARMUP && sd > 0;
+			double gPos = active ? Math.max(0, detector.gPos() + z - DELTA) : detector.gPos();
+			double gNeg = active ? Math.max(0, detector.gNeg() - z - DELTA) : detector.gNeg();
+			boolean crossed = active && (gPos > LAMBDA || gNeg > LAMBDA);
+
+			Direction direction = detector.push(x);
+
+			if (crossed) {
+				detections++;
+				assertEquals(gPos >= gNeg ? Direction.UP : Direction.DOWN, direction);
+				assertEquals(Math.max(gPos, gNeg), detector.lastScore(), 1e-12);
+				assertEquals(z, detector.lastZ(), 1e-12);
+			} else {
+				assertNull(direction);
+				assertEquals(gPos, detector.gPos(), 1e-12);
+				assertEquals(gNeg, detector.gNeg(), 1e-12);
+			}
+		}
+		assertTrue(detections > 0);
+	}
+
+	@Test
+	void levelShiftUpAndDown() {
+		assertEquals(Direction.UP, firstDetection(stepSeries(150, 100, 4.0)));
+		assertEquals(Direction.DOWN, firstDetection(stepSeries(150, 100, -4.0)));
+	}
+
+	@Test
+	void noDetectionDuringWarmup() {
+		PageHinkleyDetector detector = detector();
+		for (int i = 0; i < WARMUP; i++) {
+			// 큰 값이어도 워밍업 중에는 누적하지 않음
+			assertNull(detector.push(i % 2 == 0 ? -100 : 100));
+			assertEquals(0.0, detector.gPos());
+			assertEquals(0.0, detector.gNeg());
+		}
+	}
+
+	@Test
+	void cumulativeSumsResetAfterDetection() {
+		PageHinkleyDetector detector = detector();
+		double[] series = stepSeries(300, 100, 4.0);
+		int detectedAt = -1;
+		for (int t = 0; t < series.length && detectedAt < 0; t++) {
+			if (detector.push(series[t]) != null) {
+				detectedAt = t;
+			}
+		}
+		assertTrue(detectedAt >= 100);
+		assertEquals(0.0, detector.gPos());
+		assertEquals(0.0, detector.gNeg());
+		assertTrue(detector.lastScore() > LAMBDA);
+		// 변화 이전 수준(0 근처)이 기록됨
+		assertTrue(Math.abs(detector.lastMean()) < 1.0);
+
+		// 다음 관측치는 0 에서 다시 누적 (z - δ 한 번만 더해짐)
+		double z = (series[detectedAt + 1] - detector.mean()) / Math.sqrt(detector.variance());
+		assertNull(detector.push(series[detectedAt + 1]));
+		assertEquals(Math.max(0, z - DELTA), detector.gPos(), 1e-12);
+		assertEquals(Math.max(0, -z - DELTA), detector.gNeg(), 1e-12);
+	}
+
+	@Test
+	void restoredStateContinuesIdentically() {
+		double[] series = stepSeries(400, 150, 3.0);
+		for (int i = 250; i < 300; i++) {
+			series[i] -= 6.0;
+		}
+		series[120] = Double.NaN;
+
+		PageHinkleyDetector full = detector();
+		List<Direction> expected = new ArrayList<>();
+		for (double x : series) {
+			expected.add(full.push(x));
+		}
+
+		for (int split : new int[] {1, WARMUP, 149, 151, 260}) {
+			PageHinkleyDetector first = detector();
+			List<Direction> actual = new ArrayList<>();
+			for (int t = 0; t < split; t++) {
+				actual.add(first.push(series[t]));
+			}
+
+			// 저장 후 새 인스턴스에서 이어서 계산
+			PageHinkleyDetector resumed = detector();
+			resumed.restore(first.count(), first.mean(), first.variance(), first.gPos(), first.gNeg());
+			for (int t = split; t < series.length; t++) {
+				actual.add(resumed.push(series[t]));
+			}
+
+			assertEquals(expected, actual, "split=" + split);
+			assertEquals(full.count(), resumed.count());
+			assertEquals(full.mean(), resumed.mean());
+			assertEquals(full.variance(), resumed.variance());
+			assertEquals(full.gPos(), resumed.gPos());
+			assertEquals(full.gNeg(), resumed.gNeg());
+		}
+	}
+
+	@Test
+	void nanIsIgnored() {
+		PageHinkleyDetector detector = detector();
+		detector.push(1.0);
+		detector.push(2.0);
+		long count = detector.count();
+		double mean = detector.mean();
+
+		assertNull(detector.push(Double.NaN));
+		assertEquals(count, detector.count());
+		assertEquals(mean, detector.mean());
+	}
+
+	@Test
+	void rejectsInvalidAlpha() {
+		assertThrows(IllegalArgumentException.class, () -> new PageHinkleyDetector(0, DELTA, LAMBDA, WARMUP));
+		assertThrows(IllegalArgumentException.class, () -> new PageHinkleyDetector(1, DELTA, LAMBDA, WARMUP));
+	}
+
+	private static PageHinkleyDetector detector() {
+		return new PageHinkleyDetector(ALPHA, DELTA, LAMBDA, WARMUP);
+	}
+
+	private static Direction firstDetection(double[] series) {
+		PageHinkleyDetector detector = detector();
+		for (double x : series) {
+			Direction direction = detector.push(x);
+			if (direction != null) {
+				return direction;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 표준정규 잡음에 step 지점부터 shift 만큼 수준 이동
+	 */
+	private double[] stepSeries(int length, int step, double shift) {
+		double[] series = new double[length];
+		for (int t = 0; t < length; t++) {
+			series[t] = random.nextGaussian() + (t >= step ? shift : 0);
+		}
+		return series;
+	}
+}
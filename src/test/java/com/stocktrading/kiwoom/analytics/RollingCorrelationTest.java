@@ -0,0 +1,122 @@
+package com.stocktrading.kiwoom.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 스트리밍 이동 상관계수와 구간 전체 재계산(두 번 순회 Pearson) 결과 비교
+ */
+class RollingCorrelationTest {
+
+	private static final int LENGTH = 2_000;
+
+	private final Random random = new Random(20240715L);
+
+	@Test
+	void matchesNaiveRecompute() {
+		for (int window : new int[] {2, 5, 20, 60}) {
+			double[] xs = new double[LENGTH];
+			double[] ys = new double[LENGTH];
+			for (int t = 0; t < LENGTH; t++) {
+				// 누적 오차가 드러나도록 큰 기준값 + 상관 있는 잡음, 가끔 결측
+				xs[t] = 1_000_000 + random.nextGaussian() * 5_000;
+				ys[t] = 0.3 * xs[t] + random.nextGaussian() * 2_000;
+				if (random.nextInt(50) == 0) {
+					xs[t] = Double.NaN;
+				}
+			}
+
+			RollingCorrelation correlation = new RollingCorrelation(window);
+			for (int t = 0; t < LENGTH; t++) {
+				double actual = correlation.push(xs[t], ys[t]);
+				double expected = t + 1 < window ? Double.NaN : naive(xs, ys, t + 1 - window, t + 1);
+				if (Double.isNaN(expected)) {
+					assertTrue(Double.isNaN(actual), "window=" + window + ", t=" + t);
+				} else {
+					assertEquals(expected, actual, 1e-8, "window=" + window + ", t=" + t);
+				}
+			}
+		}
+	}
+
+	@Test
+	void constantSeriesIsNaN() {
+		RollingCorrelation correlation = new RollingCorrelation(5);
+		for (int t = 0; t < 20; t++) {
+			assertTrue(Double.isNaN(correlation.push(42.0, t)));
+		}
+	}
+
+	@Test
+	void perfectLinearRelation() {
+		RollingCorrelation positive = new RollingCorrelation(10);
+		RollingCorrelation negative = new RollingCorrelation(10);
+		for (int t = 0; t < 30; t++) {
+			double x = random.nextDouble() * 100;
+			double r1 = positive.push(x, 3 * x + 7);
+			double r2 = negative.push(x, -2 * x);
+			if (t >= 9) {
+				assertEquals(1.0, r1, 1e-9);
+				assertEquals(-1.0, r2, 1e-9);
+			}
+		}
+	}
+
+	@Test
+	void resetStartsNewWindow() {
+		RollingCorrelation correlation = new RollingCorrelation(3);
+		correlation.push(1, 1);
+		correlation.push(2, 2);
+		correlation.push(3, 3);
+		assertEquals(1.0, correlation.current(), 1e-12);
+
+		correlation.reset();
+		assertTrue(Double.isNaN(correlation.current()));
+		correlation.push(1, 3);
+		correlation.push(2, 2);
+		assertTrue(Double.isNaN(correlation.current()));
+		assertEquals(-1.0, correlation.push(3, 1), 1e-12);
+	}
+
+	@Test
+	void rejectsWindowBelowTwo() {
+		assertThrows(IllegalArgumentException.class, () -> new RollingCorrelation(1));
+	}
+
+	/**
+	 * 구간 [from, to) 표본 상관계수 (결측 포함 또는 분산 0 이면 NaN)
+	 */
+	private static double naive(double[] xs, double[] ys, int from, int to) {
+		double meanX = 0;
+		double meanY = 0;
+		for (int t = from; t < to; t++) {
+			if (Double.isNaN(xs[t]) || Double.isNaN(ys[t])) {
+				return Double.NaN;
+			}
+			meanX += xs[t];
+			meanY += ys[t];
+		}
+		meanX /= to - from;
+		meanY /= to - from;
+
+		double covariance = 0;
+		double varianceX = 0;
+		double varianceY = 0;
+		for (int t = from; t < to; t++) {
+			double dx = xs[t] - meanX;
+			double dy = ys[t] - meanY;
+			covariance += dx * dy;
+			varianceX += dx * dx;
+			varianceY += dy * dy;
+		}
+		if (varianceX == 0 || varianceY == 0) {
+			return Double.NaN;
+		}
+		return covariance / Math.sqrt(varianceX * varianceY);
+	}
+}
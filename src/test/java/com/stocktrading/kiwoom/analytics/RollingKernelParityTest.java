@@ -0,0 +1,248 @@
+package com.stocktrading.kiwoom.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SIMD 커널과 스칼라 커널 결과 일치 검증
+ * (--add-modules jdk.incubator.vector 없이 실행되면 스칼라 커널로 대체되므로 두 구현이 같아야 함)
+ */
+class RollingKernelParityTest {
+
+	private static final int ROUNDS = 200;
+
+	private final ScalarRollingKernel scalar = new ScalarRollingKernel();
+	private RollingKernel vector;
+	private Random random;
+
+	@BeforeEach
+	void setUp() {
+		assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+				"jdk.incubator.vector 모듈 없음");
+		vector = new VectorRollingKernel();
+		random = new Random(20240601L);
+	}
+
+	@Test
+	void prefixSums() {
+		for (int round = 0; round < ROUNDS; round++) {
+			long[] values = randomValues(random.nextInt(300));
+			long[] expected = new long[values.length + 1];
+			long[] actual = new long[values.length + 1];
+			scalar.prefixSums(values, expected);
+			vector.prefixSums(values, actual);
+			assertArrayEquals(expected, actual);
+		}
+	}
+
+	@Test
+	void windowAverages() {
+		for (int round = 0; round < ROUNDS; round++) {
+			long[] values = randomValues(random.nextInt(300));
+			long[] prefix = new long[values.length + 1];
+			scalar.prefixSums(values, prefix);
+
+			// 기간 부족(전체 NaN) 및 배열 길이보다 긴 기간 포함
+			for (int window : new int[] {1, 2, 3, 5, 7, 20, 60, 120, values.length, values.length + 3}) {
+				if (window < 1) {
+					continue;
+				}
+				double[] expected = new double[values.length];
+				double[] actual = new double[values.length];
+				scalar.windowAverages(prefix, window, expected);
+				vector.windowAverages(prefix, window, actual);
+				assertArrayEquals(expected, actual, "window=" + window);
+			}
+		}
+	}
+
+	@Test
+	void windowSums() {
+		for (int round = 0; round < ROUNDS; round++) {
+			long[] values = randomValues(random.nextInt(300));
+			long[] prefix = new long[values.length + 1];
+			scalar.prefixSums(values, prefix);
+
+			for (int window : new int[] {1, 2, 5, 20, 120, values.length + 3}) {
+				long[] expected = new long[values.length];
+				long[] actual = new long[values.length];
+				scalar.windowSums(prefix, window, expected);
+				vector.windowSums(prefix, window, actual);
+				assertArrayEquals(expected, actual, "window=" + window);
+			}
+		}
+	}
+
+	@Test
+	void rollingStd() {
+		for (int round = 0; round < ROUNDS; round++) {
+			long[] values = randomValues(random.nextInt(300));
+
+			for (int window : new int[] {2, 3, 5, 20, 60, values.length + 3}) {
+				double[] expected = new double[values.length];
+				double[] actual = new double[values.length];
+				scalar.rollingStd(values, window, expected);
+				vector.rollingStd(values, window, actual);
+				// 같은 누적합과 같은 연산 순서이므로 결과가 같아야 함
+				assertArrayEquals(expected, actual, "window=" + window);
+
+				// 구간마다 두 번 순회하는 표본 표준편차와 비교
+				// (누적합 차이의 분산 오차는 구간이 아니라 전체 제곱합에 비례)
+				double tolerance = 1e-12 * totalSquares(values) / (window - 1);
+				for (int i = 0; i < values.length; i++) {
+					if (i < window - 1) {
+						assertTrue(Double.isNaN(expected[i]));
+						continue;
+					}
+					double naive = naiveStd(values, i + 1 - window, i + 1);
+					assertEquals(naive * naive, expected[i] * expected[i], tolerance + naive * naive * 1e-12,
+						"window=" + window + ", i=" + i);
+				}
+			}
+		}
+	}
+
+	@Test
+	void rollingStdConstantWindowIsZero() {
+		long[] values = new long[40];
+		Arrays.fill(values, 1_234_567_890L);
+		double[] scalarOut = new double[values.length];
+		double[] vectorOut = new double[values.length];
+		scalar.rollingStd(values, 5, scalarOut);
+		vector.rollingStd(values, 5, vectorOut);
+		for (int i = 4; i < values.length; i++) {
+			assertEquals(0.0, scalarOut[i]);
+			assertEquals(0.0, vectorOut[i]);
+		}
+	}
+
+	@Test
+	void rollingRatio() {
+		for (int round = 0; round < ROUNDS; round++) {
+			int n = random.nextInt(300);
+			long[] numerators = randomValues(n);
+			long[] denominators = randomValues(n);
+			long[] numeratorPrefix = new long[n + 1];
+			long[] denominatorPrefix = new long[n + 1];
+			scalar.prefixSums(numerators, numeratorPrefix);
+			scalar.prefixSums(denominators, denominatorPrefix);
+
+			for (int window : new int[] {1, 2, 5, 20, n + 3}) {
+				double[] expected = new double[n];
+				double[] actual = new double[n];
+				scalar.rollingRatio(numeratorPrefix, denominatorPrefix, window, expected);
+				vector.rollingRatio(numeratorPrefix, denominatorPrefix, window, actual);
+				assertArrayEquals(expected, actual, "window=" + window);
+
+				for (int i = window - 1; i < n; i++) {
+					long numerator = 0;
+					long denominator = 0;
+					for (int k = i + 1 - window; k <= i; k++) {
+						numerator += numerators[k];
+						denominator += denominators[k];
+					}
+					assertEquals(denominator == 0 ? Double.NaN : (double) numerator / denominator, expected[i]);
+				}
+			}
+		}
+	}
+
+	@Test
+	void rollingRatioZeroDenominatorIsNaN() {
+		long[] prefix = new long[11];
+		long[] zeros = new long[11];
+		scalar.prefixSums(new long[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, prefix);
+		double[] out = new double[10];
+		vector.rollingRatio(prefix, zeros, 3, out);
+		for (double value : out) {
+			assertTrue(Double.isNaN(value));
+		}
+	}
+
+	@Test
+	void sumAbs() {
+		for (int round = 0; round < ROUNDS; round++) {
+			int n = random.nextInt(300);
+			double[] values = new double[n];
+			for (int i = 0; i < n; i++) {
+				int kind = random.nextInt(10);
+				values[i] = kind == 0 ? Double.NaN : kind == 1 ? 0.0 : (random.nextDouble() - 0.5) * 1e9;
+			}
+			int from = n == 0 ? 0 : random.nextInt(n);
+			int to = from + (n == from ? 0 : random.nextInt(n - from + 1));
+
+			double expected = scalar.sumAbs(values, from, to);
+			double actual = vector.sumAbs(values, from, to);
+			// lane 별 합산 순서가 달라 반올림 오차만 허용
+			assertEquals(expected, actual, Math.max(1e-6, Math.abs(expected) * 1e-12));
+		}
+	}
+
+	@Test
+	void sumAbsAllNaN() {
+		double[] values = new double[37];
+		Arrays.fill(values, Double.NaN);
+		assertEquals(0.0, scalar.sumAbs(values, 0, values.length));
+		assertEquals(0.0, vector.sumAbs(values, 0, values.length));
+	}
+
+	@Test
+	void sumAbsProducts() {
+		for (int round = 0; round < ROUNDS; round++) {
+			int n = random.nextInt(300);
+			long[] prices = randomValues(n);
+			long[] quantities = randomValues(n);
+			int from = n == 0 ? 0 : random.nextInt(n);
+			int to = from + (n == from ? 0 : random.nextInt(n - from + 1));
+			assertEquals(scalar.sumAbsProducts(prices, quantities, from, to),
+					vector.sumAbsProducts(prices, quantities, from, to));
+		}
+	}
+
+	private static double totalSquares(long[] values) {
+		double mean = Arrays.stream(values).average().orElse(0);
+		double squares = 0;
+		for (long value : values) {
+			squares += (value - mean) * (value - mean);
+		}
+		return squares;
+	}
+
+	private static double naiveStd(long[] values, int from, int to) {
+		double mean = 0;
+		for (int k = from; k < to; k++) {
+			mean += values[k];
+		}
+		mean /= to - from;
+		double squares = 0;
+		for (int k = from; k < to; k++) {
+			double d = values[k] - mean;
+			squares += d * d;
+		}
+		return Math.sqrt(squares / (to - from - 1));
+	}
+
+	/**
+	 * 부호 혼합 값, 0 구간(거래 없는 날) 포함
+	 */
+	private long[] randomValues(int n) {
+		long[] values = new long[n];
+		int i = 0;
+		while (i < n) {
+			if (random.nextInt(8) == 0) {
+				i += 1 + random.nextInt(10);
+				continue;
+			}
+			values[i++] = random.nextInt(2_000_001) - 1_000_000L;
+		}
+		return values;
+	}
+}
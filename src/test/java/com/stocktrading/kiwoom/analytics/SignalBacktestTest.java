@@ -0,0 +1,156 @@
+package com.stocktrading.kiwoom.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 신호 백테스트 커널과 거래 단위 재계산 결과 비교
+ */
+class SignalBacktestTest {
+
+	private static final int ROUNDS = 300;
+
+	private final Random random = new Random(20240717L);
+
+	@Test
+	void handComputedTrades() {
+		long[] prices = {100, 100, 110, 120, 0, 90, 100, 130};
+		double[] signal = {0.0, 2.0, 3.0, 0.5, 2.0, 0.0, 2.0, 2.0};
+		SignalBacktest.Stats stats = new SignalBacktest.Stats();
+
+		// 1일 매수(100) → 3일 이탈 매도(120), 4일 가격 없음, 6일 매수(100) → 구간 끝 7일 청산(130)
+		SignalBacktest.run(prices, signal, 0, prices.length, 1.0, 0, 0.01, stats);
+
+		assertEquals(2, stats.trades());
+		assertEquals(1.0, stats.hitRate());
+		assertEquals(((0.2 - 0.01) + (0.3 - 0.01)) / 2, stats.averageReturn(), 1e-12);
+		assertEquals(1.5, stats.averageHoldingDays());
+		assertEquals(Math.log1p(0.19) + Math.log1p(0.29), stats.totalLogReturn(), 1e-12);
+	}
+
+	@Test
+	void matchesTradeByTradeRecompute() {
+		for (int round = 0; round < ROUNDS; round++) {
+			int n = 2 + random.nextInt(200);
+			long[] prices = new long[n];
+			double[] signal = new double[n];
+			for (int t = 0; t < n; t++) {
+				prices[t] = random.nextInt(10) == 0 ? 0 : 1_000 + random.nextInt(500);
+				signal[t] = random.nextInt(15) == 0 ? Double.NaN : random.nextGaussian();
+			}
+			int from = random.nextInt(n / 2 + 1);
+			int to = from + random.nextInt(n - from + 1);
+			double threshold = random.nextGaussian() * 0.5;
+			int holdDays = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(10);
+
+			SignalBacktest.Stats actual = new SignalBacktest.Stats();
+			SignalBacktest.run(prices, signal, from, to, threshold, holdDays, 0.002, actual);
+			List<double[]> trades = naiveTrades(prices, signal, from, to, threshold, holdDays, 0.002);
+			assertStats(trades, actual, "round=" + round);
+		}
+	}
+
+	@Test
+	void mergeEqualsSingleAccumulation() {
+		SignalBacktest.Stats left = new SignalBacktest.Stats();
+		SignalBacktest.Stats right = new SignalBacktest.Stats();
+		SignalBacktest.Stats all = new SignalBacktest.Stats();
+		for (int i = 0; i < 50; i++) {
+			double ret = random.nextGaussian() * 0.05;
+			int days = 1 + random.nextInt(20);
+			(i % 2 == 0 ? left : right).add(ret, days);
+			all.add(ret, days);
+		}
+		left.merge(right);
+
+		assertEquals(all.trades(), left.trades());
+		assertEquals(all.hitRate(), left.hitRate());
+		assertEquals(all.averageReturn(), left.averageReturn(), 1e-12);
+		assertEquals(all.returnStdDev(), left.returnStdDev(), 1e-12);
+		assertEquals(all.averageHoldingDays(), left.averageHoldingDays());
+		assertEquals(all.totalLogReturn(), left.totalLogReturn(), 1e-12);
+	}
+
+	@Test
+	void emptyStatsAreNaN() {
+		SignalBacktest.Stats stats = new SignalBacktest.Stats();
+		assertEquals(0, stats.trades());
+		assertTrue(Double.isNaN(stats.hitRate()));
+		assertTrue(Double.isNaN(stats.averageReturn()));
+		assertTrue(Double.isNaN(stats.returnStdDev()));
+		assertTrue(Double.isNaN(stats.averageHoldingDays()));
+	}
+
+	/**
+	 * 진입 시점마다 청산 시점을 앞으로 찾아 거래 목록 생성 ({수익률, 보유일수})
+	 */
+	private static List<double[]> naiveTrades(long[] prices, double[] signal, int from, int to,
+											  double threshold, int holdDays, double cost) {
+		List<double[]> trades = new ArrayList<>();
+		int t = from + 1;
+		while (t < to) {
+			boolean cross = prices[t] > 0 && signal[t] > threshold && signal[t - 1] <= threshold;
+			if (!cross) {
+				t++;
+				continue;
+			}
+			int entry = t;
+			int exit = -1;
+			for (int e = entry + 1; e < to; e++) {
+				boolean done = holdDays > 0 ? e - entry >= holdDays : !(signal[e] > threshold);
+				if (prices[e] > 0 && done) {
+					exit = e;
+					break;
+				}
+			}
+			if (exit < 0) {
+				// 구간 끝까지 보유: 마지막 가격으로 청산
+				for (int e = to - 1; e > entry; e--) {
+					if (prices[e] > 0) {
+						trades.add(new double[] {(double) prices[e] / prices[entry] - 1.0 - cost, e - entry});
+						break;
+					}
+				}
+				break;
+			}
+			trades.add(new double[] {(double) prices[exit] / prices[entry] - 1.0 - cost, exit - entry});
+			t = exit + 1;
+		}
+		return trades;
+	}
+
+	private static void assertStats(List<double[]> trades, SignalBacktest.Stats actual, String message) {
+		assertEquals(trades.size(), actual.trades(), message);
+		if (trades.isEmpty()) {
+			return;
+		}
+		double wins = 0;
+		double sum = 0;
+		double days = 0;
+		double logSum = 0;
+		for (double[] trade : trades) {
+			wins += trade[0] > 0 ? 1 : 0;
+			sum += trade[0];
+			days += trade[1];
+			logSum += Math.log1p(trade[0]);
+		}
+		double mean = sum / trades.size();
+		assertEquals(wins / trades.size(), actual.hitRate(), 1e-12, message);
+		assertEquals(mean, actual.averageReturn(), 1e-12, message);
+		assertEquals(days / trades.size(), actual.averageHoldingDays(), 1e-12, message);
+		assertEquals(logSum, actual.totalLogReturn(), 1e-9, message);
+		if (trades.size() > 1) {
+			double squares = 0;
+			for (double[] trade : trades) {
+				squares += (trade[0] - mean) * (trade[0] - mean);
+			}
+			assertEquals(Math.sqrt(squares / (trades.size() - 1)), actual.returnStdDev(), 1e-9, message);
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package com.stocktrading.kiwoom.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.stocktrading.kiwoom.domain.model.StockInfo;
+import com.stocktrading.kiwoom.domain.port.out.StockListPort;
+
+/**
+ * 종목 검색 인덱스 검증 (초성, n-gram, 음절/초성 혼합, 종목코드 검색 및 전체 순회 검색과 비교)
+ */
+class StockSearchIndexTest {
+
+	private static final List<StockInfo> STOCKS = List.of(
+			stock("005930", "삼성전자", "KOSPI"),
+			stock("009150", "삼성전기", "KOSPI"),
+			stock("006400", "삼성SDI", "KOSPI"),
+			stock("207940", "삼성바이오로직스", "KOSPI"),
+			stock("000660", "SK하이닉스", "KOSPI"),
+			stock("005380", "현대차", "KOSPI"),
+			stock("035720", "카카오", "KOSPI"),
+			stock("069500", "KODEX 200", "KOSPI"),
+			stock("000250", "삼천당제약", "KOSDAQ"),
+			stock("086520", "에코프로", "KOSDAQ"),
+			stock("068760", "셀트리온제약", "KOSDAQ"),
+			stock("200130", "콜마비앤에이치", "KOSDAQ"));
+
+	private final Random random = new Random(20240719L);
+
+	private StockSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = indexOf(STOCKS);
+	}
+
+	@Test
+	void chosungQuery() {
+		assertEquals(List.of("삼성전자"), names(index.search("ㅅㅅㅈㅈ")));
+		assertEquals(List.of("삼성SDI", "삼성바이오로직스", "삼성전기", "삼성전자"), names(index.search("ㅅㅅ")));
+		assertEquals(List.of("삼천당제약", "셀트리온제약"), names(index.search("ㅈㅇ")));
+		assertEquals(List.of(), names(index.search("ㅎㅎㅎ")));
+	}
+
+	@Test
+	void ngramQuery() {
+		// 1글자, 2글자, 3글자 이상 (여러 n-gram 교집합 후 순서 확인)
+		assertEquals(List.of("삼성바이오로직스", "카카오"), names(index.search("오")));
+		assertEquals(List.of("삼성전기", "삼성전자"), names(index.search("성전")));
+		assertEquals(List.of("삼성바이오로직스"), names(index.search("바이오로직")));
+		assertEquals(List.of("삼천당제약", "셀트리온제약"), names(index.search("제약")));
+		// n-gram 은 모두 있지만 연속되지 않은 경우
+		assertEquals(List.of(), names(index.search("전자기")));
+	}
+
+	@Test
+	void mixedQuery() {
+		assertEquals(List.of("삼성전자"), names(index.search("삼성ㅈㅈ")));
+		assertEquals(List.of("삼성전기"), names(index.search("삼ㅅ전ㄱ")));
+		assertEquals(List.of("삼성전기", "삼성전자"), names(index.search("ㅅ성전")));
+		assertEquals(List.of("SK하이닉스"), names(index.search("skㅎ이")));
+		assertEquals(List.of(), names(index.search("삼성ㅂㅂ")));
+	}
+
+	@Test
+	void codePrefixMergedInRankOrder() {
+		assertEquals(List.of("삼성전자"), names(index.search("0059")));
+		// 종목명 "200" 일치와 종목코드 "200" 앞부분 일치를 순위 순으로 병합
+		assertEquals(List.of("KODEX 200", "콜마비앤에이치"), names(index.search("200")));
+		assertEquals(List.of("KODEX 200", "SK하이닉스", "삼성SDI", "삼성전기", "삼성전자", "카카오", "현대차",
+				"삼천당제약", "셀트리온제약", "에코프로"), names(index.search("0")));
+	}
+
+	@Test
+	void ignoresCaseAndWhitespace() {
+		assertEquals(List.of("SK하이닉스"), names(index.search("Sk 하이")));
+		assertEquals(List.of("삼성전자"), names(index.search(" 삼성 전자 ")));
+		assertEquals(List.of(), index.search("  "));
+	}
+
+	@Test
+	void matchesFullScan() {
+		List<StockInfo> stocks = randomStocks(500);
+		StockSearchIndex randomIndex = indexOf(stocks);
+		List<StockInfo> ranked = new ArrayList<>(stocks);
+		ranked.sort(Comparator.comparingInt((StockInfo stock) -> marketRank(stock.getMarketName()))
+				.thenComparing(StockInfo::getName));
+
+		for (int round = 0; round < 2_000; round++) {
+			String query = randomQuery(stocks.get(random.nextInt(stocks.size())));
+			List<String> expected = ranked.stream()
+					.filter(stock -> scanMatches(stock, StockSearchIndex.normalize(query)))
+					.map(StockInfo::getCode)
+					.toList();
+			List<String> actual = randomIndex.search(query).stream().map(StockInfo::getCode).toList();
+			assertEquals(expected, actual, "query=" + query);
+		}
+	}
+
+	@Test
+	void intersectSortedPostings() {
+		assertArrayEquals(new int[] {3, 9}, StockSearchIndex.intersect(new int[] {1, 3, 9},
+				new int[] {0, 2, 3, 4, 5, 6, 7, 8, 9, 10}));
+		assertArrayEquals(new int[] {}, StockSearchIndex.intersect(new int[] {11, 12},
+				new int[] {0, 2, 3}));
+		assertArrayEquals(new int[] {0, 5}, StockSearchIndex.intersect(new int[] {0, 5},
+				new int[] {0, 5}));
+	}
+
+	/**
+	 * 종목 한 개씩 검사하는 기준 구현
+	 */
+	private static boolean scanMatches(StockInfo stock, String query) {
+		if (query.isEmpty()) {
+			return false;
+		}
+		String name = StockSearchIndex.normalize(stock.getName());
+		String chosung = StockSearchIndex.toChosung(name);
+		boolean hasChosung = query.chars().anyMatch(c -> c >= 'ㄱ' && c <= 'ㅎ');
+		boolean chosungOnly = query.chars().allMatch(c -> c >= 'ㄱ' && c <= 'ㅎ');
+		if (chosungOnly) {
+			return chosung.contains(query);
+		}
+		if (hasChosung) {
+			for (int start = 0; start + query.length() <= name.length(); start++) {
+				boolean match = true;
+				for (int k = 0; k < query.length() && match; k++) {
+					char q = query.charAt(k);
+					match = q >= 'ㄱ' && q <= 'ㅎ' ? chosung.charAt(start + k) == q : name.charAt(start + k) == q;
+				}
+				if (match) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return name.contains(query) || stock.getCode().toLowerCase(Locale.ROOT).startsWith(query);
+	}
+
+	private List<StockInfo> randomStocks(int n) {
+		String syllables = "삼성전자기화학바이오제약에너지솔루션현대차카오엘지";
+		String[] markets = {"KOSPI", "KOSDAQ", "KONEX", "ELW", null};
+		List<StockInfo> stocks = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			StringBuilder name = new StringBuilder();
+			int length = 2 + random.nextInt(5);
+			for (int k = 0; k < length; k++) {
+				name.append(random.nextInt(8) == 0 ? (char) ('A' + random.nextInt(3))
+						: syllables.charAt(random.nextInt(syllables.length())));
+			}
+			stocks.add(stock(String.format("%06d", random.nextInt(1_000_000)), name.toString(),
+					markets[random.nextInt(markets.length)]));
+		}
+		return stocks;
+	}
+
+	/**
+	 * 종목명 부분 문자열 (일부 글자는 초성으로), 초성 문자열, 종목코드 앞부분 중 하나
+	 */
+	private String randomQuery(StockInfo stock) {
+		String name = stock.getName();
+		int from = random.nextInt(name.length());
+		int to = from + 1 + random.nextInt(name.length() - from);
+		String part = name.substring(from, to);
+		return switch (random.nextInt(4)) {
+			case 0 -> part;
+			case 1 -> StockSearchIndex.toChosung(part);
+			case 2 -> {
+				StringBuilder mixed = new StringBuilder();
+				for (char c : part.toCharArray()) {
+					mixed.append(random.nextBoolean() ? StockSearchIndex.toChosung(String.valueOf(c)) : String.valueOf(c));
+				}
+				yield mixed.toString();
+			}
+			default -> stock.getCode().substring(0, 1 + random.nextInt(6));
+		};
+	}
+
+	private static int marketRank(String marketName) {
+		if (marketName == null) {
+			return 5;
+		}
+		return switch (marketName) {
+			case "KOSPI" -> 1;
+			case "KOSDAQ" -> 2;
+			case "KONEX" -> 3;
+			case "ELW" -> 4;
+			default -> 5;
+		};
+	}
+
+	private static List<String> names(List<StockInfo> stocks) {
+		return stocks.stream().map(StockInfo::getName).toList();
+	}
+
+	private static StockInfo stock(String code, String name, String marketName) {
+		return StockInfo.builder().code(code).name(name).marketName(marketName).build();
+	}
+
+	private static StockSearchIndex indexOf(List<StockInfo> stocks) {
+		StockSearchIndex index = new StockSearchIndex(new FixedStockListPort(stocks));
+		index.rebuild();
+		return index;
+	}
+
+	/**
+	 * 전체 조회만 지원하는 종목 저장소
+	 */
+	private record FixedStockListPort(List<StockInfo> stocks) implements StockListPort {
+
+		@Override
+		public List<StockInfo> findAll() {
+			return stocks;
+		}
+
+		@Override
+		public List<StockInfo> searchByName(String keyword) {
+			throw new AssertionError("인덱스 구성 후에는 DB 검색을 사용하지 않아야 함");
+		}
+
+		@Override
+		public int saveAll(List<StockInfo> stocks) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int deleteAll() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Optional<StockInfo> findByCode(String code) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<StockInfo> findByMarketCode(String marketCode) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long count() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long countByMarketCode(String marketCode) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<StockInfo> findAllKospi200Stocks() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}